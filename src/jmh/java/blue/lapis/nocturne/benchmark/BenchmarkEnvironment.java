@@ -0,0 +1,73 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.benchmark;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.jar.io.JarLoader;
+import blue.lapis.nocturne.jar.model.ClassSet;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Sets up a headless Nocturne environment for benchmarks. JavaFX is never
+ * initialized; the {@link Main} instance is created in testing mode, as it is
+ * by the unit tests.
+ */
+public final class BenchmarkEnvironment {
+
+    private BenchmarkEnvironment() {
+    }
+
+    /**
+     * Initializes the headless {@link Main} instance, if it has not been
+     * initialized already.
+     */
+    public static void initialize() {
+        if (Main.getInstance() == null) {
+            new Main(true);
+        }
+    }
+
+    /**
+     * Loads the given JAR and sets it as the loaded JAR.
+     *
+     * @param jar The raw bytes of the JAR
+     * @return The loaded {@link ClassSet}
+     */
+    public static ClassSet loadJar(byte[] jar) {
+        initialize();
+        try {
+            ClassSet classSet = JarLoader.loadJar("benchmark.jar", new ByteArrayInputStream(jar));
+            Main.setLoadedJar(classSet);
+            return classSet;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+}
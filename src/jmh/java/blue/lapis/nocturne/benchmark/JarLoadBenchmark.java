@@ -0,0 +1,157 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.benchmark;
+
+import static blue.lapis.nocturne.processor.index.model.IndexedClass.INDEXED_CLASSES;
+
+import blue.lapis.nocturne.jar.io.JarLoader;
+import blue.lapis.nocturne.jar.model.ClassSet;
+import blue.lapis.nocturne.jar.model.JarClassEntry;
+import blue.lapis.nocturne.processor.index.ClassHierarchyBuilder;
+import blue.lapis.nocturne.processor.index.ClassIndexer;
+import blue.lapis.nocturne.processor.index.model.IndexedClass;
+import blue.lapis.nocturne.processor.transform.ClassTransformer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the JAR load pipeline as a whole and each of its phases in
+ * isolation, against synthetic JARs of several sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JarLoadBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int classCount;
+
+    private byte[] jar;
+    private final List<JarClassEntry> entries = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        jar = SyntheticJarGenerator.generateJar(classCount);
+        ClassSet classSet = BenchmarkEnvironment.loadJar(jar);
+
+        // the loaded entries have already been transformed, so index fresh copies of the original bytes
+        List<String> names = SyntheticJarGenerator.generateClassNames(classCount);
+        for (int i = 0; i < classCount; i++) {
+            entries.add(new JarClassEntry(names.get(i), SyntheticJarGenerator.generateClass(names, i)));
+        }
+        assert classSet.getClasses().size() == entries.size();
+
+        INDEXED_CLASSES.clear();
+        entries.forEach(JarClassEntry::index);
+        new ClassHierarchyBuilder(new HashSet<>(INDEXED_CLASSES.values())).buildHierarchies();
+    }
+
+    @Benchmark
+    public ClassSet loadJar(LoadState state) throws IOException {
+        return JarLoader.loadJar("benchmark.jar", new ByteArrayInputStream(jar));
+    }
+
+    @Benchmark
+    public void indexClasses(Blackhole blackhole) {
+        for (JarClassEntry entry : entries) {
+            blackhole.consume(new ClassIndexer(entry).index());
+        }
+    }
+
+    @Benchmark
+    public void buildHierarchies(HierarchyState state) {
+        new ClassHierarchyBuilder(state.classes).buildHierarchies();
+    }
+
+    @Benchmark
+    public void transformClasses(Blackhole blackhole) throws IOException {
+        for (JarClassEntry entry : entries) {
+            blackhole.consume(new ClassTransformer(entry.getName(), entry.getContent()).process());
+        }
+    }
+
+    /**
+     * Restores the indexed classes after each invocation of {@link #loadJar},
+     * outside of the measured time, since loading replaces them with those of
+     * the transformed classes.
+     */
+    @State(Scope.Thread)
+    public static class LoadState {
+
+        @TearDown(Level.Invocation)
+        public void tearDown(JarLoadBenchmark benchmark) {
+            // restore the indexed classes with their pools intact for the transform benchmark
+            INDEXED_CLASSES.clear();
+            benchmark.entries.forEach(JarClassEntry::index);
+            new ClassHierarchyBuilder(new HashSet<>(INDEXED_CLASSES.values())).buildHierarchies();
+        }
+
+    }
+
+    /**
+     * Provides freshly indexed classes to each invocation of
+     * {@link #buildHierarchies}, since hierarchies may only be built once.
+     */
+    @State(Scope.Thread)
+    public static class HierarchyState {
+
+        Set<IndexedClass> classes;
+
+        @Setup(Level.Invocation)
+        public void setUp(JarLoadBenchmark benchmark) {
+            classes = new HashSet<>();
+            for (JarClassEntry entry : benchmark.entries) {
+                classes.add(new ClassIndexer(entry).index());
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.benchmark;
+
+import blue.lapis.nocturne.mapping.MappingContext;
+import blue.lapis.nocturne.mapping.io.reader.EnigmaReader;
+import blue.lapis.nocturne.mapping.io.reader.JamReader;
+import blue.lapis.nocturne.mapping.io.reader.MappingsReader;
+import blue.lapis.nocturne.mapping.io.reader.SrgReader;
+import blue.lapis.nocturne.mapping.io.writer.EnigmaWriter;
+import blue.lapis.nocturne.mapping.io.writer.JamWriter;
+import blue.lapis.nocturne.mapping.io.writer.MappingsWriter;
+import blue.lapis.nocturne.mapping.io.writer.SrgWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Benchmarks reading and writing each supported mapping format. Each class of
+ * the synthetic JAR carries {@link SyntheticMappingsGenerator#MAPPINGS_PER_CLASS}
+ * mappings, so the largest size covers one million mappings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MappingsIoBenchmark {
+
+    /**
+     * The mapping formats under test. {@code MappingFormat} is not used
+     * directly, as it requires the GUI resource bundle.
+     */
+    public enum Format {
+
+        SRG(SrgReader::new, SrgWriter::new),
+        JAM(JamReader::new, JamWriter::new),
+        ENIGMA(EnigmaReader::new, EnigmaWriter::new);
+
+        private final Function<BufferedReader, MappingsReader> readerConstructor;
+        private final Function<PrintWriter, MappingsWriter> writerConstructor;
+
+        Format(Function<BufferedReader, MappingsReader> readerConstructor,
+                Function<PrintWriter, MappingsWriter> writerConstructor) {
+            this.readerConstructor = readerConstructor;
+            this.writerConstructor = writerConstructor;
+        }
+
+    }
+
+    @Param({"1000", "10000", "100000"})
+    public int classCount;
+
+    @Param({"SRG", "JAM", "ENIGMA"})
+    public Format format;
+
+    private MappingContext mappings;
+    private String serialized;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkEnvironment.loadJar(SyntheticJarGenerator.generateJar(classCount));
+        String srg = SyntheticMappingsGenerator.generateSrg(classCount);
+        mappings = new SrgReader(new BufferedReader(new StringReader(srg))).read();
+        serialized = write(format);
+    }
+
+    @Benchmark
+    public MappingContext read() {
+        return format.readerConstructor.apply(new BufferedReader(new StringReader(serialized))).read();
+    }
+
+    @Benchmark
+    public String write() {
+        return write(format);
+    }
+
+    private String write(Format format) {
+        StringWriter out = new StringWriter();
+        format.writerConstructor.apply(new PrintWriter(out)).write(mappings);
+        return out.toString();
+    }
+
+}
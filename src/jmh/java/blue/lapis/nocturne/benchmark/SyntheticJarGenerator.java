@@ -0,0 +1,340 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * Generates JARs of synthetic, obfuscated-looking class files for benchmarks.
+ *
+ * <p>Every fourth class extends {@link Object}, and each other class extends
+ * the class before it, forming short override chains. Each class declares
+ * {@link #FIELDS_PER_CLASS} fields and {@link #METHODS_PER_CLASS} methods
+ * besides its constructor, and each method body references a field, a method
+ * and another class so that every reference type is exercised.</p>
+ */
+public final class SyntheticJarGenerator {
+
+    public static final int FIELDS_PER_CLASS = 4;
+    public static final int METHODS_PER_CLASS = 5;
+
+    static final String[] FIELD_TYPES = {"I", null, "[I", "Ljava/lang/String;"};
+    static final String[] METHOD_DESCRIPTORS = {"()V", "(I)V", "(I)V", "(J)V", "(Ljava/lang/Object;)V"};
+
+    private static final String OBJECT = "java/lang/Object";
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList("do", "if", "for", "int", "new", "try"));
+    private static final char[] FIRST_CHARS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+    private static final char[] NEXT_CHARS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789"
+            .toCharArray();
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_SUPER = 0x0020;
+
+    private SyntheticJarGenerator() {
+    }
+
+    /**
+     * Generates a list of distinct short class names which do not trip the
+     * deobfuscation heuristics in {@code StringHelper}.
+     *
+     * @param count The number of names to generate
+     * @return The generated names
+     */
+    public static List<String> generateClassNames(int count) {
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; names.size() < count; i++) {
+            String name = toName(i);
+            if (!KEYWORDS.contains(name)
+                    && !(name.length() == 3 && Character.isUpperCase(name.charAt(0))
+                    && Character.isLowerCase(name.charAt(1)) && Character.isLowerCase(name.charAt(2)))) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Returns the obfuscated name of the member at the given index.
+     *
+     * @param index The index of the member within its class
+     * @return The obfuscated name
+     */
+    public static String memberName(int index) {
+        return String.valueOf((char) ('a' + index));
+    }
+
+    /**
+     * Returns the name of the superclass of the class at the given index.
+     *
+     * @param names The names of all generated classes
+     * @param index The index of the class
+     * @return The name of the superclass
+     */
+    public static String superclassName(List<String> names, int index) {
+        return index % 4 == 0 ? OBJECT : names.get(index - 1);
+    }
+
+    /**
+     * Returns the descriptor of the field at the given index of the class at
+     * the given index.
+     *
+     * @param names      The names of all generated classes
+     * @param classIndex The index of the class
+     * @param fieldIndex The index of the field
+     * @return The field descriptor
+     */
+    public static String fieldType(List<String> names, int classIndex, int fieldIndex) {
+        String type = FIELD_TYPES[fieldIndex];
+        return type != null ? type : "L" + names.get((classIndex + 1) % names.size()) + ";";
+    }
+
+    /**
+     * Generates a JAR containing the given number of synthetic classes.
+     *
+     * @param classCount The number of classes to generate
+     * @return The raw bytes of the JAR
+     */
+    public static byte[] generateJar(int classCount) {
+        List<String> names = generateClassNames(classCount);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(classCount * 512);
+        try (JarOutputStream jar = new JarOutputStream(out)) {
+            for (int i = 0; i < classCount; i++) {
+                jar.putNextEntry(new ZipEntry(names.get(i) + ".class"));
+                jar.write(generateClass(names, i));
+                jar.closeEntry();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Generates the class file for the class at the given index.
+     *
+     * @param names The names of all generated classes
+     * @param index The index of the class to generate
+     * @return The raw bytes of the class file
+     */
+    public static byte[] generateClass(List<String> names, int index) {
+        String name = names.get(index);
+        String superName = superclassName(names, index);
+        String other = names.get((index + 7) % names.size());
+
+        ConstantPoolBuilder pool = new ConstantPoolBuilder();
+        int thisClass = pool.classRef(name);
+        int superClass = pool.classRef(superName);
+        int code = pool.utf8("Code");
+
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(body);
+            out.writeShort(ACC_PUBLIC | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0); // interfaces
+
+            out.writeShort(FIELDS_PER_CLASS);
+            for (int i = 0; i < FIELDS_PER_CLASS; i++) {
+                out.writeShort(ACC_PUBLIC);
+                out.writeShort(pool.utf8(memberName(i)));
+                out.writeShort(pool.utf8(fieldType(names, index, i)));
+                out.writeShort(0); // attributes
+            }
+
+            out.writeShort(METHODS_PER_CLASS + 1);
+            writeMethod(out, pool, code, "<init>", "()V", new byte[]{
+                    0x2A, // aload_0
+                    (byte) 0xB7, 0, 0, // invokespecial super.<init>
+                    (byte) 0xB1, // return
+            }, pool.methodRef(superName, "<init>", "()V"));
+            int fieldRef = pool.fieldRef(name, memberName(0), FIELD_TYPES[0]);
+            int methodRef = pool.methodRef(name, memberName(0), METHOD_DESCRIPTORS[0]);
+            int otherRef = pool.classRef(other);
+            for (int i = 0; i < METHODS_PER_CLASS; i++) {
+                writeMethod(out, pool, code, memberName(i), METHOD_DESCRIPTORS[i], new byte[]{
+                        0x2A, // aload_0
+                        (byte) 0xB4, 0, 0, // getfield this.a
+                        0x57, // pop
+                        0x2A, // aload_0
+                        (byte) 0xB6, 0, 0, // invokevirtual this.a()
+                        0x2A, // aload_0
+                        (byte) 0xC0, 0, 0, // checkcast other
+                        0x57, // pop
+                        (byte) 0xB1, // return
+                }, fieldRef, methodRef, otherRef);
+            }
+
+            out.writeShort(0); // class attributes
+
+            ByteArrayOutputStream result = new ByteArrayOutputStream(body.size() + pool.length() + 10);
+            DataOutputStream header = new DataOutputStream(result);
+            header.writeInt(0xCAFEBABE);
+            header.writeShort(0); // minor version
+            header.writeShort(52); // major version (Java 8)
+            pool.writeTo(header);
+            body.writeTo(result);
+            return result.toByteArray();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Writes a method whose code is the given instructions, patching the
+     * given constant pool indices into each 2-byte operand slot in order.
+     */
+    private static void writeMethod(DataOutputStream out, ConstantPoolBuilder pool, int codeAttr, String name,
+            String desc, byte[] code, int... operands) throws IOException {
+        int slot = 0;
+        for (int i = 0; i < code.length && slot < operands.length; i++) {
+            int opcode = code[i] & 0xFF;
+            if (opcode == 0xB4 || opcode == 0xB6 || opcode == 0xB7 || opcode == 0xC0) {
+                code[i + 1] = (byte) (operands[slot] >> 8);
+                code[i + 2] = (byte) operands[slot++];
+                i += 2;
+            }
+        }
+
+        out.writeShort(ACC_PUBLIC);
+        out.writeShort(pool.utf8(name));
+        out.writeShort(pool.utf8(desc));
+        out.writeShort(1); // attributes
+        out.writeShort(codeAttr);
+        out.writeInt(12 + code.length);
+        out.writeShort(2); // max_stack
+        out.writeShort(3); // max_locals
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0); // exception table
+        out.writeShort(0); // code attributes
+    }
+
+    private static String toName(int index) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(FIRST_CHARS[index % FIRST_CHARS.length]);
+        index /= FIRST_CHARS.length;
+        while (index > 0) {
+            index--;
+            sb.append(NEXT_CHARS[index % NEXT_CHARS.length]);
+            index /= NEXT_CHARS.length;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Builds a deduplicated constant pool.
+     */
+    private static class ConstantPoolBuilder {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> entries = new HashMap<>();
+        private int count = 1;
+
+        int utf8(String value) {
+            return entry("U" + value, () -> {
+                out.writeByte(1);
+                out.writeUTF(value);
+            });
+        }
+
+        int classRef(String name) {
+            int nameIndex = utf8(name);
+            return entry("C" + name, () -> {
+                out.writeByte(7);
+                out.writeShort(nameIndex);
+            });
+        }
+
+        int fieldRef(String owner, String name, String desc) {
+            return ref(9, owner, name, desc);
+        }
+
+        int methodRef(String owner, String name, String desc) {
+            return ref(10, owner, name, desc);
+        }
+
+        private int ref(int tag, String owner, String name, String desc) {
+            int classIndex = classRef(owner);
+            int nameIndex = utf8(name);
+            int descIndex = utf8(desc);
+            int natIndex = entry("N" + name + " " + desc, () -> {
+                out.writeByte(12);
+                out.writeShort(nameIndex);
+                out.writeShort(descIndex);
+            });
+            return entry(tag + owner + "." + name + desc, () -> {
+                out.writeByte(tag);
+                out.writeShort(classIndex);
+                out.writeShort(natIndex);
+            });
+        }
+
+        private int entry(String key, EntryWriter writer) {
+            Integer index = entries.get(key);
+            if (index != null) {
+                return index;
+            }
+            try {
+                writer.write();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            entries.put(key, count);
+            return count++;
+        }
+
+        int length() {
+            return bytes.size();
+        }
+
+        void writeTo(DataOutputStream header) throws IOException {
+            header.writeShort(count);
+            bytes.writeTo(header);
+        }
+
+        private interface EntryWriter {
+
+            void write() throws IOException;
+
+        }
+
+    }
+
+}
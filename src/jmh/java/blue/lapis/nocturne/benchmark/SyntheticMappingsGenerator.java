@@ -0,0 +1,83 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.benchmark;
+
+import static blue.lapis.nocturne.benchmark.SyntheticJarGenerator.FIELDS_PER_CLASS;
+import static blue.lapis.nocturne.benchmark.SyntheticJarGenerator.METHODS_PER_CLASS;
+import static blue.lapis.nocturne.benchmark.SyntheticJarGenerator.METHOD_DESCRIPTORS;
+import static blue.lapis.nocturne.benchmark.SyntheticJarGenerator.memberName;
+
+import java.util.List;
+
+/**
+ * Generates SRG mappings covering every class and member of a JAR produced by
+ * {@link SyntheticJarGenerator}.
+ */
+public final class SyntheticMappingsGenerator {
+
+    /**
+     * The number of mappings generated for each class: one for the class
+     * itself and one for each of its fields and methods.
+     */
+    public static final int MAPPINGS_PER_CLASS = 1 + FIELDS_PER_CLASS + METHODS_PER_CLASS;
+
+    private SyntheticMappingsGenerator() {
+    }
+
+    /**
+     * Generates SRG mappings for a synthetic JAR of the given size.
+     *
+     * @param classCount The number of classes in the JAR
+     * @return The mappings, in SRG format
+     */
+    public static String generateSrg(int classCount) {
+        List<String> names = SyntheticJarGenerator.generateClassNames(classCount);
+        StringBuilder sb = new StringBuilder(classCount * MAPPINGS_PER_CLASS * 64);
+        for (int i = 0; i < classCount; i++) {
+            sb.append("CL: ").append(names.get(i)).append(' ').append(deobfuscatedName(i)).append('\n');
+        }
+        for (int i = 0; i < classCount; i++) {
+            for (int j = 0; j < FIELDS_PER_CLASS; j++) {
+                sb.append("FD: ").append(names.get(i)).append('/').append(memberName(j)).append(' ')
+                        .append(deobfuscatedName(i)).append("/field").append(j).append('\n');
+            }
+        }
+        for (int i = 0; i < classCount; i++) {
+            for (int j = 0; j < METHODS_PER_CLASS; j++) {
+                sb.append("MD: ").append(names.get(i)).append('/').append(memberName(j)).append(' ')
+                        .append(METHOD_DESCRIPTORS[j]).append(' ')
+                        .append(deobfuscatedName(i)).append("/method").append(j).append(' ')
+                        .append(METHOD_DESCRIPTORS[j]).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String deobfuscatedName(int index) {
+        return "com/example/p" + index / 1000 + "/Class" + index;
+    }
+
+}
@@ -30,6 +30,7 @@ import blue.lapis.nocturne.gui.scene.control.WebLink;
 import blue.lapis.nocturne.jar.model.ClassSet;
 import blue.lapis.nocturne.mapping.MappingContext;
 import blue.lapis.nocturne.mapping.MappingFormat;
+import blue.lapis.nocturne.mapping.history.MappingHistory;
 import blue.lapis.nocturne.util.helper.PropertiesHelper;
 import blue.lapis.nocturne.util.helper.SceneHelper;
 
@@ -68,6 +69,8 @@ public class Main extends Application {
         try {
             if (MappingsSaveDialogHelper.doDirtyConfirmation()) {
                 event.consume();
+            } else {
+                getMappingContext().setJournal(null);
             }
         } catch (IOException ex) {
             throw new RuntimeException(ex);
@@ -107,6 +110,7 @@ public class Main extends Application {
     public Main(boolean testingEnv) {
         super();
         instance = this;
+        mappingContext.setHistory(new MappingHistory());
         if (!testingEnv) {
             initialize();
         }
@@ -0,0 +1,139 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.decompile;
+
+import static blue.lapis.nocturne.util.Constants.CLASS_PATH_SEPARATOR_CHAR;
+import static blue.lapis.nocturne.util.Constants.Processing.MEMBER_REGEX;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.processor.disassemble.ClassDisassembler;
+import blue.lapis.nocturne.util.MemberType;
+import blue.lapis.nocturne.util.helper.StringHelper;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+
+/**
+ * Static utility class for showing bytecode listings in place of methods
+ * which the decompiler gave up on.
+ */
+public final class BytecodeFallback {
+
+    /**
+     * The comment FernFlower writes in place of the body of a method it
+     * failed to decompile, including one which overran its time budget.
+     */
+    private static final String FAILED_METHOD_COMMENT = "// $FF: Couldn't be decompiled";
+
+    private BytecodeFallback() {
+    }
+
+    /**
+     * Adds a bytecode listing beneath each method body in the given decompiler
+     * output which FernFlower failed to decompile.
+     *
+     * @param source The output of the decompiler
+     * @return The output with the listings added
+     */
+    public static String addListings(String source) {
+        int index = source.indexOf(FAILED_METHOD_COMMENT);
+        if (index == -1) {
+            return source;
+        }
+
+        Map<String, Optional<ClassDisassembler>> disassemblers = new HashMap<>();
+        StringBuilder sb = new StringBuilder(source.length());
+        int copied = 0;
+        while (index != -1) {
+            int lineStart = source.lastIndexOf('\n', index) + 1;
+            int lineEnd = source.indexOf('\n', index) + 1;
+            if (lineEnd == 0) {
+                lineEnd = source.length();
+            }
+            String indent = source.substring(lineStart, index);
+            String separator = lineEnd >= 2 && source.charAt(lineEnd - 2) == '\r' ? "\r\n" : "\n";
+
+            sb.append(source, copied, lineEnd);
+            copied = lineEnd;
+
+            // the declaration of the method is on the preceding line
+            String declaration = lineStart == 0 ? "" : source.substring(source.lastIndexOf('\n', lineStart - 2) + 1,
+                    lineStart);
+            Matcher matcher = MEMBER_REGEX.matcher(declaration);
+            if (matcher.find() && matcher.group(1).equals(MemberType.METHOD.name())) {
+                String qualName = matcher.group(2);
+                int separatorIndex = qualName.lastIndexOf(CLASS_PATH_SEPARATOR_CHAR);
+                String owner = qualName.substring(0, separatorIndex);
+                Optional<List<String>> listing = disassemblers
+                        .computeIfAbsent(owner, BytecodeFallback::getDisassembler)
+                        .flatMap(disassembler -> listMethod(disassembler, owner,
+                                qualName.substring(separatorIndex + 1), matcher.group(3)));
+                if (listing.isPresent()) {
+                    if (lineEnd == source.length() && !source.endsWith("\n")) {
+                        sb.append(separator);
+                    }
+                    for (String line : listing.get()) {
+                        sb.append(indent).append("// ").append(line).append(separator);
+                    }
+                }
+            }
+
+            index = source.indexOf(FAILED_METHOD_COMMENT, lineEnd);
+        }
+        sb.append(source, copied, source.length());
+        return sb.toString();
+    }
+
+    /**
+     * Lists the code of the given method, as it appears in the processed
+     * class.
+     *
+     * @param disassembler The disassembler for the processed class
+     * @param className    The name of the class
+     * @param name         The original name of the method
+     * @param descriptor   The original descriptor of the method
+     * @return The lines of the listing, or {@link Optional#empty()} if the
+     *     method could not be found or has no code
+     */
+    public static Optional<List<String>> listMethod(ClassDisassembler disassembler, String className, String name,
+            String descriptor) {
+        String procDesc = StringHelper.getProcessedDescriptor(MemberType.METHOD, descriptor);
+        Optional<List<String>> listing = disassembler.disassembleMethod(StringHelper.getProcessedName(
+                className + CLASS_PATH_SEPARATOR_CHAR + name, descriptor, MemberType.METHOD
+        ), procDesc);
+        // constructors, initializers and synthetic methods keep their names
+        return listing.isPresent() ? listing : disassembler.disassembleMethod(name, procDesc);
+    }
+
+    private static Optional<ClassDisassembler> getDisassembler(String className) {
+        return Main.getLoadedJar().getClass(className)
+                .map(entry -> new ClassDisassembler(className, entry.getContent()));
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.decompile;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.util.helper.PropertiesHelper;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Static utility class for limiting the time spent decompiling.
+ *
+ * <p>Budgets are given in seconds by the global properties, where 0 means no
+ * limit.</p>
+ */
+public final class DecompileBudget {
+
+    private static final int DEFAULT_METHOD_BUDGET = 15;
+    private static final int DEFAULT_CLASS_BUDGET = 60;
+
+    private DecompileBudget() {
+    }
+
+    /**
+     * Returns the number of seconds the decompiler may spend on a single
+     * method before giving up on it.
+     *
+     * @return The method budget in seconds
+     */
+    public static int getMethodBudget() {
+        return getBudget(PropertiesHelper.Key.DECOMPILE_METHOD_BUDGET, DEFAULT_METHOD_BUDGET);
+    }
+
+    /**
+     * Returns the number of seconds the decompiler may spend on a whole class
+     * before it is stopped.
+     *
+     * @return The class budget in seconds
+     */
+    public static int getClassBudget() {
+        return getBudget(PropertiesHelper.Key.DECOMPILE_CLASS_BUDGET, DEFAULT_CLASS_BUDGET);
+    }
+
+    private static int getBudget(PropertiesHelper.Key key, int defaultBudget) {
+        PropertiesHelper properties = Main.getInstance() != null ? Main.getPropertiesHelper() : null;
+        if (properties == null) {
+            return defaultBudget;
+        }
+        String value = properties.getProperty(key);
+        try {
+            return Math.max(0, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException ex) {
+            Main.getLogger().warning("Invalid " + key.getKey() + " " + value + " - using " + defaultBudget);
+            return defaultBudget;
+        }
+    }
+
+    /**
+     * Runs the given task on a watchdog thread, stopping it if it does not
+     * finish within the given budget.
+     *
+     * <p>FernFlower never checks for interruption, so the thread is stopped
+     * outright, just as FernFlower itself does with methods which overrun
+     * their budget. Java 20 and later no longer support stopping threads, in
+     * which case the budget cannot be enforced: the overrunning thread is
+     * left running as a daemon, and the task is still reported as having
+     * overrun its budget.</p>
+     *
+     * @param name    The name of the watchdog thread
+     * @param task    The task to run
+     * @param seconds The budget in seconds, or 0 for no limit
+     * @param <T>     The type of the result
+     * @return The result of the task, or {@link Optional#empty()} if it
+     *     overran its budget
+     */
+    public static <T> Optional<T> runWithin(String name, Callable<T> task, int seconds) {
+        FutureTask<T> future = new FutureTask<>(task);
+        Thread thread = null;
+        if (seconds == 0) {
+            future.run();
+        } else {
+            thread = new Thread(future, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        try {
+            return Optional.of(seconds == 0 ? future.get() : future.get(seconds, TimeUnit.SECONDS));
+        } catch (TimeoutException ex) {
+            stop(thread);
+            return Optional.empty();
+        } catch (InterruptedException ex) {
+            if (thread != null) {
+                stop(thread);
+            }
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            } else if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw new RuntimeException(ex.getCause());
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static void stop(Thread thread) {
+        try {
+            thread.stop();
+        } catch (UnsupportedOperationException ex) {
+            thread.interrupt();
+            Main.getLogger().warning("Unable to stop " + thread.getName() + " on this Java version - "
+                    + "it will keep running in the background until it finishes");
+        }
+    }
+
+}
@@ -0,0 +1,230 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.decompile;
+
+import static blue.lapis.nocturne.util.Constants.CLASS_PATH_SEPARATOR_CHAR;
+import static blue.lapis.nocturne.util.Constants.INNER_CLASS_SEPARATOR_CHAR;
+import static blue.lapis.nocturne.util.Constants.Processing.CLASS_PREFIX;
+import static blue.lapis.nocturne.util.Constants.Processing.CLASS_SUFFIX;
+import static blue.lapis.nocturne.util.Constants.Processing.DELIMITER;
+import static blue.lapis.nocturne.util.Constants.Processing.MEMBER_PREFIX;
+import static blue.lapis.nocturne.util.Constants.Processing.MEMBER_SUFFIX;
+
+import blue.lapis.nocturne.gui.scene.text.SelectableMember;
+import blue.lapis.nocturne.util.MemberType;
+import blue.lapis.nocturne.util.helper.StringHelper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents the source of a decompiled class as clean text, alongside the
+ * spans within it which identify classes and members.
+ *
+ * <p>The decompiler still prints the processed names which
+ * {@link blue.lapis.nocturne.util.helper.StringHelper#getProcessedName} puts
+ * into the constant pool, kept intact by the FernFlower patches under
+ * {@code patches/}. They are stripped from its output in a single pass when
+ * the class is decompiled, so rendering the source never needs to search it
+ * for them. Reporting the spans from FernFlower itself would take a further
+ * patch to its text output, which would let the processed names go
+ * altogether.</p>
+ */
+public final class DecompiledSource {
+
+    private final String text;
+    private final List<IdentifierSpan> spans;
+
+    private DecompiledSource(String text, List<IdentifierSpan> spans) {
+        this.text = text;
+        this.spans = Collections.unmodifiableList(spans);
+    }
+
+    /**
+     * Splits the given decompiler output into clean text and identifier
+     * spans.
+     *
+     * <p>Each processed name is replaced by its simple name, which the
+     * corresponding span covers.</p>
+     *
+     * @param output The output of the decompiler
+     * @return The parsed {@link DecompiledSource}
+     */
+    public static DecompiledSource parse(String output) {
+        StringBuilder text = new StringBuilder(output.length());
+        List<IdentifierSpan> spans = new ArrayList<>();
+
+        int copied = 0;
+        int classIndex = output.indexOf(CLASS_PREFIX);
+        int memberIndex = output.indexOf(MEMBER_PREFIX);
+        while (classIndex != -1 || memberIndex != -1) {
+            boolean clazz = memberIndex == -1 || (classIndex != -1 && classIndex < memberIndex);
+            int start = clazz ? classIndex : memberIndex;
+            int end = clazz ? parseClass(output, start, spans, text, copied)
+                    : parseMember(output, start, spans, text, copied);
+            if (end == -1) {
+                // not actually a processed name, so skip past the prefix
+                end = start + (clazz ? CLASS_PREFIX : MEMBER_PREFIX).length();
+                text.append(output, copied, end);
+            }
+            copied = end;
+
+            if (classIndex != -1 && classIndex < end) {
+                classIndex = output.indexOf(CLASS_PREFIX, end);
+            }
+            if (memberIndex != -1 && memberIndex < end) {
+                memberIndex = output.indexOf(MEMBER_PREFIX, end);
+            }
+        }
+        text.append(output, copied, output.length());
+
+        return new DecompiledSource(text.toString(), spans);
+    }
+
+    // class format is &NOCTURNE+name&
+    private static int parseClass(String output, int start, List<IdentifierSpan> spans, StringBuilder text,
+            int copied) {
+        int nameStart = start + CLASS_PREFIX.length();
+        int end = findTerminator(output, nameStart, CLASS_SUFFIX);
+        if (end == -1) {
+            return -1;
+        }
+
+        String qualName = output.substring(nameStart, end);
+        MemberType type = qualName.indexOf(INNER_CLASS_SEPARATOR_CHAR) != -1
+                ? MemberType.INNER_CLASS
+                : MemberType.CLASS;
+        addSpan(new SelectableMember.MemberKey(type, qualName, null), output, start, spans, text, copied);
+        return end + CLASS_SUFFIX.length();
+    }
+
+    // member format is %NOCTURNE+TYPE-name-descriptor%
+    private static int parseMember(String output, int start, List<IdentifierSpan> spans, StringBuilder text,
+            int copied) {
+        int typeStart = start + MEMBER_PREFIX.length();
+        int nameStart = findTerminator(output, typeStart, DELIMITER) + DELIMITER.length();
+        if (nameStart < DELIMITER.length()) {
+            return -1;
+        }
+        int descStart = findTerminator(output, nameStart, DELIMITER) + DELIMITER.length();
+        if (descStart < DELIMITER.length()) {
+            return -1;
+        }
+        int end = findTerminator(output, descStart, MEMBER_SUFFIX);
+        if (end == -1) {
+            return -1;
+        }
+
+        MemberType type;
+        try {
+            type = MemberType.valueOf(output.substring(typeStart, nameStart - DELIMITER.length()));
+        } catch (IllegalArgumentException ex) {
+            return -1;
+        }
+        String qualName = output.substring(nameStart, descStart - DELIMITER.length());
+        String descriptor = output.substring(descStart, end);
+        addSpan(new SelectableMember.MemberKey(type, qualName, descriptor), output, start, spans, text, copied);
+        return end + MEMBER_SUFFIX.length();
+    }
+
+    // finds the terminator of a non-empty component on the same line
+    private static int findTerminator(String output, int from, String terminator) {
+        int index = output.indexOf(terminator, from + 1);
+        if (index == -1) {
+            return -1;
+        }
+        int newline = output.indexOf('\n', from);
+        return newline != -1 && newline < index ? -1 : index;
+    }
+
+    private static void addSpan(SelectableMember.MemberKey key, String output, int start, List<IdentifierSpan> spans,
+            StringBuilder text, int copied) {
+        text.append(output, copied, start);
+        String qualName = key.getQualifiedName();
+        // member names may contain the inner class separator (e.g. this$0)
+        String name = key.getType() == MemberType.CLASS || key.getType() == MemberType.INNER_CLASS
+                ? StringHelper.unqualify(qualName)
+                : qualName.substring(qualName.lastIndexOf(CLASS_PATH_SEPARATOR_CHAR) + 1);
+        spans.add(new IdentifierSpan(text.length(), name.length(), key));
+        text.append(name);
+    }
+
+    /**
+     * Returns the clean source text, with each processed name replaced by its
+     * simple name.
+     *
+     * @return The clean source text
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Returns the identifier spans within the source text, in order of their
+     * offsets.
+     *
+     * @return The identifier spans within the source text
+     */
+    public List<IdentifierSpan> getSpans() {
+        return spans;
+    }
+
+    /**
+     * Represents the location of a class or member identifier within the
+     * text of a {@link DecompiledSource}.
+     */
+    public static final class IdentifierSpan {
+
+        private final int offset;
+        private final int length;
+        private final SelectableMember.MemberKey key;
+
+        public IdentifierSpan(int offset, int length, SelectableMember.MemberKey key) {
+            this.offset = offset;
+            this.length = length;
+            this.key = key;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public int getEnd() {
+            return offset + length;
+        }
+
+        public SelectableMember.MemberKey getKey() {
+            return key;
+        }
+
+    }
+
+}
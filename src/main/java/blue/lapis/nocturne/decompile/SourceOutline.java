@@ -0,0 +1,220 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.decompile;
+
+import static blue.lapis.nocturne.util.Constants.CLASS_PATH_SEPARATOR_CHAR;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.processor.disassemble.ClassDisassembler;
+import blue.lapis.nocturne.processor.index.model.IndexedClass;
+import blue.lapis.nocturne.processor.index.model.IndexedField;
+import blue.lapis.nocturne.processor.index.model.IndexedMethod;
+import blue.lapis.nocturne.util.MemberType;
+import blue.lapis.nocturne.util.helper.StringHelper;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Static utility class for outlining classes from their indexed members,
+ * which is shown while the class is being decompiled, or in place of the
+ * decompiled source if the decompiler overruns its budget.
+ */
+public final class SourceOutline {
+
+    private static final String OBJECT_CLASS = "java/lang/Object";
+    private static final String CONSTRUCTOR_NAME = "<init>";
+    private static final String INITIALIZER_NAME = "<clinit>";
+    private static final String PENDING_BODY = "{\n        // decompiling...\n    }";
+
+    private SourceOutline() {
+    }
+
+    /**
+     * Outlines the given class, listing its fields and method signatures with
+     * placeholders for the method bodies. Its identifiers are spanned like
+     * those of decompiled source, so that the current mappings are applied
+     * when it is displayed.
+     *
+     * @param clazz The class to outline
+     * @return The outline of the class
+     */
+    public static DecompiledSource outline(IndexedClass clazz) {
+        return outline(clazz, method -> PENDING_BODY);
+    }
+
+    /**
+     * Outlines the given class as {@link #outline(IndexedClass)} does, but
+     * with a bytecode listing of each method in place of its body.
+     *
+     * @param clazz        The class to outline
+     * @param disassembler The disassembler for the processed class
+     * @return The outline of the class
+     */
+    public static DecompiledSource outline(IndexedClass clazz, ClassDisassembler disassembler) {
+        return outline(clazz, method -> BytecodeFallback.listMethod(disassembler, clazz.getName(),
+                method.getSignature().getName(), method.getSignature().getDescriptor().toString())
+                .map(listing -> listing.stream()
+                        .map(line -> "        // " + line + "\n")
+                        .collect(Collectors.joining("", "{\n", "    }")))
+                .orElse(";"));
+    }
+
+    private static DecompiledSource outline(IndexedClass clazz, Function<IndexedMethod, String> bodies) {
+        StringBuilder sb = new StringBuilder();
+        String className = clazz.getName();
+
+        sb.append("class ").append(processClass(className));
+        if (clazz.getSuperclass() != null && !clazz.getSuperclass().equals(OBJECT_CLASS)) {
+            sb.append(" extends ").append(processClass(clazz.getSuperclass()));
+        }
+        if (!clazz.getInterfaces().isEmpty()) {
+            sb.append(" implements ").append(clazz.getInterfaces().stream()
+                    .map(SourceOutline::processClass)
+                    .collect(Collectors.joining(", ")));
+        }
+        sb.append(" {\n");
+
+        List<IndexedField> fields = clazz.getFields().values().stream()
+                .sorted(Comparator.comparing(field -> field.getSignature().getName()))
+                .collect(Collectors.toList());
+        for (IndexedField field : fields) {
+            String desc = field.getSignature().getType().map(Object::toString).orElse("L" + OBJECT_CLASS + ";");
+            sb.append("    ").append(visibility(field.getVisibility().name()));
+            appendType(sb, desc, 0, desc.length());
+            sb.append(' ').append(StringHelper.getProcessedName(
+                    className + CLASS_PATH_SEPARATOR_CHAR + field.getSignature().getName(), desc, MemberType.FIELD
+            )).append(";\n");
+        }
+
+        List<IndexedMethod> methods = clazz.getMethods().values().stream()
+                .sorted(Comparator.<IndexedMethod, String>comparing(method -> method.getSignature().getName())
+                        .thenComparing(method -> method.getSignature().getDescriptor().toString()))
+                .collect(Collectors.toList());
+        for (IndexedMethod method : methods) {
+            sb.append('\n');
+            appendMethod(sb, className, method, bodies.apply(method));
+        }
+
+        sb.append("}\n");
+        return DecompiledSource.parse(sb.toString());
+    }
+
+    private static void appendMethod(StringBuilder sb, String className, IndexedMethod method, String body) {
+        String name = method.getSignature().getName();
+        String desc = method.getSignature().getDescriptor().toString();
+        sb.append("    ");
+
+        if (name.equals(INITIALIZER_NAME)) {
+            sb.append("static ").append(body).append('\n');
+            return;
+        }
+
+        sb.append(visibility(method.getVisibility().name()));
+        int paramsEnd = desc.indexOf(')');
+        if (name.equals(CONSTRUCTOR_NAME)) {
+            sb.append(processClass(className));
+        } else {
+            appendType(sb, desc, paramsEnd + 1, desc.length());
+            sb.append(' ').append(StringHelper.getProcessedName(
+                    className + CLASS_PATH_SEPARATOR_CHAR + name, desc, MemberType.METHOD
+            ));
+        }
+
+        sb.append('(');
+        int index = 1;
+        while (index < paramsEnd) {
+            if (index > 1) {
+                sb.append(", ");
+            }
+            index = appendType(sb, desc, index, paramsEnd);
+        }
+        sb.append(body.equals(";") ? ")" : ") ").append(body).append('\n');
+    }
+
+    // appends the type starting at the given index of the descriptor and
+    // returns the index following it
+    private static int appendType(StringBuilder sb, String desc, int index, int end) {
+        int dims = 0;
+        while (index < end && desc.charAt(index) == '[') {
+            dims++;
+            index++;
+        }
+
+        int next;
+        if (desc.charAt(index) == 'L') {
+            next = desc.indexOf(';', index) + 1;
+            sb.append(processClass(desc.substring(index + 1, next - 1)));
+        } else {
+            next = index + 1;
+            sb.append(primitive(desc.charAt(index)));
+        }
+
+        for (int i = 0; i < dims; i++) {
+            sb.append("[]");
+        }
+        return next;
+    }
+
+    private static String processClass(String name) {
+        return Main.getLoadedJar() != null && Main.getLoadedJar().getClass(name).isPresent()
+                ? StringHelper.getProcessedName(name, null, MemberType.CLASS)
+                : StringHelper.unqualify(name);
+    }
+
+    private static String visibility(String visibility) {
+        return visibility.equals("PACKAGE") ? "" : visibility.toLowerCase(Locale.ROOT) + ' ';
+    }
+
+    private static String primitive(char key) {
+        switch (key) {
+            case 'B':
+                return "byte";
+            case 'C':
+                return "char";
+            case 'D':
+                return "double";
+            case 'F':
+                return "float";
+            case 'I':
+                return "int";
+            case 'J':
+                return "long";
+            case 'S':
+                return "short";
+            case 'Z':
+                return "boolean";
+            case 'V':
+                return "void";
+            default:
+                throw new IllegalArgumentException("Invalid type key " + key);
+        }
+    }
+
+}
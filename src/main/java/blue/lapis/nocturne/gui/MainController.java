@@ -26,29 +26,46 @@
 package blue.lapis.nocturne.gui;
 
 import static blue.lapis.nocturne.util.helper.Preconditions.checkArgument;
-import static blue.lapis.nocturne.util.helper.StringHelper.looksDeobfuscated;
 
 import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.decompile.DecompiledSource;
+import blue.lapis.nocturne.decompile.SourceOutline;
 import blue.lapis.nocturne.gui.io.jar.JarDialogHelper;
 import blue.lapis.nocturne.gui.io.mappings.MappingsOpenDialogHelper;
 import blue.lapis.nocturne.gui.io.mappings.MappingsSaveDialogHelper;
+import blue.lapis.nocturne.gui.io.workspace.WorkspaceDialogHelper;
+import blue.lapis.nocturne.gui.scene.control.BulkRenameDialog;
 import blue.lapis.nocturne.gui.scene.control.ClassesTreeView;
 import blue.lapis.nocturne.gui.scene.control.CodeTab;
 import blue.lapis.nocturne.gui.scene.control.IdentifiableTreeItem;
+import blue.lapis.nocturne.gui.scene.control.LibrariesDialog;
+import blue.lapis.nocturne.gui.scene.control.PerformanceOverlay;
+import blue.lapis.nocturne.gui.scene.control.SymbolSearchDialog;
 import blue.lapis.nocturne.gui.scene.text.SelectableMember;
 import blue.lapis.nocturne.jar.model.JarClassEntry;
 import blue.lapis.nocturne.jar.model.hierarchy.Hierarchy;
 import blue.lapis.nocturne.jar.model.hierarchy.HierarchyElement;
 import blue.lapis.nocturne.jar.model.hierarchy.HierarchyNode;
+import blue.lapis.nocturne.mapping.history.MappingHistory;
+import blue.lapis.nocturne.mapping.model.ClassMapping;
+import blue.lapis.nocturne.mapping.rename.BulkRenamer;
+import blue.lapis.nocturne.processor.index.library.LibraryClasspath;
+import blue.lapis.nocturne.processor.index.model.IndexedClass;
 import blue.lapis.nocturne.util.Constants;
+import blue.lapis.nocturne.util.helper.ConcurrencyHelper;
 import blue.lapis.nocturne.util.helper.PropertiesHelper;
 import blue.lapis.nocturne.util.helper.SceneHelper;
+import blue.lapis.nocturne.util.helper.StringHelper;
+import blue.lapis.nocturne.util.profiling.Interaction;
+import blue.lapis.nocturne.util.profiling.LatencyRecorder;
 
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
 import javafx.scene.control.Alert;
+import javafx.scene.control.CheckMenuItem;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.RadioMenuItem;
 import javafx.scene.control.TabPane;
@@ -72,6 +89,7 @@ import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.Set;
 import java.util.function.BiConsumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -85,19 +103,29 @@ public class MainController implements Initializable {
 
     public MenuItem openJarButton;
     public MenuItem closeJarButton;
+    public MenuItem saveWorkspaceButton;
+    public MenuItem resumeWorkspaceButton;
     public MenuItem loadMappingsButton;
     public MenuItem mergeMappingsButton;
     public MenuItem saveMappingsButton;
     public MenuItem saveMappingsAsButton;
+    public MenuItem librariesButton;
     public MenuItem closeButton;
 
+    public MenuItem undoButton;
+    public MenuItem redoButton;
+    public MenuItem bulkRenameButton;
     public MenuItem resetMappingsButton;
 
+    public MenuItem findSymbolButton;
+    public CheckMenuItem performanceOverlayButton;
+
     public ToggleGroup languageGroup;
 
     public MenuItem aboutButton;
 
     public TabPane tabs;
+    public PerformanceOverlay performanceOverlay;
 
     public ClassesTreeView obfTree;
     public ClassesTreeView deobfTree;
@@ -109,11 +137,16 @@ public class MainController implements Initializable {
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         closeJarButton.setDisable(Main.getLoadedJar() == null);
+        saveWorkspaceButton.setDisable(Main.getLoadedJar() == null);
         loadMappingsButton.setDisable(Main.getLoadedJar() == null);
         mergeMappingsButton.setDisable(Main.getLoadedJar() == null);
         saveMappingsButton.setDisable(Main.getLoadedJar() == null);
         saveMappingsAsButton.setDisable(Main.getLoadedJar() == null);
+        updateHistoryButtons();
+        Main.getMappingContext().getHistory().ifPresent(history -> history.setListener(this::updateHistoryButtons));
+        bulkRenameButton.setDisable(Main.getLoadedJar() == null);
         resetMappingsButton.setDisable(Main.getLoadedJar() == null);
+        findSymbolButton.setDisable(Main.getLoadedJar() == null);
 
         final String langRadioPrefix = "langRadio-";
         for (Toggle toggle : languageGroup.getToggles()) {
@@ -140,6 +173,12 @@ public class MainController implements Initializable {
         saveMappingsButton.setAccelerator(new KeyCodeCombination(KeyCode.S, KeyCombination.CONTROL_DOWN));
         saveMappingsAsButton.setAccelerator(new KeyCodeCombination(KeyCode.S, KeyCombination.CONTROL_DOWN,
                 KeyCombination.ALT_DOWN));
+        undoButton.setAccelerator(new KeyCodeCombination(KeyCode.Z, KeyCombination.CONTROL_DOWN));
+        redoButton.setAccelerator(new KeyCodeCombination(KeyCode.Y, KeyCombination.CONTROL_DOWN));
+        findSymbolButton.setAccelerator(new KeyCodeCombination(KeyCode.N, KeyCombination.CONTROL_DOWN,
+                KeyCombination.SHIFT_DOWN));
+        performanceOverlayButton.setAccelerator(new KeyCodeCombination(KeyCode.P, KeyCombination.CONTROL_DOWN,
+                KeyCombination.SHIFT_DOWN));
         aboutButton.setAccelerator(new KeyCodeCombination(KeyCode.F1));
     }
 
@@ -158,18 +197,39 @@ public class MainController implements Initializable {
         }
 
         closeJarButton.setDisable(true);
+        saveWorkspaceButton.setDisable(true);
         loadMappingsButton.setDisable(true);
         mergeMappingsButton.setDisable(true);
         saveMappingsButton.setDisable(true);
         saveMappingsAsButton.setDisable(true);
+        bulkRenameButton.setDisable(true);
         resetMappingsButton.setDisable(true);
+        findSymbolButton.setDisable(true);
 
         Main.getMappingContext().clear();
         Main.getMappingContext().setDirty(false);
+        updateHistoryButtons();
 
         updateClassViews();
     }
 
+    public void saveWorkspace(ActionEvent actionEvent) throws IOException {
+        if (Main.getLoadedJar() == null) {
+            return;
+        }
+        WorkspaceDialogHelper.saveWorkspace(this);
+    }
+
+    public void resumeWorkspace(ActionEvent actionEvent) throws IOException {
+        if (Main.getLoadedJar() != null && !deinitializeCurrentJar()) {
+            return;
+        }
+        WorkspaceDialogHelper.resumeWorkspace(this);
+        if (Main.getLoadedJar() != null) {
+            updateClassViews();
+        }
+    }
+
     public void loadMappings(ActionEvent actionEvent) throws IOException {
         try {
             if (MappingsSaveDialogHelper.doDirtyConfirmation()) {
@@ -187,6 +247,42 @@ public class MainController implements Initializable {
         updateClassViews();
     }
 
+    public void undo(ActionEvent actionEvent) {
+        revertChanges(MappingHistory::undo);
+    }
+
+    public void redo(ActionEvent actionEvent) {
+        revertChanges(MappingHistory::redo);
+    }
+
+    /**
+     * Enables the undo and redo buttons only while there is a step to undo or
+     * redo respectively.
+     */
+    public void updateHistoryButtons() {
+        Optional<MappingHistory> history = Optional.ofNullable(Main.getLoadedJar())
+                .flatMap(jar -> Main.getMappingContext().getHistory());
+        undoButton.setDisable(!history.map(MappingHistory::canUndo).orElse(false));
+        redoButton.setDisable(!history.map(MappingHistory::canRedo).orElse(false));
+    }
+
+    private void revertChanges(Predicate<MappingHistory> action) {
+        Optional<MappingHistory> history = Main.getMappingContext().getHistory();
+        if (Main.getLoadedJar() == null || !history.isPresent() || !action.test(history.get())) {
+            return;
+        }
+        // reverted merges add and remove whole classes, which the symbol index doesn't track
+        Main.getLoadedJar().invalidateSymbolIndex();
+        updateClassViews();
+    }
+
+    public void bulkRename(ActionEvent actionEvent) {
+        if (Main.getLoadedJar() == null) {
+            return;
+        }
+        new BulkRenameDialog().showAndWait().ifPresent(plan -> BulkRenamer.apply(Main.getMappingContext(), plan));
+    }
+
     public void resetMappings(ActionEvent actionEvent) {
         try {
             if (MappingsSaveDialogHelper.doDirtyConfirmation()) {
@@ -196,7 +292,7 @@ public class MainController implements Initializable {
             throw new RuntimeException(ex);
         }
         Main.getMappingContext().getMappings().values().forEach(cm -> {
-            Main.getLoadedJar().getCurrentNames().put(cm.getObfuscatedName(), cm.getObfuscatedName());
+            Main.getLoadedJar().setCurrentName(cm.getObfuscatedName(), cm.getObfuscatedName());
             JarClassEntry jce = Main.getLoadedJar().getClass(cm.getObfuscatedName()).orElse(null);
             if (jce == null) {
                 return;
@@ -209,16 +305,46 @@ public class MainController implements Initializable {
                     .forEach(mm -> jce.getCurrentMethods().put(mm.getSignature(), mm.getSignature()));
         });
         Main.getMappingContext().clear();
+        Main.getLoadedJar().invalidateSymbolIndex();
         Main.getLoadedJar().getClasses().forEach(jce -> jce.setDeobfuscated(false));
         CodeTab.CODE_TABS.values().forEach(CodeTab::resetClassName);
         SelectableMember.MEMBERS.values()
                 .forEach(list -> list.forEach(member -> {
                     member.setAndProcessText(member.getName());
-                    member.setDeobfuscated(looksDeobfuscated(member.getName()), false);
+                    member.setDeobfuscated(member.looksDeobfuscated(), false);
                 }));
         updateClassViews();
     }
 
+    public void editLibraries(ActionEvent actionEvent) {
+        new LibrariesDialog().showAndWait().ifPresent(LibraryClasspath::setConfiguredLibraries);
+    }
+
+    public void findSymbol(ActionEvent actionEvent) {
+        if (Main.getLoadedJar() == null) {
+            return;
+        }
+        new SymbolSearchDialog(Main.getLoadedJar().getSymbolIndex()).showAndWait()
+                .ifPresent(symbol -> openClassTab(symbol.getOwner()));
+    }
+
+    public void togglePerformanceOverlay(ActionEvent actionEvent) {
+        performanceOverlay.setShowing(performanceOverlayButton.isSelected());
+    }
+
+    /**
+     * Opens the tab of the top-level class enclosing the class with the given
+     * obfuscated name.
+     *
+     * @param className The obfuscated name of the class
+     */
+    public void openClassTab(String className) {
+        if (className.contains(Constants.INNER_CLASS_SEPARATOR_CHAR + "")) {
+            className = className.substring(0, className.indexOf(Constants.INNER_CLASS_SEPARATOR_CHAR));
+        }
+        openTab(className, StringHelper.unqualify(ClassMapping.deobfuscate(Main.getMappingContext(), className)));
+    }
+
     public void saveMappings(ActionEvent actionEvent) throws IOException {
         MappingsSaveDialogHelper.saveMappings();
     }
@@ -268,8 +394,10 @@ public class MainController implements Initializable {
     }
 
     public void updateClassViews() {
-        this.obfTree.update(Main.getLoadedJar().getObfuscatedHierarchy());
-        this.deobfTree.update(Main.getLoadedJar().getDeobfuscatedHierarchy());
+        try (LatencyRecorder.Scope scope = LatencyRecorder.begin(Interaction.REFRESH_CLASS_VIEWS)) {
+            this.obfTree.update(Main.getLoadedJar().getObfuscatedHierarchy());
+            this.deobfTree.update(Main.getLoadedJar().getDeobfuscatedHierarchy());
+        }
     }
 
     private boolean deinitializeCurrentJar() throws IOException {
@@ -292,14 +420,38 @@ public class MainController implements Initializable {
     }
 
     public void openTab(String className, String displayName) {
-        if (CodeTab.CODE_TABS.containsKey(className)) {
-            tabs.getSelectionModel().select(CodeTab.CODE_TABS.get(className));
-        } else {
-            CodeTab tab = new CodeTab(tabs, className, displayName);
-
-            Optional<JarClassEntry> clazz = Main.getLoadedJar().getClass(className);
-            checkArgument(clazz.isPresent(), "Cannot find class entry for " + className);
-            tab.setCode(clazz.get().decompile());
+        try (LatencyRecorder.Scope scope = LatencyRecorder.begin(Interaction.OPEN_TAB)) {
+            if (CodeTab.CODE_TABS.containsKey(className)) {
+                tabs.getSelectionModel().select(CodeTab.CODE_TABS.get(className));
+            } else {
+                CodeTab tab = new CodeTab(tabs, className, displayName);
+
+                Optional<JarClassEntry> clazz = Main.getLoadedJar().getClass(className);
+                checkArgument(clazz.isPresent(), "Cannot find class entry for " + className);
+
+                // show the outline straight away and replace it once the class has been decompiled
+                IndexedClass indexed = IndexedClass.INDEXED_CLASSES.get(className);
+                if (indexed != null) {
+                    tab.setCode(SourceOutline.outline(indexed));
+                }
+                ConcurrencyHelper.getDecompileExecutor().execute(() -> {
+                    DecompiledSource source;
+                    try {
+                        source = clazz.get().decompile();
+                    } catch (RuntimeException ex) {
+                        Platform.runLater(() -> {
+                            throw ex;
+                        });
+                        return;
+                    }
+                    Platform.runLater(() -> {
+                        // the tab may have been closed while its class was being decompiled
+                        if (CodeTab.CODE_TABS.get(className) == tab) {
+                            tab.setCode(source);
+                        }
+                    });
+                });
+            }
         }
     }
 
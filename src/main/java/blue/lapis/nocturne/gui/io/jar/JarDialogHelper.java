@@ -88,10 +88,14 @@ public final class JarDialogHelper {
             }
             if (classSet != null) {
                 controller.closeJarButton.setDisable(false);
+                controller.saveWorkspaceButton.setDisable(false);
                 controller.loadMappingsButton.setDisable(false);
                 controller.mergeMappingsButton.setDisable(false);
                 controller.saveMappingsAsButton.setDisable(false);
+                controller.updateHistoryButtons();
+                controller.bulkRenameButton.setDisable(false);
                 controller.resetMappingsButton.setDisable(false);
+                controller.findSymbolButton.setDisable(false);
             }
         }
     }
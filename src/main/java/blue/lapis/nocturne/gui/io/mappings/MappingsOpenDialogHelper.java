@@ -29,8 +29,14 @@ import blue.lapis.nocturne.Main;
 import blue.lapis.nocturne.gui.MainController;
 import blue.lapis.nocturne.mapping.MappingContext;
 import blue.lapis.nocturne.mapping.MappingFormat;
+import blue.lapis.nocturne.mapping.history.MappingHistory;
+import blue.lapis.nocturne.mapping.io.journal.MappingJournal;
 import blue.lapis.nocturne.mapping.io.reader.MappingsReader;
 import blue.lapis.nocturne.util.helper.PropertiesHelper;
+import blue.lapis.nocturne.util.profiling.Interaction;
+import blue.lapis.nocturne.util.profiling.LatencyRecorder;
+import blue.lapis.nocturne.util.profiling.LoadPhase;
+import blue.lapis.nocturne.util.profiling.LoadProfiler;
 
 import javafx.stage.FileChooser;
 
@@ -80,15 +86,45 @@ public final class MappingsOpenDialogHelper {
                 = MappingFormat.fromExtensionFilter(fileChooser.getSelectedExtensionFilter()).get();
         Main.getPropertiesHelper()
                 .setProperty(PropertiesHelper.Key.LAST_MAPPING_LOAD_FORMAT, mappingFormat.name());
-        try (MappingsReader reader = mappingFormat.createParser(new BufferedReader(new FileReader(selectedFile)))) {
-            MappingContext context = reader.read();
+        if (!merge) {
+            // release the current journal first, as it may belong to the file being opened
+            Main.getMappingContext().setJournal(null);
+        }
+        MappingJournal journal = merge ? null : MappingJournal.open(selectedPath, mappingFormat::createWriter);
+        LoadProfiler.reset();
+        try (LatencyRecorder.Scope scope = LatencyRecorder.begin(Interaction.LOAD_MAPPINGS);
+             MappingsReader reader = mappingFormat.createParser(new BufferedReader(new FileReader(selectedFile)))) {
+            MappingContext context;
+            try (LoadProfiler.Scope phase = LoadProfiler.beginPhase(LoadPhase.READ_MAPPINGS)) {
+                context = reader.read();
+                int replayed = merge ? MappingJournal.replay(selectedPath, context) : journal.replay(context);
+                if (replayed > 0) {
+                    Main.getLogger().info("Replayed " + replayed + " journalled mapping changes");
+                }
+            }
+            try (LoadProfiler.Scope phase = LoadProfiler.beginPhase(LoadPhase.APPLY_MAPPINGS)) {
+                if (!merge) {
+                    Main.getMappingContext().clear();
+                }
+                Main.getMappingContext().assimilate(context);
+                Main.getLoadedJar().invalidateSymbolIndex();
+                MainController.INSTANCE.updateClassViews();
+                Main.getMappingContext().setDirty(false);
+            }
             if (!merge) {
-                Main.getMappingContext().clear();
+                // a freshly opened file starts a new history, whereas a merge may be undone
+                Main.getMappingContext().getHistory().ifPresent(MappingHistory::clear);
+                Main.getMappingContext().setJournal(journal);
+                // changes which were never saved survive only if the last session ended abruptly
+                Main.getMappingContext().setDirty(journal.hasUncommittedChanges());
+            }
+        } catch (IOException | RuntimeException ex) {
+            if (journal != null) {
+                journal.close();
             }
-            Main.getMappingContext().assimilate(context);
-            MainController.INSTANCE.updateClassViews();
-            Main.getMappingContext().setDirty(false);
+            throw ex;
         }
+        LoadProfiler.logSummary((merge ? "Merged " : "Loaded ") + selectedFile.getName());
 
         Main.setCurrentMappingsPath(selectedPath);
         Main.setCurrentMappingFormat(mappingFormat);
@@ -26,9 +26,13 @@
 package blue.lapis.nocturne.gui.io.mappings;
 
 import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.mapping.MappingContext;
 import blue.lapis.nocturne.mapping.MappingFormat;
+import blue.lapis.nocturne.mapping.io.journal.MappingJournal;
 import blue.lapis.nocturne.mapping.io.writer.MappingsWriter;
 import blue.lapis.nocturne.util.helper.PropertiesHelper;
+import blue.lapis.nocturne.util.profiling.Interaction;
+import blue.lapis.nocturne.util.profiling.LatencyRecorder;
 
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
@@ -106,6 +110,12 @@ public final class MappingsSaveDialogHelper {
             return false;
         }
 
+        if (mappingFormat.get() != Main.getCurrentMappingFormat()) {
+            // the journal only holds changes relative to a file in the current format
+            Main.getMappingContext().setJournal(null);
+            Main.getMappingContext().setDirty(true);
+        }
+
         Main.setCurrentMappingsPath(selectedFile.toPath());
         Main.setCurrentMappingFormat(mappingFormat.get());
 
@@ -116,13 +126,24 @@ public final class MappingsSaveDialogHelper {
     }
 
     private static void saveMappings0(MappingFormat format) throws IOException {
-        if (Main.getMappingContext().isDirty()) {
-            try (MappingsWriter writer
-                         = format.createWriter(new PrintWriter(Files.newOutputStream(Main.getCurrentMappingsPath())))) {
-                writer.write(Main.getMappingContext());
+        MappingContext context = Main.getMappingContext();
+        if (context.isDirty()) {
+            Path path = Main.getCurrentMappingsPath();
+            Optional<MappingJournal> journal = context.getJournal();
+            try (LatencyRecorder.Scope scope = LatencyRecorder.begin(Interaction.SAVE_MAPPINGS)) {
+                if (journal.isPresent() && journal.get().isUsable() && journal.get().isFor(path)) {
+                    // every change is already in the journal, so saving only needs to make it durable
+                    journal.get().commit(context);
+                } else {
+                    context.setJournal(null);
+                    try (MappingsWriter writer = format.createWriter(new PrintWriter(Files.newOutputStream(path)))) {
+                        writer.write(context);
+                    }
+                    context.setJournal(MappingJournal.create(path, format::createWriter));
+                }
             }
 
-            Main.getMappingContext().setDirty(false);
+            context.setDirty(false);
         }
     }
 
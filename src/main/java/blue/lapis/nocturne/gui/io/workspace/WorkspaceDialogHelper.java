@@ -0,0 +1,135 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.gui.io.workspace;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.gui.MainController;
+import blue.lapis.nocturne.gui.scene.control.CodeTab;
+import blue.lapis.nocturne.jar.io.WorkspaceSnapshot;
+import blue.lapis.nocturne.util.helper.PropertiesHelper;
+
+import javafx.scene.control.Alert;
+import javafx.scene.control.Tab;
+import javafx.stage.FileChooser;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Static utility class for workspace snapshot dialogs.
+ */
+public final class WorkspaceDialogHelper {
+
+    private static final String EXTENSION = "*.nws";
+
+    private WorkspaceDialogHelper() {
+    }
+
+    public static void saveWorkspace(MainController controller) throws IOException {
+        File selectedFile = createFileChooser("filechooser.save_workspace").showSaveDialog(Main.getMainStage());
+        if (selectedFile == null) {
+            return;
+        }
+        Main.getPropertiesHelper().setProperty(PropertiesHelper.Key.LAST_JAR_DIRECTORY, selectedFile.getParent());
+
+        List<WorkspaceSnapshot.OpenTab> openTabs = new ArrayList<>();
+        int selectedTab = -1;
+        for (Tab tab : controller.tabs.getTabs()) {
+            if (!(tab instanceof CodeTab)) {
+                continue;
+            }
+            if (tab.isSelected()) {
+                selectedTab = openTabs.size();
+            }
+            CodeTab codeTab = (CodeTab) tab;
+            openTabs.add(new WorkspaceSnapshot.OpenTab(codeTab.getClassName(), codeTab.getText(),
+                    codeTab.getScrollPosition()));
+        }
+        WorkspaceSnapshot.write(selectedFile.toPath(), openTabs, selectedTab);
+    }
+
+    public static void resumeWorkspace(MainController controller) throws IOException {
+        File selectedFile = createFileChooser("filechooser.open_workspace").showOpenDialog(Main.getMainStage());
+        if (selectedFile == null) {
+            return;
+        }
+        Main.getPropertiesHelper().setProperty(PropertiesHelper.Key.LAST_JAR_DIRECTORY, selectedFile.getParent());
+
+        WorkspaceSnapshot snapshot;
+        try {
+            snapshot = WorkspaceSnapshot.read(selectedFile.toPath());
+        } catch (IOException | RuntimeException ex) {
+            Main.getLogger().warning("Failed to resume workspace " + selectedFile + ": " + ex);
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setHeaderText(null);
+            alert.setContentText(Main.getResourceBundle().getString("workspace.invalid"));
+            alert.showAndWait();
+            return;
+        }
+
+        controller.closeJarButton.setDisable(false);
+        controller.saveWorkspaceButton.setDisable(false);
+        controller.loadMappingsButton.setDisable(false);
+        controller.mergeMappingsButton.setDisable(false);
+        controller.saveMappingsAsButton.setDisable(false);
+        controller.updateHistoryButtons();
+        controller.bulkRenameButton.setDisable(false);
+        controller.resetMappingsButton.setDisable(false);
+        controller.findSymbolButton.setDisable(false);
+
+        for (WorkspaceSnapshot.OpenTab tab : snapshot.getOpenTabs()) {
+            if (!snapshot.getClassSet().getClass(tab.getClassName()).isPresent()) {
+                continue;
+            }
+            controller.openTab(tab.getClassName(), tab.getDisplayName());
+            CodeTab.CODE_TABS.get(tab.getClassName()).restoreScrollPosition(tab.getScrollPosition());
+        }
+        if (snapshot.getSelectedTab() >= 0 && snapshot.getSelectedTab() < controller.tabs.getTabs().size()) {
+            controller.tabs.getSelectionModel().select(snapshot.getSelectedTab());
+        }
+    }
+
+    private static FileChooser createFileChooser(String titleKey) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(Main.getResourceBundle().getString(titleKey));
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter(Main.getResourceBundle().getString("filechooser.type_workspace"),
+                        EXTENSION)
+        );
+
+        String lastDir = Main.getPropertiesHelper().getProperty(PropertiesHelper.Key.LAST_JAR_DIRECTORY);
+        if (!lastDir.isEmpty()) {
+            File initialDir = new File(lastDir);
+            if (initialDir.exists()) {
+                fileChooser.setInitialDirectory(initialDir);
+            }
+        }
+        return fileChooser;
+    }
+
+}
@@ -0,0 +1,256 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.gui.scene.control;
+
+import static blue.lapis.nocturne.util.Constants.CLASS_PATH_SEPARATOR_PATTERN;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.mapping.rename.BulkRenamer;
+import blue.lapis.nocturne.mapping.rename.Rename;
+import blue.lapis.nocturne.mapping.rename.RenameConflict;
+import blue.lapis.nocturne.mapping.rename.RenamePlan;
+import blue.lapis.nocturne.mapping.rename.RenameRule;
+import blue.lapis.nocturne.util.MemberType;
+import blue.lapis.nocturne.util.helper.SceneHelper;
+
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonBar;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.RadioButton;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.scene.control.ToggleGroup;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.util.StringConverter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A {@link Dialog} for renaming many classes or members at once, either by
+ * matching their obfuscated names against a pattern or by looking them up in
+ * a table. The planned renames and the conflicts which would prevent some of
+ * them are previewed before anything is applied. The result is the previewed
+ * {@link RenamePlan}, or {@code null} if the dialog was cancelled.
+ */
+public class BulkRenameDialog extends Dialog<RenamePlan> {
+
+    private final ButtonType applyButtonType = new ButtonType(
+            Main.getResourceBundle().getString("dialog.bulk_rename.apply"), ButtonBar.ButtonData.OK_DONE);
+    private final ComboBox<MemberType> typeBox = new ComboBox<>();
+    private final RadioButton patternButton
+            = new RadioButton(Main.getResourceBundle().getString("dialog.bulk_rename.pattern"));
+    private final RadioButton tableButton
+            = new RadioButton(Main.getResourceBundle().getString("dialog.bulk_rename.table"));
+    private final TextField patternField = new TextField();
+    private final TextField replacementField = new TextField();
+    private final TextArea tableArea = new TextArea();
+    private final Label statusLabel = new Label();
+    private final Label renamesLabel = new Label();
+    private final Label conflictsLabel = new Label();
+    private final ListView<Rename> renameList = new ListView<>();
+    private final ListView<RenameConflict> conflictList = new ListView<>();
+
+    private RenamePlan plan;
+
+    public BulkRenameDialog() {
+        setTitle(Main.getResourceBundle().getString("dialog.bulk_rename.title"));
+        setHeaderText(Main.getResourceBundle().getString("dialog.bulk_rename.header"));
+
+        typeBox.getItems().setAll(MemberType.CLASS, MemberType.INNER_CLASS, MemberType.FIELD, MemberType.METHOD);
+        typeBox.setConverter(new StringConverter<MemberType>() {
+            @Override
+            public String toString(MemberType type) {
+                return type == null ? null : Main.getResourceBundle()
+                        .getString("dialog.bulk_rename.type." + type.name().toLowerCase(Locale.ROOT));
+            }
+
+            @Override
+            public MemberType fromString(String string) {
+                throw new UnsupportedOperationException();
+            }
+        });
+        typeBox.getSelectionModel().selectFirst();
+
+        ToggleGroup modeGroup = new ToggleGroup();
+        patternButton.setToggleGroup(modeGroup);
+        tableButton.setToggleGroup(modeGroup);
+        patternButton.setSelected(true);
+        patternField.setPromptText(Main.getResourceBundle().getString("dialog.bulk_rename.pattern.prompt"));
+        replacementField.setPromptText(Main.getResourceBundle().getString("dialog.bulk_rename.replacement.prompt"));
+        tableArea.setPromptText(Main.getResourceBundle().getString("dialog.bulk_rename.table.prompt"));
+        tableArea.setPrefRowCount(6);
+        patternField.disableProperty().bind(tableButton.selectedProperty());
+        replacementField.disableProperty().bind(tableButton.selectedProperty());
+        tableArea.disableProperty().bind(patternButton.selectedProperty());
+        HBox.setHgrow(patternField, Priority.ALWAYS);
+        HBox.setHgrow(replacementField, Priority.ALWAYS);
+
+        // the preview no longer holds once the rule changes
+        typeBox.valueProperty().addListener((observable, oldValue, newValue) -> setPlan(null));
+        modeGroup.selectedToggleProperty().addListener((observable, oldValue, newValue) -> setPlan(null));
+        patternField.textProperty().addListener((observable, oldValue, newValue) -> setPlan(null));
+        replacementField.textProperty().addListener((observable, oldValue, newValue) -> setPlan(null));
+        tableArea.textProperty().addListener((observable, oldValue, newValue) -> setPlan(null));
+
+        Button previewButton = new Button(Main.getResourceBundle().getString("dialog.bulk_rename.preview"));
+        previewButton.setOnAction(event -> preview());
+
+        renameList.setCellFactory(view -> new RenameCell());
+        renameList.setPrefHeight(200);
+        conflictList.setCellFactory(view -> new ConflictCell());
+        conflictList.setPrefHeight(120);
+
+        getDialogPane().setContent(new VBox(5,
+                new HBox(5, new Label(Main.getResourceBundle().getString("dialog.bulk_rename.type")), typeBox),
+                new HBox(5, patternButton, patternField, replacementField),
+                tableButton,
+                tableArea,
+                new HBox(5, previewButton, statusLabel),
+                renamesLabel,
+                renameList,
+                conflictsLabel,
+                conflictList
+        ));
+        getDialogPane().getButtonTypes().addAll(applyButtonType, ButtonType.CANCEL);
+        getDialogPane().setPrefWidth(700);
+        SceneHelper.addStdStylesheet(getDialogPane());
+        setResultConverter(button -> button == applyButtonType ? plan : null);
+        setPlan(null);
+    }
+
+    private void preview() {
+        RenameRule rule;
+        try {
+            rule = createRule();
+        } catch (IllegalArgumentException ex) {
+            setPlan(null);
+            statusLabel.setText(ex.getMessage());
+            return;
+        }
+
+        try {
+            setPlan(BulkRenamer.plan(Collections.singletonList(rule)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            // the replacement refers to a group which the pattern doesn't have
+            setPlan(null);
+            statusLabel.setText(Main.getResourceBundle().getString("dialog.bulk_rename.bad_replacement"));
+        }
+    }
+
+    private RenameRule createRule() {
+        MemberType type = typeBox.getValue();
+        if (patternButton.isSelected()) {
+            try {
+                return RenameRule.matching(type, Pattern.compile(patternField.getText()), replacementField.getText());
+            } catch (PatternSyntaxException ex) {
+                throw new IllegalArgumentException(Main.getResourceBundle()
+                        .getString("dialog.bulk_rename.bad_pattern") + " " + ex.getDescription(), ex);
+            }
+        }
+
+        Map<String, String> table = new HashMap<>();
+        String[] lines = tableArea.getText().split("\\R");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] names = line.split("\\s+");
+            if (names.length != 2) {
+                throw new IllegalArgumentException(Main.getResourceBundle()
+                        .getString("dialog.bulk_rename.bad_line") + " " + (i + 1));
+            }
+            table.put(names[0], names[1]);
+        }
+        return RenameRule.fromTable(type, table);
+    }
+
+    private void setPlan(RenamePlan plan) {
+        this.plan = plan;
+        renameList.getItems().setAll(plan != null ? plan.getRenames() : Collections.emptyList());
+        conflictList.getItems().setAll(plan != null ? plan.getConflicts() : Collections.emptyList());
+        statusLabel.setText("");
+        renamesLabel.setText(Main.getResourceBundle().getString("dialog.bulk_rename.renames")
+                + (plan != null ? " (" + plan.getRenames().size() + ")" : ""));
+        conflictsLabel.setText(Main.getResourceBundle().getString("dialog.bulk_rename.conflicts")
+                + (plan != null ? " (" + plan.getConflicts().size() + ")" : ""));
+        Node applyButton = getDialogPane().lookupButton(applyButtonType);
+        if (applyButton != null) {
+            applyButton.setDisable(plan == null || plan.getRenames().isEmpty());
+        }
+    }
+
+    /**
+     * Returns a human-readable description of the given {@link Rename}, naming
+     * the renamed item by its obfuscated name.
+     *
+     * @param rename The {@link Rename} to describe
+     * @return A description of the {@link Rename}
+     */
+    private static String describe(Rename rename) {
+        String owner = CLASS_PATH_SEPARATOR_PATTERN.matcher(rename.getOwner()).replaceAll(".");
+        String item = rename.getSignature()
+                .map(sig -> owner + "." + sig.getName() + (rename.getType() == MemberType.METHOD ? "()" : ""))
+                .orElse(owner);
+        return item + " -> " + rename.getName();
+    }
+
+    private static class RenameCell extends ListCell<Rename> {
+
+        @Override
+        protected void updateItem(Rename item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(empty || item == null ? null : describe(item));
+        }
+
+    }
+
+    private static class ConflictCell extends ListCell<RenameConflict> {
+
+        @Override
+        protected void updateItem(RenameConflict item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(empty || item == null ? null : describe(item.getRename()) + " (" + Main.getResourceBundle()
+                    .getString("dialog.bulk_rename.reason." + item.getReason().name().toLowerCase(Locale.ROOT))
+                    + ")");
+        }
+
+    }
+
+}
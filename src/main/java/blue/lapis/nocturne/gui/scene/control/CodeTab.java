@@ -26,21 +26,25 @@
 package blue.lapis.nocturne.gui.scene.control;
 
 import static blue.lapis.nocturne.util.Constants.CLASS_PATH_SEPARATOR_PATTERN;
-import static blue.lapis.nocturne.util.Constants.Processing.CLASS_REGEX;
-import static blue.lapis.nocturne.util.Constants.Processing.MEMBER_REGEX;
+import static blue.lapis.nocturne.util.helper.Preconditions.checkArgument;
 
 import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.decompile.DecompiledSource;
 import blue.lapis.nocturne.gui.scene.text.SelectableMember;
+import blue.lapis.nocturne.jar.model.JarClassEntry;
 import blue.lapis.nocturne.util.JavaSyntaxHighlighter;
 import blue.lapis.nocturne.util.MemberType;
-import blue.lapis.nocturne.util.helper.StringHelper;
-import blue.lapis.nocturne.util.helper.collections.CollectionsHelper;
+import blue.lapis.nocturne.util.profiling.Interaction;
+import blue.lapis.nocturne.util.profiling.LatencyRecorder;
 
+import javafx.event.ActionEvent;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
+import javafx.scene.control.ToggleButton;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 import javafx.scene.text.TextFlow;
@@ -50,8 +54,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * The code-tab JavaFX component.
@@ -66,7 +70,17 @@ public class CodeTab extends Tab {
     public Label memberInfoLabel;
     public Label memberIdentifier;
     public Label memberInfo;
+    public ScrollPane codeScroll;
     public TextFlow code;
+    public ToggleButton sourceToggle;
+    public ToggleButton bytecodeToggle;
+
+    private DecompiledSource source;
+
+    // the rendered views are kept while the tab is open, so toggling between them doesn't create new members
+    private TextFlow sourceFlow;
+    private TextFlow bytecodeFlow;
+    private double pendingScrollPosition = Double.NaN;
 
     public CodeTab(TabPane pane, String className, String displayName) {
         this.className = className;
@@ -88,7 +102,13 @@ public class CodeTab extends Tab {
         CODE_TABS.put(className, this);
         getTabPane().getSelectionModel().select(this);
 
-        this.setOnClosed(event -> CODE_TABS.remove(this.getClassName()));
+        this.setOnClosed(event -> {
+            CODE_TABS.remove(this.getClassName());
+            unregister(sourceFlow);
+            unregister(bytecodeFlow);
+            sourceFlow = null;
+            bytecodeFlow = null;
+        });
     }
 
     public String getClassName() {
@@ -135,17 +155,88 @@ public class CodeTab extends Tab {
     }
 
     /**
-     * Sets the open source file's code.
+     * Sets the open source file's code, which is shown unless the bytecode
+     * view is selected.
      *
-     * @param code The code.
+     * @param source The decompiled source.
      */
-    public void setCode(String code) {
-        this.code.getChildren().clear();
+    public void setCode(DecompiledSource source) {
+        try (LatencyRecorder.Scope scope = LatencyRecorder.begin(Interaction.SET_CODE)) {
+            this.source = source;
+            unregister(sourceFlow);
+            sourceFlow = null;
+            if (!bytecodeToggle.isSelected()) {
+                showSource(null);
+            }
+        }
+    }
 
-        List<Node> nodes = CollectionsHelper.newList(new Text(code));
+    /**
+     * Returns the vertical scroll position of the code.
+     *
+     * @return The scroll position, from 0 to 1
+     */
+    public double getScrollPosition() {
+        return codeScroll.getVvalue();
+    }
+
+    /**
+     * Scrolls the code to the given vertical position once it is next
+     * rendered, which is when the class has finished decompiling if the tab
+     * was just opened.
+     *
+     * @param position The scroll position, from 0 to 1
+     */
+    public void restoreScrollPosition(double position) {
+        this.pendingScrollPosition = position;
+    }
 
-        parseItems(nodes, CLASS_REGEX, 1);
-        parseItems(nodes, MEMBER_REGEX, 2);
+    /**
+     * Switches to the decompiled source of the class.
+     *
+     * @param event The event which triggered the switch.
+     */
+    public void showSource(ActionEvent event) {
+        sourceToggle.setSelected(true);
+        if (sourceFlow == null && source != null) {
+            sourceFlow = render(source);
+        }
+        if (sourceFlow != null) {
+            show(sourceFlow);
+        }
+    }
+
+    /**
+     * Switches to the bytecode listing of the class, disassembling it if it
+     * has not been already.
+     *
+     * @param event The event which triggered the switch.
+     */
+    public void showBytecode(ActionEvent event) {
+        bytecodeToggle.setSelected(true);
+        if (bytecodeFlow == null) {
+            Optional<JarClassEntry> clazz = Main.getLoadedJar().getClass(className);
+            checkArgument(clazz.isPresent(), "Cannot find class entry for " + className);
+            bytecodeFlow = render(clazz.get().disassemble());
+        }
+        show(bytecodeFlow);
+    }
+
+    private TextFlow render(DecompiledSource source) {
+        List<Node> nodes = new ArrayList<>();
+        String text = source.getText();
+        int lastIndex = 0;
+        for (DecompiledSource.IdentifierSpan span : source.getSpans()) {
+            nodes.add(new Text(text.substring(lastIndex, span.getOffset())));
+            SelectableMember sm = SelectableMember.fromKey(this, span.getKey());
+            if (sm != null) {
+                nodes.add(sm);
+            } else {
+                nodes.add(new Text(text.substring(span.getOffset(), span.getEnd())));
+            }
+            lastIndex = span.getEnd();
+        }
+        nodes.add(new Text(text.substring(lastIndex)));
 
         JavaSyntaxHighlighter.highlight(nodes);
 
@@ -153,9 +244,25 @@ public class CodeTab extends Tab {
 
         Node[] nodeArr = new Node[nodes.size()];
         nodes.toArray(nodeArr);
-        TextFlow flow = new TextFlow(nodeArr);
+        return new TextFlow(nodeArr);
+    }
+
+    private void show(TextFlow flow) {
+        this.code.getChildren().setAll(flow);
 
-        this.code.getChildren().add(flow);
+        if (!Double.isNaN(pendingScrollPosition)) {
+            codeScroll.setVvalue(pendingScrollPosition);
+            pendingScrollPosition = Double.NaN;
+        }
+    }
+
+    private static void unregister(TextFlow flow) {
+        if (flow != null) {
+            SelectableMember.unregister(flow.getChildren().stream()
+                    .filter(node -> node instanceof SelectableMember)
+                    .map(node -> (SelectableMember) node)
+                    .collect(Collectors.toList()));
+        }
     }
 
     public enum SelectableMemberType {
@@ -227,33 +334,4 @@ public class CodeTab extends Tab {
         }
     }
 
-    public void parseItems(List<Node> nodes, Pattern pattern, int defaultGroup) {
-        List<Node> newNodes = new ArrayList<>();
-
-        for (Node node : nodes) {
-            if (node.getClass() != Text.class) {
-                newNodes.add(node);
-                continue;
-            }
-
-            String str = ((Text) node).getText();
-            Matcher matcher = pattern.matcher(str);
-            int lastIndex = 0;
-            while (matcher.find()) {
-                newNodes.add(new Text(str.substring(lastIndex, matcher.start())));
-                SelectableMember sm = SelectableMember.fromMatcher(this, matcher);
-                if (sm != null) {
-                    newNodes.add(sm);
-                } else {
-                    newNodes.add(new Text(StringHelper.unqualify(matcher.group(defaultGroup))));
-                }
-                lastIndex = matcher.end();
-            }
-            newNodes.add(new Text(str.substring(lastIndex)));
-        }
-
-        nodes.clear();
-        nodes.addAll(newNodes);
-    }
-
 }
@@ -0,0 +1,91 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.gui.scene.control;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.processor.index.library.LibraryClasspath;
+import blue.lapis.nocturne.util.helper.SceneHelper;
+
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link Dialog} for editing the list of library JARs in the
+ * {@link LibraryClasspath}. The result is the new list, or {@code null} if
+ * the dialog was cancelled.
+ */
+public class LibrariesDialog extends Dialog<List<Path>> {
+
+    private final ListView<Path> libraryList = new ListView<>();
+
+    public LibrariesDialog() {
+        setTitle(Main.getResourceBundle().getString("dialog.libraries.title"));
+        setHeaderText(Main.getResourceBundle().getString("dialog.libraries.header"));
+
+        libraryList.getItems().setAll(LibraryClasspath.getConfiguredLibraries());
+
+        Button addButton = new Button(Main.getResourceBundle().getString("dialog.libraries.add"));
+        addButton.setOnAction(event -> addLibraries());
+        Button removeButton = new Button(Main.getResourceBundle().getString("dialog.libraries.remove"));
+        removeButton.setOnAction(event -> libraryList.getItems()
+                .remove(libraryList.getSelectionModel().getSelectedItem()));
+
+        getDialogPane().setContent(new VBox(5, libraryList, new HBox(5, addButton, removeButton)));
+        getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        getDialogPane().setPrefWidth(600);
+        SceneHelper.addStdStylesheet(getDialogPane());
+        setResultConverter(button -> button == ButtonType.OK ? new ArrayList<>(libraryList.getItems()) : null);
+    }
+
+    private void addLibraries() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(Main.getResourceBundle().getString("filechooser.open_jar"));
+        fileChooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter(Main.getResourceBundle().getString("filechooser.type_jar"), "*.jar")
+        );
+
+        List<File> selected = fileChooser.showOpenMultipleDialog(Main.getMainStage());
+        if (selected == null) {
+            return;
+        }
+        for (File file : selected) {
+            Path path = file.toPath().toAbsolutePath();
+            if (!libraryList.getItems().contains(path)) {
+                libraryList.getItems().add(path);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.gui.scene.control;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.util.profiling.LatencyRecorder;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A panel laid over the code tabs which shows the latencies recorded by the
+ * {@link LatencyRecorder} along with the current heap usage, refreshed while
+ * it is showing.
+ */
+public class PerformanceOverlay extends VBox {
+
+    private static final long REFRESH_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final Label report = new Label();
+    private final AnimationTimer refresher = new AnimationTimer() {
+        private long lastRefresh;
+
+        @Override
+        public void handle(long now) {
+            if (now - lastRefresh >= REFRESH_INTERVAL_NANOS) {
+                lastRefresh = now;
+                refresh();
+            }
+        }
+    };
+
+    public PerformanceOverlay() {
+        super(5);
+        getStyleClass().add("performance-overlay");
+        report.getStyleClass().add("syntax");
+
+        Button exportButton = new Button(Main.getResourceBundle().getString("overlay.performance.export"));
+        exportButton.setOnAction(event -> export());
+        Button resetButton = new Button(Main.getResourceBundle().getString("overlay.performance.reset"));
+        resetButton.setOnAction(event -> {
+            LatencyRecorder.reset();
+            refresh();
+        });
+
+        getChildren().addAll(report, new HBox(5, exportButton, resetButton));
+        setVisible(false);
+    }
+
+    /**
+     * Shows or hides the overlay. Its contents are only refreshed while it is
+     * showing.
+     *
+     * @param showing Whether the overlay should be shown
+     */
+    public void setShowing(boolean showing) {
+        setVisible(showing);
+        if (showing) {
+            refresh();
+            refresher.start();
+        } else {
+            refresher.stop();
+        }
+    }
+
+    private void refresh() {
+        report.setText(LatencyRecorder.getReport().trim());
+    }
+
+    private void export() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(Main.getResourceBundle().getString("filechooser.export_latency"));
+        fileChooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter(Main.getResourceBundle().getString("filechooser.type_text"), "*.txt")
+        );
+        fileChooser.setInitialFileName("nocturne-latency.txt");
+
+        File selectedFile = fileChooser.showSaveDialog(Main.getMainStage());
+        if (selectedFile == null) {
+            return;
+        }
+        try {
+            LatencyRecorder.export(selectedFile.toPath());
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+}
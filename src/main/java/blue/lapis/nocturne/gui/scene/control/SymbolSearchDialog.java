@@ -0,0 +1,118 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.gui.scene.control;
+
+import static blue.lapis.nocturne.util.Constants.CLASS_PATH_SEPARATOR_PATTERN;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.jar.search.Symbol;
+import blue.lapis.nocturne.jar.search.SymbolIndex;
+import blue.lapis.nocturne.mapping.model.ClassMapping;
+import blue.lapis.nocturne.util.MemberType;
+import blue.lapis.nocturne.util.helper.SceneHelper;
+
+import javafx.application.Platform;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.VBox;
+
+/**
+ * A {@link Dialog} for searching a {@link SymbolIndex} as the user types.
+ */
+public class SymbolSearchDialog extends Dialog<Symbol> {
+
+    private static final int MAX_RESULTS = 100;
+
+    private final TextField queryField = new TextField();
+    private final ListView<Symbol> resultList = new ListView<>();
+
+    public SymbolSearchDialog(SymbolIndex index) {
+        setTitle(Main.getResourceBundle().getString("dialog.find_symbol.title"));
+        setHeaderText(null);
+
+        queryField.setPromptText(Main.getResourceBundle().getString("dialog.find_symbol.prompt"));
+        queryField.textProperty().addListener((observable, oldValue, newValue) -> {
+            resultList.getItems().setAll(index.search(newValue, MAX_RESULTS));
+            resultList.getSelectionModel().selectFirst();
+        });
+        queryField.setOnKeyPressed(event -> {
+            if (event.getCode() == KeyCode.DOWN) {
+                resultList.requestFocus();
+            }
+        });
+
+        resultList.setCellFactory(view -> new SymbolCell());
+        resultList.setOnMouseClicked(event -> {
+            if (event.getClickCount() == 2 && resultList.getSelectionModel().getSelectedItem() != null) {
+                setResult(resultList.getSelectionModel().getSelectedItem());
+                close();
+            }
+        });
+
+        getDialogPane().setContent(new VBox(5, queryField, resultList));
+        getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        getDialogPane().setPrefWidth(600);
+        SceneHelper.addStdStylesheet(getDialogPane());
+        setResultConverter(button -> button == ButtonType.OK
+                ? resultList.getSelectionModel().getSelectedItem()
+                : null);
+
+        Platform.runLater(queryField::requestFocus);
+    }
+
+    /**
+     * Returns a human-readable description of the given {@link Symbol},
+     * qualified by the current name of its owning class.
+     *
+     * @param symbol The {@link Symbol} to describe
+     * @return A description of the {@link Symbol}
+     */
+    private static String describe(Symbol symbol) {
+        String owner = CLASS_PATH_SEPARATOR_PATTERN
+                .matcher(ClassMapping.deobfuscate(Main.getMappingContext(), symbol.getOwner())).replaceAll(".");
+        String desc = symbol.getType() == MemberType.CLASS
+                ? owner
+                : owner + "." + symbol.getCurrentName() + (symbol.getType() == MemberType.METHOD ? "()" : "");
+        return symbol.getCurrentName().equals(symbol.getObfuscatedName())
+                ? desc
+                : desc + " (" + symbol.getObfuscatedName() + ")";
+    }
+
+    private static class SymbolCell extends ListCell<Symbol> {
+
+        @Override
+        protected void updateItem(Symbol item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(empty || item == null ? null : describe(item));
+        }
+
+    }
+
+}
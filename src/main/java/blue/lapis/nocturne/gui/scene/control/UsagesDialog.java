@@ -0,0 +1,116 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.gui.scene.control;
+
+import static blue.lapis.nocturne.util.Constants.CLASS_PATH_SEPARATOR_PATTERN;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.gui.scene.text.SelectableMember.MemberKey;
+import blue.lapis.nocturne.mapping.model.ClassMapping;
+import blue.lapis.nocturne.mapping.model.MethodMapping;
+import blue.lapis.nocturne.processor.index.XrefIndex;
+import blue.lapis.nocturne.util.MemberType;
+import blue.lapis.nocturne.util.helper.MappingsHelper;
+import blue.lapis.nocturne.util.helper.SceneHelper;
+
+import org.cadixdev.bombe.type.signature.MethodSignature;
+
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+
+import java.util.Collection;
+
+/**
+ * A {@link Dialog} listing the methods and classes which reference a member,
+ * as reported by the {@link XrefIndex}.
+ */
+public class UsagesDialog extends Dialog<MemberKey> {
+
+    private final ListView<MemberKey> resultList = new ListView<>();
+
+    public UsagesDialog(String memberName, Collection<MemberKey> usages) {
+        setTitle(Main.getResourceBundle().getString("dialog.usages.title"));
+        setHeaderText(memberName);
+
+        resultList.getItems().setAll(usages);
+        resultList.setPlaceholder(new Label(
+                Main.getResourceBundle().getString("dialog.usages.none")));
+        resultList.getSelectionModel().selectFirst();
+        resultList.setCellFactory(view -> new UsageCell());
+        resultList.setOnMouseClicked(event -> {
+            if (event.getClickCount() == 2 && resultList.getSelectionModel().getSelectedItem() != null) {
+                setResult(resultList.getSelectionModel().getSelectedItem());
+                close();
+            }
+        });
+
+        getDialogPane().setContent(resultList);
+        getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        getDialogPane().setPrefWidth(600);
+        SceneHelper.addStdStylesheet(getDialogPane());
+        setResultConverter(button -> button == ButtonType.OK
+                ? resultList.getSelectionModel().getSelectedItem()
+                : null);
+    }
+
+    /**
+     * Returns a human-readable description of the given usage site,
+     * qualified by the current name of its owning class.
+     *
+     * @param site The key of the referencing method or class
+     * @return A description of the site
+     */
+    private static String describe(MemberKey site) {
+        String owner = site.getType() == MemberType.CLASS ? site.getQualifiedName() : XrefIndex.getOwner(site);
+        String desc = CLASS_PATH_SEPARATOR_PATTERN
+                .matcher(ClassMapping.deobfuscate(Main.getMappingContext(), owner)).replaceAll(".");
+        if (site.getType() == MemberType.CLASS) {
+            return desc;
+        }
+
+        String name = site.getQualifiedName().substring(owner.length() + 1);
+        MethodSignature sig = MethodSignature.of(name, site.getDescriptor());
+        String currentName = MappingsHelper.getClassMapping(Main.getMappingContext(), owner)
+                .map(m -> m.getMethodMappings().get(sig))
+                .map(MethodMapping::getDeobfuscatedName)
+                .orElse(name);
+        return desc + "." + currentName + "()";
+    }
+
+    private static class UsageCell extends ListCell<MemberKey> {
+
+        @Override
+        protected void updateItem(MemberKey item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(empty || item == null ? null : describe(item));
+        }
+
+    }
+
+}
@@ -29,26 +29,31 @@ import static blue.lapis.nocturne.util.Constants.CLASS_MEMBER_SEPARATOR_CHAR;
 import static blue.lapis.nocturne.util.Constants.CLASS_PATH_SEPARATOR_CHAR;
 import static blue.lapis.nocturne.util.Constants.DOT_PATTERN;
 import static blue.lapis.nocturne.util.Constants.INNER_CLASS_SEPARATOR_CHAR;
-import static blue.lapis.nocturne.util.Constants.Processing.CLASS_PREFIX;
 import static blue.lapis.nocturne.util.helper.MappingsHelper.doesRemappedNameClash;
 import static blue.lapis.nocturne.util.helper.MappingsHelper.genMethodMapping;
 import static blue.lapis.nocturne.util.helper.MappingsHelper.getOrCreateClassMapping;
-import static blue.lapis.nocturne.util.helper.StringHelper.looksDeobfuscated;
 
 import blue.lapis.nocturne.Main;
 import blue.lapis.nocturne.gui.MainController;
 import blue.lapis.nocturne.gui.scene.control.CodeTab;
+import blue.lapis.nocturne.gui.scene.control.UsagesDialog;
 import blue.lapis.nocturne.jar.model.JarClassEntry;
 import blue.lapis.nocturne.mapping.model.ClassMapping;
 import blue.lapis.nocturne.mapping.model.FieldMapping;
 import blue.lapis.nocturne.mapping.model.Mapping;
 import blue.lapis.nocturne.mapping.model.MemberMapping;
 import blue.lapis.nocturne.mapping.model.MethodParameterMapping;
+import blue.lapis.nocturne.processor.index.NameClassifier;
+import blue.lapis.nocturne.processor.index.XrefIndex;
 import blue.lapis.nocturne.processor.index.model.IndexedClass;
+import blue.lapis.nocturne.processor.index.model.IndexedField;
+import blue.lapis.nocturne.processor.index.model.IndexedMethod;
 import blue.lapis.nocturne.util.MemberType;
 import blue.lapis.nocturne.util.helper.HierarchyHelper;
 import blue.lapis.nocturne.util.helper.MappingsHelper;
 import blue.lapis.nocturne.util.helper.StringHelper;
+import blue.lapis.nocturne.util.profiling.Interaction;
+import blue.lapis.nocturne.util.profiling.LatencyRecorder;
 import blue.lapis.nocturne.util.tuple.Pair;
 
 import javafx.beans.property.SimpleStringProperty;
@@ -66,6 +71,7 @@ import org.cadixdev.bombe.type.signature.MemberSignature;
 import org.cadixdev.bombe.type.signature.MethodSignature;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -73,7 +79,6 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.regex.Matcher;
 import java.util.stream.Collectors;
 
 /**
@@ -135,6 +140,12 @@ public class SelectableMember extends Text {
 
         MenuItem renameItem = new MenuItem(Main.getResourceBundle().getString("member.contextmenu.rename"));
         renameItem.setOnAction(event -> {
+            if (getType() == MemberType.METHOD && !HierarchyHelper.getLibraryClassesInHierarchy(getParentClass(),
+                    (MethodSignature) sig).isEmpty()) {
+                showLibraryAlert();
+                return;
+            }
+
             String dispText;
             if (getType() == MemberType.CLASS) {
                 dispText = fullName;
@@ -176,90 +187,13 @@ public class SelectableMember extends Text {
                     showIllegalAlert();
                     return;
                 }
-                this.setMapping(res);
+                String mapping = res;
+                Main.getMappingContext().edit(() -> setMapping(mapping));
             }
         });
 
         MenuItem resetItem = new MenuItem(Main.getResourceBundle().getString("member.contextmenu.reset"));
-        resetItem.setOnAction(event -> {
-            if (getText().equals(getName())) {
-                Optional<? extends Mapping> mapping = getMapping();
-                if (mapping.isPresent()) {
-                    mapping.get().setAdHoc(false);
-                    if (mapping.get() instanceof MemberMapping) {
-                        ClassMapping parent = ((MemberMapping) mapping.get()).getParent();
-                        if (mapping.get() instanceof FieldMapping) {
-                            //noinspection ConstantConditions
-                            parent.removeFieldMapping((FieldSignature) sig);
-                        } else {
-                            //noinspection ConstantConditions
-                            parent.removeMethodMapping((MethodSignature) sig);
-                        }
-                    } else if (mapping.get() instanceof MethodParameterMapping) {
-                        ((MethodParameterMapping) mapping.get()).getParent()
-                                .removeParamMapping(mapping.get().getObfuscatedName());
-                    }
-                }
-                MEMBERS.get(key).forEach(sm ->
-                        sm.setDeobfuscated(mapping.isPresent()
-                                && looksDeobfuscated(mapping.get().getObfuscatedName()), false));
-            }
-            switch (getType()) {
-                case CLASS:
-                case INNER_CLASS: {
-                    Optional<? extends Mapping> mapping = getMapping();
-                    if (mapping.isPresent()
-                            && !mapping.get().getObfuscatedName().equals(mapping.get().getDeobfuscatedName())) {
-                        if (doesRemappedNameClash(Main.getLoadedJar(),
-                                fullName, null, mapping.get().getObfuscatedName(), getType()).first()) {
-                            showDupeAlert(false);
-                        }
-                        mapping.get().setDeobfuscatedName(mapping.get().getObfuscatedName());
-                        mapping.get().setAdHoc(false);
-                        setDeobfuscated(looksDeobfuscated(mapping.get().getObfuscatedName()), false);
-                    }
-                    fullName = getName();
-                    break;
-                }
-                case FIELD:
-                case METHOD: {
-                    Optional<ClassMapping> parent
-                            = MappingsHelper.getClassMapping(Main.getMappingContext(), getParentClass());
-                    if (parent.isPresent()) {
-                        Optional<? extends Mapping> mapping = getMapping();
-                        if (mapping.isPresent()) {
-                            Pair<Boolean, Boolean> dupe
-                                    = doesRemappedNameClash(Main.getLoadedJar(),
-                                    parent.get().getFullObfuscatedName() + CLASS_MEMBER_SEPARATOR_CHAR + name, sig,
-                                    mapping.get().getObfuscatedName(), getType());
-
-                            if (dupe.first()) {
-                                showDupeAlert(dupe.second());
-                                return;
-                            }
-
-                            if (getType() == MemberType.FIELD) {
-                                //noinspection ConstantConditions
-                                parent.get().removeFieldMapping((FieldSignature) sig);
-                            } else {
-                                //noinspection ConstantConditions
-                                parent.get().removeMethodMapping((MethodSignature) sig);
-                            }
-                            MEMBERS.get(key).forEach(sm -> {
-                                sm.setDeobfuscated(looksDeobfuscated(mapping.get().getObfuscatedName()), false);
-                                sm.updateText();
-                            });
-                        }
-                    }
-                    break;
-                }
-                default: {
-                    throw new AssertionError();
-                }
-            }
-
-            this.updateCodeTab();
-        });
+        resetItem.setOnAction(event -> Main.getMappingContext().edit(this::resetMapping));
 
         MenuItem toggleDeobf = new MenuItem(Main.getResourceBundle().getString("member.contextmenu.toggleDeobf"));
         toggleDeobf.setOnAction(event -> {
@@ -276,11 +210,21 @@ public class SelectableMember extends Text {
             MainController.INSTANCE.openTab(className, cm.isPresent() ? cm.get().getDeobfuscatedName() : className);
         });
 
+        MenuItem findUsagesItem = new MenuItem(Main.getResourceBundle().getString("member.contextmenu.findUsages"));
+        findUsagesItem.setOnAction(event -> {
+            Set<MemberKey> usages = Main.getLoadedJar().getXrefIndex().getUsages(key);
+            new UsagesDialog(getText(), usages).showAndWait().ifPresent(site ->
+                    MainController.INSTANCE.openClassTab(site.getType() == MemberType.CLASS
+                            ? site.getQualifiedName()
+                            : XrefIndex.getOwner(site)));
+        });
+
         ContextMenu contextMenu = new ContextMenu();
         contextMenu.getItems().add(renameItem);
         contextMenu.getItems().add(resetItem);
         contextMenu.getItems().add(toggleDeobf);
         contextMenu.getItems().add(jumpToDefItem);
+        contextMenu.getItems().add(findUsagesItem);
 
         this.setOnContextMenuRequested(event -> {
             Optional<? extends Mapping> mapping = getMapping();
@@ -299,11 +243,89 @@ public class SelectableMember extends Text {
         updateText();
 
         Optional<? extends Mapping> mapping = getMapping();
-        setDeobfuscated(looksDeobfuscated(getName())
+        setDeobfuscated(looksDeobfuscated()
                 || (fullName != null && !getName().equals(fullName))
                 || (mapping.isPresent() && mapping.get().isAdHoc()), false);
     }
 
+    private void resetMapping() {
+        if (getText().equals(getName())) {
+            Optional<? extends Mapping> mapping = getMapping();
+            if (mapping.isPresent()) {
+                mapping.get().setAdHoc(false);
+                if (mapping.get() instanceof MemberMapping) {
+                    ClassMapping parent = ((MemberMapping) mapping.get()).getParent();
+                    if (mapping.get() instanceof FieldMapping) {
+                        //noinspection ConstantConditions
+                        parent.removeFieldMapping((FieldSignature) sig);
+                    } else {
+                        //noinspection ConstantConditions
+                        parent.removeMethodMapping((MethodSignature) sig);
+                    }
+                } else if (mapping.get() instanceof MethodParameterMapping) {
+                    ((MethodParameterMapping) mapping.get()).getParent()
+                            .removeParamMapping(mapping.get().getObfuscatedName());
+                }
+            }
+            MEMBERS.get(key).forEach(sm -> sm.setDeobfuscated(mapping.isPresent() && sm.looksDeobfuscated(), false));
+        }
+        switch (getType()) {
+            case CLASS:
+            case INNER_CLASS: {
+                Optional<? extends Mapping> mapping = getMapping();
+                if (mapping.isPresent()
+                        && !mapping.get().getObfuscatedName().equals(mapping.get().getDeobfuscatedName())) {
+                    if (doesRemappedNameClash(Main.getLoadedJar(),
+                            fullName, null, mapping.get().getObfuscatedName(), getType()).first()) {
+                        showDupeAlert(false);
+                    }
+                    mapping.get().setDeobfuscatedName(mapping.get().getObfuscatedName());
+                    mapping.get().setAdHoc(false);
+                    setDeobfuscated(looksDeobfuscated(), false);
+                }
+                fullName = getName();
+                break;
+            }
+            case FIELD:
+            case METHOD: {
+                Optional<ClassMapping> parent
+                        = MappingsHelper.getClassMapping(Main.getMappingContext(), getParentClass());
+                if (parent.isPresent()) {
+                    Optional<? extends Mapping> mapping = getMapping();
+                    if (mapping.isPresent()) {
+                        Pair<Boolean, Boolean> dupe
+                                = doesRemappedNameClash(Main.getLoadedJar(),
+                                parent.get().getFullObfuscatedName() + CLASS_MEMBER_SEPARATOR_CHAR + getName(), sig,
+                                mapping.get().getObfuscatedName(), getType());
+
+                        if (dupe.first()) {
+                            showDupeAlert(dupe.second());
+                            return;
+                        }
+
+                        if (getType() == MemberType.FIELD) {
+                            //noinspection ConstantConditions
+                            parent.get().removeFieldMapping((FieldSignature) sig);
+                        } else {
+                            //noinspection ConstantConditions
+                            parent.get().removeMethodMapping((MethodSignature) sig);
+                        }
+                        MEMBERS.get(key).forEach(sm -> {
+                            sm.setDeobfuscated(sm.looksDeobfuscated(), false);
+                            sm.updateText();
+                        });
+                    }
+                }
+                break;
+            }
+            default: {
+                throw new AssertionError();
+            }
+        }
+
+        this.updateCodeTab();
+    }
+
     private String getClassName() {
         String className = getType() == MemberType.CLASS ? getName() : getParentClass();
         if (className.contains(INNER_CLASS_SEPARATOR_CHAR + "")) {
@@ -322,6 +344,14 @@ public class SelectableMember extends Text {
         alert.showAndWait();
     }
 
+    private void showLibraryAlert() {
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setTitle(Main.getResourceBundle().getString("rename.library.title"));
+        alert.setHeaderText(null);
+        alert.setContentText(Main.getResourceBundle().getString("rename.library.content"));
+        alert.showAndWait();
+    }
+
     private void showIllegalAlert() {
         Alert alert = new Alert(Alert.AlertType.WARNING);
         alert.setTitle(Main.getResourceBundle().getString("rename.illegal.title"));
@@ -331,6 +361,12 @@ public class SelectableMember extends Text {
     }
 
     public void setMapping(String mapping) {
+        try (LatencyRecorder.Scope scope = LatencyRecorder.begin(Interaction.RENAME)) {
+            setMapping0(mapping);
+        }
+    }
+
+    private void setMapping0(String mapping) {
         switch (type) {
             case CLASS: {
                 MappingsHelper.genClassMapping(Main.getMappingContext(), getName(), mapping, true);
@@ -442,41 +478,42 @@ public class SelectableMember extends Text {
         setAndProcessText(deobf);
     }
 
-    public static SelectableMember fromMatcher(CodeTab codeTab, Matcher matcher) {
-        MemberType type = matcher.group().startsWith(CLASS_PREFIX)
-                ? MemberType.CLASS
-                : MemberType.valueOf(matcher.group(1));
-        if (type == MemberType.CLASS && matcher.group().contains(Character.toString(INNER_CLASS_SEPARATOR_CHAR))) {
-            type = MemberType.INNER_CLASS;
-        }
-
-        if (type == MemberType.CLASS) {
-            return new SelectableMember(codeTab, type, matcher.group(1));
+    public static SelectableMember fromKey(CodeTab codeTab, MemberKey key) {
+        if (key.getType() == MemberType.CLASS) {
+            return new SelectableMember(codeTab, key.getType(), key.getQualifiedName());
         } else {
-            String qualName;
-            String descriptor;
-            int offset;
-
-            if (type == MemberType.INNER_CLASS) {
-                qualName = matcher.group(1);
-                descriptor = null;
-                offset = qualName.lastIndexOf(INNER_CLASS_SEPARATOR_CHAR);
-            } else {
-                qualName = matcher.group(2);
-                descriptor = matcher.group(3);
-                offset = qualName.lastIndexOf(CLASS_PATH_SEPARATOR_CHAR);
-            }
+            String qualName = key.getQualifiedName();
+            int offset = qualName.lastIndexOf(key.getType() == MemberType.INNER_CLASS
+                    ? INNER_CLASS_SEPARATOR_CHAR
+                    : CLASS_PATH_SEPARATOR_CHAR);
 
             String simpleName = qualName.substring(offset + 1);
             String parentClass = qualName.substring(0, offset);
             try {
-                return new SelectableMember(codeTab, type, simpleName, descriptor, parentClass);
+                return new SelectableMember(codeTab, key.getType(), simpleName, key.getDescriptor(), parentClass);
             } catch (IllegalArgumentException ex) {
                 return null;
             }
         }
     }
 
+    /**
+     * Stops updating the given members when their mappings change, once they
+     * are no longer displayed.
+     *
+     * @param members The members to unregister
+     */
+    public static void unregister(Collection<SelectableMember> members) {
+        Map<MemberKey, Set<SelectableMember>> byKey = new HashMap<>();
+        members.forEach(member -> byKey.computeIfAbsent(member.key, k -> new HashSet<>()).add(member));
+        byKey.forEach((key, removed) -> {
+            List<SelectableMember> list = MEMBERS.get(key);
+            if (list != null && list.removeIf(removed::contains) && list.isEmpty()) {
+                MEMBERS.remove(key);
+            }
+        });
+    }
+
     public void setAndProcessText(String text) {
         setText(getType() == MemberType.CLASS ? StringHelper.unqualify(text) : text);
     }
@@ -493,6 +530,18 @@ public class SelectableMember extends Text {
             this.descriptor = descriptor;
         }
 
+        public MemberType getType() {
+            return type;
+        }
+
+        public String getQualifiedName() {
+            return qualName;
+        }
+
+        public String getDescriptor() {
+            return descriptor;
+        }
+
         @Override
         public boolean equals(Object obj) {
             if (!(obj instanceof MemberKey)) {
@@ -511,6 +560,36 @@ public class SelectableMember extends Text {
 
     }
 
+    /**
+     * Returns whether the obfuscated name of this member looks deobfuscated
+     * already, as classified by the {@link NameClassifier} when the JAR was
+     * indexed.
+     *
+     * @return Whether the obfuscated name looks deobfuscated
+     */
+    public boolean looksDeobfuscated() {
+        String qualName = key.getQualifiedName();
+        if (type == MemberType.CLASS || type == MemberType.INNER_CLASS) {
+            IndexedClass clazz = IndexedClass.INDEXED_CLASSES.get(qualName);
+            return clazz != null ? clazz.looksDeobfuscated() : NameClassifier.looksDeobfuscatedClass(qualName);
+        }
+
+        IndexedClass owner = IndexedClass.INDEXED_CLASSES.get(
+                qualName.substring(0, qualName.lastIndexOf(CLASS_PATH_SEPARATOR_CHAR)));
+        if (owner != null) {
+            //noinspection SuspiciousMethodCalls: sig matches the type of this member
+            IndexedField field = type == MemberType.FIELD ? owner.getFields().get(sig) : null;
+            //noinspection SuspiciousMethodCalls: sig matches the type of this member
+            IndexedMethod method = type == MemberType.METHOD ? owner.getMethods().get(sig) : null;
+            if (field != null) {
+                return field.looksDeobfuscated();
+            } else if (method != null) {
+                return method.looksDeobfuscated();
+            }
+        }
+        return NameClassifier.looksDeobfuscated(getName());
+    }
+
     public void setDeobfuscated(boolean deobfuscated, boolean soft) {
         if (this.deobfuscated && !deobfuscated && soft) {
             return;
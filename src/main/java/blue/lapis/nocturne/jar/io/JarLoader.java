@@ -29,11 +29,16 @@ import static blue.lapis.nocturne.processor.index.model.IndexedClass.INDEXED_CLA
 
 import blue.lapis.nocturne.Main;
 import blue.lapis.nocturne.jar.model.ClassSet;
+import blue.lapis.nocturne.jar.model.ClassStorage;
 import blue.lapis.nocturne.jar.model.JarClassEntry;
 import blue.lapis.nocturne.mapping.model.ClassMapping;
 import blue.lapis.nocturne.processor.index.ClassHierarchyBuilder;
+import blue.lapis.nocturne.processor.index.NameClassifier;
+import blue.lapis.nocturne.processor.index.library.LibraryClasspath;
 import blue.lapis.nocturne.processor.index.model.IndexedClass;
 import blue.lapis.nocturne.util.Constants;
+import blue.lapis.nocturne.util.profiling.LoadPhase;
+import blue.lapis.nocturne.util.profiling.LoadProfiler;
 
 import javafx.scene.control.Alert;
 
@@ -52,6 +57,8 @@ import java.util.zip.ZipException;
  */
 public class JarLoader {
 
+    private static final int READ_BUFFER_SIZE = 8192;
+
     /**
      * Loads a JAR from the given {@link InputStream} for use with Nocturne.
      *
@@ -62,6 +69,7 @@ public class JarLoader {
      */
     public static ClassSet loadJar(String name, InputStream jarFile) throws IOException {
         IndexedClass.INDEXED_CLASSES.clear();
+        LoadProfiler.reset();
 
         JarInputStream jar;
         try {
@@ -75,36 +83,35 @@ public class JarLoader {
         }
 
         Set<JarClassEntry> classes = new HashSet<>();
-
-        JarEntry entry;
-        while ((entry = jar.getNextJarEntry()) != null) {
-            if (!entry.getName().endsWith(".class")) {
-                continue; // not a class so we can ignore it
-            }
-
-            try {
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                int b;
-                while ((b = jar.read()) != -1) {
-                    baos.write(b);
+        ClassStorage storage = ClassStorage.getConfigured();
+        byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+
+        try (LoadProfiler.Scope readPhase = LoadProfiler.beginPhase(LoadPhase.READ_JAR)) {
+            JarEntry entry;
+            while ((entry = jar.getNextJarEntry()) != null) {
+                if (!entry.getName().endsWith(".class")) {
+                    continue; // not a class so we can ignore it
                 }
-                byte[] bytes = baos.toByteArray();
 
                 String className = entry.getName();
                 if (className.endsWith(Constants.CLASS_FILE_NAME_TAIL)) {
                     className = className.substring(0, className.length() - Constants.CLASS_FILE_NAME_TAIL.length());
                 }
 
-                JarClassEntry classEntry = new JarClassEntry(className, bytes);
+                try (LoadProfiler.Scope classScope = LoadProfiler.beginClass(LoadPhase.READ_JAR, className, 0)) {
+                    byte[] bytes = readEntry(jar, entry, readBuffer);
+                    classScope.setBytes(bytes.length); // the size isn't always known until the entry is inflated
+
+                    JarClassEntry classEntry = new JarClassEntry(className, bytes, storage);
 
-                //TODO: detect whether class is already deobfuscated (e.g. this is usually the case for entry classes)
-                ClassMapping mapping = Main.getMappingContext().getMappings().get(className);
-                if (mapping != null && !mapping.getObfuscatedName().equals(mapping.getDeobfuscatedName())) {
-                    classEntry.setDeobfuscated(true);
+                    ClassMapping mapping = Main.getMappingContext().getMappings().get(className);
+                    if (mapping != null && !mapping.getObfuscatedName().equals(mapping.getDeobfuscatedName())) {
+                        classEntry.setDeobfuscated(true);
+                    }
+                    classes.add(classEntry);
+                } catch (IOException ex) {
+                    throw new RuntimeException(ex);
                 }
-                classes.add(classEntry);
-            } catch (IOException ex) {
-                throw new RuntimeException(ex);
             }
         }
 
@@ -119,11 +126,57 @@ public class JarLoader {
         jar.close(); // release the resource
         ClassSet cs = new ClassSet(name, classes);
         Main.setLoadedJar(cs);
-        cs.getClasses().forEach(JarClassEntry::index);
-        new ClassHierarchyBuilder(new HashSet<>(INDEXED_CLASSES.values())).buildHierarchies();
-        cs.getClasses().forEach(JarClassEntry::process);
+        try (LoadProfiler.Scope phase = LoadProfiler.beginPhase(LoadPhase.INDEX)) {
+            cs.getClasses().forEach(JarClassEntry::index);
+        }
+        try (LoadProfiler.Scope phase = LoadProfiler.beginPhase(LoadPhase.CLASSIFY_NAMES)) {
+            NameClassifier.classify(cs);
+        }
+        try (LoadProfiler.Scope phase = LoadProfiler.beginPhase(LoadPhase.LOAD_LIBRARIES)) {
+            LibraryClasspath.load();
+        }
+        try (LoadProfiler.Scope phase = LoadProfiler.beginPhase(LoadPhase.BUILD_HIERARCHY)) {
+            new ClassHierarchyBuilder(new HashSet<>(INDEXED_CLASSES.values())).buildHierarchies();
+        }
+        try (LoadProfiler.Scope phase = LoadProfiler.beginPhase(LoadPhase.TRANSFORM)) {
+            cs.getClasses().forEach(JarClassEntry::process);
+        }
         INDEXED_CLASSES.values().forEach(IndexedClass::clearPool);
+        LoadProfiler.logSummary("Loaded " + name);
         return cs;
     }
 
+    /**
+     * Reads the content of the current entry of the given JAR, straight into
+     * an array of the right size if the entry declares its size.
+     *
+     * @param jar    The JAR being read
+     * @param entry  The current entry
+     * @param buffer A buffer to use if the size isn't declared
+     * @return The content of the entry
+     * @throws IOException If an exception occurs while reading the entry
+     */
+    private static byte[] readEntry(JarInputStream jar, JarEntry entry, byte[] buffer) throws IOException {
+        long size = entry.getSize();
+        if (size >= 0 && size <= Integer.MAX_VALUE) {
+            byte[] bytes = new byte[(int) size];
+            int read = 0;
+            while (read < bytes.length) {
+                int count = jar.read(bytes, read, bytes.length - read);
+                if (count < 0) {
+                    throw new IOException("Unexpected end of entry " + entry.getName());
+                }
+                read += count;
+            }
+            return bytes;
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        int count;
+        while ((count = jar.read(buffer)) != -1) {
+            baos.write(buffer, 0, count);
+        }
+        return baos.toByteArray();
+    }
+
 }
@@ -0,0 +1,627 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.jar.io;
+
+import static blue.lapis.nocturne.processor.index.model.IndexedClass.INDEXED_CLASSES;
+import static blue.lapis.nocturne.util.Constants.INNER_CLASS_SEPARATOR_CHAR;
+import static blue.lapis.nocturne.util.helper.Preconditions.checkState;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.jar.model.ClassSet;
+import blue.lapis.nocturne.jar.model.JarClassEntry;
+import blue.lapis.nocturne.mapping.MappingContext;
+import blue.lapis.nocturne.mapping.MappingFormat;
+import blue.lapis.nocturne.mapping.history.MappingHistory;
+import blue.lapis.nocturne.mapping.io.reader.MappingsReader;
+import blue.lapis.nocturne.mapping.io.writer.MappingsWriter;
+import blue.lapis.nocturne.processor.index.library.LibraryClasspath;
+import blue.lapis.nocturne.processor.index.model.Hierarchical;
+import blue.lapis.nocturne.processor.index.model.IndexedClass;
+import blue.lapis.nocturne.processor.index.model.IndexedField;
+import blue.lapis.nocturne.processor.index.model.IndexedMethod;
+import blue.lapis.nocturne.util.profiling.LoadPhase;
+import blue.lapis.nocturne.util.profiling.LoadProfiler;
+
+import org.cadixdev.bombe.type.FieldType;
+import org.cadixdev.bombe.type.MethodDescriptor;
+import org.cadixdev.bombe.type.signature.FieldSignature;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A snapshot of a workspace: the loaded JAR, with its transformed classes,
+ * indexes and hierarchies, the current mappings and the open code tabs.
+ *
+ * <p>Class files are laid out one after another at the start of the file,
+ * followed by everything else. The class files are memory-mapped rather than
+ * read when a snapshot is resumed, and cross-references are only read once
+ * they are first looked up, so nothing needs to be indexed or transformed
+ * again.</p>
+ */
+public class WorkspaceSnapshot {
+
+    private static final int MAGIC = 0x4E575350; // "NWSP"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 16; // magic, version and the offset of the metadata
+
+    /**
+     * The format the mappings are kept in, as it holds every kind of mapping,
+     * parameter names included.
+     */
+    private static final MappingFormat MAPPINGS_FORMAT = MappingFormat.JAM;
+
+    private final ClassSet classSet;
+    private final List<OpenTab> openTabs;
+    private final int selectedTab;
+
+    private WorkspaceSnapshot(ClassSet classSet, List<OpenTab> openTabs, int selectedTab) {
+        this.classSet = classSet;
+        this.openTabs = Collections.unmodifiableList(openTabs);
+        this.selectedTab = selectedTab;
+    }
+
+    /**
+     * Returns the {@link ClassSet} restored from this snapshot.
+     *
+     * @return The restored {@link ClassSet}
+     */
+    public ClassSet getClassSet() {
+        return classSet;
+    }
+
+    /**
+     * Returns the code tabs which were open when this snapshot was taken, in
+     * the order they were shown.
+     *
+     * @return The open code tabs
+     */
+    public List<OpenTab> getOpenTabs() {
+        return openTabs;
+    }
+
+    /**
+     * Returns the index of the code tab which was selected when this
+     * snapshot was taken.
+     *
+     * @return The index of the selected tab, or {@code -1} if none was
+     *     selected
+     */
+    public int getSelectedTab() {
+        return selectedTab;
+    }
+
+    /**
+     * Writes a snapshot of the loaded JAR and the current mappings, along with
+     * the given code tabs, to the given file.
+     *
+     * @param file        The file to write to
+     * @param openTabs    The open code tabs
+     * @param selectedTab The index of the selected tab, or {@code -1} if none
+     *                    is selected
+     * @throws IOException If an exception occurs while writing the snapshot
+     */
+    public static void write(Path file, List<OpenTab> openTabs, int selectedTab) throws IOException {
+        ClassSet classSet = Main.getLoadedJar();
+        checkState(classSet != null, "Cannot snapshot a workspace without a loaded JAR");
+
+        List<JarClassEntry> entries = new ArrayList<>(classSet.getClasses());
+        entries.sort(Comparator.comparing(JarClassEntry::getName));
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tempFile = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                DataOutputStream out
+                        = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+                out.write(new byte[HEADER_SIZE]); // filled in once the metadata's offset is known
+
+                int[] offsets = new int[entries.size()];
+                int[] lengths = new int[entries.size()];
+                for (int i = 0; i < entries.size(); i++) {
+                    byte[] content = entries.get(i).getContent();
+                    offsets[i] = out.size();
+                    lengths[i] = content.length;
+                    out.write(content);
+                    if (out.size() < 0) { // the count wraps past 2 GiB, which can't be mapped in one go
+                        throw new IOException("Workspace is too large to snapshot");
+                    }
+                }
+
+                int metadataOffset = out.size();
+                writeMetadata(out, classSet, entries, offsets, lengths, openTabs, selectedTab);
+                out.flush();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).putLong(metadataOffset).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static void writeMetadata(DataOutputStream out, ClassSet classSet, List<JarClassEntry> entries,
+            int[] offsets, int[] lengths, List<OpenTab> openTabs, int selectedTab) throws IOException {
+        // the same names and descriptors recur throughout, so they are pooled ahead of everything else
+        StringTable strings = new StringTable();
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+        DataOutputStream records = new DataOutputStream(recordBytes);
+        records.writeUTF(classSet.getName());
+
+        Map<String, Integer> indices = new HashMap<>(entries.size() * 4 / 3 + 1);
+        records.writeInt(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            JarClassEntry entry = entries.get(i);
+            indices.put(entry.getName(), i);
+            records.writeInt(strings.getId(entry.getName()));
+            records.writeBoolean(entry.isDeobfuscated());
+            records.writeInt(offsets[i]);
+            records.writeInt(lengths[i]);
+        }
+
+        for (JarClassEntry entry : entries) {
+            IndexedClass clazz = INDEXED_CLASSES.get(entry.getName());
+            records.writeBoolean(clazz != null);
+            if (clazz == null) {
+                continue;
+            }
+            records.writeBoolean(clazz.looksDeobfuscated());
+            records.writeInt(clazz.getSuperclass() != null ? strings.getId(clazz.getSuperclass()) : -1);
+
+            records.writeShort(clazz.getInterfaces().size());
+            for (String iface : clazz.getInterfaces()) {
+                records.writeInt(strings.getId(iface));
+            }
+
+            records.writeShort(clazz.getFields().size());
+            for (IndexedField field : clazz.getFields().values()) {
+                records.writeInt(strings.getId(field.getSignature().getName()));
+                records.writeInt(strings.getId(field.getSignature().getType().get().toString()));
+                records.writeByte(field.getVisibility().getTag());
+                records.writeBoolean(field.looksDeobfuscated());
+            }
+
+            records.writeShort(clazz.getMethods().size());
+            for (IndexedMethod method : clazz.getMethods().values()) {
+                records.writeInt(strings.getId(method.getSignature().getName()));
+                records.writeInt(strings.getId(method.getSignature().getDescriptor().toString()));
+                records.writeByte(method.getVisibility().getTag());
+                records.writeBoolean(method.looksDeobfuscated());
+                writeHierarchy(records, method, indices, strings);
+            }
+            writeHierarchy(records, clazz, indices, strings);
+        }
+
+        // usages are only needed once they are looked up, so they are kept apart to be read on demand
+        ByteArrayOutputStream xrefBytes = new ByteArrayOutputStream();
+        classSet.getXrefIndex().write(new DataOutputStream(xrefBytes), strings::getId);
+        records.writeInt(xrefBytes.size());
+        xrefBytes.writeTo(records);
+
+        StringWriter mappings = new StringWriter();
+        try (MappingsWriter writer = MAPPINGS_FORMAT.createWriter(new PrintWriter(mappings))) {
+            writer.write(Main.getMappingContext());
+        }
+        byte[] mappingBytes = mappings.toString().getBytes(StandardCharsets.UTF_8);
+        records.writeInt(mappingBytes.length);
+        records.write(mappingBytes);
+        records.writeUTF(Main.getCurrentMappingsPath() != null ? Main.getCurrentMappingsPath().toString() : "");
+        records.writeUTF(Main.getCurrentMappingFormat() != null ? Main.getCurrentMappingFormat().name() : "");
+        records.writeBoolean(Main.getMappingContext().isDirty());
+
+        records.writeInt(openTabs.size());
+        for (OpenTab tab : openTabs) {
+            records.writeUTF(tab.getClassName());
+            records.writeUTF(tab.getDisplayName());
+            records.writeDouble(tab.getScrollPosition());
+        }
+        records.writeInt(selectedTab);
+
+        strings.write(out);
+        recordBytes.writeTo(out);
+    }
+
+    /**
+     * Writes the hierarchy of the given class or method, referring to the
+     * classes of the loaded JAR by their index and to library classes by
+     * their name.
+     */
+    private static void writeHierarchy(DataOutputStream out, Hierarchical<IndexedClass> member,
+            Map<String, Integer> indices, StringTable strings) throws IOException {
+        out.writeInt(member.getHierarchy().size());
+        for (IndexedClass clazz : member.getHierarchy()) {
+            out.writeInt(indices.getOrDefault(clazz.getName(), -1));
+        }
+        out.writeInt(member.getLibraryHierarchy().size());
+        for (IndexedClass clazz : member.getLibraryHierarchy()) {
+            out.writeInt(strings.getId(clazz.getName()));
+        }
+    }
+
+    /**
+     * Resumes the workspace in the given snapshot, replacing the loaded JAR
+     * and the current mappings. If the snapshot can't be read, nothing is
+     * left loaded.
+     *
+     * @param file The snapshot to resume
+     * @return The resumed snapshot
+     * @throws IOException If an exception occurs while reading the snapshot
+     */
+    public static WorkspaceSnapshot read(Path file) throws IOException {
+        INDEXED_CLASSES.clear();
+        LoadProfiler.reset();
+        Main.getMappingContext().clear();
+        WorkspaceSnapshot snapshot;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             LoadProfiler.Scope phase = LoadProfiler.beginPhase(LoadPhase.READ_WORKSPACE)) {
+            snapshot = read(file, channel);
+        } catch (IOException | RuntimeException ex) {
+            INDEXED_CLASSES.clear();
+            Main.getMappingContext().clear();
+            Main.getMappingContext().setDirty(false);
+            Main.setLoadedJar(null);
+            throw ex;
+        }
+        LoadProfiler.logSummary("Resumed " + snapshot.getClassSet().getName());
+        return snapshot;
+    }
+
+    private static WorkspaceSnapshot read(Path file, FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining()) {
+            if (channel.read(header) < 0) {
+                throw new IOException(file + " is not a workspace snapshot");
+            }
+        }
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException(file + " is not a workspace snapshot");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported workspace snapshot version " + version);
+        }
+        long metadataOffset = header.getLong();
+        if (metadataOffset < HEADER_SIZE || metadataOffset > channel.size()) {
+            throw new IOException("Workspace snapshot " + file + " is truncated");
+        }
+
+        // the mapping outlives the channel, and is released along with the last class referring to it
+        MappedByteBuffer classData = channel.map(FileChannel.MapMode.READ_ONLY, 0, metadataOffset);
+        BufferInputStream metadata = new BufferInputStream(
+                channel.map(FileChannel.MapMode.READ_ONLY, metadataOffset, channel.size() - metadataOffset));
+        DataInputStream in = new DataInputStream(metadata);
+
+        String[] strings = new String[in.readInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = in.readUTF();
+        }
+        FieldType[] fieldTypes = new FieldType[strings.length];
+        MethodDescriptor[] methodDescriptors = new MethodDescriptor[strings.length];
+
+        String name = in.readUTF();
+        int classCount = in.readInt();
+        List<JarClassEntry> entries = new ArrayList<>(classCount);
+        boolean[] deobfuscated = new boolean[classCount];
+        for (int i = 0; i < classCount; i++) {
+            String className = strings[in.readInt()];
+            deobfuscated[i] = in.readBoolean();
+            int offset = in.readInt();
+            int length = in.readInt();
+            ByteBuffer content = classData.duplicate();
+            content.limit(offset + length).position(offset);
+            entries.add(new JarClassEntry(className, content));
+        }
+        ClassSet classSet = new ClassSet(name, new HashSet<>(entries));
+        Main.setLoadedJar(classSet);
+        LibraryClasspath.load();
+
+        List<IndexedClass> classes = new ArrayList<>(Collections.nCopies(classCount, null));
+        List<PendingHierarchy> hierarchies = new ArrayList<>();
+        for (int i = 0; i < classCount; i++) {
+            if (!in.readBoolean()) {
+                continue;
+            }
+            JarClassEntry entry = entries.get(i);
+            boolean classLooksDeobfuscated = in.readBoolean();
+            int superClass = in.readInt();
+
+            int interfaceCount = in.readUnsignedShort();
+            List<String> interfaces = new ArrayList<>(interfaceCount);
+            for (int j = 0; j < interfaceCount; j++) {
+                interfaces.add(strings[in.readInt()]);
+            }
+
+            int fieldCount = in.readUnsignedShort();
+            List<IndexedField> fields = new ArrayList<>(fieldCount);
+            for (int j = 0; j < fieldCount; j++) {
+                String fieldName = strings[in.readInt()];
+                int type = in.readInt();
+                if (fieldTypes[type] == null) {
+                    fieldTypes[type] = FieldType.of(strings[type]);
+                }
+                FieldSignature sig = new FieldSignature(fieldName, fieldTypes[type]);
+                IndexedField field = new IndexedField(sig, IndexedField.Visibility.fromAccessFlags(in.readByte()));
+                field.setLooksDeobfuscated(in.readBoolean());
+                fields.add(field);
+                entry.getCurrentFields().put(sig, sig);
+            }
+
+            int methodCount = in.readUnsignedShort();
+            List<IndexedMethod> methods = new ArrayList<>(methodCount);
+            for (int j = 0; j < methodCount; j++) {
+                String methodName = strings[in.readInt()];
+                int descriptor = in.readInt();
+                if (methodDescriptors[descriptor] == null) {
+                    methodDescriptors[descriptor] = MethodDescriptor.of(strings[descriptor]);
+                }
+                MethodSignature sig = new MethodSignature(methodName, methodDescriptors[descriptor]);
+                IndexedMethod method = new IndexedMethod(sig, IndexedMethod.Visibility.fromAccessFlags(in.readByte()));
+                method.setLooksDeobfuscated(in.readBoolean());
+                methods.add(method);
+                entry.getCurrentMethods().put(sig, sig);
+                hierarchies.add(readHierarchy(in, method, strings));
+            }
+
+            IndexedClass clazz = new IndexedClass(entry.getName(), null, superClass >= 0 ? strings[superClass] : null,
+                    interfaces, fields, methods);
+            clazz.setLooksDeobfuscated(classLooksDeobfuscated);
+            hierarchies.add(readHierarchy(in, clazz, strings));
+            classes.set(i, clazz);
+            INDEXED_CLASSES.put(clazz.getName(), clazz);
+
+            int innerIndex = entry.getName().lastIndexOf(INNER_CLASS_SEPARATOR_CHAR);
+            if (innerIndex != -1) {
+                String simpleName = entry.getName().substring(innerIndex + 1);
+                classSet.getClass(entry.getName().substring(0, innerIndex))
+                        .ifPresent(parent -> parent.getCurrentInnerClassNames().put(simpleName, simpleName));
+            }
+        }
+        for (PendingHierarchy hierarchy : hierarchies) {
+            hierarchy.resolve(classes);
+        }
+
+        ByteBuffer xrefData = metadata.slice(in.readInt());
+        classSet.getXrefIndex().readLazily(() -> new DataInputStream(new BufferInputStream(xrefData.duplicate())),
+                id -> strings[id]);
+
+        byte[] mappingBytes = new byte[in.readInt()];
+        in.readFully(mappingBytes);
+        String mappingsPath = in.readUTF();
+        String mappingFormat = in.readUTF();
+        boolean dirty = in.readBoolean();
+        restoreMappings(new String(mappingBytes, StandardCharsets.UTF_8), dirty);
+        Main.setCurrentMappingsPath(mappingsPath.isEmpty() ? null : Paths.get(mappingsPath));
+        Main.setCurrentMappingFormat(mappingFormat.isEmpty() ? null : MappingFormat.valueOf(mappingFormat));
+        for (int i = 0; i < classCount; i++) {
+            if (entries.get(i).isDeobfuscated() != deobfuscated[i]) {
+                entries.get(i).setDeobfuscated(deobfuscated[i]);
+            }
+        }
+
+        int tabCount = in.readInt();
+        List<OpenTab> openTabs = new ArrayList<>(tabCount);
+        for (int i = 0; i < tabCount; i++) {
+            openTabs.add(new OpenTab(in.readUTF(), in.readUTF(), in.readDouble()));
+        }
+        return new WorkspaceSnapshot(classSet, openTabs, in.readInt());
+    }
+
+    private static PendingHierarchy readHierarchy(DataInputStream in, Hierarchical<IndexedClass> member,
+            String[] strings) throws IOException {
+        int[] classes = new int[in.readInt()];
+        for (int i = 0; i < classes.length; i++) {
+            classes[i] = in.readInt();
+        }
+        String[] libraryClasses = new String[in.readInt()];
+        for (int i = 0; i < libraryClasses.length; i++) {
+            libraryClasses[i] = strings[in.readInt()];
+        }
+        return new PendingHierarchy(member, classes, libraryClasses);
+    }
+
+    private static void restoreMappings(String mappings, boolean dirty) throws IOException {
+        MappingContext context = Main.getMappingContext();
+        if (!mappings.isEmpty()) {
+            try (MappingsReader reader = MAPPINGS_FORMAT.createParser(new BufferedReader(new StringReader(mappings)))) {
+                context.assimilate(reader.read());
+            }
+            Main.getLoadedJar().invalidateSymbolIndex();
+        }
+        // the snapshot starts a new history, as opening a mappings file does
+        context.getHistory().ifPresent(MappingHistory::clear);
+        context.setDirty(dirty);
+    }
+
+    /**
+     * A pool of the strings in a snapshot, which are written once and
+     * referred to by their index.
+     */
+    private static class StringTable {
+
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        private int getId(String string) {
+            Integer id = ids.get(string);
+            if (id == null) {
+                id = strings.size();
+                ids.put(string, id);
+                strings.add(string);
+            }
+            return id;
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeInt(strings.size());
+            for (String string : strings) {
+                out.writeUTF(string);
+            }
+        }
+
+    }
+
+    /**
+     * An unsynchronized stream over a buffer, as the metadata is read a few
+     * bytes at a time.
+     */
+    private static class BufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Returns the given number of bytes from the current position as a
+         * buffer of their own, and skips past them.
+         */
+        private ByteBuffer slice(int length) {
+            ByteBuffer slice = buffer.slice();
+            slice.limit(length);
+            buffer.position(buffer.position() + length);
+            return slice;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+    }
+
+    /**
+     * A code tab which was open when a snapshot was taken.
+     */
+    public static class OpenTab {
+
+        private final String className;
+        private final String displayName;
+        private final double scrollPosition;
+
+        /**
+         * Constructs a new {@link OpenTab}.
+         *
+         * @param className      The obfuscated name of the tab's class
+         * @param displayName    The name shown on the tab
+         * @param scrollPosition The vertical scroll position of the tab's
+         *                       code, from 0 to 1
+         */
+        public OpenTab(String className, String displayName, double scrollPosition) {
+            this.className = className;
+            this.displayName = displayName;
+            this.scrollPosition = scrollPosition;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public double getScrollPosition() {
+            return scrollPosition;
+        }
+
+    }
+
+    /**
+     * The hierarchy of a class or method, which can only be filled in once
+     * every class has been read.
+     */
+    private static class PendingHierarchy {
+
+        private final Hierarchical<IndexedClass> member;
+        private final int[] classes;
+        private final String[] libraryClasses;
+
+        private PendingHierarchy(Hierarchical<IndexedClass> member, int[] classes, String[] libraryClasses) {
+            this.member = member;
+            this.classes = classes;
+            this.libraryClasses = libraryClasses;
+        }
+
+        private void resolve(List<IndexedClass> indexedClasses) {
+            for (int index : classes) {
+                IndexedClass clazz = index >= 0 ? indexedClasses.get(index) : null;
+                if (clazz != null) {
+                    member.getHierarchy().add(clazz);
+                }
+            }
+            for (String name : libraryClasses) {
+                // libraries which have since been removed are left out, as they would be when loading the JAR
+                LibraryClasspath.getClass(name).ifPresent(member.getLibraryHierarchy()::add);
+            }
+            member.finalizeHierarchy();
+        }
+
+    }
+
+}
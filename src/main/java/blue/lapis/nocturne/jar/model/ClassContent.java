@@ -0,0 +1,56 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.jar.model;
+
+/**
+ * The stored bytecode of a {@link JarClassEntry}, as created by a
+ * {@link ClassStorage}.
+ */
+abstract class ClassContent {
+
+    private final int length;
+
+    protected ClassContent(int length) {
+        this.length = length;
+    }
+
+    /**
+     * Returns the length of the bytecode in bytes.
+     *
+     * @return The length of the bytecode
+     */
+    int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns the bytecode. Depending on the storage, this may be the stored
+     * array itself or a copy which is created on every call.
+     *
+     * @return The bytecode
+     */
+    abstract byte[] get();
+
+}
@@ -25,11 +25,16 @@
 
 package blue.lapis.nocturne.jar.model;
 
-import static blue.lapis.nocturne.util.helper.StringHelper.looksDeobfuscated;
-
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.gui.scene.text.SelectableMember;
 import blue.lapis.nocturne.jar.model.hierarchy.Hierarchy;
 import blue.lapis.nocturne.jar.model.hierarchy.HierarchyNode;
+import blue.lapis.nocturne.jar.model.hierarchy.PackageTrie;
+import blue.lapis.nocturne.jar.search.SymbolIndex;
+import blue.lapis.nocturne.processor.index.XrefIndex;
+import blue.lapis.nocturne.processor.index.model.IndexedClass;
 import blue.lapis.nocturne.util.Constants;
+import blue.lapis.nocturne.util.ReverseIndexedMap;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -37,6 +42,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -47,7 +53,12 @@ public class ClassSet {
 
     private final String name;
     private final Map<String, JarClassEntry> classMap = new HashMap<>();
-    private final Map<String, String> names = new HashMap<>();
+    private final Map<String, String> names = new ReverseIndexedMap<>();
+    private final PackageTrie obfuscatedTree = new PackageTrie();
+    private final PackageTrie deobfuscatedTree = new PackageTrie();
+    private final XrefIndex xrefIndex = new XrefIndex();
+    private final Map<String, String> processedDescriptors = new ConcurrentHashMap<>();
+    private SymbolIndex symbolIndex;
 
     /**
      * Constructs a new {@link ClassSet} from the given {@link JarClassEntry}
@@ -59,12 +70,9 @@ public class ClassSet {
     public ClassSet(String name, Set<JarClassEntry> classes) {
         this.name = name;
         classes.forEach(cl -> {
-            if (looksDeobfuscated(cl.getName())) {
-                cl.setDeobfuscated(true);
-            }
-
             classMap.put(cl.getName(), cl);
-            getCurrentNames().put(cl.getName(), cl.getName());
+            names.put(cl.getName(), cl.isDeobfuscated() ? cl.getDeobfuscatedName() : cl.getName());
+            cl.setClassSet(this);
         });
     }
 
@@ -132,7 +140,7 @@ public class ClassSet {
      * obfuscated classes contained by this {@link ClassSet}
      */
     public Hierarchy getObfuscatedHierarchy() {
-        return generateHierarchy(getObfuscatedClasses(), false);
+        return obfuscatedTree.snapshot();
     }
 
     /**
@@ -143,26 +151,107 @@ public class ClassSet {
      * deobfuscated classes contained by this {@link ClassSet}
      */
     public Hierarchy getDeobfuscatedHierarchy() {
-        return generateHierarchy(getDeobfuscatedClasses(), true);
+        return deobfuscatedTree.snapshot();
     }
 
     /**
-     * Generates a {@link HierarchyNode} from the given {@link JarClassEntry}
-     * {@link Set}.
+     * Returns an unmodifiable {@link Map} of obfuscated class names to their
+     * current names.
      *
-     * @param entrySet The {@link JarClassEntry} {@link Set} to generate the
-     *                 {@link HierarchyNode} from
-     * @return The generated {@link HierarchyNode}
+     * @return An unmodifiable {@link Map} of obfuscated class names to their
+     * current names
      */
-    private Hierarchy generateHierarchy(Set<JarClassEntry> entrySet, boolean deobfuscate) {
-        return Hierarchy.fromSet(entrySet.stream()
-                .filter(e -> !e.getName().contains(Constants.INNER_CLASS_SEPARATOR_CHAR + ""))
-                //.map(deobfuscate ? JarClassEntry::getDeobfuscatedName : JarClassEntry::getName)
-                .collect(Collectors.toSet()), deobfuscate);
+    public Map<String, String> getCurrentNames() {
+        return Collections.unmodifiableMap(names);
     }
 
-    public Map<String, String> getCurrentNames() {
-        return names;
+    /**
+     * Sets the current name of the class with the given obfuscated name,
+     * moving it within the deobfuscated hierarchy as necessary.
+     *
+     * @param obfName     The obfuscated name of the class
+     * @param currentName The new current name of the class
+     */
+    public void setCurrentName(String obfName, String currentName) {
+        names.put(obfName, currentName);
+        JarClassEntry entry = classMap.get(obfName);
+        if (entry != null) {
+            updateHierarchies(entry);
+        }
+    }
+
+    /**
+     * Returns the {@link XrefIndex} of this {@link ClassSet}, which is
+     * populated as its classes are indexed.
+     *
+     * @return The {@link XrefIndex} of this {@link ClassSet}
+     */
+    public XrefIndex getXrefIndex() {
+        return xrefIndex;
+    }
+
+    /**
+     * Returns the cache of processed descriptors for this {@link ClassSet},
+     * keyed by their original form.
+     *
+     * @return The cache of processed descriptors for this {@link ClassSet}
+     */
+    public Map<String, String> getProcessedDescriptors() {
+        return processedDescriptors;
+    }
+
+    /**
+     * Returns the {@link SymbolIndex} of this {@link ClassSet}, building it
+     * from the indexed classes and current mappings if necessary.
+     *
+     * @return The {@link SymbolIndex} of this {@link ClassSet}
+     */
+    public SymbolIndex getSymbolIndex() {
+        if (symbolIndex == null) {
+            symbolIndex = new SymbolIndex(IndexedClass.INDEXED_CLASSES.values(), Main.getMappingContext());
+        }
+        return symbolIndex;
+    }
+
+    /**
+     * Updates the current name of the given symbol in the
+     * {@link SymbolIndex}, if it has been built.
+     *
+     * @param key  The key of the renamed symbol
+     * @param name The new current name of the symbol
+     */
+    public void renameSymbol(SelectableMember.MemberKey key, String name) {
+        if (symbolIndex != null) {
+            symbolIndex.rename(key, name);
+        }
+    }
+
+    /**
+     * Discards the {@link SymbolIndex}, causing it to be rebuilt the next time
+     * it is requested.
+     */
+    public void invalidateSymbolIndex() {
+        symbolIndex = null;
+    }
+
+    /**
+     * Files the given {@link JarClassEntry} under the appropriate hierarchy
+     * according to its current name and deobfuscation state.
+     *
+     * @param entry The {@link JarClassEntry} to update
+     */
+    void updateHierarchies(JarClassEntry entry) {
+        String name = entry.getName();
+        if (name.indexOf(Constants.INNER_CLASS_SEPARATOR_CHAR) != -1) {
+            return;
+        }
+        if (entry.isDeobfuscated()) {
+            obfuscatedTree.remove(name);
+            deobfuscatedTree.put(name, names.getOrDefault(name, name));
+        } else {
+            deobfuscatedTree.remove(name);
+            obfuscatedTree.put(name, name);
+        }
     }
 
 }
@@ -0,0 +1,202 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.jar.model;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.util.helper.PropertiesHelper;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Represents the ways in which the bytecode of loaded classes may be kept in
+ * memory.
+ *
+ * <p>Bytecode is only read when a class is indexed, transformed or
+ * decompiled, so for large JARs it is cheaper to keep it out of the heap and
+ * pay a small cost on each of those accesses.</p>
+ */
+public enum ClassStorage {
+
+    /**
+     * Keeps bytecode on the heap as is.
+     */
+    HEAP {
+        @Override
+        ClassContent store(byte[] content) {
+            return new HeapContent(content);
+        }
+    },
+
+    /**
+     * Keeps bytecode on the heap, compressed, and inflates it on each access.
+     */
+    COMPRESSED {
+        @Override
+        ClassContent store(byte[] content) {
+            Deflater deflater = DEFLATER.get();
+            deflater.reset();
+            deflater.setInput(content);
+            deflater.finish();
+
+            // class files compress to well under half their size, so this rarely needs to grow
+            byte[] buffer = new byte[Math.max(content.length / 2, 64)];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            return new CompressedContent(content.length, Arrays.copyOf(buffer, length));
+        }
+    },
+
+    /**
+     * Keeps bytecode in direct buffers outside of the heap, copying it back
+     * on each access.
+     */
+    OFF_HEAP {
+        @Override
+        ClassContent store(byte[] content) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(content.length);
+            buffer.put(content);
+            return new DirectContent(buffer);
+        }
+    };
+
+    private static final ThreadLocal<Deflater> DEFLATER
+            = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+
+    /**
+     * Stores the given bytecode. The array must not be modified afterwards,
+     * as it may be kept as is.
+     *
+     * @param content The bytecode to store
+     * @return The stored bytecode
+     */
+    abstract ClassContent store(byte[] content);
+
+    /**
+     * Wraps the given buffer, which holds the bytecode of a single class from
+     * its position to its limit, without copying it.
+     *
+     * @param buffer The buffer holding the bytecode
+     * @return The wrapped bytecode
+     */
+    static ClassContent wrap(ByteBuffer buffer) {
+        return new DirectContent(buffer.slice());
+    }
+
+    /**
+     * Returns the storage configured in the global properties, or
+     * {@link #COMPRESSED} if none is configured.
+     *
+     * @return The configured storage
+     */
+    public static ClassStorage getConfigured() {
+        PropertiesHelper properties = Main.getInstance() != null ? Main.getPropertiesHelper() : null;
+        if (properties == null) {
+            return COMPRESSED;
+        }
+        String name = properties.getProperty(PropertiesHelper.Key.CLASS_STORAGE);
+        try {
+            return valueOf(name);
+        } catch (IllegalArgumentException ex) {
+            Main.getLogger().warning("Unknown class storage " + name + " - using " + COMPRESSED);
+            return COMPRESSED;
+        }
+    }
+
+    private static class HeapContent extends ClassContent {
+
+        private final byte[] content;
+
+        private HeapContent(byte[] content) {
+            super(content.length);
+            this.content = content;
+        }
+
+        @Override
+        byte[] get() {
+            return content;
+        }
+
+    }
+
+    private static class CompressedContent extends ClassContent {
+
+        private final byte[] compressed;
+
+        private CompressedContent(int length, byte[] compressed) {
+            super(length);
+            this.compressed = compressed;
+        }
+
+        @Override
+        byte[] get() {
+            Inflater inflater = INFLATER.get();
+            inflater.reset();
+            inflater.setInput(compressed);
+            byte[] content = new byte[getLength()];
+            try {
+                int length = 0;
+                while (length < content.length && !inflater.finished()) {
+                    length += inflater.inflate(content, length, content.length - length);
+                }
+            } catch (DataFormatException ex) {
+                throw new IllegalStateException("Stored bytecode is corrupt", ex);
+            }
+            return content;
+        }
+
+    }
+
+    private static class DirectContent extends ClassContent {
+
+        private final ByteBuffer buffer;
+
+        private DirectContent(ByteBuffer buffer) {
+            super(buffer.capacity());
+            this.buffer = buffer;
+        }
+
+        @Override
+        byte[] get() {
+            byte[] content = new byte[getLength()];
+            // duplicate so concurrent readers don't share a position
+            ByteBuffer view = buffer.duplicate();
+            view.rewind();
+            view.get(content);
+            return content;
+        }
+
+    }
+
+}
@@ -31,26 +31,37 @@ import static blue.lapis.nocturne.util.Constants.INNER_CLASS_SEPARATOR_CHAR;
 import static blue.lapis.nocturne.util.helper.Preconditions.checkArgument;
 
 import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.decompile.BytecodeFallback;
+import blue.lapis.nocturne.decompile.DecompileBudget;
+import blue.lapis.nocturne.decompile.DecompiledSource;
 import blue.lapis.nocturne.decompile.NoopResultSaver;
 import blue.lapis.nocturne.decompile.SimpleBytecodeProvider;
 import blue.lapis.nocturne.decompile.SimpleFernflowerLogger;
+import blue.lapis.nocturne.decompile.SourceOutline;
 import blue.lapis.nocturne.mapping.model.TopLevelClassMapping;
+import blue.lapis.nocturne.processor.disassemble.ClassDisassembler;
 import blue.lapis.nocturne.processor.index.ClassIndexer;
 import blue.lapis.nocturne.processor.transform.ClassTransformer;
 import blue.lapis.nocturne.util.MemberType;
+import blue.lapis.nocturne.util.ReverseIndexedMap;
 import blue.lapis.nocturne.util.helper.StringHelper;
+import blue.lapis.nocturne.util.profiling.LoadPhase;
+import blue.lapis.nocturne.util.profiling.LoadProfiler;
 
-import javafx.scene.control.Dialog;
 import org.cadixdev.bombe.type.signature.FieldSignature;
 import org.cadixdev.bombe.type.signature.MethodSignature;
 import org.jetbrains.java.decompiler.main.Fernflower;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.struct.StructClass;
 import org.jetbrains.java.decompiler.struct.lazy.LazyLoader;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -58,48 +69,70 @@ import java.util.stream.Collectors;
  */
 public class JarClassEntry {
 
-    private static Dialog<Boolean> decompileDialog;
+    private static final String DECOMPILER_THREAD_NAME = "Nocturne Decompiler";
 
     private final String name;
-    private byte[] content;
+    private final ClassStorage storage;
+    private ClassContent content;
     private boolean deobfuscated;
+    private ClassSet classSet;
 
-    private final Map<String, String> classNames = new HashMap<>();
-    private final Map<FieldSignature, FieldSignature> fields = new HashMap<>();
-    private final Map<MethodSignature, MethodSignature> methods = new HashMap<>();
-
-    static {
-        if (!Main.getInstance().testingEnv) {
-            decompileDialog = new Dialog<>();
-            decompileDialog.setTitle(Main.getResourceBundle().getString("dialog.decompile.title"));
-            decompileDialog.setHeaderText(null);
-            decompileDialog.setContentText(Main.getResourceBundle().getString("dialog.decompile.content"));
-            decompileDialog.setResult(false);
-        } else {
-            decompileDialog = null;
-        }
-    }
+    private final Map<String, String> classNames = new ReverseIndexedMap<>();
+    private final Map<FieldSignature, FieldSignature> fields = new ReverseIndexedMap<>();
+    private final Map<MethodSignature, MethodSignature> methods = new ReverseIndexedMap<>();
 
     /**
      * Constructs a new {@link JarClassEntry} with the given name and byte
-     * content.
+     * content, stored as configured by {@link ClassStorage#getConfigured()}.
      *
      * @param name    The name of the {@link JarClassEntry}.
-     * @param content A byte array representing the raw content of the class
+     * @param content A byte array representing the raw content of the class,
+     *                which must not be modified afterwards
      */
     public JarClassEntry(String name, byte[] content) {
+        this(name, content, ClassStorage.getConfigured());
+    }
+
+    /**
+     * Constructs a new {@link JarClassEntry} with the given name and byte
+     * content, stored in the given {@link ClassStorage}.
+     *
+     * @param name    The name of the {@link JarClassEntry}.
+     * @param content A byte array representing the raw content of the class,
+     *                which must not be modified afterwards
+     * @param storage The storage to keep the content in
+     */
+    public JarClassEntry(String name, byte[] content, ClassStorage storage) {
         this.name = name;
-        this.content = new byte[content.length];
-        System.arraycopy(content, 0, this.content, 0, content.length);
+        this.storage = storage;
+        this.content = storage.store(content);
+    }
+
+    /**
+     * Constructs a new {@link JarClassEntry} with the given name, whose byte
+     * content is read straight from the given buffer rather than copied, as
+     * when restoring it from a mapped workspace snapshot.
+     *
+     * @param name    The name of the {@link JarClassEntry}.
+     * @param content A buffer holding the raw content of the class from its
+     *                position to its limit, which must not be modified
+     *                afterwards
+     */
+    public JarClassEntry(String name, ByteBuffer content) {
+        this.name = name;
+        this.storage = ClassStorage.OFF_HEAP;
+        this.content = ClassStorage.wrap(content);
     }
 
     public void index() {
-        INDEXED_CLASSES.put(getName(), new ClassIndexer(this).index());
+        try (LoadProfiler.Scope scope = LoadProfiler.beginClass(LoadPhase.INDEX, getName(), content.getLength())) {
+            INDEXED_CLASSES.put(getName(), new ClassIndexer(this).index());
+        }
     }
 
     public void process() {
-        try {
-            content = new ClassTransformer(getName(), getContent()).process();
+        try (LoadProfiler.Scope scope = LoadProfiler.beginClass(LoadPhase.TRANSFORM, getName(), content.getLength())) {
+            content = storage.store(new ClassTransformer(getName(), getContent()).process());
         } catch (IOException ex) {
             Main.getLogger().severe("Failed to process class " + getName());
             ex.printStackTrace();
@@ -126,12 +159,13 @@ public class JarClassEntry {
     }
 
     /**
-     * Returns the raw byte content of this {@link JarClassEntry}.
+     * Returns the raw byte content of this {@link JarClassEntry}. Unless the
+     * content is stored on the heap, this is a new copy on every call.
      *
      * @return The raw byte content of this {@link JarClassEntry}.
      */
     public byte[] getContent() {
-        return content;
+        return content.get();
     }
 
     /**
@@ -151,14 +185,62 @@ public class JarClassEntry {
      */
     public void setDeobfuscated(boolean deobfuscated) {
         this.deobfuscated = deobfuscated;
+        if (classSet != null) {
+            classSet.updateHierarchies(this);
+        }
     }
 
-    public String decompile() {
-        showDecompileDialog();
+    /**
+     * Sets the {@link ClassSet} which owns this {@link JarClassEntry}.
+     *
+     * @param classSet The owning {@link ClassSet}
+     */
+    void setClassSet(ClassSet classSet) {
+        this.classSet = classSet;
+        classSet.updateHierarchies(this);
+    }
+
+    public DecompiledSource decompile() {
+        try (LoadProfiler.Scope phase = LoadProfiler.beginPhase(LoadPhase.DECOMPILE);
+             LoadProfiler.Scope scope = LoadProfiler.beginClass(LoadPhase.DECOMPILE, getName(), content.getLength())) {
+            Optional<String> source = DecompileBudget.runWithin(DECOMPILER_THREAD_NAME, this::decompileClass,
+                    DecompileBudget.getClassBudget());
+            if (source.isPresent()) {
+                return DecompiledSource.parse(BytecodeFallback.addListings(source.get()));
+            }
+            Main.getLogger().warning("Decompiling " + getName() + " overran its budget - listing bytecode instead");
+            return SourceOutline.outline(INDEXED_CLASSES.get(getName()),
+                    new ClassDisassembler(getName(), getContent()));
+        }
+    }
+
+    /**
+     * Disassembles this class and its inner classes, which takes a fraction
+     * of the time needed to decompile them.
+     *
+     * @return The listing of this class and its inner classes
+     */
+    public DecompiledSource disassemble() {
+        try (LoadProfiler.Scope phase = LoadProfiler.beginPhase(LoadPhase.DISASSEMBLE);
+             LoadProfiler.Scope scope = LoadProfiler.beginClass(LoadPhase.DISASSEMBLE, getName(),
+                     content.getLength())) {
+            StringBuilder sb = new StringBuilder(new ClassDisassembler(getName(), getContent()).disassemble());
+            Main.getLoadedJar().getClasses().stream()
+                    .filter(entry -> entry.getName().startsWith(getName() + INNER_CLASS_SEPARATOR_CHAR))
+                    .sorted(Comparator.comparing(JarClassEntry::getName))
+                    .forEach(entry -> sb.append('\n')
+                            .append(new ClassDisassembler(entry.getName(), entry.getContent()).disassemble()));
+            return DecompiledSource.parse(sb.toString());
+        }
+    }
+
+    private String decompileClass() {
+        Map<String, Object> options = new HashMap<>(FF_OPTIONS);
+        options.put(IFernflowerPreferences.MAX_PROCESSING_METHOD, Integer.toString(DecompileBudget.getMethodBudget()));
         Fernflower ff = new Fernflower(
                 SimpleBytecodeProvider.getInstance(),
                 NoopResultSaver.getInstance(),
-                FF_OPTIONS,
+                options,
                 SimpleFernflowerLogger.getInstance()
         );
         try {
@@ -191,7 +273,6 @@ public class JarClassEntry {
         } catch (IOException ex) {
             throw new RuntimeException(ex);
         } finally {
-            closeDecompileDialog();
             ff.clearContext();
         }
     }
@@ -233,12 +314,4 @@ public class JarClassEntry {
                 + "}";
     }
 
-    private static void showDecompileDialog() {
-        decompileDialog.show();
-    }
-
-    private static void closeDecompileDialog() {
-        decompileDialog.close();
-    }
-
 }
@@ -25,8 +25,6 @@
 
 package blue.lapis.nocturne.jar.model.hierarchy;
 
-import static blue.lapis.nocturne.util.Constants.CLASS_PATH_SEPARATOR_PATTERN;
-
 import blue.lapis.nocturne.jar.model.JarClassEntry;
 
 import java.util.Set;
@@ -45,27 +43,11 @@ public class Hierarchy extends HierarchyElement {
      * @return The generated entry {@link HierarchyNode}
      */
     public static Hierarchy fromSet(Set<JarClassEntry> entries, boolean deobfuscated) {
-        Hierarchy root = new Hierarchy();
-
+        PackageTrie trie = new PackageTrie();
         for (JarClassEntry jce : entries) {
-            String id = jce.getName();
-            String fullName = (deobfuscated ? jce.getDeobfuscatedName() : id);
-            String[] arr = CLASS_PATH_SEPARATOR_PATTERN.split(fullName);
-
-            HierarchyElement parent = root;
-            StringBuilder qual = new StringBuilder();
-            for (int i = 0; i < arr.length - 1; i++) {
-                qual.append(arr[i]);
-                if (parent.getChild(arr[i], false).isPresent()) {
-                    parent = parent.getChild(arr[i], false).get();
-                } else {
-                    parent = new HierarchyNode(qual.toString(), arr[i], false, parent);
-                }
-            }
-            new HierarchyNode(id, arr[arr.length - 1], true, parent);
+            trie.put(jce.getName(), deobfuscated ? jce.getDeobfuscatedName() : jce.getName());
         }
-
-        return root;
+        return trie.snapshot();
     }
 
 }
@@ -42,6 +42,8 @@ public abstract class HierarchyElement implements Iterable<HierarchyNode> {
 
     protected Map<NodeKey, HierarchyNode> children = new HashMap<>();
 
+    private PackageTrie.Node source;
+
     /**
      * Attempts to get the child element by the given name from the current one.
      *
@@ -50,6 +52,7 @@ public abstract class HierarchyElement implements Iterable<HierarchyNode> {
      * otherwise
      */
     public Optional<HierarchyNode> getChild(String name, boolean terminal) {
+        materialize();
         NodeKey nk = new NodeKey(name, terminal);
         if (children.containsKey(nk)) {
             return Optional.of(children.get(nk));
@@ -67,6 +70,7 @@ public abstract class HierarchyElement implements Iterable<HierarchyNode> {
      *                               {@link HierarchyNode#isTerminal()}
      */
     public List<HierarchyNode> getChildren() throws IllegalStateException {
+        materialize();
         return Collections.unmodifiableList(new ArrayList<>(children.values()));
     }
 
@@ -86,6 +90,27 @@ public abstract class HierarchyElement implements Iterable<HierarchyNode> {
         children.put(new NodeKey(element.getDisplayName(), element.isTerminal()), element);
     }
 
+    /**
+     * Sets the {@link PackageTrie} node this element's children should be
+     * lazily materialized from.
+     *
+     * @param source The backing node
+     */
+    void setSource(PackageTrie.Node source) {
+        this.source = source;
+    }
+
+    private void materialize() {
+        if (source == null) {
+            return;
+        }
+        PackageTrie.Node node = source;
+        source = null;
+        node.getPackages().values().forEach(pkg ->
+                new HierarchyNode(pkg.getQualifiedName(), pkg.getName(), false, this).setSource(pkg));
+        node.getClasses().forEach((id, name) -> new HierarchyNode(id, name, true, this));
+    }
+
     @Override
     public Iterator<HierarchyNode> iterator() {
         return getChildren().iterator();
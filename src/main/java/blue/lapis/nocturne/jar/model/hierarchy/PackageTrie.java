@@ -0,0 +1,219 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.jar.model.hierarchy;
+
+import static blue.lapis.nocturne.util.Constants.CLASS_PATH_SEPARATOR_CHAR;
+import static blue.lapis.nocturne.util.helper.Preconditions.checkNotNull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A persistent trie of packages, keyed by class ID, which is kept up to date
+ * as classes are added, moved between packages or removed.
+ *
+ * <p>Mutations only touch the nodes along the path of the affected class, and
+ * {@link #snapshot() snapshots} are taken in constant time: nodes belonging
+ * to a snapshot are never mutated, but instead copied the first time a later
+ * mutation passes through them.</p>
+ */
+public class PackageTrie {
+
+    private final Map<String, String> locations = new HashMap<>();
+
+    private Node root;
+    private int epoch;
+
+    public PackageTrie() {
+        this.root = new Node(epoch, null, null);
+    }
+
+    /**
+     * Returns the number of classes contained by this {@link PackageTrie}.
+     *
+     * @return The number of classes contained by this {@link PackageTrie}
+     */
+    public int size() {
+        return locations.size();
+    }
+
+    /**
+     * Returns whether a class with the given ID is contained by this
+     * {@link PackageTrie}.
+     *
+     * @param id The ID of the class
+     * @return Whether the class is contained by this {@link PackageTrie}
+     */
+    public boolean contains(String id) {
+        return locations.containsKey(id);
+    }
+
+    /**
+     * Inserts the class with the given ID under the given qualified name,
+     * moving it if it is already present under a different one.
+     *
+     * @param id   The ID of the class
+     * @param name The qualified name to file the class under
+     */
+    public void put(String id, String name) {
+        checkNotNull(id, "id");
+        checkNotNull(name, "name");
+        String current = locations.put(id, name);
+        if (name.equals(current)) {
+            return;
+        }
+        if (current != null) {
+            root = remove(root, id, current, 0);
+        }
+
+        root = mutable(root);
+        Node node = root;
+        int start = 0;
+        int end;
+        while ((end = name.indexOf(CLASS_PATH_SEPARATOR_CHAR, start)) != -1) {
+            String segment = name.substring(start, end);
+            Node child = node.packages.get(segment);
+            child = child == null ? new Node(epoch, segment, name.substring(0, end)) : mutable(child);
+            node.packages.put(segment, child);
+            node = child;
+            start = end + 1;
+        }
+        node.classes.put(id, name.substring(start));
+    }
+
+    /**
+     * Removes the class with the given ID, pruning any packages left empty.
+     *
+     * @param id The ID of the class
+     * @return Whether the class was present
+     */
+    public boolean remove(String id) {
+        String current = locations.remove(id);
+        if (current == null) {
+            return false;
+        }
+        root = remove(root, id, current, 0);
+        return true;
+    }
+
+    /**
+     * Removes all classes from this {@link PackageTrie}.
+     */
+    public void clear() {
+        locations.clear();
+        root = new Node(++epoch, null, null);
+    }
+
+    /**
+     * Returns a {@link Hierarchy} view of the current state of this
+     * {@link PackageTrie}. The view is unaffected by later mutations, and its
+     * nodes are only materialized as they are visited.
+     *
+     * @return A {@link Hierarchy} view of this {@link PackageTrie}
+     */
+    public Hierarchy snapshot() {
+        epoch++;
+        Hierarchy hierarchy = new Hierarchy();
+        hierarchy.setSource(root);
+        return hierarchy;
+    }
+
+    private Node mutable(Node node) {
+        return node.epoch == epoch ? node : new Node(epoch, node);
+    }
+
+    private Node remove(Node node, String id, String name, int start) {
+        Node copy = mutable(node);
+        int end = name.indexOf(CLASS_PATH_SEPARATOR_CHAR, start);
+        if (end == -1) {
+            copy.classes.remove(id);
+        } else {
+            String segment = name.substring(start, end);
+            Node child = node.packages.get(segment);
+            if (child != null) {
+                child = remove(child, id, name, end + 1);
+                if (child.isEmpty()) {
+                    copy.packages.remove(segment);
+                } else {
+                    copy.packages.put(segment, child);
+                }
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * A single package within a {@link PackageTrie}. Nodes are only mutated
+     * during the epoch in which they were created.
+     */
+    static class Node {
+
+        private final int epoch;
+        private final String name;
+        private final String qualifiedName;
+        private final Map<String, Node> packages;
+        private final Map<String, String> classes;
+
+        private Node(int epoch, String name, String qualifiedName) {
+            this.epoch = epoch;
+            this.name = name;
+            this.qualifiedName = qualifiedName;
+            this.packages = new HashMap<>();
+            this.classes = new HashMap<>();
+        }
+
+        private Node(int epoch, Node node) {
+            this.epoch = epoch;
+            this.name = node.name;
+            this.qualifiedName = node.qualifiedName;
+            this.packages = new HashMap<>(node.packages);
+            this.classes = new HashMap<>(node.classes);
+        }
+
+        String getName() {
+            return name;
+        }
+
+        String getQualifiedName() {
+            return qualifiedName;
+        }
+
+        Map<String, Node> getPackages() {
+            return Collections.unmodifiableMap(packages);
+        }
+
+        Map<String, String> getClasses() {
+            return Collections.unmodifiableMap(classes);
+        }
+
+        private boolean isEmpty() {
+            return packages.isEmpty() && classes.isEmpty();
+        }
+
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.jar.search;
+
+import blue.lapis.nocturne.util.MemberType;
+
+/**
+ * Represents a single searchable class, field or method within a
+ * {@link SymbolIndex}.
+ */
+public class Symbol {
+
+    private final int id;
+    private final MemberType type;
+    private final String owner;
+    private final String obfName;
+    private final String descriptor;
+    private final String lowerObfName;
+    private String currentName;
+    private String lowerCurrentName;
+
+    /**
+     * Constructs a new {@link Symbol} with the given parameters.
+     *
+     * @param id          The ID of the symbol within its {@link SymbolIndex}
+     * @param type        The type of the symbol
+     * @param owner       The full obfuscated name of the class declaring the
+     *                    symbol, or of the class itself
+     * @param obfName     The unqualified obfuscated name of the symbol
+     * @param descriptor  The obfuscated descriptor of the symbol, or
+     *                    {@code null} for classes
+     * @param currentName The unqualified current name of the symbol
+     */
+    Symbol(int id, MemberType type, String owner, String obfName, String descriptor, String currentName) {
+        this.id = id;
+        this.type = type;
+        this.owner = owner;
+        this.obfName = obfName;
+        this.descriptor = descriptor;
+        this.lowerObfName = obfName.toLowerCase();
+        setCurrentName(currentName);
+    }
+
+    int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the type of this {@link Symbol}; one of
+     * {@link MemberType#CLASS}, {@link MemberType#FIELD} or
+     * {@link MemberType#METHOD}.
+     *
+     * @return The type of this {@link Symbol}
+     */
+    public MemberType getType() {
+        return type;
+    }
+
+    /**
+     * Returns the full obfuscated name of the class declaring this
+     * {@link Symbol}, or of the class itself if this {@link Symbol} represents
+     * a class.
+     *
+     * @return The full obfuscated name of the owning class
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * Returns the unqualified obfuscated name of this {@link Symbol}.
+     *
+     * @return The unqualified obfuscated name of this {@link Symbol}
+     */
+    public String getObfuscatedName() {
+        return obfName;
+    }
+
+    /**
+     * Returns the obfuscated descriptor of this {@link Symbol}, or
+     * {@code null} if it represents a class.
+     *
+     * @return The obfuscated descriptor of this {@link Symbol}
+     */
+    public String getDescriptor() {
+        return descriptor;
+    }
+
+    /**
+     * Returns the unqualified current (possibly deobfuscated) name of this
+     * {@link Symbol}.
+     *
+     * @return The unqualified current name of this {@link Symbol}
+     */
+    public String getCurrentName() {
+        return currentName;
+    }
+
+    void setCurrentName(String currentName) {
+        this.currentName = currentName;
+        this.lowerCurrentName = currentName.toLowerCase();
+    }
+
+    String getLowerObfuscatedName() {
+        return lowerObfName;
+    }
+
+    String getLowerCurrentName() {
+        return lowerCurrentName;
+    }
+
+    @Override
+    public String toString() {
+        return "{"
+                + "type=" + this.type + ";"
+                + "owner=" + this.owner + ";"
+                + "obfName=" + this.obfName + ";"
+                + "descriptor=" + this.descriptor + ";"
+                + "currentName=" + this.currentName
+                + "}";
+    }
+
+}
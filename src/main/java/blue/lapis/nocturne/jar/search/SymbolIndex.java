@@ -0,0 +1,513 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.jar.search;
+
+import static blue.lapis.nocturne.util.Constants.CLASS_PATH_SEPARATOR_CHAR;
+import static blue.lapis.nocturne.util.Constants.INNER_CLASS_SEPARATOR_CHAR;
+
+import blue.lapis.nocturne.gui.scene.text.SelectableMember;
+import blue.lapis.nocturne.mapping.MappingContext;
+import blue.lapis.nocturne.mapping.snapshot.ClassSnapshot;
+import blue.lapis.nocturne.mapping.snapshot.MappingSnapshot;
+import blue.lapis.nocturne.mapping.snapshot.MethodSnapshot;
+import blue.lapis.nocturne.processor.index.model.IndexedClass;
+import blue.lapis.nocturne.util.MemberType;
+
+import org.cadixdev.bombe.type.signature.FieldSignature;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * An in-memory index of the classes, fields and methods of a JAR, searchable
+ * by both their obfuscated and current names.
+ *
+ * <p>Every name is indexed by its trigrams, its one- and two-character
+ * prefixes, and the prefixes of its camel-case humps, so that a query only
+ * needs to score the symbols sharing its most selective key. Renames are
+ * applied incrementally; the keys of a symbol's previous name are left in place
+ * and filtered out during scoring until enough of them accumulate to warrant
+ * rebuilding the postings.</p>
+ */
+public class SymbolIndex {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final int MAX_HUMP_KEY_LENGTH = 3;
+    private static final int MAX_MATCH_LENGTH = 256;
+
+    private static final int GRAM_KEY = 0;
+    private static final int PREFIX_KEY = 1;
+    private static final int HUMP_KEY = 2;
+
+    // past this many candidates, stop once enough results have been found
+    private static final int CANDIDATE_BUDGET = 20000;
+
+    private static final int SCORE_EXACT = 1000;
+    private static final int SCORE_PREFIX = 800;
+    private static final int SCORE_HUMPS = 600;
+    private static final int SCORE_SUBSTRING = 400;
+    private static final int SCORE_CLASS_BONUS = 20;
+    private static final int SCORE_CASE_BONUS = 10;
+
+    private static final Comparator<ScoredSymbol> RANKING = Comparator.<ScoredSymbol>comparingInt(s -> -s.score)
+            .thenComparingInt(s -> s.symbol.getCurrentName().length())
+            .thenComparing(s -> s.symbol.getCurrentName());
+
+    private final List<Symbol> symbols = new ArrayList<>();
+    private final Map<SelectableMember.MemberKey, Symbol> keys = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    private int[] seen = new int[0];
+    private int generation;
+    private int liveKeys;
+    private int staleKeys;
+
+    /**
+     * Constructs a new {@link SymbolIndex} from the given
+     * {@link IndexedClass}es, using the given {@link MappingContext} to
+     * determine current names.
+     *
+     * @param classes The {@link IndexedClass}es to index
+     * @param context The {@link MappingContext} to read current names from
+     */
+    public SymbolIndex(Collection<IndexedClass> classes, MappingContext context) {
+        this(classes, context.snapshot());
+    }
+
+    /**
+     * Constructs a new {@link SymbolIndex} from the given
+     * {@link IndexedClass}es, using the given {@link MappingSnapshot} to
+     * determine current names. Unlike the {@link MappingContext}, the snapshot
+     * may be read from any thread.
+     *
+     * @param classes  The {@link IndexedClass}es to index
+     * @param snapshot The {@link MappingSnapshot} to read current names from
+     */
+    public SymbolIndex(Collection<IndexedClass> classes, MappingSnapshot snapshot) {
+        for (IndexedClass clazz : classes) {
+            String className = clazz.getName();
+            String simpleName = getSimpleName(className);
+            if (isAnonymous(simpleName)) {
+                continue;
+            }
+
+            ClassSnapshot mapping = snapshot.getClass(className).orElse(null);
+            addSymbol(MemberType.CLASS, className, simpleName, null,
+                    mapping != null ? getSimpleName(mapping.getDeobfuscatedName()) : simpleName);
+
+            for (FieldSignature sig : clazz.getFields().keySet()) {
+                String fieldName = mapping != null ? mapping.getFieldNames().get(sig) : null;
+                addSymbol(MemberType.FIELD, className, sig.getName(), sig.getType().map(Object::toString).orElse(null),
+                        fieldName != null ? fieldName : sig.getName());
+            }
+
+            for (MethodSignature sig : clazz.getMethods().keySet()) {
+                if (sig.getName().charAt(0) == '<') {
+                    continue; // constructors and initializers can't be renamed
+                }
+                MethodSnapshot methodMapping = mapping != null ? mapping.getMethods().get(sig) : null;
+                addSymbol(MemberType.METHOD, className, sig.getName(), sig.getDescriptor().toString(),
+                        methodMapping != null ? methodMapping.getDeobfuscatedName() : sig.getName());
+            }
+        }
+    }
+
+    /**
+     * Returns the number of symbols contained by this {@link SymbolIndex}.
+     *
+     * @return The number of symbols contained by this {@link SymbolIndex}
+     */
+    public int size() {
+        return symbols.size();
+    }
+
+    /**
+     * Searches for symbols whose obfuscated or current name matches the given
+     * query, either exactly, as a prefix, by camel-case humps (e.g.
+     * {@code gMN} or {@code GMN} for {@code getMappingName}) or as a
+     * substring. Results are ordered from best to worst match.
+     *
+     * <p>For very common queries, scanning stops once a fixed number of
+     * candidates have been considered and enough results have been found, so
+     * the results are not guaranteed to be the best matches overall.</p>
+     *
+     * @param query The query to search for
+     * @param limit The maximum number of results to return
+     * @return The matching {@link Symbol}s
+     */
+    public List<Symbol> search(String query, int limit) {
+        if (query.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String lowerQuery = query.toLowerCase();
+
+        List<Postings> candidates = new ArrayList<>();
+        if (lowerQuery.length() >= GRAM_LENGTH) {
+            Postings rarest = null;
+            for (int i = 0; i + GRAM_LENGTH <= lowerQuery.length(); i++) {
+                Postings gram = postings.get(key(GRAM_KEY, lowerQuery, i, GRAM_LENGTH));
+                if (gram == null) {
+                    rarest = null;
+                    break;
+                }
+                if (rarest == null || gram.size < rarest.size) {
+                    rarest = gram;
+                }
+            }
+            if (rarest != null) {
+                candidates.add(rarest);
+            }
+        } else {
+            addIfPresent(candidates, key(PREFIX_KEY, lowerQuery, 0, lowerQuery.length()));
+        }
+        String humps = getQueryHumps(query);
+        if (humps.length() > 1) {
+            addIfPresent(candidates, key(HUMP_KEY, humps, 0, Math.min(humps.length(), MAX_HUMP_KEY_LENGTH)));
+        }
+
+        if (++generation == 0) {
+            Arrays.fill(seen, 0);
+            generation = 1;
+        }
+
+        // scan the most selective postings first, so the budget is spent on the least common matches
+        candidates.sort(Comparator.comparingInt(p -> p.size));
+
+        // keep only the best results seen so far, with the worst at the head of the queue
+        PriorityQueue<ScoredSymbol> results = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        int scanned = 0;
+        for (Postings candidate : candidates) {
+            for (int i = 0; i < candidate.size; i++) {
+                if (++scanned > CANDIDATE_BUDGET && results.size() == limit) {
+                    break;
+                }
+                int id = candidate.ids[i];
+                if (seen[id] == generation) {
+                    continue;
+                }
+                seen[id] = generation;
+
+                Symbol symbol = symbols.get(id);
+                int score = score(symbol.getCurrentName(), symbol.getLowerCurrentName(), query, lowerQuery);
+                if (!symbol.getCurrentName().equals(symbol.getObfuscatedName())) {
+                    score = Math.max(score,
+                            score(symbol.getObfuscatedName(), symbol.getLowerObfuscatedName(), query, lowerQuery));
+                }
+                if (score == 0) {
+                    continue;
+                }
+                if (symbol.getType() == MemberType.CLASS) {
+                    score += SCORE_CLASS_BONUS;
+                }
+                if (results.size() == limit) {
+                    if (score < results.peek().score) {
+                        continue;
+                    }
+                    results.add(new ScoredSymbol(symbol, score));
+                    results.poll();
+                } else {
+                    results.add(new ScoredSymbol(symbol, score));
+                }
+            }
+        }
+
+        List<ScoredSymbol> sorted = new ArrayList<>(results);
+        sorted.sort(RANKING);
+        List<Symbol> ranked = new ArrayList<>(sorted.size());
+        sorted.forEach(result -> ranked.add(result.symbol));
+        return ranked;
+    }
+
+    /**
+     * Updates the current name of the symbol identified by the given
+     * {@link SelectableMember.MemberKey}, if it is indexed.
+     *
+     * @param key  The key of the symbol
+     * @param name The new current name of the symbol; qualified class names
+     *             are unqualified automatically
+     */
+    public void rename(SelectableMember.MemberKey key, String name) {
+        Symbol symbol = keys.get(key);
+        if (symbol == null) {
+            return;
+        }
+        String simpleName = symbol.getType() == MemberType.CLASS ? getSimpleName(name) : name;
+        if (simpleName.equals(symbol.getCurrentName())) {
+            return;
+        }
+
+        if (!symbol.getCurrentName().equals(symbol.getObfuscatedName())) {
+            int stale = indexName(symbol.getCurrentName(), -1);
+            liveKeys -= stale;
+            staleKeys += stale;
+        }
+        symbol.setCurrentName(simpleName);
+        if (!simpleName.equals(symbol.getObfuscatedName())) {
+            liveKeys += indexName(simpleName, symbol.getId());
+        }
+
+        if (staleKeys > liveKeys) {
+            rebuildPostings();
+        }
+    }
+
+    /**
+     * Resets the current name of every symbol to its obfuscated name.
+     */
+    public void resetNames() {
+        symbols.forEach(symbol -> symbol.setCurrentName(symbol.getObfuscatedName()));
+        rebuildPostings();
+    }
+
+    private void addSymbol(MemberType type, String owner, String obfName, String descriptor, String currentName) {
+        Symbol symbol = new Symbol(symbols.size(), type, owner, obfName, descriptor, currentName);
+        symbols.add(symbol);
+        keys.put(new SelectableMember.MemberKey(type,
+                type == MemberType.CLASS ? owner : owner + CLASS_PATH_SEPARATOR_CHAR + obfName, descriptor), symbol);
+        indexSymbol(symbol);
+        if (seen.length < symbols.size()) {
+            seen = Arrays.copyOf(seen, Math.max(16, seen.length * 2));
+        }
+    }
+
+    private void indexSymbol(Symbol symbol) {
+        liveKeys += indexName(symbol.getObfuscatedName(), symbol.getId());
+        if (!symbol.getCurrentName().equals(symbol.getObfuscatedName())) {
+            liveKeys += indexName(symbol.getCurrentName(), symbol.getId());
+        }
+    }
+
+    private void rebuildPostings() {
+        postings.clear();
+        liveKeys = 0;
+        staleKeys = 0;
+        symbols.forEach(this::indexSymbol);
+    }
+
+    /**
+     * Adds the given ID to the postings of every key of the given name.
+     *
+     * @param name The name to index
+     * @param id   The ID of the symbol, or {@code -1} to only count the keys
+     * @return The number of keys added
+     */
+    private int indexName(String name, int id) {
+        String lowerName = name.toLowerCase();
+        int count = 0;
+        for (int i = 0; i + GRAM_LENGTH <= lowerName.length(); i++) {
+            count += addKey(key(GRAM_KEY, lowerName, i, GRAM_LENGTH), id);
+        }
+        for (int i = 1; i < GRAM_LENGTH && i <= lowerName.length(); i++) {
+            count += addKey(key(PREFIX_KEY, lowerName, 0, i), id);
+        }
+        String humps = getHumps(name);
+        for (int i = 2; i <= MAX_HUMP_KEY_LENGTH && i <= humps.length(); i++) {
+            count += addKey(key(HUMP_KEY, humps, 0, i), id);
+        }
+        return count;
+    }
+
+    private int addKey(long key, int id) {
+        if (id == -1) {
+            return 1;
+        }
+        Postings posting = postings.computeIfAbsent(key, k -> new Postings());
+        if (posting.size > 0 && posting.ids[posting.size - 1] == id) {
+            return 0; // repeated key within the same name
+        }
+        posting.add(id);
+        return 1;
+    }
+
+    /**
+     * Packs a key of up to three characters of the given string, along with
+     * its kind and length, into a single long.
+     */
+    private static long key(int kind, String str, int start, int length) {
+        long key = ((long) kind << 56) | ((long) length << 48);
+        for (int i = 0; i < length; i++) {
+            key |= (long) str.charAt(start + i) << (16 * i);
+        }
+        return key;
+    }
+
+    private void addIfPresent(List<Postings> list, long key) {
+        Postings posting = postings.get(key);
+        if (posting != null) {
+            list.add(posting);
+        }
+    }
+
+    private static int score(String name, String lowerName, String query, String lowerQuery) {
+        int score;
+        if (lowerName.equals(lowerQuery)) {
+            score = SCORE_EXACT;
+        } else if (lowerName.startsWith(lowerQuery)) {
+            score = SCORE_PREFIX;
+        } else if (name.length() <= MAX_MATCH_LENGTH && matchesHumps(name, 0, query, 0)) {
+            score = SCORE_HUMPS;
+        } else {
+            int index = lowerName.indexOf(lowerQuery);
+            if (index == -1) {
+                return 0;
+            }
+            score = SCORE_SUBSTRING - Math.min(index, SCORE_SUBSTRING / 2);
+        }
+        if (name.startsWith(query)) {
+            score += SCORE_CASE_BONUS;
+        }
+        return score;
+    }
+
+    /**
+     * Returns whether the query, starting at the given index, matches the
+     * name, starting at the given index, where each query character either
+     * continues the current hump of the name or begins a later one.
+     */
+    private static boolean matchesHumps(String name, int nameIndex, String query, int queryIndex) {
+        if (queryIndex == query.length()) {
+            return true;
+        }
+        char c = Character.toLowerCase(query.charAt(queryIndex));
+        if (nameIndex < name.length() && Character.toLowerCase(name.charAt(nameIndex)) == c
+                && matchesHumps(name, nameIndex + 1, query, queryIndex + 1)) {
+            return true;
+        }
+        for (int i = nameIndex + 1; i < name.length(); i++) {
+            if (isHumpStart(name, i) && Character.toLowerCase(name.charAt(i)) == c
+                    && matchesHumps(name, i + 1, query, queryIndex + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isHumpStart(String name, int index) {
+        if (index == 0) {
+            return true;
+        }
+        char c = name.charAt(index);
+        char prev = name.charAt(index - 1);
+        if (prev == '_' || prev == '$') {
+            return c != '_' && c != '$';
+        }
+        if (Character.isUpperCase(c)) {
+            return !Character.isUpperCase(prev)
+                    || index + 1 < name.length() && Character.isLowerCase(name.charAt(index + 1));
+        }
+        return Character.isDigit(c) && !Character.isDigit(prev);
+    }
+
+    /**
+     * Returns the lowercased first characters of the humps of the given name.
+     *
+     * @param name The name to split into humps
+     * @return The hump initials of the name
+     */
+    private static String getHumps(String name) {
+        StringBuilder humps = new StringBuilder();
+        for (int i = 0; i < name.length() && humps.length() < MAX_HUMP_KEY_LENGTH; i++) {
+            if (isHumpStart(name, i)) {
+                humps.append(Character.toLowerCase(name.charAt(i)));
+            }
+        }
+        return humps.toString();
+    }
+
+    /**
+     * Returns the lowercased hump initials the given query refers to. A query
+     * containing uppercase characters starts a new hump at each of them, while
+     * an entirely lowercase query is taken to be a string of initials.
+     *
+     * @param query The query to split into humps
+     * @return The hump initials of the query
+     */
+    private static String getQueryHumps(String query) {
+        StringBuilder humps = new StringBuilder();
+        humps.append(Character.toLowerCase(query.charAt(0)));
+        boolean camelCase = false;
+        for (int i = 1; i < query.length(); i++) {
+            if (Character.isUpperCase(query.charAt(i))) {
+                humps.append(Character.toLowerCase(query.charAt(i)));
+                camelCase = true;
+            }
+        }
+        return camelCase ? humps.toString() : query.toLowerCase();
+    }
+
+    private static String getSimpleName(String className) {
+        int index = Math.max(className.lastIndexOf(CLASS_PATH_SEPARATOR_CHAR),
+                className.lastIndexOf(INNER_CLASS_SEPARATOR_CHAR));
+        return className.substring(index + 1);
+    }
+
+    private static boolean isAnonymous(String simpleName) {
+        for (int i = 0; i < simpleName.length(); i++) {
+            if (!Character.isDigit(simpleName.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A growable list of symbol IDs.
+     */
+    private static class Postings {
+
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+    }
+
+    private static class ScoredSymbol {
+
+        private final Symbol symbol;
+        private final int score;
+
+        private ScoredSymbol(Symbol symbol, int score) {
+            this.symbol = symbol;
+            this.score = score;
+        }
+
+    }
+
+}
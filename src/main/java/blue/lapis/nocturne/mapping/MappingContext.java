@@ -27,21 +27,43 @@ package blue.lapis.nocturne.mapping;
 
 import blue.lapis.nocturne.Main;
 import blue.lapis.nocturne.gui.MainController;
+import blue.lapis.nocturne.mapping.history.MappingHistory;
+import blue.lapis.nocturne.mapping.io.journal.MappingJournal;
 import blue.lapis.nocturne.mapping.model.ClassMapping;
 import blue.lapis.nocturne.mapping.model.TopLevelClassMapping;
+import blue.lapis.nocturne.mapping.snapshot.ClassSnapshot;
+import blue.lapis.nocturne.mapping.snapshot.MappingSnapshot;
+import blue.lapis.nocturne.util.PersistentHashMap;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Level;
+
+import javax.annotation.Nullable;
 
 /**
  * Represents a set of {@link ClassMapping}s.
+ *
+ * <p>A context is only safe to use from the thread editing it. Other threads
+ * may instead read the {@link MappingSnapshot}s it publishes, which never
+ * block, nor are blocked by, further edits.</p>
  */
 public class MappingContext {
 
     private final Map<String, TopLevelClassMapping> mappings = new HashMap<>();
 
+    // the classes which changed since the last snapshot, only tracked once one has been taken
+    private final Set<String> changedClasses = new HashSet<>();
+    private volatile MappingSnapshot snapshot;
+
     private boolean dirty;
+    private MappingJournal journal;
+    private MappingHistory history;
 
     /**
      * Returns an unmodifiable {@link Map} of all {@link TopLevelClassMapping}s
@@ -61,11 +83,53 @@ public class MappingContext {
      * @param updateClassViews Whether to update the class views
      */
     public void addMapping(TopLevelClassMapping mapping, boolean updateClassViews) {
-        mappings.put(mapping.getObfuscatedName(), mapping);
+        getJournal().ifPresent(journal -> journal.recordName(mapping, mapping.getDeobfuscatedName()));
+        putMapping(mapping);
         mapping.initialize(updateClassViews);
     }
 
-    //TODO: probably add a removeMapping method at some point
+    /**
+     * Removes the given {@link TopLevelClassMapping} from this
+     * {@link MappingContext}, if it is present. The class, along with its
+     * members and inner classes, is renamed back to its obfuscated name
+     * beforehand.
+     *
+     * @param mapping The {@link TopLevelClassMapping} to remove
+     */
+    public void removeMapping(TopLevelClassMapping mapping) {
+        if (mappings.get(mapping.getObfuscatedName()) != mapping) {
+            return;
+        }
+        edit(() -> {
+            mapping.revertMemberNames();
+            if (!mapping.getDeobfuscatedName().equals(mapping.getObfuscatedName())) {
+                mapping.setDeobfuscatedName(mapping.getObfuscatedName(), false);
+            }
+            getJournal().ifPresent(journal -> journal.recordRemoval(mapping));
+            mappings.remove(mapping.getObfuscatedName());
+            getHistory().ifPresent(history -> history.record(() -> restoreMapping(mapping)));
+            markChanged(mapping);
+            setDirty(true);
+        });
+    }
+
+    private void restoreMapping(TopLevelClassMapping mapping) {
+        getJournal().ifPresent(journal -> journal.recordAll(mapping));
+        putMapping(mapping);
+        mapping.initialize(false);
+        setDirty(true);
+    }
+
+    private void putMapping(TopLevelClassMapping mapping) {
+        TopLevelClassMapping previous = mappings.put(mapping.getObfuscatedName(), mapping);
+        getHistory().ifPresent(history -> history.record(() -> {
+            removeMapping(mapping);
+            if (previous != null) {
+                restoreMapping(previous);
+            }
+        }));
+        markChanged(mapping);
+    }
 
     /**
      * Merges the given {@link MappingContext} into the current one. All
@@ -78,11 +142,14 @@ public class MappingContext {
      * @param context The {@link MappingContext} to merge
      */
     public void assimilate(MappingContext context) {
-        this.mappings.putAll(context.getMappings());
+        getJournal().ifPresent(journal -> context.getMappings().values().forEach(journal::recordAll));
+        edit(() -> context.getMappings().values().forEach(m -> {
+            m.setContext(this);
+            putMapping(m);
+        }));
         if (!context.getMappings().isEmpty()) {
             setDirty(true);
         }
-        context.getMappings().values().forEach(m -> m.setContext(this));
     }
 
     /**
@@ -90,6 +157,138 @@ public class MappingContext {
      */
     public void clear() {
         this.mappings.clear();
+        this.changedClasses.clear();
+        if (snapshot != null) {
+            snapshot = new MappingSnapshot(snapshot.getVersion() + 1, PersistentHashMap.empty());
+        }
+        getHistory().ifPresent(MappingHistory::clear);
+        setJournal(null);
+    }
+
+    /**
+     * Performs the given changes to this {@link MappingContext} as a single
+     * step of its history, so that they are undone together.
+     *
+     * @param changes The changes to perform
+     */
+    public void edit(Runnable changes) {
+        if (history == null) {
+            changes.run();
+            return;
+        }
+        history.beginStep();
+        try {
+            changes.run();
+        } finally {
+            history.endStep();
+        }
+    }
+
+    /**
+     * Takes an immutable snapshot of the current mappings, and publishes it
+     * for background readers. Only the classes which changed since the
+     * previous snapshot are copied.
+     *
+     * <p>This must only be called from the thread editing this context.</p>
+     *
+     * @return A snapshot of the current mappings
+     */
+    public MappingSnapshot snapshot() {
+        MappingSnapshot previous = this.snapshot;
+        PersistentHashMap<String, ClassSnapshot> classes;
+        if (previous == null) {
+            classes = PersistentHashMap.empty();
+            for (TopLevelClassMapping mapping : mappings.values()) {
+                classes = classes.plus(mapping.getObfuscatedName(), mapping.getSnapshot());
+            }
+        } else if (!changedClasses.isEmpty()) {
+            classes = previous.getClassMap();
+            for (String name : changedClasses) {
+                TopLevelClassMapping mapping = mappings.get(name);
+                classes = mapping != null ? classes.plus(name, mapping.getSnapshot()) : classes.minus(name);
+            }
+            changedClasses.clear();
+        } else {
+            return previous;
+        }
+
+        MappingSnapshot snapshot = new MappingSnapshot(previous != null ? previous.getVersion() + 1 : 0, classes);
+        this.snapshot = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * Gets the most recently published {@link MappingSnapshot}. Unlike the
+     * context itself, this may be called from any thread.
+     *
+     * @return The latest snapshot, or {@link Optional#empty()} if none has
+     *     been taken yet
+     */
+    public Optional<MappingSnapshot> getLatestSnapshot() {
+        return Optional.ofNullable(snapshot);
+    }
+
+    /**
+     * Records that the given {@link TopLevelClassMapping}, or one of its
+     * members, has changed since the last snapshot was taken.
+     *
+     * @param mapping The changed mapping
+     */
+    public void markChanged(TopLevelClassMapping mapping) {
+        if (snapshot != null) {
+            changedClasses.add(mapping.getObfuscatedName());
+        }
+    }
+
+    /**
+     * Gets the {@link MappingJournal} which changes to this
+     * {@link MappingContext} are recorded to, if any.
+     *
+     * @return The attached journal, or {@link Optional#empty()} if changes are
+     * not being journalled
+     */
+    public Optional<MappingJournal> getJournal() {
+        return Optional.ofNullable(journal);
+    }
+
+    /**
+     * Attaches the given {@link MappingJournal} to this
+     * {@link MappingContext}. Any previously attached journal is closed,
+     * discarding its uncommitted changes.
+     *
+     * @param journal The journal to attach, or {@code null} to stop journalling
+     */
+    public void setJournal(@Nullable MappingJournal journal) {
+        if (this.journal != null && this.journal != journal) {
+            try {
+                this.journal.close();
+            } catch (IOException ex) {
+                Main.getLogger().log(Level.WARNING, "Failed to close mapping journal", ex);
+            }
+        }
+        this.journal = journal;
+    }
+
+    /**
+     * Gets the {@link MappingHistory} which changes to this
+     * {@link MappingContext} are recorded to, if any.
+     *
+     * @return The attached history, or {@link Optional#empty()} if changes
+     * cannot be undone
+     */
+    public Optional<MappingHistory> getHistory() {
+        return Optional.ofNullable(history);
+    }
+
+    /**
+     * Attaches the given {@link MappingHistory} to this
+     * {@link MappingContext}.
+     *
+     * @param history The history to attach, or {@code null} to stop recording
+     *                changes
+     */
+    public void setHistory(@Nullable MappingHistory history) {
+        this.history = history;
     }
 
     public boolean isDirty() {
@@ -40,8 +40,6 @@ import javafx.stage.FileChooser;
 import java.io.BufferedReader;
 import java.io.PrintWriter;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 
@@ -55,12 +53,6 @@ public enum MappingFormat {
     ENIGMA("*", EnigmaReader::new, EnigmaWriter::new),
     ;
 
-    private static final Map<FileChooser.ExtensionFilter, MappingFormat> FILTER_TO_FORMAT = new HashMap<>();
-
-    static {
-        Arrays.asList(values()).forEach(t -> FILTER_TO_FORMAT.put(t.getExtensionFilter(), t));
-    }
-
     /**
      * Gets the {@link MappingFormat} from a given extension filter.
      *
@@ -68,10 +60,11 @@ public enum MappingFormat {
      * @return The mapping format, wrapped in a {@link Optional}
      */
     public static Optional<MappingFormat> fromExtensionFilter(final FileChooser.ExtensionFilter filter) {
-        return Optional.ofNullable(FILTER_TO_FORMAT.get(filter));
+        return Arrays.stream(values()).filter(format -> format.getExtensionFilter() == filter).findFirst();
     }
 
-    private final FileChooser.ExtensionFilter extensionFilter;
+    private final String extension;
+    private FileChooser.ExtensionFilter extensionFilter;
     private final Function<BufferedReader, MappingsReader> parserConstructor;
     private final Function<PrintWriter, MappingsWriter> writerConstructor;
 
@@ -85,9 +78,7 @@ public enum MappingFormat {
     MappingFormat(final String extension,
                   final Function<BufferedReader, MappingsReader> parserConstructor,
                   final Function<PrintWriter, MappingsWriter> writerConstructor) {
-        this.extensionFilter = new FileChooser.ExtensionFilter(
-                Main.getResourceBundle().getString("filechooser.type_" + name().toLowerCase()),
-                "*." + extension);
+        this.extension = extension;
         this.parserConstructor = parserConstructor;
         this.writerConstructor = writerConstructor;
     }
@@ -98,6 +89,12 @@ public enum MappingFormat {
      * @return The extension filter
      */
     public FileChooser.ExtensionFilter getExtensionFilter() {
+        // created on demand, so the format can be used without the GUI's resources
+        if (this.extensionFilter == null) {
+            this.extensionFilter = new FileChooser.ExtensionFilter(
+                    Main.getResourceBundle().getString("filechooser.type_" + name().toLowerCase()),
+                    "*." + this.extension);
+        }
         return this.extensionFilter;
     }
 
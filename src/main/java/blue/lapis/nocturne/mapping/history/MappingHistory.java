@@ -0,0 +1,207 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.mapping.history;
+
+import blue.lapis.nocturne.mapping.MappingContext;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * The undo and redo history of the changes made to a {@link MappingContext}.
+ *
+ * <p>Rather than copies of the mappings, the history stores the inverse of
+ * each change, so its size is proportional to what changed. Reverting a
+ * change is itself a change, whose inverse is recorded onto the opposite
+ * stack; undoing a step therefore produces the step which redoes it.</p>
+ *
+ * <p>Changes made between {@link #beginStep()} and {@link #endStep()} are
+ * undone as a single step, as are those made while undoing or redoing.
+ * Changes made outside of a step form a step of their own.</p>
+ */
+public class MappingHistory {
+
+    /**
+     * The maximum number of steps which may be undone.
+     */
+    public static final int MAX_STEPS = 256;
+
+    private final Deque<List<Runnable>> undoSteps = new ArrayDeque<>();
+    private final Deque<List<Runnable>> redoSteps = new ArrayDeque<>();
+
+    private List<Runnable> currentStep;
+    private int depth;
+    private boolean reverting;
+
+    private Runnable listener;
+
+    /**
+     * Sets the action to run whenever the steps which may be undone or redone
+     * change, e.g. to update the controls offering them.
+     *
+     * @param listener The action to run, or {@code null} to run none
+     */
+    public void setListener(@Nullable Runnable listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Begins a step, which lasts until the matching call to
+     * {@link #endStep()}. Steps may be nested, in which case the outermost
+     * one is recorded.
+     */
+    public void beginStep() {
+        if (depth++ == 0 && !reverting) {
+            currentStep = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Ends the step begun by the matching call to {@link #beginStep()}.
+     */
+    public void endStep() {
+        if (depth == 0) {
+            throw new IllegalStateException("No step in progress");
+        }
+        if (--depth == 0 && !reverting) {
+            List<Runnable> step = currentStep;
+            currentStep = null;
+            push(step);
+        }
+    }
+
+    /**
+     * Records the inverse of a change which was just made.
+     *
+     * @param inverse The action reverting the change
+     */
+    public void record(Runnable inverse) {
+        if (currentStep != null) {
+            currentStep.add(inverse);
+        } else {
+            List<Runnable> step = new ArrayList<>(1);
+            step.add(inverse);
+            push(step);
+        }
+    }
+
+    /**
+     * Returns whether there is a step which may be undone.
+     *
+     * @return Whether there is a step to undo
+     */
+    public boolean canUndo() {
+        return !undoSteps.isEmpty();
+    }
+
+    /**
+     * Returns whether there is a step which may be redone.
+     *
+     * @return Whether there is a step to redo
+     */
+    public boolean canRedo() {
+        return !redoSteps.isEmpty();
+    }
+
+    /**
+     * Undoes the most recent step, if any.
+     *
+     * @return Whether a step was undone
+     */
+    public boolean undo() {
+        return revert(undoSteps, redoSteps);
+    }
+
+    /**
+     * Redoes the most recently undone step, if any.
+     *
+     * @return Whether a step was redone
+     */
+    public boolean redo() {
+        return revert(redoSteps, undoSteps);
+    }
+
+    /**
+     * Discards every step which may be undone or redone.
+     */
+    public void clear() {
+        undoSteps.clear();
+        redoSteps.clear();
+        fireChanged();
+    }
+
+    private boolean revert(Deque<List<Runnable>> from, Deque<List<Runnable>> to) {
+        if (depth != 0) {
+            throw new IllegalStateException("Cannot revert changes while a step is in progress");
+        }
+        List<Runnable> step = from.pollLast();
+        if (step == null) {
+            return false;
+        }
+
+        List<Runnable> inverse = new ArrayList<>(step.size());
+        currentStep = inverse;
+        reverting = true;
+        try {
+            for (int i = step.size() - 1; i >= 0; i--) {
+                step.get(i).run();
+            }
+        } finally {
+            currentStep = null;
+            reverting = false;
+        }
+        if (!inverse.isEmpty()) {
+            append(to, inverse);
+        }
+        fireChanged();
+        return true;
+    }
+
+    private void push(List<Runnable> step) {
+        if (!step.isEmpty()) {
+            append(undoSteps, step);
+            redoSteps.clear();
+            fireChanged();
+        }
+    }
+
+    private void fireChanged() {
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    private static void append(Deque<List<Runnable>> steps, List<Runnable> step) {
+        steps.addLast(step);
+        if (steps.size() > MAX_STEPS) {
+            steps.removeFirst();
+        }
+    }
+
+}
@@ -0,0 +1,761 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.mapping.io.journal;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.mapping.MappingContext;
+import blue.lapis.nocturne.mapping.io.writer.MappingsWriter;
+import blue.lapis.nocturne.mapping.model.ClassMapping;
+import blue.lapis.nocturne.mapping.model.FieldMapping;
+import blue.lapis.nocturne.mapping.model.Mapping;
+import blue.lapis.nocturne.mapping.model.MethodMapping;
+import blue.lapis.nocturne.mapping.model.MethodParameterMapping;
+import blue.lapis.nocturne.mapping.snapshot.MappingSnapshot;
+import blue.lapis.nocturne.util.helper.MappingsHelper;
+
+import org.cadixdev.bombe.type.FieldType;
+import org.cadixdev.bombe.type.MethodDescriptor;
+import org.cadixdev.bombe.type.signature.FieldSignature;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of changes made to a {@link MappingContext} since its
+ * mappings file was last written in full.
+ *
+ * <p>Every change is appended as a small binary record as soon as it is made,
+ * so saving only needs to mark the end of the log as committed and flush it to
+ * disk. The committed records are then folded back into the mappings file on
+ * a background thread, and whatever remains is folded back when the journal
+ * is closed, so the mappings file stays current for other tools. Reopening
+ * the mappings file replays the log on top of it; records are only left over
+ * if Nocturne did not shut down cleanly, and those made after the last commit
+ * are recovered as unsaved changes.</p>
+ *
+ * <p>The journal is stored next to the mappings file as a header followed by
+ * a sequence of records, each framed by its length and a CRC-32 checksum so a
+ * record torn by a crash is detected and discarded.</p>
+ */
+public class MappingJournal implements Closeable {
+
+    /**
+     * The suffix appended to the name of a mappings file to locate its
+     * journal.
+     */
+    public static final String FILE_SUFFIX = ".journal";
+
+    private static final int MAGIC = 0x4E4A524E; // NJRN
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 8;
+    private static final int FRAME_HEADER_LENGTH = 8;
+
+    private static final byte OP_CLASS = 1;
+    private static final byte OP_FIELD = 2;
+    private static final byte OP_METHOD = 3;
+    private static final byte OP_PARAM = 4;
+    private static final byte OP_REMOVE_FIELD = 5;
+    private static final byte OP_REMOVE_METHOD = 6;
+    private static final byte OP_REMOVE_PARAM = 7;
+    private static final byte OP_COMMIT = 8;
+
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Nocturne Journal Compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path mappingsPath;
+    private final Path journalPath;
+    private final Function<PrintWriter, MappingsWriter> writerFactory;
+
+    private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream();
+    private final DataOutputStream recordOut = new DataOutputStream(recordBuffer);
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+    private byte[] lastRecord;
+    private long committedLength = HEADER_LENGTH;
+    // the mappings as of the last commit, which are what compaction writes out
+    private MappingSnapshot committedSnapshot;
+    private boolean uncommitted;
+    private boolean compacting;
+    private boolean failed;
+    private boolean closed;
+
+    private MappingJournal(Path mappingsPath, Function<PrintWriter, MappingsWriter> writerFactory,
+            boolean truncate) throws IOException {
+        this.mappingsPath = mappingsPath;
+        this.journalPath = getJournalPath(mappingsPath);
+        this.writerFactory = writerFactory;
+        this.channel = FileChannel.open(journalPath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if (truncate || channel.size() < HEADER_LENGTH || !readHeader()) {
+            channel.truncate(0);
+            writeHeader(channel);
+            channel.force(false);
+        }
+        channel.position(channel.size());
+    }
+
+    /**
+     * Opens the journal belonging to the given mappings file, creating it if
+     * it does not exist. Existing records are kept and should be applied with
+     * {@link #replay(MappingContext)}.
+     *
+     * @param mappingsPath  The path of the mappings file
+     * @param writerFactory The constructor of the writer for the format of the
+     *                      mappings file, used when compacting the journal
+     * @return The opened journal
+     * @throws IOException If an exception occurs while opening the journal
+     */
+    public static MappingJournal open(Path mappingsPath, Function<PrintWriter, MappingsWriter> writerFactory)
+            throws IOException {
+        return new MappingJournal(mappingsPath, writerFactory, false);
+    }
+
+    /**
+     * Creates an empty journal for the given mappings file, discarding any
+     * existing one. This should be used immediately after the mappings file
+     * has been written in full.
+     *
+     * @param mappingsPath  The path of the mappings file
+     * @param writerFactory The constructor of the writer for the format of the
+     *                      mappings file, used when compacting the journal
+     * @return The created journal
+     * @throws IOException If an exception occurs while creating the journal
+     */
+    public static MappingJournal create(Path mappingsPath, Function<PrintWriter, MappingsWriter> writerFactory)
+            throws IOException {
+        return new MappingJournal(mappingsPath, writerFactory, true);
+    }
+
+    /**
+     * Returns the path of the journal belonging to the given mappings file.
+     *
+     * @param mappingsPath The path of the mappings file
+     * @return The path of the journal
+     */
+    public static Path getJournalPath(Path mappingsPath) {
+        return mappingsPath.resolveSibling(mappingsPath.getFileName() + FILE_SUFFIX);
+    }
+
+    /**
+     * Returns whether this journal records changes to the given mappings file.
+     *
+     * @param mappingsPath The path of the mappings file
+     * @return Whether this journal belongs to the given file
+     */
+    public boolean isFor(Path mappingsPath) {
+        return this.mappingsPath.equals(mappingsPath);
+    }
+
+    /**
+     * Returns whether this journal is still able to record changes. A journal
+     * becomes unusable once it is closed or after an I/O error, in which case
+     * the mappings must be written out in full.
+     *
+     * @return Whether this journal is usable
+     */
+    public synchronized boolean isUsable() {
+        return !closed && !failed;
+    }
+
+    /**
+     * Returns whether this journal contains changes which were made after the
+     * last commit.
+     *
+     * @return Whether there are uncommitted changes
+     */
+    public synchronized boolean hasUncommittedChanges() {
+        return uncommitted;
+    }
+
+    /**
+     * Applies every intact record in this journal to the given
+     * {@link MappingContext}. A torn record at the end of the journal, left
+     * behind by a crash, is discarded along with anything following it.
+     *
+     * <p>The context must not have this journal attached, or the replayed
+     * changes would be recorded a second time.</p>
+     *
+     * @param context The {@link MappingContext} to apply the records to
+     * @return The number of records applied
+     * @throws IOException If an exception occurs while reading the journal
+     */
+    public synchronized int replay(MappingContext context) throws IOException {
+        long size = channel.size();
+        Replay replay = new Replay(context, true);
+        replay.run(readFully(HEADER_LENGTH, (int) (size - HEADER_LENGTH)));
+
+        if (replay.validLength < size) {
+            Main.getLogger().warning("Discarding " + (size - replay.validLength)
+                    + " bytes of damaged journal data from " + journalPath.getFileName());
+            channel.truncate(replay.validLength);
+        }
+        channel.position(replay.validLength);
+        committedLength = replay.committedLength;
+        committedSnapshot = replay.committedSnapshot;
+        uncommitted = replay.uncommitted;
+        return replay.applied;
+    }
+
+    /**
+     * Applies the journal belonging to the given mappings file, if there is
+     * one, to the given {@link MappingContext} without opening it for writing.
+     * This is used when the mappings are merged into other mappings rather
+     * than opened for editing.
+     *
+     * @param mappingsPath The path of the mappings file
+     * @param context      The {@link MappingContext} to apply the records to
+     * @return The number of records applied
+     * @throws IOException If an exception occurs while reading the journal
+     */
+    public static int replay(Path mappingsPath, MappingContext context) throws IOException {
+        Path journalPath = getJournalPath(mappingsPath);
+        if (Files.notExists(journalPath)) {
+            return 0;
+        }
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(journalPath));
+        if (data.remaining() < HEADER_LENGTH || data.getInt() != MAGIC || data.getInt() != VERSION) {
+            Main.getLogger().warning("Ignoring unrecognized mapping journal " + journalPath.getFileName());
+            return 0;
+        }
+        Replay replay = new Replay(context, false);
+        replay.run(data);
+        return replay.applied;
+    }
+
+    /**
+     * Records that the given {@link Mapping} has been given the specified
+     * deobfuscated name. Adding a mapping is recorded in the same way.
+     *
+     * @param mapping The mapping which was changed
+     * @param deobf   The new deobfuscated name of the mapping
+     */
+    public synchronized void recordName(Mapping mapping, String deobf) {
+        try {
+            beginRecord();
+            if (mapping instanceof MethodParameterMapping) {
+                MethodParameterMapping param = (MethodParameterMapping) mapping;
+                recordOut.writeByte(OP_PARAM);
+                writeMethod(param.getParent());
+                recordOut.writeInt(param.getIndex());
+                recordOut.writeUTF(param.getObfuscatedName());
+            } else if (mapping instanceof MethodMapping) {
+                recordOut.writeByte(OP_METHOD);
+                writeMethod((MethodMapping) mapping);
+            } else if (mapping instanceof FieldMapping) {
+                recordOut.writeByte(OP_FIELD);
+                writeField((FieldMapping) mapping);
+            } else if (mapping instanceof ClassMapping) {
+                recordOut.writeByte(OP_CLASS);
+                recordOut.writeUTF(((ClassMapping) mapping).getFullObfuscatedName());
+            } else {
+                throw new IllegalArgumentException("Unknown mapping type " + mapping.getClass().getName());
+            }
+            recordOut.writeUTF(deobf);
+            appendRecord();
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    /**
+     * Records the removal of the given {@link FieldMapping}.
+     *
+     * @param mapping The removed mapping
+     */
+    public synchronized void recordRemoval(FieldMapping mapping) {
+        try {
+            beginRecord();
+            recordOut.writeByte(OP_REMOVE_FIELD);
+            writeField(mapping);
+            appendRecord();
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    /**
+     * Records the removal of the given {@link MethodMapping}.
+     *
+     * @param mapping The removed mapping
+     */
+    public synchronized void recordRemoval(MethodMapping mapping) {
+        try {
+            beginRecord();
+            recordOut.writeByte(OP_REMOVE_METHOD);
+            writeMethod(mapping);
+            appendRecord();
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    /**
+     * Records the removal of the given {@link ClassMapping} and its members.
+     * As classes cannot be removed individually, it is instead recorded as
+     * being renamed back to its obfuscated name with every member removed.
+     *
+     * @param mapping The removed mapping
+     */
+    public synchronized void recordRemoval(ClassMapping mapping) {
+        recordName(mapping, mapping.getObfuscatedName());
+        mapping.getFieldMappings().values().forEach(this::recordRemoval);
+        mapping.getMethodMappings().values().forEach(this::recordRemoval);
+        mapping.getInnerClassMappings().values().forEach(this::recordRemoval);
+    }
+
+    /**
+     * Records the removal of the given {@link MethodParameterMapping}.
+     *
+     * @param mapping The removed mapping
+     */
+    public synchronized void recordRemoval(MethodParameterMapping mapping) {
+        try {
+            beginRecord();
+            recordOut.writeByte(OP_REMOVE_PARAM);
+            writeMethod(mapping.getParent());
+            recordOut.writeUTF(mapping.getObfuscatedName());
+            appendRecord();
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    /**
+     * Records the given {@link ClassMapping} and everything it contains, as
+     * when mappings from another file are merged in.
+     *
+     * @param mapping The mapping to record
+     */
+    public synchronized void recordAll(ClassMapping mapping) {
+        recordName(mapping, mapping.getDeobfuscatedName());
+        mapping.getFieldMappings().values().forEach(field -> recordName(field, field.getDeobfuscatedName()));
+        mapping.getMethodMappings().values().forEach(method -> {
+            recordName(method, method.getDeobfuscatedName());
+            method.getParamMappings().values().forEach(param -> recordName(param, param.getDeobfuscatedName()));
+        });
+        mapping.getInnerClassMappings().values().forEach(this::recordAll);
+    }
+
+    /**
+     * Commits all records made so far and flushes them to disk. The journal
+     * is then compacted into the mappings file in the background.
+     *
+     * <p>This must be called from the thread editing the context, which is
+     * snapshotted so that it may be written out in the background.</p>
+     *
+     * @param context The {@link MappingContext} being journalled
+     * @throws IOException If an exception occurs while writing the journal
+     */
+    public synchronized void commit(MappingContext context) throws IOException {
+        if (!isUsable()) {
+            throw new IOException("Journal " + journalPath.getFileName() + " is no longer usable");
+        }
+        try {
+            beginRecord();
+            recordOut.writeByte(OP_COMMIT);
+            appendRecord();
+            channel.force(false);
+        } catch (IOException ex) {
+            fail(ex);
+            throw ex;
+        }
+        committedLength = channel.position();
+        committedSnapshot = context.snapshot();
+        uncommitted = false;
+
+        if (!compacting) {
+            compacting = true;
+            COMPACTOR.execute(this::compactCommitted);
+        }
+    }
+
+    /**
+     * Discards any uncommitted records, compacts the remaining ones into the
+     * mappings file, and closes this journal. A compaction which is already
+     * running in the background is waited for.
+     *
+     * @throws IOException If an exception occurs while closing the journal
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        while (compacting) {
+            try {
+                wait();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        closed = true;
+        try {
+            if (!failed && uncommitted) {
+                channel.truncate(committedLength);
+                channel.force(false);
+            }
+            if (!failed && !compacting && committedLength > HEADER_LENGTH && committedSnapshot != null) {
+                compact(committedSnapshot, committedLength);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Compacts the committed records into the mappings file until none are
+     * left, as further commits may be made while a compaction is running.
+     */
+    private void compactCommitted() {
+        try {
+            while (true) {
+                MappingSnapshot snapshot;
+                long cut;
+                synchronized (this) {
+                    if (closed || failed || committedLength <= HEADER_LENGTH) {
+                        return;
+                    }
+                    snapshot = committedSnapshot;
+                    cut = committedLength;
+                }
+                if (!compact(snapshot, cut)) {
+                    return;
+                }
+            }
+        } finally {
+            synchronized (this) {
+                compacting = false;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Writes the given {@link MappingSnapshot} to the mappings file and drops
+     * the records up to the given offset, which the snapshot reflects, from
+     * the journal. Records made after the snapshot was taken are kept.
+     *
+     * @return Whether the journal was compacted
+     */
+    private boolean compact(MappingSnapshot snapshot, long cut) {
+        Path tempMappings = mappingsPath.resolveSibling(mappingsPath.getFileName() + ".tmp");
+        Path tempJournal = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+        try {
+            try (MappingsWriter writer = writerFactory.apply(new PrintWriter(Files.newOutputStream(tempMappings)))) {
+                writer.write(snapshot);
+            }
+            try (FileChannel temp = FileChannel.open(tempMappings, StandardOpenOption.WRITE)) {
+                temp.force(true);
+            }
+
+            synchronized (this) {
+                if (failed || !channel.isOpen()) {
+                    Files.deleteIfExists(tempMappings);
+                    return false;
+                }
+                Files.move(tempMappings, mappingsPath,
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+                // anything after the cut was recorded after the snapshot and must survive it
+                try (FileChannel temp = FileChannel.open(tempJournal, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    writeHeader(temp);
+                    channel.transferTo(cut, channel.size() - cut, temp);
+                    temp.force(false);
+                }
+                channel.close();
+                Files.move(tempJournal, journalPath,
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                channel = FileChannel.open(journalPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                channel.position(channel.size());
+                committedLength -= cut - HEADER_LENGTH;
+            }
+            return true;
+        } catch (Exception ex) {
+            Main.getLogger().log(Level.WARNING, "Failed to compact mapping journal", ex);
+            try {
+                Files.deleteIfExists(tempMappings);
+                Files.deleteIfExists(tempJournal);
+            } catch (IOException ignored) {
+            }
+            synchronized (this) {
+                if (!channel.isOpen()) {
+                    failed = true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private boolean readHeader() throws IOException {
+        ByteBuffer header = readFully(0, HEADER_LENGTH);
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            Main.getLogger().warning("Ignoring unrecognized mapping journal " + journalPath.getFileName());
+            return false;
+        }
+        return true;
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of journal " + journalPath.getFileName());
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void writeHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    private void beginRecord() throws IOException {
+        if (closed || failed) {
+            throw new IOException("Journal " + journalPath.getFileName() + " is no longer usable");
+        }
+        recordBuffer.reset();
+    }
+
+    private void appendRecord() throws IOException {
+        recordOut.flush();
+        byte[] payload = recordBuffer.toByteArray();
+        if (Arrays.equals(payload, lastRecord)) {
+            // mappings are often recorded again as they are initialized
+            return;
+        }
+        lastRecord = payload[0] == OP_COMMIT ? null : payload;
+
+        crc.reset();
+        crc.update(payload, 0, payload.length);
+
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_LENGTH + payload.length);
+        frame.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+
+        if (payload[0] != OP_COMMIT) {
+            uncommitted = true;
+        }
+    }
+
+    private void fail(IOException ex) {
+        if (closed) {
+            return;
+        }
+        if (!failed) {
+            Main.getLogger().log(Level.WARNING, "Failed to write mapping journal " + journalPath.getFileName()
+                    + "; the mappings will be saved in full", ex);
+        }
+        failed = true;
+    }
+
+    private void writeField(FieldMapping mapping) throws IOException {
+        recordOut.writeUTF(mapping.getParent().getFullObfuscatedName());
+        recordOut.writeUTF(mapping.getObfuscatedName());
+        recordOut.writeUTF(mapping.getSignature().getType().map(FieldType::toString).orElse(""));
+    }
+
+    private void writeMethod(MethodMapping mapping) throws IOException {
+        recordOut.writeUTF(mapping.getParent().getFullObfuscatedName());
+        recordOut.writeUTF(mapping.getObfuscatedName());
+        recordOut.writeUTF(mapping.getObfuscatedDescriptor().toString());
+    }
+
+    private static FieldSignature readField(DataInputStream in) throws IOException {
+        String name = in.readUTF();
+        String type = in.readUTF();
+        return type.isEmpty() ? new FieldSignature(name) : new FieldSignature(name, FieldType.of(type));
+    }
+
+    private static MethodSignature readMethod(DataInputStream in) throws IOException {
+        String name = in.readUTF();
+        return new MethodSignature(name, MethodDescriptor.of(in.readUTF()));
+    }
+
+    private static MethodMapping getOrCreateMethodMapping(ClassMapping parent, MethodSignature sig) {
+        MethodMapping mapping = parent.getMethodMappings().get(sig);
+        return mapping != null ? mapping : new MethodMapping(parent, sig, sig.getName(), false);
+    }
+
+    private static void apply(MappingContext context, byte op, DataInputStream in) throws IOException {
+        switch (op) {
+            case OP_CLASS: {
+                ClassMapping mapping = MappingsHelper.getOrCreateClassMapping(context, in.readUTF());
+                mapping.setDeobfuscatedName(in.readUTF(), false);
+                break;
+            }
+            case OP_FIELD: {
+                ClassMapping parent = MappingsHelper.getOrCreateClassMapping(context, in.readUTF());
+                FieldSignature sig = readField(in);
+                String deobf = in.readUTF();
+                FieldMapping mapping = parent.getFieldMappings().get(sig);
+                if (mapping != null) {
+                    mapping.setDeobfuscatedName(deobf);
+                } else {
+                    new FieldMapping(parent, sig, deobf);
+                }
+                break;
+            }
+            case OP_METHOD: {
+                ClassMapping parent = MappingsHelper.getOrCreateClassMapping(context, in.readUTF());
+                MethodSignature sig = readMethod(in);
+                String deobf = in.readUTF();
+                MethodMapping mapping = parent.getMethodMappings().get(sig);
+                if (mapping != null) {
+                    mapping.setDeobfuscatedName(deobf, false);
+                } else {
+                    new MethodMapping(parent, sig, deobf, false);
+                }
+                break;
+            }
+            case OP_PARAM: {
+                ClassMapping parent = MappingsHelper.getOrCreateClassMapping(context, in.readUTF());
+                MethodMapping method = getOrCreateMethodMapping(parent, readMethod(in));
+                int index = in.readInt();
+                String obf = in.readUTF();
+                String deobf = in.readUTF();
+                MethodParameterMapping mapping = method.getParamMappings().get(obf);
+                if (mapping == null) {
+                    mapping = new MethodParameterMapping(method, index, obf, false);
+                }
+                if (!mapping.getDeobfuscatedName().equals(deobf)) {
+                    mapping.setDeobfuscatedName(deobf, false);
+                }
+                break;
+            }
+            case OP_REMOVE_FIELD: {
+                String owner = in.readUTF();
+                FieldSignature sig = readField(in);
+                MappingsHelper.getClassMapping(context, owner).ifPresent(parent -> parent.removeFieldMapping(sig));
+                break;
+            }
+            case OP_REMOVE_METHOD: {
+                String owner = in.readUTF();
+                MethodSignature sig = readMethod(in);
+                MappingsHelper.getClassMapping(context, owner).ifPresent(parent -> parent.removeMethodMapping(sig));
+                break;
+            }
+            case OP_REMOVE_PARAM: {
+                String owner = in.readUTF();
+                MethodSignature sig = readMethod(in);
+                String obf = in.readUTF();
+                MappingsHelper.getClassMapping(context, owner)
+                        .map(parent -> parent.getMethodMappings().get(sig))
+                        .ifPresent(method -> method.removeParamMapping(obf));
+                break;
+            }
+            default: {
+                throw new IOException("Unknown journal record type " + op);
+            }
+        }
+    }
+
+    /**
+     * Applies the records of a journal in order, keeping track of how much of
+     * it is intact and committed.
+     */
+    private static class Replay {
+
+        private final MappingContext context;
+        private final boolean snapshotCommits;
+        private final CRC32 crc = new CRC32();
+
+        private int applied;
+        private long validLength = HEADER_LENGTH;
+        private long committedLength = HEADER_LENGTH;
+        private MappingSnapshot committedSnapshot;
+        private boolean uncommitted;
+
+        private Replay(MappingContext context, boolean snapshotCommits) {
+            this.context = context;
+            this.snapshotCommits = snapshotCommits;
+        }
+
+        private void run(ByteBuffer data) throws IOException {
+            while (data.remaining() >= FRAME_HEADER_LENGTH) {
+                int length = data.getInt();
+                int checksum = data.getInt();
+                if (length <= 0 || length > data.remaining()) {
+                    return;
+                }
+                byte[] payload = new byte[length];
+                data.get(payload);
+                crc.reset();
+                crc.update(payload, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    return;
+                }
+
+                validLength += FRAME_HEADER_LENGTH + length;
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+                byte op = in.readByte();
+                if (op == OP_COMMIT) {
+                    committedLength = validLength;
+                    if (snapshotCommits) {
+                        committedSnapshot = context.snapshot();
+                    }
+                    uncommitted = false;
+                } else {
+                    apply(context, op, in);
+                    uncommitted = true;
+                    applied++;
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.mapping.io.transcoder;
+
+import static blue.lapis.nocturne.util.Constants.CLASS_PATH_SEPARATOR_CHAR;
+import static blue.lapis.nocturne.util.Constants.ENIGMA_ROOT_PACKAGE_PREFIX;
+import static blue.lapis.nocturne.util.Constants.INNER_CLASS_SEPARATOR_CHAR;
+
+import blue.lapis.nocturne.util.MemberType;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The transcoder's writer, for the Enigma format.
+ *
+ * <p>Entries are sorted so that each class is immediately followed by its
+ * inner classes, then its fields, then its methods, each method being
+ * followed by its parameters. This lets the nested output be produced while
+ * only remembering the classes enclosing the current entry. Classes and
+ * methods which have no mapping of their own but contain mappings are written
+ * without a deobfuscated name.</p>
+ */
+class EnigmaEntryWriter extends EntryWriter {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private static final char CLASS_KEY = '\u0001';
+    private static final char INNER_CLASS_KEY = '\u0002';
+    private static final char FIELD_KEY = '\u0003';
+    private static final char METHOD_KEY = '\u0004';
+    private static final char ARG_KEY = '\u0002';
+
+    // full obfuscated names of the classes enclosing the current entry
+    private final List<String> classes = new ArrayList<>();
+    private String currentMethod;
+
+    EnigmaEntryWriter(PrintWriter out) {
+        super(out);
+    }
+
+    @Override
+    protected boolean canWrite(TranscoderEntry entry) {
+        // Enigma identifies fields by their type, which SRG doesn't record
+        return entry.getType() != MemberType.FIELD || entry.getDescriptor() != null;
+    }
+
+    @Override
+    String getSortKey(TranscoderEntry entry) {
+        String classKey = entry.getOwner().replace(INNER_CLASS_SEPARATOR_CHAR, INNER_CLASS_KEY);
+        switch (entry.getType()) {
+            case CLASS: {
+                return classKey + CLASS_KEY;
+            }
+            case FIELD: {
+                return classKey + FIELD_KEY + entry.getObfuscatedName() + ' ' + entry.getDescriptor();
+            }
+            case METHOD: {
+                return classKey + METHOD_KEY + entry.getObfuscatedName() + ' ' + entry.getDescriptor() + CLASS_KEY;
+            }
+            case ARG: {
+                return classKey + METHOD_KEY + entry.getObfuscatedName() + ' ' + entry.getDescriptor() + ARG_KEY
+                        + padIndex(entry.getIndex());
+            }
+            default: {
+                throw new AssertionError();
+            }
+        }
+    }
+
+    @Override
+    void write(TranscoderEntry entry) {
+        switch (entry.getType()) {
+            case CLASS: {
+                String name = entry.getObfuscatedName();
+                int innerIndex = name.lastIndexOf(INNER_CLASS_SEPARATOR_CHAR);
+                enterClass(innerIndex >= 0 ? name.substring(0, innerIndex) : null);
+                indent(classes.size()).append("CLASS ").append(addNonePrefix(name));
+                if (!entry.isUseless()) {
+                    out.append(' ').append(innerIndex >= 0
+                            ? TranscoderEntry.getInnermostName(entry.getDeobfuscatedName())
+                            : addNonePrefix(entry.getDeobfuscatedName()));
+                }
+                out.append(LINE_SEPARATOR);
+                classes.add(name);
+                break;
+            }
+            case FIELD: {
+                if (entry.isUseless()) {
+                    break;
+                }
+                enterClass(entry.getOwner());
+                indent(classes.size()).append("FIELD ").append(entry.getObfuscatedName()).append(' ')
+                        .append(entry.getDeobfuscatedName()).append(' ')
+                        .append(addNonePrefixes(entry.getDescriptor())).append(LINE_SEPARATOR);
+                break;
+            }
+            case METHOD: {
+                enterClass(entry.getOwner());
+                writeMethod(entry.getObfuscatedName(), entry.isUseless() ? null : entry.getDeobfuscatedName(),
+                        entry.getDescriptor());
+                break;
+            }
+            case ARG: {
+                enterClass(entry.getOwner());
+                if (!getMethodKey(entry).equals(currentMethod)) {
+                    writeMethod(entry.getObfuscatedName(), null, entry.getDescriptor());
+                }
+                indent(classes.size() + 1).append("ARG ").append(String.valueOf(entry.getIndex())).append(' ')
+                        .append(entry.getDeobfuscatedName()).append(LINE_SEPARATOR);
+                return;
+            }
+            default: {
+                throw new AssertionError();
+            }
+        }
+        currentMethod = entry.getType() == MemberType.METHOD ? getMethodKey(entry) : null;
+    }
+
+    /**
+     * Closes the classes which don't enclose the given class, and opens those
+     * enclosing classes which haven't been written yet.
+     *
+     * @param className The full obfuscated name of the class to enter, or
+     *                  {@code null} to close all classes
+     */
+    private void enterClass(String className) {
+        List<String> path = new ArrayList<>();
+        if (className != null) {
+            int index = -1;
+            while ((index = className.indexOf(INNER_CLASS_SEPARATOR_CHAR, index + 1)) >= 0) {
+                path.add(className.substring(0, index));
+            }
+            path.add(className);
+        }
+
+        int common = 0;
+        while (common < classes.size() && common < path.size() && classes.get(common).equals(path.get(common))) {
+            common++;
+        }
+        if (common != classes.size()) {
+            currentMethod = null;
+        }
+        classes.subList(common, classes.size()).clear();
+        for (int i = common; i < path.size(); i++) {
+            indent(classes.size()).append("CLASS ").append(addNonePrefix(path.get(i))).append(LINE_SEPARATOR);
+            classes.add(path.get(i));
+            currentMethod = null;
+        }
+    }
+
+    private void writeMethod(String obf, String deobf, String desc) {
+        indent(classes.size()).append("METHOD ").append(obf).append(' ');
+        if (deobf != null) {
+            out.append(deobf).append(' ');
+        }
+        out.append(addNonePrefixes(desc)).append(LINE_SEPARATOR);
+        currentMethod = classes.get(classes.size() - 1) + ' ' + obf + ' ' + desc;
+    }
+
+    private static String getMethodKey(TranscoderEntry entry) {
+        return entry.getOwner() + ' ' + entry.getObfuscatedName() + ' ' + entry.getDescriptor();
+    }
+
+    private PrintWriter indent(int depth) {
+        for (int i = 0; i < depth; i++) {
+            out.append('\t');
+        }
+        return out;
+    }
+
+    private static String addNonePrefix(String str) {
+        if (str.indexOf(CLASS_PATH_SEPARATOR_CHAR) < 0) {
+            return ENIGMA_ROOT_PACKAGE_PREFIX + str;
+        }
+        return str;
+    }
+
+    private static String addNonePrefixes(String desc) {
+        return TranscoderEntry.mapDescriptor(desc, EnigmaEntryWriter::addNonePrefix);
+    }
+
+}
@@ -0,0 +1,252 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.mapping.io.transcoder;
+
+import static blue.lapis.nocturne.util.Constants.CLASS_PATH_SEPARATOR_CHAR;
+import static blue.lapis.nocturne.util.Constants.ENIGMA_ROOT_PACKAGE_PREFIX;
+import static blue.lapis.nocturne.util.Constants.INNER_CLASS_SEPARATOR_CHAR;
+import static blue.lapis.nocturne.util.Constants.SPACE_PATTERN;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.mapping.MappingFormat;
+import blue.lapis.nocturne.util.MemberType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Static utility class for reading mappings files line by line into
+ * {@link TranscoderEntry}s, without building a
+ * {@link blue.lapis.nocturne.mapping.MappingContext} or consulting a JAR.
+ */
+final class EntryReader {
+
+    private EntryReader() {
+    }
+
+    /**
+     * Reads every mapping from the given reader.
+     *
+     * @param format The format of the mappings
+     * @param reader The reader to read from
+     * @param sink   The sink to pass each mapping to
+     * @throws IOException If an exception occurs while reading
+     */
+    static void read(MappingFormat format, BufferedReader reader, EntrySink sink) throws IOException {
+        switch (format) {
+            case SRG: {
+                readSrg(reader, sink);
+                break;
+            }
+            case JAM: {
+                readJam(reader, sink);
+                break;
+            }
+            case ENIGMA: {
+                readEnigma(reader, sink);
+                break;
+            }
+            default: {
+                throw new UnsupportedOperationException("Cannot transcode from " + format);
+            }
+        }
+    }
+
+    private static void readSrg(BufferedReader reader, EntrySink sink) throws IOException {
+        String line;
+        int lineNum = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNum++;
+            String trim = line.trim();
+            if (trim.isEmpty() || trim.charAt(0) == '#') {
+                continue;
+            }
+
+            String[] arr = SPACE_PATTERN.split(trim);
+            if (arr[0].equals("CL:") && arr.length == 3) {
+                sink.accept(new TranscoderEntry(MemberType.CLASS, arr[1], arr[1], null, -1, arr[2]));
+            } else if (arr[0].equals("FD:") && arr.length == 3) {
+                int lastIndex = arr[1].lastIndexOf(CLASS_PATH_SEPARATOR_CHAR);
+                sink.accept(new TranscoderEntry(MemberType.FIELD, arr[1].substring(0, lastIndex),
+                        arr[1].substring(lastIndex + 1), null, -1, getMemberName(arr[2])));
+            } else if (arr[0].equals("MD:") && arr.length == 5) {
+                int lastIndex = arr[1].lastIndexOf(CLASS_PATH_SEPARATOR_CHAR);
+                sink.accept(new TranscoderEntry(MemberType.METHOD, arr[1].substring(0, lastIndex),
+                        arr[1].substring(lastIndex + 1), arr[2], -1, getMemberName(arr[3])));
+            } else {
+                Main.getLogger().warning("Unrecognized mapping on line " + lineNum + " - ignoring");
+            }
+        }
+    }
+
+    private static void readJam(BufferedReader reader, EntrySink sink) throws IOException {
+        String line;
+        int lineNum = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNum++;
+            String trim = line.trim();
+            if (trim.isEmpty() || trim.charAt(0) == '#') {
+                continue;
+            }
+
+            String[] arr = SPACE_PATTERN.split(trim);
+            if (arr[0].equals("CL") && arr.length == 3) {
+                sink.accept(new TranscoderEntry(MemberType.CLASS, arr[1], arr[1], null, -1, arr[2]));
+            } else if (arr[0].equals("FD") && arr.length == 5) {
+                sink.accept(new TranscoderEntry(MemberType.FIELD, arr[1], arr[2], arr[3], -1, arr[4]));
+            } else if (arr[0].equals("MD") && arr.length == 5) {
+                sink.accept(new TranscoderEntry(MemberType.METHOD, arr[1], arr[2], arr[3], -1, arr[4]));
+            } else if (arr[0].equals("MP") && (arr.length == 6 || arr.length == 7)) {
+                int index;
+                try {
+                    index = Integer.parseInt(arr[4]);
+                } catch (NumberFormatException ex) {
+                    Main.getLogger().warning("Invalid parameter index on line " + lineNum + " - ignoring");
+                    continue;
+                }
+                sink.accept(new TranscoderEntry(MemberType.ARG, arr[1], arr[2], arr[3], index, arr[5]));
+            } else {
+                Main.getLogger().warning("Unrecognized mapping on line " + lineNum + " - ignoring");
+            }
+        }
+    }
+
+    private static void readEnigma(BufferedReader reader, EntrySink sink) throws IOException {
+        // classes and methods which later lines may be nested in
+        Deque<TranscoderEntry> stack = new ArrayDeque<>();
+
+        String rawLine;
+        int lineNum = 0;
+        while ((rawLine = reader.readLine()) != null) {
+            lineNum++;
+
+            int indentLevel = 0;
+            while (indentLevel < rawLine.length() && rawLine.charAt(indentLevel) == '\t') {
+                indentLevel++;
+            }
+            int commentPos = rawLine.indexOf('#');
+            String line = (commentPos >= 0 ? rawLine.substring(0, commentPos) : rawLine).trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            while (indentLevel < stack.size()) {
+                stack.pop();
+            }
+
+            String[] arr = SPACE_PATTERN.split(line);
+            switch (arr[0]) {
+                case "CLASS": {
+                    if (arr.length < 2 || arr.length > 3) {
+                        throw new IllegalArgumentException("Cannot parse file: malformed class mapping on line "
+                                + lineNum);
+                    }
+                    String obf = removeNonePrefix(arr[1]);
+                    String deobf;
+                    if (!stack.isEmpty() && stack.peek().getType() == MemberType.CLASS) {
+                        deobf = stack.peek().getDeobfuscatedName() + INNER_CLASS_SEPARATOR_CHAR
+                                + (arr.length == 3 ? arr[2] : TranscoderEntry.getInnermostName(obf));
+                    } else {
+                        deobf = arr.length == 3 ? removeNonePrefix(arr[2]) : obf;
+                    }
+                    TranscoderEntry entry = new TranscoderEntry(MemberType.CLASS, obf, obf, null, -1, deobf);
+                    sink.accept(entry);
+                    stack.push(entry);
+                    break;
+                }
+                case "FIELD": {
+                    if (arr.length != 4) {
+                        throw new IllegalArgumentException("Cannot parse file: malformed field mapping on line "
+                                + lineNum);
+                    }
+                    sink.accept(new TranscoderEntry(MemberType.FIELD, peek(stack, MemberType.CLASS, lineNum).getOwner(),
+                            arr[1], removeNonePrefixes(arr[3]), -1, arr[2]));
+                    break;
+                }
+                case "METHOD": {
+                    if (arr.length != 3 && arr.length != 4) {
+                        throw new IllegalArgumentException("Cannot parse file: malformed method mapping on line "
+                                + lineNum);
+                    }
+                    TranscoderEntry entry = new TranscoderEntry(MemberType.METHOD,
+                            peek(stack, MemberType.CLASS, lineNum).getOwner(), arr[1],
+                            removeNonePrefixes(arr[arr.length - 1]), -1, arr.length == 4 ? arr[2] : arr[1]);
+                    sink.accept(entry);
+                    stack.push(entry);
+                    break;
+                }
+                case "ARG": {
+                    if (arr.length != 3) {
+                        throw new IllegalArgumentException("Cannot parse file: malformed argument mapping on line "
+                                + lineNum);
+                    }
+                    TranscoderEntry method = peek(stack, MemberType.METHOD, lineNum);
+                    sink.accept(new TranscoderEntry(MemberType.ARG, method.getOwner(), method.getObfuscatedName(),
+                            method.getDescriptor(), Integer.parseInt(arr[1]), arr[2]));
+                    break;
+                }
+                default: {
+                    Main.getLogger().warning("Unrecognized mapping on line " + lineNum);
+                }
+            }
+        }
+    }
+
+    private static TranscoderEntry peek(Deque<TranscoderEntry> stack, MemberType type, int lineNum) {
+        if (stack.isEmpty() || stack.peek().getType() != type) {
+            throw new IllegalArgumentException("Cannot parse file: found mapping with an incorrect/missing "
+                    + "parent mapping on line " + lineNum);
+        }
+        return stack.peek();
+    }
+
+    private static String getMemberName(String qualifiedName) {
+        return qualifiedName.substring(qualifiedName.lastIndexOf(CLASS_PATH_SEPARATOR_CHAR) + 1);
+    }
+
+    private static String removeNonePrefix(String name) {
+        if (name.startsWith(ENIGMA_ROOT_PACKAGE_PREFIX)
+                && name.indexOf(CLASS_PATH_SEPARATOR_CHAR, ENIGMA_ROOT_PACKAGE_PREFIX.length()) < 0) {
+            return name.substring(ENIGMA_ROOT_PACKAGE_PREFIX.length());
+        }
+        return name;
+    }
+
+    private static String removeNonePrefixes(String desc) {
+        return TranscoderEntry.mapDescriptor(desc, EntryReader::removeNonePrefix);
+    }
+
+    /**
+     * Receives the mappings read by an {@link EntryReader}.
+     */
+    @FunctionalInterface
+    interface EntrySink {
+
+        void accept(TranscoderEntry entry) throws IOException;
+
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.mapping.io.transcoder;
+
+import blue.lapis.nocturne.mapping.MappingFormat;
+
+import java.io.PrintWriter;
+import java.util.Map;
+
+/**
+ * Superclass for the transcoder's writers, which format a sorted stream of
+ * {@link TranscoderEntry}s.
+ *
+ * <p>Entries are sorted by the key returned by {@link #getSortKey} before
+ * being passed to {@link #write}, so each writer only needs to keep track of
+ * the mapping it last wrote.</p>
+ */
+abstract class EntryWriter {
+
+    private static final char KEY_SEPARATOR = '\u0001';
+
+    protected final PrintWriter out;
+    private int skipped;
+
+    protected EntryWriter(PrintWriter out) {
+        this.out = out;
+    }
+
+    /**
+     * Creates a writer for the given format.
+     *
+     * @param format     The format to write
+     * @param out        The {@link PrintWriter} to output to
+     * @param classNames A table of full obfuscated class names to full
+     *                   deobfuscated class names, to be populated by the
+     *                   caller before writing begins
+     * @return The new writer
+     */
+    static EntryWriter of(MappingFormat format, PrintWriter out, Map<String, String> classNames) {
+        switch (format) {
+            case SRG: {
+                return new SrgEntryWriter(out, classNames);
+            }
+            case JAM: {
+                return new JamEntryWriter(out);
+            }
+            case ENIGMA: {
+                return new EnigmaEntryWriter(out);
+            }
+            default: {
+                throw new UnsupportedOperationException("Cannot transcode to " + format);
+            }
+        }
+    }
+
+    /**
+     * Returns whether this writer needs the table of deobfuscated class names
+     * passed to {@link #of}.
+     *
+     * @return Whether the class name table is used
+     */
+    boolean needsClassNames() {
+        return false;
+    }
+
+    /**
+     * Returns whether the given entry can be represented in this writer's
+     * format. Entries which cannot are counted and never passed to
+     * {@link #write}.
+     *
+     * @param entry The entry to check
+     * @return Whether the entry should be written
+     */
+    boolean accept(TranscoderEntry entry) {
+        if (canWrite(entry)) {
+            return true;
+        }
+        skipped++;
+        return false;
+    }
+
+    /**
+     * Returns the number of entries which could not be written.
+     *
+     * @return The number of entries skipped
+     */
+    int getSkipped() {
+        return skipped;
+    }
+
+    protected abstract boolean canWrite(TranscoderEntry entry);
+
+    /**
+     * Returns the key the given entry should be sorted by before being
+     * written.
+     *
+     * @param entry The entry
+     * @return The sort key
+     */
+    abstract String getSortKey(TranscoderEntry entry);
+
+    /**
+     * Writes the given entry.
+     *
+     * @param entry The entry to write
+     */
+    abstract void write(TranscoderEntry entry);
+
+    /**
+     * Returns a sort key grouping entries by kind, then by owner and
+     * obfuscated signature, as the flat formats are laid out.
+     *
+     * @param rank  The position of the entry's kind in the output
+     * @param entry The entry
+     * @return The sort key
+     */
+    protected static String getFlatSortKey(int rank, TranscoderEntry entry) {
+        return String.valueOf(rank) + entry.getOwner()
+                + KEY_SEPARATOR + entry.getObfuscatedName()
+                + KEY_SEPARATOR + (entry.getDescriptor() != null ? entry.getDescriptor() : "")
+                + KEY_SEPARATOR + padIndex(entry.getIndex());
+    }
+
+    protected static String padIndex(int index) {
+        return String.format("%010d", Math.max(index, 0));
+    }
+
+}
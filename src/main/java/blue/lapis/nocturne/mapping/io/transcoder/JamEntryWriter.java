@@ -0,0 +1,85 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.mapping.io.transcoder;
+
+import blue.lapis.nocturne.util.MemberType;
+
+import java.io.PrintWriter;
+
+/**
+ * The transcoder's writer, for the JAM format.
+ */
+class JamEntryWriter extends EntryWriter {
+
+    JamEntryWriter(PrintWriter out) {
+        super(out);
+    }
+
+    @Override
+    protected boolean canWrite(TranscoderEntry entry) {
+        // JAM identifies fields by their type, which SRG doesn't record
+        return entry.getType() != MemberType.FIELD || entry.getDescriptor() != null;
+    }
+
+    @Override
+    String getSortKey(TranscoderEntry entry) {
+        return getFlatSortKey(entry.getType().ordinal(), entry);
+    }
+
+    @Override
+    void write(TranscoderEntry entry) {
+        switch (entry.getType()) {
+            case CLASS: {
+                if (!entry.isUseless()) {
+                    out.write("CL " + entry.getObfuscatedName() + ' ' + entry.getDeobfuscatedName() + '\n');
+                }
+                break;
+            }
+            case FIELD: {
+                if (!entry.isUseless()) {
+                    out.write("FD " + entry.getOwner() + ' ' + entry.getObfuscatedName() + ' '
+                            + entry.getDescriptor() + ' ' + entry.getDeobfuscatedName() + '\n');
+                }
+                break;
+            }
+            case METHOD: {
+                if (!entry.isUseless()) {
+                    out.write("MD " + entry.getOwner() + ' ' + entry.getObfuscatedName() + ' '
+                            + entry.getDescriptor() + ' ' + entry.getDeobfuscatedName() + '\n');
+                }
+                break;
+            }
+            case ARG: {
+                out.write("MP " + entry.getOwner() + ' ' + entry.getObfuscatedName() + ' '
+                        + entry.getDescriptor() + ' ' + entry.getIndex() + ' ' + entry.getDeobfuscatedName() + '\n');
+                break;
+            }
+            default: {
+                throw new AssertionError();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.mapping.io.transcoder;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.mapping.MappingFormat;
+import blue.lapis.nocturne.util.ExternalLineSorter;
+import blue.lapis.nocturne.util.MemberType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Static utility class for converting mappings between
+ * {@link MappingFormat}s without loading them into a
+ * {@link blue.lapis.nocturne.mapping.MappingContext}.
+ *
+ * <p>No JAR is needed, and the mappings are never held in memory as a whole:
+ * they are read one at a time and put in the order required by the output
+ * format using an {@link ExternalLineSorter}. Only when writing SRG, which
+ * qualifies every member with its owner's deobfuscated name, is a table of
+ * class names kept in memory.</p>
+ */
+public final class MappingsTranscoder {
+
+    /**
+     * The default number of mappings to sort in memory at a time.
+     */
+    public static final int DEFAULT_RUN_LENGTH = 100_000;
+
+    private MappingsTranscoder() {
+    }
+
+    /**
+     * Converts the mappings read from the given reader to the given format.
+     *
+     * @param from The format of the input
+     * @param to   The format of the output
+     * @param in   The reader to read the mappings from
+     * @param out  The writer to write the mappings to
+     * @throws IOException If an exception occurs while reading, writing or
+     *                     sorting the mappings
+     */
+    public static void transcode(MappingFormat from, MappingFormat to, BufferedReader in, PrintWriter out)
+            throws IOException {
+        transcode(from, to, in, out, DEFAULT_RUN_LENGTH);
+    }
+
+    /**
+     * Converts the mappings read from the given reader to the given format,
+     * sorting at most the given number of mappings in memory at a time.
+     *
+     * @param from      The format of the input
+     * @param to        The format of the output
+     * @param in        The reader to read the mappings from
+     * @param out       The writer to write the mappings to
+     * @param runLength The number of mappings to sort in memory at a time
+     * @throws IOException If an exception occurs while reading, writing or
+     *                     sorting the mappings
+     */
+    public static void transcode(MappingFormat from, MappingFormat to, BufferedReader in, PrintWriter out,
+            int runLength) throws IOException {
+        Map<String, String> classNames = new HashMap<>();
+        EntryWriter writer = EntryWriter.of(to, out, classNames);
+
+        try (ExternalLineSorter sorter = new ExternalLineSorter(runLength)) {
+            EntryReader.read(from, in, entry -> {
+                if (!writer.accept(entry)) {
+                    return;
+                }
+                if (writer.needsClassNames() && entry.getType() == MemberType.CLASS) {
+                    classNames.put(entry.getObfuscatedName(), entry.getDeobfuscatedName());
+                }
+                sorter.add(entry.toLine(writer.getSortKey(entry)));
+            });
+
+            sorter.forEachSorted(line -> writer.write(TranscoderEntry.fromLine(line)));
+        }
+        out.flush();
+
+        if (writer.getSkipped() > 0) {
+            Main.getLogger().warning("Skipped " + writer.getSkipped() + " mappings which cannot be represented in "
+                    + to + " format");
+        }
+    }
+
+    /**
+     * Converts a mappings file from the command line.
+     *
+     * <p>Usage: {@code <from format> <to format> <input file> <output file>},
+     * where formats are named as in {@link MappingFormat}.</p>
+     *
+     * @param args The command line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length != 4) {
+            printUsage();
+            System.exit(1);
+            return;
+        }
+
+        MappingFormat from;
+        MappingFormat to;
+        try {
+            from = MappingFormat.valueOf(args[0].toUpperCase());
+            to = MappingFormat.valueOf(args[1].toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            printUsage();
+            System.exit(1);
+            return;
+        }
+
+        Path input = Paths.get(args[2]);
+        Path output = Paths.get(args[3]);
+        try (BufferedReader in = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             PrintWriter out = new PrintWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8))) {
+            transcode(from, to, in, out);
+        } catch (IOException | UncheckedIOException ex) {
+            System.err.println("Failed to transcode " + input + ": " + ex.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void printUsage() {
+        StringBuilder formats = new StringBuilder();
+        for (MappingFormat format : MappingFormat.values()) {
+            if (formats.length() > 0) {
+                formats.append(", ");
+            }
+            formats.append(format.name());
+        }
+        System.err.println("Usage: <from format> <to format> <input file> <output file>");
+        System.err.println("Formats: " + formats);
+    }
+
+}
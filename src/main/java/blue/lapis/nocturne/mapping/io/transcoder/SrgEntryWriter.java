@@ -0,0 +1,105 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.mapping.io.transcoder;
+
+import static blue.lapis.nocturne.util.Constants.INNER_CLASS_SEPARATOR_CHAR;
+
+import blue.lapis.nocturne.util.MemberType;
+
+import java.io.PrintWriter;
+import java.util.Map;
+
+/**
+ * The transcoder's writer, for the SRG format.
+ *
+ * <p>SRG qualifies every member with its deobfuscated owner, so this writer
+ * depends on a table of all class mappings, which is the only part of the
+ * input held in memory.</p>
+ */
+class SrgEntryWriter extends EntryWriter {
+
+    private final Map<String, String> classNames;
+
+    SrgEntryWriter(PrintWriter out, Map<String, String> classNames) {
+        super(out);
+        this.classNames = classNames;
+    }
+
+    @Override
+    boolean needsClassNames() {
+        return true;
+    }
+
+    @Override
+    protected boolean canWrite(TranscoderEntry entry) {
+        return entry.getType() != MemberType.ARG;
+    }
+
+    @Override
+    String getSortKey(TranscoderEntry entry) {
+        return getFlatSortKey(entry.getType().ordinal(), entry);
+    }
+
+    @Override
+    void write(TranscoderEntry entry) {
+        if (entry.isUseless()) {
+            return;
+        }
+        switch (entry.getType()) {
+            case CLASS: {
+                out.write("CL: " + entry.getObfuscatedName() + ' ' + entry.getDeobfuscatedName() + '\n');
+                break;
+            }
+            case FIELD: {
+                out.write("FD: " + entry.getOwner() + '/' + entry.getObfuscatedName() + ' '
+                        + getDeobfuscatedClass(entry.getOwner()) + '/' + entry.getDeobfuscatedName() + '\n');
+                break;
+            }
+            case METHOD: {
+                out.write("MD: " + entry.getOwner() + '/' + entry.getObfuscatedName() + ' '
+                        + entry.getDescriptor() + ' '
+                        + getDeobfuscatedClass(entry.getOwner()) + '/' + entry.getDeobfuscatedName() + ' '
+                        + TranscoderEntry.mapDescriptor(entry.getDescriptor(), this::getDeobfuscatedClass) + '\n');
+                break;
+            }
+            default: {
+                throw new AssertionError();
+            }
+        }
+    }
+
+    private String getDeobfuscatedClass(String obf) {
+        String deobf = classNames.get(obf);
+        if (deobf != null) {
+            return deobf;
+        }
+        int innerIndex = obf.lastIndexOf(INNER_CLASS_SEPARATOR_CHAR);
+        if (innerIndex < 0) {
+            return obf;
+        }
+        return getDeobfuscatedClass(obf.substring(0, innerIndex)) + obf.substring(innerIndex);
+    }
+
+}
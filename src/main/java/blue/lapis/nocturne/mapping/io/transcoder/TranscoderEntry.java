@@ -0,0 +1,175 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.mapping.io.transcoder;
+
+import static blue.lapis.nocturne.util.Constants.INNER_CLASS_SEPARATOR_CHAR;
+
+import blue.lapis.nocturne.util.MemberType;
+
+import java.util.function.UnaryOperator;
+
+import javax.annotation.Nullable;
+
+/**
+ * A single mapping as read by the transcoder, independent of any other
+ * mapping.
+ */
+final class TranscoderEntry {
+
+    private static final char FIELD_SEPARATOR = '\t';
+
+    private final MemberType type;
+    private final String owner;
+    private final String obf;
+    private final String desc;
+    private final int index;
+    private final String deobf;
+
+    /**
+     * Constructs a new {@link TranscoderEntry}.
+     *
+     * @param type  The type of the mapping, which is one of
+     *              {@link MemberType#CLASS}, {@link MemberType#FIELD},
+     *              {@link MemberType#METHOD} or {@link MemberType#ARG}
+     * @param owner The full obfuscated name of the class, or of the class
+     *              owning the member
+     * @param obf   The full obfuscated name of the class, or the obfuscated
+     *              name of the member or of the method owning the parameter
+     * @param desc  The obfuscated descriptor of the field or method, if known
+     * @param index The index of the parameter, or {@code -1}
+     * @param deobf The full deobfuscated name of the class, or the
+     *              deobfuscated name of the member
+     */
+    TranscoderEntry(MemberType type, String owner, String obf, @Nullable String desc, int index, String deobf) {
+        this.type = type;
+        this.owner = owner;
+        this.obf = obf;
+        this.desc = desc;
+        this.index = index;
+        this.deobf = deobf;
+    }
+
+    MemberType getType() {
+        return type;
+    }
+
+    String getOwner() {
+        return owner;
+    }
+
+    String getObfuscatedName() {
+        return obf;
+    }
+
+    @Nullable
+    String getDescriptor() {
+        return desc;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    String getDeobfuscatedName() {
+        return deobf;
+    }
+
+    /**
+     * Returns whether this mapping leaves its member's name unchanged. For
+     * classes, only the innermost name is compared.
+     *
+     * @return Whether this mapping is an identity mapping
+     */
+    boolean isUseless() {
+        if (type == MemberType.CLASS) {
+            return getInnermostName(obf).equals(getInnermostName(deobf));
+        }
+        return obf.equals(deobf);
+    }
+
+    /**
+     * Serializes this entry to a single line, prefixed by the given sort key.
+     *
+     * @param sortKey The key to sort the line by
+     * @return The serialized entry
+     */
+    String toLine(String sortKey) {
+        return sortKey + FIELD_SEPARATOR + type.name()
+                + FIELD_SEPARATOR + owner
+                + FIELD_SEPARATOR + obf
+                + FIELD_SEPARATOR + (desc != null ? desc : "")
+                + FIELD_SEPARATOR + index
+                + FIELD_SEPARATOR + deobf;
+    }
+
+    /**
+     * Deserializes an entry written by {@link #toLine(String)}.
+     *
+     * @param line The serialized entry
+     * @return The deserialized entry
+     */
+    static TranscoderEntry fromLine(String line) {
+        String[] arr = line.split(String.valueOf(FIELD_SEPARATOR), -1);
+        return new TranscoderEntry(MemberType.valueOf(arr[1]), arr[2], arr[3], arr[4].isEmpty() ? null : arr[4],
+                Integer.parseInt(arr[5]), arr[6]);
+    }
+
+    /**
+     * Returns the name of the innermost class of the given qualified name.
+     *
+     * @param name The qualified class name
+     * @return The innermost class name
+     */
+    static String getInnermostName(String name) {
+        return name.substring(name.lastIndexOf(INNER_CLASS_SEPARATOR_CHAR) + 1);
+    }
+
+    /**
+     * Applies the given function to each class name in the given field or
+     * method descriptor.
+     *
+     * @param desc   The descriptor
+     * @param mapper The function to apply to class names
+     * @return The mapped descriptor
+     */
+    static String mapDescriptor(String desc, UnaryOperator<String> mapper) {
+        StringBuilder sb = new StringBuilder(desc.length());
+        int i = 0;
+        while (i < desc.length()) {
+            char c = desc.charAt(i++);
+            sb.append(c);
+            if (c == 'L') {
+                int end = desc.indexOf(';', i);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Malformed descriptor " + desc);
+                }
+                sb.append(mapper.apply(desc.substring(i, end))).append(';');
+                i = end + 1;
+            }
+        }
+        return sb.toString();
+    }
+
+}
@@ -25,31 +25,33 @@
 
 package blue.lapis.nocturne.mapping.io.writer;
 
-import static blue.lapis.nocturne.util.Constants.CLASS_PATH_SEPARATOR_PATTERN;
+import static blue.lapis.nocturne.util.Constants.CLASS_PATH_SEPARATOR_CHAR;
 import static blue.lapis.nocturne.util.Constants.ENIGMA_ROOT_PACKAGE_PREFIX;
+import static blue.lapis.nocturne.util.Constants.INNER_CLASS_SEPARATOR_CHAR;
 
-import blue.lapis.nocturne.mapping.MappingContext;
-import blue.lapis.nocturne.mapping.model.ClassMapping;
-import blue.lapis.nocturne.mapping.model.FieldMapping;
-import blue.lapis.nocturne.mapping.model.InnerClassMapping;
-import blue.lapis.nocturne.mapping.model.MethodMapping;
-import blue.lapis.nocturne.mapping.model.MethodParameterMapping;
+import blue.lapis.nocturne.mapping.snapshot.ClassSnapshot;
+import blue.lapis.nocturne.mapping.snapshot.MappingSnapshot;
+import blue.lapis.nocturne.mapping.snapshot.MethodSnapshot;
 
 import org.cadixdev.bombe.type.FieldType;
 import org.cadixdev.bombe.type.MethodDescriptor;
 import org.cadixdev.bombe.type.ObjectType;
 import org.cadixdev.bombe.type.Type;
+import org.cadixdev.bombe.type.signature.FieldSignature;
+import org.cadixdev.bombe.type.signature.MethodSignature;
 
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 
 /**
  * The mappings writer, for the Enigma format.
  */
 public class EnigmaWriter extends MappingsWriter {
 
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
     /**
      * Constructs a new {@link EnigmaWriter} which outputs to the given
      * {@link PrintWriter}.
@@ -61,73 +63,68 @@ public class EnigmaWriter extends MappingsWriter {
     }
 
     @Override
-    public void write(MappingContext mappings) {
-        mappings.getMappings().values().stream()
-                .sorted(ALPHABETISE_CLASSES)
-                .forEach(klass -> this.writeClassMapping(klass, 0));
-        out.close();
+    protected void writeClassMapping(MappingSnapshot mappings, ClassSnapshot mapping, String obfName,
+            String deobfName, int section, StringBuilder sb) {
+        writeClassMapping(mapping, obfName, true, sb, 0);
     }
 
-    protected void writeClassMapping(ClassMapping classMapping, int depth) {
-        final String obfName = addNonePrefix(classMapping.getFullObfuscatedName());
-        if (!Objects.equals(classMapping.getDeobfuscatedName(), classMapping.getObfuscatedName())) { // hasDeobfName
-            final String deobfName = classMapping instanceof InnerClassMapping
-                    ? classMapping.getDeobfuscatedName()
-                    : addNonePrefix(classMapping.getDeobfuscatedName());
-            this.out.println(getIndentForDepth(depth) + "CLASS " + obfName + " " + deobfName);
-        } else {
-            this.out.println(getIndentForDepth(depth) + "CLASS " + obfName);
+    protected void writeClassMapping(ClassSnapshot mapping, String obfName, boolean topLevel, StringBuilder sb,
+            int depth) {
+        indent(sb, depth).append("CLASS ").append(addNonePrefix(obfName));
+        if (isUseful(mapping.getObfuscatedName(), mapping.getDeobfuscatedName())) { // hasDeobfName
+            String deobfName = mapping.getDeobfuscatedName();
+            sb.append(' ').append(topLevel ? addNonePrefix(deobfName) : deobfName);
         }
+        sb.append(LINE_SEPARATOR);
 
-        classMapping.getInnerClassMappings().values().stream()
-                .sorted(ALPHABETISE_CLASSES)
-                .forEach(m -> this.writeClassMapping(m, depth + 1));
+        for (ClassSnapshot inner : sortInnerClasses(mapping.getInnerClasses().values())) {
+            writeClassMapping(inner, obfName + INNER_CLASS_SEPARATOR_CHAR + inner.getObfuscatedName(), false, sb,
+                    depth + 1);
+        }
 
-        classMapping.getFieldMappings().values().stream()
-                .filter(NOT_USELESS)
-                .sorted(ALPHABETISE_FIELDS)
-                .forEach(m -> this.writeFieldMapping(m, depth + 1));
+        for (Map.Entry<FieldSignature, String> field : sortFields(mapping.getFieldNames())) {
+            if (isUseful(field.getKey().getName(), field.getValue())) {
+                writeFieldMapping(field.getKey(), field.getValue(), sb, depth + 1);
+            }
+        }
 
-        classMapping.getMethodMappings().values().stream()
-                .sorted(ALPHABETISE_METHODS)
-                .forEach(m -> this.writeMethodMapping(m, depth + 1));
+        for (Map.Entry<MethodSignature, MethodSnapshot> method : sortMethods(mapping.getMethods())) {
+            writeMethodMapping(method.getKey(), method.getValue(), sb, depth + 1);
+        }
     }
 
-    protected void writeFieldMapping(FieldMapping fieldMapping, int depth) {
-        out.println(getIndentForDepth(depth) + "FIELD " + fieldMapping.getObfuscatedName() + " "
-                + fieldMapping.getDeobfuscatedName() + " "
-                + addNonePrefix(fieldMapping.getObfuscatedType()).toString());
+    protected void writeFieldMapping(FieldSignature sig, String deobfName, StringBuilder sb, int depth) {
+        indent(sb, depth).append("FIELD ").append(sig.getName()).append(' ')
+                .append(deobfName).append(' ')
+                .append(addNonePrefix(sig.getType().orElse(null)).toString()).append(LINE_SEPARATOR);
     }
 
-    protected void writeMethodMapping(MethodMapping methodMapping, int depth) {
-        if (methodMapping.getDeobfuscatedName().equals(methodMapping.getObfuscatedName())) {
-            out.println(getIndentForDepth(depth) + "METHOD " + methodMapping.getObfuscatedName() + " "
-                    + addNonePrefixes(methodMapping.getObfuscatedDescriptor()).toString());
-        } else {
-            out.println(getIndentForDepth(depth) + "METHOD " + methodMapping.getObfuscatedName() + " "
-                    + methodMapping.getDeobfuscatedName() + " "
-                    + addNonePrefixes(methodMapping.getObfuscatedDescriptor()).toString());
+    protected void writeMethodMapping(MethodSignature sig, MethodSnapshot method, StringBuilder sb, int depth) {
+        indent(sb, depth).append("METHOD ").append(sig.getName()).append(' ');
+        if (isUseful(sig.getName(), method.getDeobfuscatedName())) {
+            sb.append(method.getDeobfuscatedName()).append(' ');
         }
+        sb.append(addNonePrefixes(sig.getDescriptor()).toString()).append(LINE_SEPARATOR);
 
-        methodMapping.getParamMappings().values().stream()
-                .sorted(ALPHABETISE_PARAMS)
-                .forEach(param -> this.writeArgumentMapping(param, depth + 1));
+        for (Map.Entry<Integer, String> param : sortParams(method.getParamNames())) {
+            writeArgumentMapping(param.getKey(), param.getValue(), sb, depth + 1);
+        }
     }
 
-    protected void writeArgumentMapping(MethodParameterMapping argMapping, int depth) {
-        out.println(getIndentForDepth(depth) + "ARG " + argMapping.getIndex() + " " + argMapping.getDeobfuscatedName());
+    protected void writeArgumentMapping(int index, String deobfName, StringBuilder sb, int depth) {
+        indent(sb, depth).append("ARG ").append(index).append(' ')
+                .append(deobfName).append(LINE_SEPARATOR);
     }
 
-    private String getIndentForDepth(int depth) {
-        StringBuilder builder = new StringBuilder();
+    private static StringBuilder indent(StringBuilder sb, int depth) {
         for (int i = 0; i < depth; i++) {
-            builder.append("\t");
+            sb.append('\t');
         }
-        return builder.toString();
+        return sb;
     }
 
     private static String addNonePrefix(final String str) {
-        if (!CLASS_PATH_SEPARATOR_PATTERN.matcher(str).find()) {
+        if (str.indexOf(CLASS_PATH_SEPARATOR_CHAR) < 0) {
             return ENIGMA_ROOT_PACKAGE_PREFIX + str;
         }
         return str;
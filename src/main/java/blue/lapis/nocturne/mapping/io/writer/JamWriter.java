@@ -25,30 +25,27 @@
 
 package blue.lapis.nocturne.mapping.io.writer;
 
-import blue.lapis.nocturne.mapping.MappingContext;
-import blue.lapis.nocturne.mapping.model.ClassMapping;
-import blue.lapis.nocturne.mapping.model.FieldMapping;
-import blue.lapis.nocturne.mapping.model.MethodMapping;
-import blue.lapis.nocturne.mapping.model.MethodParameterMapping;
+import static blue.lapis.nocturne.util.Constants.INNER_CLASS_SEPARATOR_CHAR;
+
+import blue.lapis.nocturne.mapping.snapshot.ClassSnapshot;
+import blue.lapis.nocturne.mapping.snapshot.MappingSnapshot;
+import blue.lapis.nocturne.mapping.snapshot.MethodSnapshot;
+
+import org.cadixdev.bombe.type.signature.FieldSignature;
+import org.cadixdev.bombe.type.signature.MethodSignature;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.Map;
 
 /**
  * The mappings writer, for the SRG format.
  */
 public class JamWriter extends MappingsWriter {
 
-    private final ByteArrayOutputStream clOut = new ByteArrayOutputStream();
-    private final ByteArrayOutputStream fdOut = new ByteArrayOutputStream();
-    private final ByteArrayOutputStream mdOut = new ByteArrayOutputStream();
-    private final ByteArrayOutputStream mpOut = new ByteArrayOutputStream();
-
-    private final PrintWriter clWriter = new PrintWriter(clOut);
-    private final PrintWriter fdWriter = new PrintWriter(fdOut);
-    private final PrintWriter mdWriter = new PrintWriter(mdOut);
-    private final PrintWriter mpWriter = new PrintWriter(mpOut);
+    private static final int CLASS_SECTION = 0;
+    private static final int FIELD_SECTION = 1;
+    private static final int METHOD_SECTION = 2;
+    private static final int PARAM_SECTION = 3;
 
     /**
      * Constructs a new {@link JamWriter} which outputs to the given
@@ -61,87 +58,83 @@ public class JamWriter extends MappingsWriter {
     }
 
     @Override
-    public void write(MappingContext mappingContext) {
-        mappingContext.getMappings().values().stream().sorted(ALPHABETISE_CLASSES).forEach(this::writeClassMapping);
-        clWriter.close();
-        fdWriter.close();
-        mdWriter.close();
-        mpWriter.close();
-        out.write(clOut.toString());
-        out.write(fdOut.toString());
-        out.write(mdOut.toString());
-        out.write(mpOut.toString());
-        out.close();
-        try {
-            clOut.close();
-            fdOut.close();
-            mdOut.close();
-            mpOut.close();
-        } catch (IOException ex) {
-            throw new RuntimeException(ex);
-        }
+    protected int getSectionCount() {
+        return 4;
     }
 
-    /**
-     * Writes the given {@link ClassMapping} to the {@link JamWriter}'s
-     * {@link PrintWriter}.
-     *
-     * @param classMapping The {@link ClassMapping} to write
-     */
-    protected void writeClassMapping(ClassMapping classMapping) {
-        if (NOT_USELESS.test(classMapping)) {
-            clWriter.format("CL %s %s\n",
-                    classMapping.getFullObfuscatedName(), classMapping.getFullDeobfuscatedName());
+    @Override
+    protected void writeClassMapping(MappingSnapshot mappings, ClassSnapshot mapping, String obfName,
+            String deobfName, int section, StringBuilder sb) {
+        if (section == CLASS_SECTION && isUseful(mapping.getObfuscatedName(), mapping.getDeobfuscatedName())) {
+            sb.append("CL ").append(obfName).append(' ').append(deobfName).append('\n');
+        }
+
+        for (ClassSnapshot inner : sortInnerClasses(mapping.getInnerClasses().values())) {
+            if (isUseful(inner.getObfuscatedName(), inner.getDeobfuscatedName())) {
+                writeClassMapping(mappings, inner, obfName + INNER_CLASS_SEPARATOR_CHAR + inner.getObfuscatedName(),
+                        deobfName + INNER_CLASS_SEPARATOR_CHAR + inner.getDeobfuscatedName(), section, sb);
+            }
         }
 
-        classMapping.getInnerClassMappings().values().stream()
-                .sorted(ALPHABETISE_CLASSES)
-                .filter(NOT_USELESS)
-                .forEach(this::writeClassMapping);
-        classMapping.getFieldMappings().values().stream()
-                .sorted(ALPHABETISE_FIELDS)
-                .filter(NOT_USELESS)
-                .forEach(this::writeFieldMapping);
-        classMapping.getMethodMappings().values().stream()
-                .sorted(ALPHABETISE_METHODS)
-                .forEach(this::writeMethodMapping);
+        if (section == FIELD_SECTION) {
+            for (Map.Entry<FieldSignature, String> field : sortFields(mapping.getFieldNames())) {
+                if (isUseful(field.getKey().getName(), field.getValue())) {
+                    writeFieldMapping(obfName, field.getKey(), field.getValue(), sb);
+                }
+            }
+        } else if (section == METHOD_SECTION || section == PARAM_SECTION) {
+            for (Map.Entry<MethodSignature, MethodSnapshot> method : sortMethods(mapping.getMethods())) {
+                writeMethodMapping(obfName, method.getKey(), method.getValue(), section, sb);
+            }
+        }
     }
 
     /**
-     * Writes the given {@link FieldMapping} to the {@link JamWriter}'s
-     * {@link PrintWriter}.
+     * Formats the given field mapping.
      *
-     * @param fieldMapping The {@link FieldMapping} to write
+     * @param owner     The full obfuscated name of the field's class
+     * @param sig       The obfuscated signature of the field
+     * @param deobfName The deobfuscated name of the field
+     * @param sb        The {@link StringBuilder} to append to
      */
-    protected void writeFieldMapping(FieldMapping fieldMapping) {
-        fdWriter.format("FD %s %s %s %s\n",
-                fieldMapping.getParent().getFullObfuscatedName(),
-                fieldMapping.getObfuscatedName(),
-                fieldMapping.getObfuscatedType().toString(),
-                fieldMapping.getDeobfuscatedName());
+    protected void writeFieldMapping(String owner, FieldSignature sig, String deobfName, StringBuilder sb) {
+        sb.append("FD ")
+                .append(owner).append(' ')
+                .append(sig.getName()).append(' ')
+                .append(sig.getType().orElse(null).toString()).append(' ')
+                .append(deobfName).append('\n');
     }
 
     /**
-     * Writes the given {@link MethodMapping} to the {@link JamWriter}'s
-     * {@link PrintWriter}.
+     * Formats the given method mapping if writing the method section, or its
+     * parameter mappings if writing the parameter section.
      *
-     * @param mapping The {@link MethodMapping} to write
+     * @param owner   The full obfuscated name of the method's class
+     * @param sig     The obfuscated signature of the method
+     * @param method  The {@link MethodSnapshot} to write
+     * @param section The section being written
+     * @param sb      The {@link StringBuilder} to append to
      */
-    protected void writeMethodMapping(MethodMapping mapping) {
-        if (!mapping.getObfuscatedName().equals(mapping.getDeobfuscatedName())) {
-            mdWriter.format("MD %s %s %s %s\n",
-                    mapping.getParent().getFullObfuscatedName(),
-                    mapping.getObfuscatedName(),
-                    mapping.getObfuscatedDescriptor(),
-                    mapping.getDeobfuscatedName());
+    protected void writeMethodMapping(String owner, MethodSignature sig, MethodSnapshot method, int section,
+            StringBuilder sb) {
+        if (section == METHOD_SECTION) {
+            if (isUseful(sig.getName(), method.getDeobfuscatedName())) {
+                sb.append("MD ")
+                        .append(owner).append(' ')
+                        .append(sig.getName()).append(' ')
+                        .append(sig.getDescriptor()).append(' ')
+                        .append(method.getDeobfuscatedName()).append('\n');
+            }
+            return;
+        }
+
+        for (Map.Entry<Integer, String> param : sortParams(method.getParamNames())) {
+            sb.append("MP ")
+                    .append(owner).append(' ')
+                    .append(sig.getName()).append(' ')
+                    .append(sig.getDescriptor()).append(' ')
+                    .append(param.getKey()).append(' ')
+                    .append(param.getValue()).append('\n');
         }
-        mapping.getParamMappings().values().stream()
-                .sorted(ALPHABETISE_PARAMS)
-                .forEach(param -> mpWriter.format("MP %s %s %s %s %s\n",
-                        param.getParent().getParent().getFullObfuscatedName(),
-                        param.getParent().getObfuscatedName(),
-                        param.getParent().getObfuscatedDescriptor(),
-                        param.getIndex(),
-                        param.getDeobfuscatedName()));
     }
 }
@@ -26,54 +26,45 @@
 package blue.lapis.nocturne.mapping.io.writer;
 
 import blue.lapis.nocturne.mapping.MappingContext;
-import blue.lapis.nocturne.mapping.model.ClassMapping;
-import blue.lapis.nocturne.mapping.model.FieldMapping;
-import blue.lapis.nocturne.mapping.model.Mapping;
-import blue.lapis.nocturne.mapping.model.MethodMapping;
-import blue.lapis.nocturne.mapping.model.MethodParameterMapping;
+import blue.lapis.nocturne.mapping.snapshot.ClassSnapshot;
+import blue.lapis.nocturne.mapping.snapshot.MappingSnapshot;
+import blue.lapis.nocturne.mapping.snapshot.MethodSnapshot;
+import blue.lapis.nocturne.util.helper.ConcurrencyHelper;
+
+import org.cadixdev.bombe.type.ArrayType;
+import org.cadixdev.bombe.type.FieldType;
+import org.cadixdev.bombe.type.MethodDescriptor;
+import org.cadixdev.bombe.type.ObjectType;
+import org.cadixdev.bombe.type.signature.FieldSignature;
+import org.cadixdev.bombe.type.signature.MethodSignature;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
-import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
 
 /**
  * Superclass for all writer classes.
+ *
+ * <p>Mappings are written from an immutable {@link MappingSnapshot}, so they
+ * may be formatted off the thread editing them. Top-level classes are
+ * formatted independently on the worker pool in batches, and the formatted
+ * text is written in order as it becomes available. Formats which group
+ * lines by kind rather than by class (such as SRG) declare one section per
+ * kind, and each section is written in its own pass over the classes, so the
+ * amount of buffered text never depends on the size of the mapping set.</p>
  */
 public abstract class MappingsWriter implements Closeable {
 
-    protected static final Predicate<Mapping> NOT_USELESS
-            = mapping -> !mapping.getObfuscatedName().equals(mapping.getDeobfuscatedName());
-
-    protected static final Comparator<ClassMapping> ALPHABETISE_CLASSES =
-            comparingLength(ClassMapping::getFullObfuscatedName);
-
-    protected static final Comparator<FieldMapping> ALPHABETISE_FIELDS =
-            Comparator.comparing(mapping -> mapping.getObfuscatedName() + mapping.getObfuscatedType());
-
-    protected static final Comparator<MethodMapping> ALPHABETISE_METHODS =
-            Comparator.comparing(mapping -> mapping.getObfuscatedName() + mapping.getObfuscatedDescriptor().toString());
-
-    protected static final Comparator<MethodParameterMapping> ALPHABETISE_PARAMS =
-            Comparator.comparingInt(MethodParameterMapping::getIndex);
-
-    private static <T> Comparator<T> comparingLength(final Function<? super T, String> keyExtractor) {
-        return (c1, c2) -> {
-            final String key1 = keyExtractor.apply(c1);
-            final String key2 = keyExtractor.apply(c2);
-
-            final String redacted1 = key1.contains("$") ? key1.substring(0, key1.indexOf('$')) : key1;
-            final String redacted2 = key1.contains("$") ? key2.substring(0, key2.indexOf('$')) : key2;
-
-            if (redacted1.length() != redacted2.length()) {
-                return redacted1.length() - redacted2.length();
-            }
-
-            return key1.compareTo(key2);
-        };
-    }
+    private static final int CLASSES_PER_TASK = 64;
 
     protected final PrintWriter out;
 
@@ -91,13 +82,191 @@ public abstract class MappingsWriter implements Closeable {
      * Writes the given {@link MappingContext} to this {@link MappingsWriter}'s
      * {@link PrintWriter}.
      *
+     * <p>This must be called from the thread editing the context, which is
+     * snapshotted before any of it is written.</p>
+     *
      * @param mappings The {@link MappingContext} to write.
      */
-    public abstract void write(MappingContext mappings);
+    public void write(MappingContext mappings) {
+        write(mappings.snapshot());
+    }
+
+    /**
+     * Writes the given {@link MappingSnapshot} to this
+     * {@link MappingsWriter}'s {@link PrintWriter}. This may be called from
+     * any thread.
+     *
+     * @param mappings The {@link MappingSnapshot} to write.
+     */
+    public void write(MappingSnapshot mappings) {
+        List<List<ClassSnapshot>> batches
+                = ConcurrencyHelper.partition(sortClasses(mappings.getClasses().values()), CLASSES_PER_TASK);
+        for (int section = 0; section < getSectionCount(); section++) {
+            final int currentSection = section;
+            ConcurrencyHelper.mapOrdered(batches, batch -> {
+                StringBuilder sb = new StringBuilder(batch.size() * 256);
+                batch.forEach(mapping -> writeClassMapping(mappings, mapping, mapping.getObfuscatedName(),
+                        mapping.getDeobfuscatedName(), currentSection, sb));
+                return sb;
+            }, out::append);
+        }
+        out.close();
+    }
+
+    /**
+     * Returns the number of sections written by this writer, each of which is
+     * written for every class before the next begins.
+     *
+     * @return The number of sections
+     */
+    protected int getSectionCount() {
+        return 1;
+    }
+
+    /**
+     * Formats the lines of the given {@link ClassSnapshot} which belong in the
+     * given section. This is called concurrently for different top-level
+     * classes, and must not touch shared state.
+     *
+     * @param mappings  The {@link MappingSnapshot} being written
+     * @param mapping   The {@link ClassSnapshot} to format
+     * @param obfName   The full obfuscated name of the class
+     * @param deobfName The full deobfuscated name of the class
+     * @param section   The section being written
+     * @param sb        The {@link StringBuilder} to append to
+     */
+    protected abstract void writeClassMapping(MappingSnapshot mappings, ClassSnapshot mapping, String obfName,
+            String deobfName, int section, StringBuilder sb);
+
+    /**
+     * Returns whether the given names differ, i.e. whether a mapping between
+     * them is worth writing.
+     *
+     * @param obfName   The obfuscated name
+     * @param deobfName The deobfuscated name
+     * @return Whether the names differ
+     */
+    protected static boolean isUseful(String obfName, String deobfName) {
+        return !obfName.equals(deobfName);
+    }
+
+    /**
+     * Deobfuscates the classes referenced by the given descriptor. Only
+     * classes which are mapped themselves are deobfuscated.
+     *
+     * @param mappings The {@link MappingSnapshot} to deobfuscate with
+     * @param desc     The obfuscated descriptor
+     * @return The deobfuscated descriptor
+     */
+    protected static MethodDescriptor deobfuscate(MappingSnapshot mappings, MethodDescriptor desc) {
+        return new MethodDescriptor(
+                desc.getParamTypes().stream().map(type -> deobfuscate(mappings, type)).collect(Collectors.toList()),
+                desc.getReturnType() instanceof FieldType
+                        ? deobfuscate(mappings, (FieldType) desc.getReturnType())
+                        : desc.getReturnType());
+    }
+
+    private static FieldType deobfuscate(MappingSnapshot mappings, FieldType type) {
+        if (type instanceof ObjectType) {
+            return deobfuscate(mappings, (ObjectType) type);
+        } else if (type instanceof ArrayType && ((ArrayType) type).getComponent() instanceof ObjectType) {
+            ArrayType arr = (ArrayType) type;
+            return new ArrayType(arr.getDimCount(), deobfuscate(mappings, (ObjectType) arr.getComponent()));
+        }
+        return type;
+    }
+
+    private static ObjectType deobfuscate(MappingSnapshot mappings, ObjectType type) {
+        String name = type.getClassName();
+        return mappings.getClass(name).isPresent() ? new ObjectType(mappings.deobfuscate(name)) : type;
+    }
+
+    /**
+     * Sorts the given top-level class snapshots by the length of their
+     * obfuscated name, then alphabetically.
+     *
+     * @param mappings The class snapshots to sort
+     * @return A sorted list of the class snapshots
+     */
+    protected static List<ClassSnapshot> sortClasses(Collection<ClassSnapshot> mappings) {
+        return sort(mappings, mapping -> {
+            String name = mapping.getObfuscatedName();
+            int innerIndex = name.indexOf('$');
+            return innerIndex >= 0 ? innerIndex : name.length();
+        }, ClassSnapshot::getObfuscatedName);
+    }
+
+    /**
+     * Sorts the given inner class snapshots, which share an enclosing class,
+     * alphabetically by their obfuscated name.
+     *
+     * @param mappings The class snapshots to sort
+     * @return A sorted list of the class snapshots
+     */
+    protected static List<ClassSnapshot> sortInnerClasses(Collection<ClassSnapshot> mappings) {
+        return sort(mappings, mapping -> 0, ClassSnapshot::getObfuscatedName);
+    }
+
+    protected static List<Map.Entry<FieldSignature, String>> sortFields(Map<FieldSignature, String> mappings) {
+        return sort(mappings.entrySet(), mapping -> 0,
+                mapping -> mapping.getKey().getName() + mapping.getKey().getType().orElse(null));
+    }
+
+    protected static List<Map.Entry<MethodSignature, MethodSnapshot>> sortMethods(
+            Map<MethodSignature, MethodSnapshot> mappings) {
+        return sort(mappings.entrySet(), mapping -> 0,
+                mapping -> mapping.getKey().getName() + mapping.getKey().getDescriptor().toString());
+    }
+
+    protected static List<Map.Entry<Integer, String>> sortParams(Map<Integer, String> mappings) {
+        return sort(mappings.entrySet(), Map.Entry::getKey, mapping -> "");
+    }
+
+    /**
+     * Sorts the given items by a primary int key and a secondary string key,
+     * computing each key once per item rather than once per comparison.
+     */
+    private static <T> List<T> sort(Collection<T> items, ToIntFunction<? super T> primary,
+            Function<? super T, String> secondary) {
+        if (items.size() <= 1) {
+            return new ArrayList<>(items);
+        }
+
+        @SuppressWarnings("unchecked")
+        SortEntry<T>[] entries = new SortEntry[items.size()];
+        int i = 0;
+        for (T item : items) {
+            entries[i++] = new SortEntry<>(primary.applyAsInt(item), secondary.apply(item), item);
+        }
+        Arrays.sort(entries, SortEntry.ORDER);
+
+        List<T> sorted = new ArrayList<>(entries.length);
+        for (SortEntry<T> entry : entries) {
+            sorted.add(entry.value);
+        }
+        return sorted;
+    }
 
     @Override
     public void close() throws IOException {
         out.close();
     }
 
+    private static final class SortEntry<T> {
+
+        private static final Comparator<SortEntry<?>> ORDER = Comparator.<SortEntry<?>>comparingInt(e -> e.primary)
+                .thenComparing(e -> e.secondary);
+
+        private final int primary;
+        private final String secondary;
+        private final T value;
+
+        private SortEntry(int primary, String secondary, T value) {
+            this.primary = primary;
+            this.secondary = secondary;
+            this.value = value;
+        }
+
+    }
+
 }
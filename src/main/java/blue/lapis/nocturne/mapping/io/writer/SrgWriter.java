@@ -25,27 +25,26 @@
 
 package blue.lapis.nocturne.mapping.io.writer;
 
-import blue.lapis.nocturne.mapping.MappingContext;
-import blue.lapis.nocturne.mapping.model.ClassMapping;
-import blue.lapis.nocturne.mapping.model.FieldMapping;
-import blue.lapis.nocturne.mapping.model.MethodMapping;
+import static blue.lapis.nocturne.util.Constants.INNER_CLASS_SEPARATOR_CHAR;
+
+import blue.lapis.nocturne.mapping.snapshot.ClassSnapshot;
+import blue.lapis.nocturne.mapping.snapshot.MappingSnapshot;
+import blue.lapis.nocturne.mapping.snapshot.MethodSnapshot;
+
+import org.cadixdev.bombe.type.signature.FieldSignature;
+import org.cadixdev.bombe.type.signature.MethodSignature;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.Map;
 
 /**
  * The mappings writer, for the SRG format.
  */
 public class SrgWriter extends MappingsWriter {
 
-    private final ByteArrayOutputStream clOut = new ByteArrayOutputStream();
-    private final ByteArrayOutputStream fdOut = new ByteArrayOutputStream();
-    private final ByteArrayOutputStream mdOut = new ByteArrayOutputStream();
-
-    private final PrintWriter clWriter = new PrintWriter(clOut);
-    private final PrintWriter fdWriter = new PrintWriter(fdOut);
-    private final PrintWriter mdWriter = new PrintWriter(mdOut);
+    private static final int CLASS_SECTION = 0;
+    private static final int FIELD_SECTION = 1;
+    private static final int METHOD_SECTION = 2;
 
     /**
      * Constructs a new {@link SrgWriter} which outputs to the given
@@ -58,72 +57,73 @@ public class SrgWriter extends MappingsWriter {
     }
 
     @Override
-    public void write(MappingContext mappingContext) {
-        mappingContext.getMappings().values().stream().sorted(ALPHABETISE_CLASSES).forEach(this::writeClassMapping);
-        clWriter.close();
-        fdWriter.close();
-        mdWriter.close();
-        out.write(clOut.toString());
-        out.write(fdOut.toString());
-        out.write(mdOut.toString());
-        out.close();
-        try {
-            clOut.close();
-            fdOut.close();
-            mdOut.close();
-        } catch (IOException ex) {
-            throw new RuntimeException(ex);
-        }
+    protected int getSectionCount() {
+        return 3;
     }
 
-    /**
-     * Writes the given {@link ClassMapping} to the {@link SrgWriter}'s
-     * {@link PrintWriter}.
-     *
-     * @param classMapping The {@link ClassMapping} to write
-     */
-    protected void writeClassMapping(ClassMapping classMapping) {
-        if (NOT_USELESS.test(classMapping)) {
-            clWriter.format("CL: %s %s\n",
-                    classMapping.getFullObfuscatedName(), classMapping.getFullDeobfuscatedName());
+    @Override
+    protected void writeClassMapping(MappingSnapshot mappings, ClassSnapshot mapping, String obfName,
+            String deobfName, int section, StringBuilder sb) {
+        if (section == CLASS_SECTION && isUseful(mapping.getObfuscatedName(), mapping.getDeobfuscatedName())) {
+            sb.append("CL: ").append(obfName).append(' ').append(deobfName).append('\n');
+        }
+
+        for (ClassSnapshot inner : sortInnerClasses(mapping.getInnerClasses().values())) {
+            writeClassMapping(mappings, inner, obfName + INNER_CLASS_SEPARATOR_CHAR + inner.getObfuscatedName(),
+                    deobfName + INNER_CLASS_SEPARATOR_CHAR + inner.getDeobfuscatedName(), section, sb);
         }
 
-        classMapping.getInnerClassMappings().values().stream()
-                .sorted(ALPHABETISE_CLASSES)
-                .forEach(this::writeClassMapping);
-        classMapping.getFieldMappings().values().stream()
-                .filter(NOT_USELESS)
-                .sorted(ALPHABETISE_FIELDS)
-                .forEach(this::writeFieldMapping);
-        classMapping.getMethodMappings().values().stream()
-                .filter(NOT_USELESS)
-                .sorted(ALPHABETISE_METHODS)
-                .forEach(this::writeMethodMapping);
+        if (section == FIELD_SECTION) {
+            for (Map.Entry<FieldSignature, String> field : sortFields(mapping.getFieldNames())) {
+                if (isUseful(field.getKey().getName(), field.getValue())) {
+                    writeFieldMapping(obfName, deobfName, field.getKey(), field.getValue(), sb);
+                }
+            }
+        } else if (section == METHOD_SECTION) {
+            for (Map.Entry<MethodSignature, MethodSnapshot> method : sortMethods(mapping.getMethods())) {
+                if (isUseful(method.getKey().getName(), method.getValue().getDeobfuscatedName())) {
+                    writeMethodMapping(mappings, obfName, deobfName, method.getKey(), method.getValue(), sb);
+                }
+            }
+        }
     }
 
     /**
-     * Writes the given {@link FieldMapping} to the {@link SrgWriter}'s
-     * {@link PrintWriter}.
+     * Formats the given field mapping.
      *
-     * @param fieldMapping The {@link FieldMapping} to write
+     * @param obfOwner   The full obfuscated name of the field's class
+     * @param deobfOwner The full deobfuscated name of the field's class
+     * @param sig        The obfuscated signature of the field
+     * @param deobfName  The deobfuscated name of the field
+     * @param sb         The {@link StringBuilder} to append to
      */
-    protected void writeFieldMapping(FieldMapping fieldMapping) {
-        fdWriter.format("FD: %s/%s %s/%s\n",
-                fieldMapping.getParent().getFullObfuscatedName(), fieldMapping.getObfuscatedName(),
-                fieldMapping.getParent().getFullDeobfuscatedName(), fieldMapping.getDeobfuscatedName());
+    protected void writeFieldMapping(String obfOwner, String deobfOwner, FieldSignature sig, String deobfName,
+            StringBuilder sb) {
+        sb.append("FD: ")
+                .append(obfOwner).append('/')
+                .append(sig.getName()).append(' ')
+                .append(deobfOwner).append('/')
+                .append(deobfName).append('\n');
     }
 
     /**
-     * Writes the given {@link MethodMapping} to the {@link SrgWriter}'s
-     * {@link PrintWriter}.
+     * Formats the given method mapping.
      *
-     * @param mapping The {@link MethodMapping} to write
+     * @param mappings   The {@link MappingSnapshot} being written
+     * @param obfOwner   The full obfuscated name of the method's class
+     * @param deobfOwner The full deobfuscated name of the method's class
+     * @param sig        The obfuscated signature of the method
+     * @param method     The {@link MethodSnapshot} to write
+     * @param sb         The {@link StringBuilder} to append to
      */
-    protected void writeMethodMapping(MethodMapping mapping) {
-        mdWriter.format("MD: %s/%s %s %s/%s %s\n",
-                mapping.getParent().getFullObfuscatedName(), mapping.getObfuscatedName(),
-                mapping.getObfuscatedDescriptor(),
-                mapping.getParent().getFullDeobfuscatedName(), mapping.getDeobfuscatedName(),
-                mapping.getDeobfuscatedDescriptor());
+    protected void writeMethodMapping(MappingSnapshot mappings, String obfOwner, String deobfOwner,
+            MethodSignature sig, MethodSnapshot method, StringBuilder sb) {
+        sb.append("MD: ")
+                .append(obfOwner).append('/')
+                .append(sig.getName()).append(' ')
+                .append(sig.getDescriptor()).append(' ')
+                .append(deobfOwner).append('/')
+                .append(method.getDeobfuscatedName()).append(' ')
+                .append(deobfuscate(mappings, sig.getDescriptor())).append('\n');
     }
 }
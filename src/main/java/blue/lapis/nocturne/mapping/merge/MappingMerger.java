@@ -0,0 +1,289 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.mapping.merge;
+
+import static blue.lapis.nocturne.util.Constants.INNER_CLASS_SEPARATOR_CHAR;
+
+import blue.lapis.nocturne.mapping.MappingContext;
+import blue.lapis.nocturne.mapping.model.ClassMapping;
+import blue.lapis.nocturne.mapping.model.FieldMapping;
+import blue.lapis.nocturne.mapping.model.InnerClassMapping;
+import blue.lapis.nocturne.mapping.model.Mapping;
+import blue.lapis.nocturne.mapping.model.MethodMapping;
+import blue.lapis.nocturne.mapping.model.MethodParameterMapping;
+import blue.lapis.nocturne.mapping.model.TopLevelClassMapping;
+import blue.lapis.nocturne.util.MemberType;
+import blue.lapis.nocturne.util.helper.ConcurrencyHelper;
+import blue.lapis.nocturne.util.tuple.Pair;
+
+import org.cadixdev.bombe.type.signature.FieldSignature;
+import org.cadixdev.bombe.type.signature.MemberSignature;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+/**
+ * Static utility class for three-way merging of {@link MappingContext}s.
+ *
+ * <p>Every class, field, method and parameter name is merged on its own: a
+ * name changed on only one side since the common ancestor takes that side's
+ * value, and a name changed differently on both sides is reported as a
+ * {@link MergeConflict} and keeps our side's value. A missing class, field or
+ * method mapping is equivalent to one mapping the member to its obfuscated
+ * name.</p>
+ *
+ * <p>Top-level classes are compared independently on the worker pool, with
+ * each mapping visited a constant number of times. The merged mappings are
+ * then built on the calling thread in order as the comparisons complete,
+ * since constructing mappings updates the loaded JAR.</p>
+ */
+public final class MappingMerger {
+
+    private static final int CLASSES_PER_TASK = 64;
+
+    private MappingMerger() {
+    }
+
+    /**
+     * Merges the changes made in two {@link MappingContext}s since their
+     * common ancestor into a new {@link MappingContext}. The given contexts
+     * must not be modified during the merge.
+     *
+     * @param base   The common ancestor of both sides
+     * @param ours   Our side, which wins conflicts
+     * @param theirs Their side
+     * @return The merged context, along with any conflicts
+     */
+    public static MergeResult merge(MappingContext base, MappingContext ours, MappingContext theirs) {
+        Set<String> names = new LinkedHashSet<>(ours.getMappings().keySet());
+        names.addAll(theirs.getMappings().keySet());
+        names.addAll(base.getMappings().keySet());
+
+        MappingContext merged = new MappingContext();
+        List<MergeConflict> conflicts = new ArrayList<>();
+        ConcurrencyHelper.mapOrdered(ConcurrencyHelper.partition(new ArrayList<>(names), CLASSES_PER_TASK),
+                batch -> {
+                    List<MergedClass> classes = new ArrayList<>(batch.size());
+                    List<MergeConflict> batchConflicts = new ArrayList<>();
+                    for (String name : batch) {
+                        MergedClass mergedClass = mergeClass(name, base.getMappings().get(name),
+                                ours.getMappings().get(name), theirs.getMappings().get(name), batchConflicts);
+                        if (mergedClass != null) {
+                            classes.add(mergedClass);
+                        }
+                    }
+                    return Pair.of(classes, batchConflicts);
+                },
+                result -> {
+                    result.first().forEach(mergedClass -> build(merged, null, mergedClass));
+                    conflicts.addAll(result.second());
+                });
+        return new MergeResult(merged, conflicts);
+    }
+
+    @Nullable
+    private static MergedClass mergeClass(String fullObf, @Nullable ClassMapping base, @Nullable ClassMapping ours,
+            @Nullable ClassMapping theirs, List<MergeConflict> conflicts) {
+        String obf = ours != null ? ours.getObfuscatedName()
+                : theirs != null ? theirs.getObfuscatedName()
+                : base.getObfuscatedName();
+        MemberType type = fullObf.equals(obf) ? MemberType.CLASS : MemberType.INNER_CLASS;
+        MergedClass merged = new MergedClass(obf,
+                mergeName(type, fullObf, null, -1, nameOf(base, obf), nameOf(ours, obf), nameOf(theirs, obf),
+                        conflicts));
+
+        for (FieldSignature sig : keys(base, ours, theirs, ClassMapping::getFieldMappings)) {
+            String name = mergeName(MemberType.FIELD, fullObf, sig, -1,
+                    nameOf(get(base, ClassMapping::getFieldMappings, sig), sig.getName()),
+                    nameOf(get(ours, ClassMapping::getFieldMappings, sig), sig.getName()),
+                    nameOf(get(theirs, ClassMapping::getFieldMappings, sig), sig.getName()),
+                    conflicts);
+            if (!name.equals(sig.getName())) {
+                merged.fields.add(Pair.of(sig, name));
+            }
+        }
+
+        for (MethodSignature sig : keys(base, ours, theirs, ClassMapping::getMethodMappings)) {
+            MethodMapping baseMethod = get(base, ClassMapping::getMethodMappings, sig);
+            MethodMapping ourMethod = get(ours, ClassMapping::getMethodMappings, sig);
+            MethodMapping theirMethod = get(theirs, ClassMapping::getMethodMappings, sig);
+            MergedMethod method = new MergedMethod(sig, mergeName(MemberType.METHOD, fullObf, sig, -1,
+                    nameOf(baseMethod, sig.getName()), nameOf(ourMethod, sig.getName()),
+                    nameOf(theirMethod, sig.getName()), conflicts));
+
+            Map<Integer, String> baseParams = params(baseMethod);
+            Map<Integer, String> ourParams = params(ourMethod);
+            Map<Integer, String> theirParams = params(theirMethod);
+            Set<Integer> indices = new LinkedHashSet<>(ourParams.keySet());
+            indices.addAll(theirParams.keySet());
+            indices.addAll(baseParams.keySet());
+            for (int index : indices) {
+                String name = mergeName(MemberType.ARG, fullObf, sig, index,
+                        baseParams.get(index), ourParams.get(index), theirParams.get(index), conflicts);
+                if (name != null) {
+                    method.params.add(Pair.of(index, name));
+                }
+            }
+
+            if (!method.name.equals(sig.getName()) || !method.params.isEmpty()) {
+                merged.methods.add(method);
+            }
+        }
+
+        for (String inner : keys(base, ours, theirs, ClassMapping::getInnerClassMappings)) {
+            MergedClass mergedInner = mergeClass(fullObf + INNER_CLASS_SEPARATOR_CHAR + inner,
+                    get(base, ClassMapping::getInnerClassMappings, inner),
+                    get(ours, ClassMapping::getInnerClassMappings, inner),
+                    get(theirs, ClassMapping::getInnerClassMappings, inner),
+                    conflicts);
+            if (mergedInner != null) {
+                merged.innerClasses.add(mergedInner);
+            }
+        }
+
+        return merged.isEmpty() ? null : merged;
+    }
+
+    /**
+     * Merges a single name, recording a conflict if it was changed differently
+     * on both sides.
+     */
+    @Nullable
+    private static String mergeName(MemberType type, String owner, @Nullable MemberSignature sig, int paramIndex,
+            @Nullable String base, @Nullable String ours, @Nullable String theirs, List<MergeConflict> conflicts) {
+        if (Objects.equals(ours, theirs) || Objects.equals(theirs, base)) {
+            return ours;
+        }
+        if (Objects.equals(ours, base)) {
+            return theirs;
+        }
+        conflicts.add(new MergeConflict(type, owner, sig, paramIndex, base, ours, theirs));
+        return ours;
+    }
+
+    private static String nameOf(@Nullable Mapping mapping, String obf) {
+        return mapping != null ? mapping.getDeobfuscatedName() : obf;
+    }
+
+    private static Map<Integer, String> params(@Nullable MethodMapping mapping) {
+        if (mapping == null || mapping.getParamMappings().isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Integer, String> params = new HashMap<>();
+        for (MethodParameterMapping param : mapping.getParamMappings().values()) {
+            params.put(param.getIndex(), param.getDeobfuscatedName());
+        }
+        return params;
+    }
+
+    private static <K> Set<K> keys(@Nullable ClassMapping base, @Nullable ClassMapping ours,
+            @Nullable ClassMapping theirs, Function<ClassMapping, Map<K, ?>> getter) {
+        Set<K> keys = new LinkedHashSet<>();
+        if (ours != null) {
+            keys.addAll(getter.apply(ours).keySet());
+        }
+        if (theirs != null) {
+            keys.addAll(getter.apply(theirs).keySet());
+        }
+        if (base != null) {
+            keys.addAll(getter.apply(base).keySet());
+        }
+        return keys;
+    }
+
+    @Nullable
+    private static <K, V> V get(@Nullable ClassMapping mapping, Function<ClassMapping, Map<K, V>> getter, K key) {
+        return mapping != null ? getter.apply(mapping).get(key) : null;
+    }
+
+    private static void build(MappingContext context, @Nullable ClassMapping parent, MergedClass merged) {
+        ClassMapping mapping;
+        if (parent == null) {
+            TopLevelClassMapping topLevel = new TopLevelClassMapping(context, merged.obf, merged.name);
+            context.addMapping(topLevel, false);
+            mapping = topLevel;
+        } else {
+            mapping = new InnerClassMapping(parent, merged.obf, merged.name);
+        }
+
+        merged.fields.forEach(field -> new FieldMapping(mapping, field.first(), field.second()));
+        for (MergedMethod method : merged.methods) {
+            MethodMapping methodMapping = new MethodMapping(mapping, method.sig, method.name, false);
+            method.params.forEach(param -> new MethodParameterMapping(methodMapping, param.first(), param.second(),
+                    false));
+        }
+        merged.innerClasses.forEach(inner -> build(context, mapping, inner));
+    }
+
+    /**
+     * The merged names of a class and its members, computed on the worker
+     * pool before any mappings are constructed.
+     */
+    private static class MergedClass {
+
+        private final String obf;
+        private final String name;
+        private final List<Pair<FieldSignature, String>> fields = new ArrayList<>();
+        private final List<MergedMethod> methods = new ArrayList<>();
+        private final List<MergedClass> innerClasses = new ArrayList<>();
+
+        private MergedClass(String obf, String name) {
+            this.obf = obf;
+            this.name = name;
+        }
+
+        private boolean isEmpty() {
+            return obf.equals(name) && fields.isEmpty() && methods.isEmpty() && innerClasses.isEmpty();
+        }
+
+    }
+
+    /**
+     * The merged names of a method and its parameters.
+     */
+    private static class MergedMethod {
+
+        private final MethodSignature sig;
+        private final String name;
+        private final List<Pair<Integer, String>> params = new ArrayList<>();
+
+        private MergedMethod(MethodSignature sig, String name) {
+            this.sig = sig;
+            this.name = name;
+        }
+
+    }
+
+}
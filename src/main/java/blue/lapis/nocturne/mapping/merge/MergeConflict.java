@@ -0,0 +1,148 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.mapping.merge;
+
+import blue.lapis.nocturne.util.MemberType;
+
+import org.cadixdev.bombe.type.signature.MemberSignature;
+
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+
+/**
+ * Represents a mapping which was changed differently on both sides of a
+ * three-way merge.
+ */
+public class MergeConflict {
+
+    private final MemberType type;
+    private final String owner;
+    private final MemberSignature signature;
+    private final int paramIndex;
+    private final String baseName;
+    private final String ourName;
+    private final String theirName;
+
+    /**
+     * Constructs a new {@link MergeConflict} with the given parameters.
+     *
+     * @param type       The type of the conflicting mapping
+     * @param owner      The full obfuscated name of the conflicting class, or
+     *                   of the class owning the conflicting member
+     * @param signature  The obfuscated signature of the conflicting member, or
+     *                   of the method owning the conflicting parameter
+     * @param paramIndex The index of the conflicting parameter, or {@code -1}
+     * @param baseName   The name in the common ancestor
+     * @param ourName    The name on our side
+     * @param theirName  The name on their side
+     */
+    public MergeConflict(MemberType type, String owner, @Nullable MemberSignature signature, int paramIndex,
+            @Nullable String baseName, @Nullable String ourName, @Nullable String theirName) {
+        this.type = type;
+        this.owner = owner;
+        this.signature = signature;
+        this.paramIndex = paramIndex;
+        this.baseName = baseName;
+        this.ourName = ourName;
+        this.theirName = theirName;
+    }
+
+    /**
+     * Gets the type of the conflicting mapping.
+     *
+     * @return The type of the conflicting mapping
+     */
+    public MemberType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the full obfuscated name of the conflicting class, or of the class
+     * owning the conflicting member.
+     *
+     * @return The full obfuscated name of the owning class
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * Gets the obfuscated signature of the conflicting member, or of the method
+     * owning the conflicting parameter.
+     *
+     * @return The obfuscated signature, or {@link Optional#empty()} for a class
+     */
+    public Optional<MemberSignature> getSignature() {
+        return Optional.ofNullable(signature);
+    }
+
+    /**
+     * Gets the index of the conflicting parameter.
+     *
+     * @return The index of the parameter, or {@code -1} if the conflict is not
+     * over a parameter
+     */
+    public int getParamIndex() {
+        return paramIndex;
+    }
+
+    /**
+     * Gets the deobfuscated name in the common ancestor.
+     *
+     * @return The base name, or {@link Optional#empty()} if it was unnamed
+     */
+    public Optional<String> getBaseName() {
+        return Optional.ofNullable(baseName);
+    }
+
+    /**
+     * Gets the deobfuscated name on our side, which is the one kept in the
+     * merged mappings.
+     *
+     * @return Our name, or {@link Optional#empty()} if it was unnamed
+     */
+    public Optional<String> getOurName() {
+        return Optional.ofNullable(ourName);
+    }
+
+    /**
+     * Gets the deobfuscated name on their side.
+     *
+     * @return Their name, or {@link Optional#empty()} if it was unnamed
+     */
+    public Optional<String> getTheirName() {
+        return Optional.ofNullable(theirName);
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + owner
+                + (signature != null ? " " + signature : "")
+                + (paramIndex >= 0 ? " #" + paramIndex : "")
+                + ": base=" + baseName + ", ours=" + ourName + ", theirs=" + theirName;
+    }
+
+}
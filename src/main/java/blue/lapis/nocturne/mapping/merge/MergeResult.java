@@ -0,0 +1,73 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.mapping.merge;
+
+import blue.lapis.nocturne.mapping.MappingContext;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents the outcome of a three-way merge of {@link MappingContext}s.
+ */
+public class MergeResult {
+
+    private final MappingContext context;
+    private final List<MergeConflict> conflicts;
+
+    MergeResult(MappingContext context, List<MergeConflict> conflicts) {
+        this.context = context;
+        this.conflicts = Collections.unmodifiableList(conflicts);
+    }
+
+    /**
+     * Gets the merged {@link MappingContext}.
+     *
+     * @return The merged {@link MappingContext}
+     */
+    public MappingContext getContext() {
+        return context;
+    }
+
+    /**
+     * Gets the mappings which were changed differently on both sides. Our
+     * side's name was kept for each of them.
+     *
+     * @return The conflicts, in the order they were found
+     */
+    public List<MergeConflict> getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * Returns whether the merge produced any conflicts.
+     *
+     * @return Whether there are conflicts
+     */
+    public boolean hasConflicts() {
+        return !conflicts.isEmpty();
+    }
+
+}
@@ -32,6 +32,8 @@ import blue.lapis.nocturne.gui.MainController;
 import blue.lapis.nocturne.gui.scene.text.SelectableMember;
 import blue.lapis.nocturne.jar.model.JarClassEntry;
 import blue.lapis.nocturne.mapping.MappingContext;
+import blue.lapis.nocturne.mapping.snapshot.ClassSnapshot;
+import blue.lapis.nocturne.mapping.snapshot.MethodSnapshot;
 import blue.lapis.nocturne.util.helper.StringHelper;
 
 import org.cadixdev.bombe.type.signature.FieldSignature;
@@ -53,6 +55,9 @@ public abstract class ClassMapping extends Mapping {
     private final Map<MethodSignature, MethodMapping> methodMappings = new HashMap<>();
     private final Map<String, InnerClassMapping> innerClassMappings = new HashMap<>();
 
+    // only touched by the editing thread; a null snapshot implies those of the enclosing classes are null too
+    private ClassSnapshot snapshot;
+
     /**
      * Constructs a new {@link ClassMapping} with the given parameters.
      *
@@ -101,7 +106,11 @@ public abstract class ClassMapping extends Mapping {
      */
     void addFieldMapping(FieldMapping mapping) {
         mapping.initialize();
-        fieldMappings.put(mapping.getSignature(), mapping);
+        FieldMapping previous = fieldMappings.put(mapping.getSignature(), mapping);
+        mapping.recordAddition(previous != null
+                ? () -> addFieldMapping(previous)
+                : () -> removeFieldMapping(mapping.getSignature()));
+        invalidateSnapshot();
     }
 
     /**
@@ -111,7 +120,13 @@ public abstract class ClassMapping extends Mapping {
      * @param fieldSig The signature of the field to remove the mapping of
      */
     public void removeFieldMapping(FieldSignature fieldSig) {
-        fieldMappings.remove(fieldSig);
+        FieldMapping mapping = fieldMappings.get(fieldSig);
+        if (mapping != null) {
+            getContext().getJournal().ifPresent(journal -> journal.recordRemoval(mapping));
+            fieldMappings.remove(fieldSig);
+            getContext().getHistory().ifPresent(history -> history.record(() -> addFieldMapping(mapping)));
+            invalidateSnapshot();
+        }
     }
 
     /**
@@ -123,7 +138,11 @@ public abstract class ClassMapping extends Mapping {
      */
     void addMethodMapping(MethodMapping mapping, boolean propagate) {
         mapping.initialize(propagate);
-        methodMappings.put(mapping.getSignature(), mapping);
+        MethodMapping previous = methodMappings.put(mapping.getSignature(), mapping);
+        mapping.recordAddition(previous != null
+                ? () -> addMethodMapping(previous, false)
+                : () -> removeMethodMapping(mapping.getSignature()));
+        invalidateSnapshot();
     }
 
     /**
@@ -133,7 +152,13 @@ public abstract class ClassMapping extends Mapping {
      * @param methodSig The signature of the method to remove the mapping of
      */
     public void removeMethodMapping(MethodSignature methodSig) {
-        methodMappings.remove(methodSig);
+        MethodMapping mapping = methodMappings.get(methodSig);
+        if (mapping != null) {
+            getContext().getJournal().ifPresent(journal -> journal.recordRemoval(mapping));
+            methodMappings.remove(methodSig);
+            getContext().getHistory().ifPresent(history -> history.record(() -> addMethodMapping(mapping, false)));
+            invalidateSnapshot();
+        }
     }
 
     /**
@@ -143,9 +168,105 @@ public abstract class ClassMapping extends Mapping {
      */
     void addInnerClassMapping(InnerClassMapping mapping) {
         mapping.initialize();
-        innerClassMappings.put(mapping.getObfuscatedName(), mapping);
+        InnerClassMapping previous = innerClassMappings.put(mapping.getObfuscatedName(), mapping);
+        mapping.recordAddition(previous != null
+                ? () -> addInnerClassMapping(previous)
+                : () -> removeInnerClassMapping(mapping.getObfuscatedName()));
+        invalidateSnapshot();
+    }
+
+    /**
+     * Removes the {@link InnerClassMapping} with the given obfuscated name
+     * from this {@link ClassMapping}. This is only used to revert the
+     * mapping's addition, which is not journalled either.
+     *
+     * @param name The obfuscated name of the inner class
+     */
+    void removeInnerClassMapping(String name) {
+        InnerClassMapping mapping = innerClassMappings.remove(name);
+        if (mapping != null) {
+            getContext().getHistory().ifPresent(history -> history.record(() -> addInnerClassMapping(mapping)));
+            invalidateSnapshot();
+        }
     }
 
+    /**
+     * Applies the names of the members and inner classes of this
+     * {@link ClassMapping} to the loaded JAR, e.g. after the mapping has been
+     * restored. The method mappings are not propagated.
+     */
+    void initializeMembers() {
+        fieldMappings.values().forEach(FieldMapping::initialize);
+        methodMappings.values().forEach(mapping -> mapping.initialize(false));
+        innerClassMappings.values().forEach(mapping -> {
+            mapping.initialize();
+            mapping.initializeMembers();
+        });
+    }
+
+    /**
+     * Renames the members and inner classes of this {@link ClassMapping} back
+     * to their obfuscated names, such that the loaded JAR no longer reflects
+     * them, e.g. before the mapping is removed. Each rename is recorded in
+     * the history, so that the names are restored when the removal is undone.
+     */
+    public void revertMemberNames() {
+        fieldMappings.values().forEach(Mapping::revertToObfuscatedName);
+        methodMappings.values().forEach(Mapping::revertToObfuscatedName);
+        innerClassMappings.values().forEach(mapping -> {
+            mapping.revertMemberNames();
+            mapping.revertToObfuscatedName();
+        });
+    }
+
+    /**
+     * Gets an immutable snapshot of this {@link ClassMapping} and its members.
+     * The snapshot is cached until this mapping or one of its members changes.
+     *
+     * <p>This must only be called from the thread editing the mappings;
+     * background readers should use {@link MappingContext#getLatestSnapshot()}
+     * instead.</p>
+     *
+     * @return A snapshot of this {@link ClassMapping}
+     */
+    public ClassSnapshot getSnapshot() {
+        if (snapshot == null) {
+            Map<FieldSignature, String> fields = new HashMap<>();
+            fieldMappings.forEach((sig, mapping) -> fields.put(sig, mapping.getDeobfuscatedName()));
+
+            Map<MethodSignature, MethodSnapshot> methods = new HashMap<>();
+            methodMappings.forEach((sig, mapping) -> {
+                Map<Integer, String> params = new HashMap<>();
+                mapping.getParamMappings().values()
+                        .forEach(param -> params.put(param.getIndex(), param.getDeobfuscatedName()));
+                methods.put(sig, new MethodSnapshot(mapping.getDeobfuscatedName(),
+                        Collections.unmodifiableMap(params)));
+            });
+
+            Map<String, ClassSnapshot> innerClasses = new HashMap<>();
+            innerClassMappings.forEach((name, mapping) -> innerClasses.put(name, mapping.getSnapshot()));
+
+            snapshot = new ClassSnapshot(getObfuscatedName(), getDeobfuscatedName(),
+                    Collections.unmodifiableMap(fields), Collections.unmodifiableMap(methods),
+                    Collections.unmodifiableMap(innerClasses));
+        }
+        return snapshot;
+    }
+
+    @Override
+    void invalidateSnapshot() {
+        if (snapshot != null) {
+            snapshot = null;
+            invalidateParentSnapshot();
+        }
+    }
+
+    /**
+     * Discards the cached snapshot of the parent of this {@link ClassMapping},
+     * after its own has been discarded.
+     */
+    abstract void invalidateParentSnapshot();
+
     /**
      * Deobfuscates the given class name to the best of the given
      * {@link MappingContext}'s ability.
@@ -111,6 +111,11 @@ public class InnerClassMapping extends ClassMapping implements IMemberMapping {
         super.setDeobfuscatedName(deobf, false);
     }
 
+    @Override
+    void invalidateParentSnapshot() {
+        parent.invalidateSnapshot();
+    }
+
     @Override
     protected SelectableMember.MemberKey getMemberKey() {
         return new SelectableMember.MemberKey(MemberType.CLASS, getFullObfuscatedName(), null);
@@ -25,6 +25,7 @@
 
 package blue.lapis.nocturne.mapping.model;
 
+import blue.lapis.nocturne.Main;
 import blue.lapis.nocturne.gui.scene.text.SelectableMember;
 import blue.lapis.nocturne.mapping.MappingContext;
 
@@ -81,8 +82,51 @@ public abstract class Mapping {
         if (this.deobf.equals(name)) {
             this.setAdHoc(false);
         }
+        getContext().getJournal().ifPresent(journal -> journal.recordName(this, name));
+        String previous = this.deobf;
         this.deobf = name;
+        if (!previous.equals(name)) {
+            getContext().getHistory().ifPresent(history -> history.record(() -> revertName(previous)));
+        }
+        invalidateSnapshot();
         getContext().setDirty(true);
+
+        if (Main.getLoadedJar() != null) {
+            Main.getLoadedJar().renameSymbol(getMemberKey(), name);
+        }
+    }
+
+    /**
+     * Sets the deobfuscated name of this {@link Mapping} to revert a change,
+     * without propagating it or refreshing the class views.
+     *
+     * @param name The name to revert to
+     */
+    void revertName(String name) {
+        setDeobfuscatedName(name);
+    }
+
+    /**
+     * Reverts the deobfuscated name of this {@link Mapping} to its obfuscated
+     * name, if they differ.
+     */
+    void revertToObfuscatedName() {
+        if (!getDeobfuscatedName().equals(getObfuscatedName())) {
+            revertName(getObfuscatedName());
+        }
+    }
+
+    /**
+     * Records the addition of this {@link Mapping} to its parent, such that
+     * undoing it resets the mapping's name before removing it.
+     *
+     * @param removal The action removing this mapping from its parent
+     */
+    void recordAddition(Runnable removal) {
+        getContext().getHistory().ifPresent(history -> history.record(() -> {
+            revertToObfuscatedName();
+            removal.run();
+        }));
     }
 
     /**
@@ -114,6 +158,12 @@ public abstract class Mapping {
 
     protected abstract SelectableMember.MemberKey getMemberKey();
 
+    /**
+     * Discards the cached snapshot of the class containing this
+     * {@link Mapping}, along with those of the classes enclosing it.
+     */
+    abstract void invalidateSnapshot();
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
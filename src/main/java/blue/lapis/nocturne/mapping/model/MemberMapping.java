@@ -82,6 +82,11 @@ public abstract class MemberMapping extends Mapping implements IMemberMapping {
         return getParent().getContext();
     }
 
+    @Override
+    void invalidateSnapshot() {
+        getParent().invalidateSnapshot();
+    }
+
     @Override
     public boolean equals(final Object obj) {
         if (this == obj) {
@@ -102,11 +102,21 @@ public class MethodMapping extends MemberMapping {
      */
     void addParamMapping(MethodParameterMapping mapping, boolean propagate) {
         mapping.initialize(propagate);
-        argumentMappings.put(mapping.getObfuscatedName(), mapping);
+        MethodParameterMapping previous = argumentMappings.put(mapping.getObfuscatedName(), mapping);
+        mapping.recordAddition(previous != null
+                ? () -> addParamMapping(previous, false)
+                : () -> removeParamMapping(mapping.getObfuscatedName()));
+        invalidateSnapshot();
     }
 
     public void removeParamMapping(String name) {
-        argumentMappings.remove(name);
+        MethodParameterMapping mapping = argumentMappings.get(name);
+        if (mapping != null) {
+            getContext().getJournal().ifPresent(journal -> journal.recordRemoval(mapping));
+            argumentMappings.remove(name);
+            getContext().getHistory().ifPresent(history -> history.record(() -> addParamMapping(mapping, false)));
+            invalidateSnapshot();
+        }
     }
 
     /**
@@ -147,28 +157,36 @@ public class MethodMapping extends MemberMapping {
     }
 
     public void setDeobfuscatedName(String deobf, boolean propagate) {
-        super.setDeobfuscatedName(deobf);
-
-        if (propagate && !IndexedClass.INDEXED_CLASSES.isEmpty()) {
-            for (String clazz : HierarchyHelper.getClassesInHierarchy(getParent().getFullObfuscatedName(), sig)) {
-                if (clazz.equals(getParent().getObfuscatedName())) {
-                    continue;
-                }
-
-                ClassMapping cm = MappingsHelper.getOrCreateClassMapping(getContext(), clazz);
-                if (cm.getMethodMappings().containsKey(getSignature())) {
-                    cm.getMethodMappings().get(getSignature()).setDeobfuscatedName(deobf, false);
-                } else {
-                    new MethodMapping(cm, getSignature(), deobf, false);
+        // the renames propagated through the hierarchy are undone along with this one
+        getContext().edit(() -> {
+            super.setDeobfuscatedName(deobf);
+
+            if (propagate && !IndexedClass.INDEXED_CLASSES.isEmpty()) {
+                for (String clazz : HierarchyHelper.getClassesInHierarchy(getParent().getFullObfuscatedName(), sig)) {
+                    if (clazz.equals(getParent().getObfuscatedName())) {
+                        continue;
+                    }
+
+                    ClassMapping cm = MappingsHelper.getOrCreateClassMapping(getContext(), clazz);
+                    if (cm.getMethodMappings().containsKey(getSignature())) {
+                        cm.getMethodMappings().get(getSignature()).setDeobfuscatedName(deobf, false);
+                    } else {
+                        new MethodMapping(cm, getSignature(), deobf, false);
+                    }
                 }
             }
-        }
+        });
 
         Main.getLoadedJar().getClass(getParent().getFullObfuscatedName()).get()
                 .getCurrentMethods().put(sig, getObfuscatedName().equals(getDeobfuscatedName()) ? sig
                 : new MethodSignature(getDeobfuscatedName(), sig.getDescriptor()));
     }
 
+    @Override
+    void revertName(String name) {
+        setDeobfuscatedName(name, false);
+    }
+
     @Override
     public String toString() {
         return "{"
@@ -85,6 +85,11 @@ public class MethodParameterMapping extends Mapping {
         return this.getParent().getContext();
     }
 
+    @Override
+    void invalidateSnapshot() {
+        this.getParent().invalidateSnapshot();
+    }
+
     @Override
     protected SelectableMember.MemberKey getMemberKey() {
         return this.memberKey;
@@ -101,6 +106,11 @@ public class MethodParameterMapping extends Mapping {
         // TODO: propagate
     }
 
+    @Override
+    void revertName(String name) {
+        setDeobfuscatedName(name, false);
+    }
+
     @Override
     public String toString() {
         return "{"
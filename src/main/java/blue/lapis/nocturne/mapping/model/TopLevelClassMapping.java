@@ -53,8 +53,15 @@ public class TopLevelClassMapping extends ClassMapping {
         this.parent = parent;
     }
 
+    /**
+     * Applies the name of this {@link TopLevelClassMapping}, and those of its
+     * members and inner classes, to the loaded JAR.
+     *
+     * @param updateClassViews Whether to update the class views
+     */
     public void initialize(boolean updateClassViews) {
         this.setDeobfuscatedName(getDeobfuscatedName(), updateClassViews);
+        initializeMembers();
     }
 
     @Override
@@ -83,14 +90,27 @@ public class TopLevelClassMapping extends ClassMapping {
 
     @Override
     public void setDeobfuscatedName(String deobfuscatedName, boolean updateClassViews) {
+        // the class views are refreshed by the superclass, so the current name must be known beforehand
+        if (Main.getLoadedJar() != null) {
+            Main.getLoadedJar().setCurrentName(getObfuscatedName(), deobfuscatedName);
+        }
+
         super.setDeobfuscatedName(deobfuscatedName, updateClassViews);
         if (CodeTab.CODE_TABS.containsKey(getObfuscatedName())) {
             CodeTab.CODE_TABS.get(getObfuscatedName())
                     .setText(CLASS_PATH_SEPARATOR_PATTERN.matcher(deobfuscatedName).replaceAll("."));
         }
+    }
 
-        if (Main.getLoadedJar() != null) {
-            Main.getLoadedJar().getCurrentNames().put(getObfuscatedName(), deobfuscatedName);
+    @Override
+    void revertName(String name) {
+        setDeobfuscatedName(name, false);
+    }
+
+    @Override
+    void invalidateParentSnapshot() {
+        if (parent != null) {
+            parent.markChanged(this);
         }
     }
 
@@ -0,0 +1,472 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.mapping.rename;
+
+import static blue.lapis.nocturne.processor.index.model.IndexedClass.INDEXED_CLASSES;
+import static blue.lapis.nocturne.util.Constants.INNER_CLASS_SEPARATOR_CHAR;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.gui.MainController;
+import blue.lapis.nocturne.jar.model.ClassSet;
+import blue.lapis.nocturne.jar.model.JarClassEntry;
+import blue.lapis.nocturne.mapping.MappingContext;
+import blue.lapis.nocturne.mapping.model.ClassMapping;
+import blue.lapis.nocturne.mapping.model.MethodMapping;
+import blue.lapis.nocturne.mapping.rename.RenameConflict.Reason;
+import blue.lapis.nocturne.processor.index.model.IndexedClass;
+import blue.lapis.nocturne.processor.index.model.IndexedField;
+import blue.lapis.nocturne.processor.index.model.IndexedMethod;
+import blue.lapis.nocturne.util.MemberType;
+import blue.lapis.nocturne.util.helper.ConcurrencyHelper;
+import blue.lapis.nocturne.util.helper.HierarchyHelper;
+import blue.lapis.nocturne.util.helper.MappingsHelper;
+import blue.lapis.nocturne.util.helper.StringHelper;
+import blue.lapis.nocturne.util.profiling.Interaction;
+import blue.lapis.nocturne.util.profiling.LatencyRecorder;
+import blue.lapis.nocturne.util.tuple.Pair;
+
+import org.cadixdev.bombe.type.signature.FieldSignature;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+/**
+ * Static utility class for renaming many classes and members of the loaded
+ * JAR at once, according to {@link RenameRule}s.
+ *
+ * <p>Renaming happens in two stages. {@link #plan(List)} evaluates the rules
+ * for every indexed class on the worker pool, then checks the proposed names
+ * against each other and the current names in a single pass, rejecting any
+ * which would clash. {@link #apply(MappingContext, RenamePlan)} then commits
+ * the remaining renames as a single step of the mapping history, refreshing
+ * the class views once at the end rather than after every rename.</p>
+ */
+public final class BulkRenamer {
+
+    private static final int CLASSES_PER_TASK = 64;
+
+    private BulkRenamer() {
+    }
+
+    /**
+     * Evaluates the given rules for every class of the loaded JAR and its
+     * members, and checks the resulting renames for clashes. Where several
+     * rules propose a name for the same item, the first one wins.
+     *
+     * <p>The mappings and the loaded JAR must not be modified until this
+     * returns.</p>
+     *
+     * @param rules The rules to evaluate
+     * @return The checked renames, along with those which were rejected
+     */
+    public static RenamePlan plan(List<? extends RenameRule> rules) {
+        ClassSet classes = Main.getLoadedJar();
+        List<String> names = new ArrayList<>(INDEXED_CLASSES.keySet());
+        Collections.sort(names);
+
+        List<Rename> proposed = new ArrayList<>();
+        List<RenameConflict> conflicts = new ArrayList<>();
+        ConcurrencyHelper.mapOrdered(ConcurrencyHelper.partition(names, CLASSES_PER_TASK),
+                batch -> {
+                    List<Rename> renames = new ArrayList<>();
+                    List<RenameConflict> batchConflicts = new ArrayList<>();
+                    for (String name : batch) {
+                        evaluate(classes, INDEXED_CLASSES.get(name), rules, renames, batchConflicts);
+                    }
+                    return Pair.of(renames, batchConflicts);
+                },
+                result -> {
+                    proposed.addAll(result.first());
+                    conflicts.addAll(result.second());
+                });
+
+        return new Planner(classes, conflicts).plan(proposed);
+    }
+
+    /**
+     * Applies the renames of the given {@link RenamePlan} to the given
+     * {@link MappingContext}, such that they are undone as a single step.
+     *
+     * @param context The context to apply the renames to
+     * @param plan    The plan to apply
+     */
+    public static void apply(MappingContext context, RenamePlan plan) {
+        try (LatencyRecorder.Scope scope = LatencyRecorder.begin(Interaction.BULK_RENAME)) {
+            context.edit(() -> plan.getRenames().forEach(rename -> apply(context, rename)));
+            if (!Main.getInstance().testingEnv) {
+                MainController.INSTANCE.updateClassViews();
+            }
+        }
+    }
+
+    private static void apply(MappingContext context, Rename rename) {
+        switch (rename.getType()) {
+            case CLASS:
+                // the class views are refreshed once the whole plan has been applied
+                MappingsHelper.getOrCreateClassMapping(context, rename.getOwner())
+                        .setDeobfuscatedName(rename.getName(), false);
+                break;
+            case INNER_CLASS:
+                MappingsHelper.getOrCreateClassMapping(context, rename.getOwner())
+                        .setDeobfuscatedName(rename.getName());
+                break;
+            case FIELD:
+                MappingsHelper.genFieldMapping(context, rename.getOwner(),
+                        (FieldSignature) rename.getSignature().get(), rename.getName());
+                break;
+            case METHOD: {
+                // the plan already holds a rename for every class in the method's hierarchy
+                MethodSignature sig = (MethodSignature) rename.getSignature().get();
+                ClassMapping parent = MappingsHelper.getOrCreateClassMapping(context, rename.getOwner());
+                MethodMapping mapping = parent.getMethodMappings().get(sig);
+                if (mapping != null) {
+                    mapping.setDeobfuscatedName(rename.getName(), false);
+                } else {
+                    new MethodMapping(parent, sig, rename.getName(), false);
+                }
+                break;
+            }
+            default:
+                throw new AssertionError("Unhandled type " + rename.getType());
+        }
+    }
+
+    private static void evaluate(ClassSet classes, IndexedClass clazz, List<? extends RenameRule> rules,
+            List<Rename> renames, List<RenameConflict> conflicts) {
+        String name = clazz.getName();
+        JarClassEntry entry = classes.getClass(name).orElse(null);
+        if (entry == null) {
+            return;
+        }
+
+        String className = first(rules, rule -> rule.renameClass(clazz));
+        if (className != null) {
+            int index = name.lastIndexOf(INNER_CLASS_SEPARATOR_CHAR);
+            if (index == -1) {
+                propose(new Rename(MemberType.CLASS, name, null, className), classes.getCurrentNames().get(name),
+                        StringHelper.isJavaClassIdentifier(className), renames, conflicts);
+            } else {
+                String simpleName = name.substring(index + 1);
+                String current = classes.getClass(name.substring(0, index))
+                        .map(parent -> parent.getCurrentInnerClassNames().get(simpleName))
+                        .orElse(simpleName);
+                propose(new Rename(MemberType.INNER_CLASS, name, null, className), current,
+                        StringHelper.isJavaIdentifier(className), renames, conflicts);
+            }
+        }
+
+        for (IndexedField field : clazz.getFields().values()) {
+            String fieldName = first(rules, rule -> rule.renameField(clazz, field));
+            if (fieldName != null) {
+                FieldSignature current = entry.getCurrentFields().get(field.getSignature());
+                propose(new Rename(MemberType.FIELD, name, field.getSignature(), fieldName),
+                        current != null ? current.getName() : field.getSignature().getName(),
+                        StringHelper.isJavaIdentifier(fieldName), renames, conflicts);
+            }
+        }
+
+        for (IndexedMethod method : clazz.getMethods().values()) {
+            MethodSignature sig = method.getSignature();
+            if (sig.getName().startsWith("<")) {
+                continue; // initializers can't be renamed
+            }
+            String methodName = first(rules, rule -> rule.renameMethod(clazz, method));
+            if (methodName == null) {
+                continue;
+            }
+            Rename rename = new Rename(MemberType.METHOD, name, sig, methodName);
+            MethodSignature current = entry.getCurrentMethods().get(sig);
+            if (!HierarchyHelper.getLibraryClassesInHierarchy(name, sig).isEmpty()
+                    && !methodName.equals(current != null ? current.getName() : sig.getName())) {
+                conflicts.add(new RenameConflict(rename, Reason.LIBRARY_MEMBER));
+                continue;
+            }
+            propose(rename, current != null ? current.getName() : sig.getName(),
+                    StringHelper.isJavaIdentifier(methodName), renames, conflicts);
+        }
+    }
+
+    @Nullable
+    private static String first(List<? extends RenameRule> rules, Function<RenameRule, String> evaluator) {
+        for (RenameRule rule : rules) {
+            String name = evaluator.apply(rule);
+            if (name != null) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    private static void propose(Rename rename, String currentName, boolean legal, List<Rename> renames,
+            List<RenameConflict> conflicts) {
+        if (rename.getName().equals(currentName)) {
+            return;
+        }
+        if (legal) {
+            renames.add(rename);
+        } else {
+            conflicts.add(new RenameConflict(rename, Reason.ILLEGAL_NAME));
+        }
+    }
+
+    /**
+     * Returns the keys of the given targets whose new values would be held by
+     * more than one key, once the targets have been applied to the given map.
+     *
+     * @param current The current values
+     * @param targets The new values of the keys being changed
+     * @param <K>     The type of the keys
+     * @param <V>     The type of the values
+     * @return The keys whose new values clash
+     */
+    private static <K, V> List<K> findClashes(Map<K, V> current, Map<K, V> targets) {
+        Map<V, Integer> counts = new HashMap<>();
+        for (V target : targets.values()) {
+            counts.put(target, 0);
+        }
+        for (Map.Entry<K, V> entry : current.entrySet()) {
+            V value = targets.containsKey(entry.getKey()) ? targets.get(entry.getKey()) : entry.getValue();
+            counts.computeIfPresent(value, (v, count) -> count + 1);
+        }
+        for (Map.Entry<K, V> target : targets.entrySet()) {
+            if (!current.containsKey(target.getKey())) {
+                counts.computeIfPresent(target.getValue(), (v, count) -> count + 1);
+            }
+        }
+
+        List<K> clashes = new ArrayList<>();
+        targets.forEach((key, value) -> {
+            if (counts.get(value) > 1) {
+                clashes.add(key);
+            }
+        });
+        return clashes;
+    }
+
+    /**
+     * Checks a batch of proposed renames against each other and the current
+     * names of the loaded JAR.
+     */
+    private static final class Planner {
+
+        private final ClassSet classes;
+        private final List<RenameConflict> conflicts;
+
+        // the accepted renames, by the class owning them and then by what they rename
+        private final Map<String, Rename> classRenames = new LinkedHashMap<>();
+        private final Map<String, Map<String, Rename>> innerClassRenames = new LinkedHashMap<>();
+        private final Map<String, Map<FieldSignature, Rename>> fieldRenames = new LinkedHashMap<>();
+        private final Map<String, Map<MethodSignature, MethodFamily>> methodRenames = new LinkedHashMap<>();
+        private final List<MethodFamily> families = new ArrayList<>();
+
+        private Planner(ClassSet classes, List<RenameConflict> conflicts) {
+            this.classes = classes;
+            this.conflicts = conflicts;
+        }
+
+        private RenamePlan plan(List<Rename> proposed) {
+            for (Rename rename : proposed) {
+                String owner = rename.getOwner();
+                switch (rename.getType()) {
+                    case CLASS:
+                        classRenames.put(owner, rename);
+                        break;
+                    case INNER_CLASS: {
+                        int index = owner.lastIndexOf(INNER_CLASS_SEPARATOR_CHAR);
+                        innerClassRenames.computeIfAbsent(owner.substring(0, index), k -> new LinkedHashMap<>())
+                                .put(owner.substring(index + 1), rename);
+                        break;
+                    }
+                    case FIELD:
+                        fieldRenames.computeIfAbsent(owner, k -> new LinkedHashMap<>())
+                                .put((FieldSignature) rename.getSignature().get(), rename);
+                        break;
+                    case METHOD:
+                        addMethod(rename);
+                        break;
+                    default:
+                        throw new AssertionError("Unhandled type " + rename.getType());
+                }
+            }
+
+            for (MethodFamily family : families) {
+                if (overridesLibrary(family)) {
+                    reject(family, Reason.LIBRARY_CLASH);
+                }
+            }
+
+            // rejecting a rename frees its new name and keeps its old one, which may cause further clashes
+            //noinspection StatementWithEmptyBody
+            while (rejectClashes()) {
+            }
+
+            List<Rename> renames = new ArrayList<>(classRenames.values());
+            innerClassRenames.values().forEach(inner -> renames.addAll(inner.values()));
+            fieldRenames.values().forEach(fields -> renames.addAll(fields.values()));
+            methodRenames.forEach((owner, methods) -> methods.forEach((sig, family) ->
+                    renames.add(owner.equals(family.rename.getOwner())
+                            ? family.rename
+                            : new Rename(MemberType.METHOD, owner, sig, family.rename.getName()))));
+            return new RenamePlan(renames, conflicts);
+        }
+
+        private void addMethod(Rename rename) {
+            MethodSignature sig = (MethodSignature) rename.getSignature().get();
+            List<String> members = new ArrayList<>();
+            members.add(rename.getOwner());
+            for (IndexedClass clazz : INDEXED_CLASSES.get(rename.getOwner()).getHierarchy()) {
+                if (clazz.getMethods().containsKey(sig) && classes.getClass(clazz.getName()).isPresent()) {
+                    members.add(clazz.getName());
+                }
+            }
+
+            boolean redundant = true;
+            for (String member : members) {
+                MethodFamily existing = methodRenames.getOrDefault(member, Collections.emptyMap()).get(sig);
+                if (existing == null) {
+                    redundant = false;
+                } else if (!existing.rename.getName().equals(rename.getName())) {
+                    conflicts.add(new RenameConflict(rename, Reason.INCONSISTENT));
+                    return;
+                }
+            }
+            if (redundant) {
+                return; // another class in the hierarchy already gave the method the same name
+            }
+
+            MethodFamily family = new MethodFamily(rename, sig, members);
+            for (String member : members) {
+                methodRenames.computeIfAbsent(member, k -> new LinkedHashMap<>()).putIfAbsent(sig, family);
+            }
+            families.add(family);
+        }
+
+        private boolean overridesLibrary(MethodFamily family) {
+            MethodSignature newSig = new MethodSignature(family.rename.getName(), family.sig.getDescriptor());
+            for (String member : family.members) {
+                for (IndexedClass library : INDEXED_CLASSES.get(member).getLibraryHierarchy()) {
+                    if (library.getMethods().containsKey(newSig)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private boolean rejectClashes() {
+            boolean rejected = false;
+
+            Map<String, String> classTargets = new HashMap<>();
+            classRenames.forEach((name, rename) -> classTargets.put(name, rename.getName()));
+            for (String name : findClashes(classes.getCurrentNames(), classTargets)) {
+                reject(classRenames.remove(name), Reason.CLASH);
+                rejected = true;
+            }
+
+            for (Map.Entry<String, Map<String, Rename>> inner : innerClassRenames.entrySet()) {
+                Map<String, String> targets = new HashMap<>();
+                inner.getValue().forEach((name, rename) -> targets.put(name, rename.getName()));
+                Map<String, String> current = getEntry(inner.getKey()).getCurrentInnerClassNames();
+                for (String name : findClashes(current, targets)) {
+                    reject(inner.getValue().remove(name), Reason.CLASH);
+                    rejected = true;
+                }
+            }
+
+            for (Map.Entry<String, Map<FieldSignature, Rename>> fields : fieldRenames.entrySet()) {
+                Map<FieldSignature, FieldSignature> targets = new HashMap<>();
+                fields.getValue().forEach((sig, rename) ->
+                        targets.put(sig, new FieldSignature(rename.getName(), sig.getType().orElse(null))));
+                Map<FieldSignature, FieldSignature> current = getEntry(fields.getKey()).getCurrentFields();
+                for (FieldSignature sig : findClashes(current, targets)) {
+                    reject(fields.getValue().remove(sig), Reason.CLASH);
+                    rejected = true;
+                }
+            }
+
+            for (Map.Entry<String, Map<MethodSignature, MethodFamily>> methods : methodRenames.entrySet()) {
+                Map<MethodSignature, MethodSignature> targets = new HashMap<>();
+                methods.getValue().forEach((sig, family) ->
+                        targets.put(sig, new MethodSignature(family.rename.getName(), sig.getDescriptor())));
+                Map<MethodSignature, MethodSignature> current = getEntry(methods.getKey()).getCurrentMethods();
+                for (MethodSignature sig : findClashes(current, targets)) {
+                    MethodFamily family = methods.getValue().get(sig);
+                    if (family != null) { // it may have been rejected through another member already
+                        reject(family, methods.getKey().equals(family.rename.getOwner())
+                                ? Reason.CLASH
+                                : Reason.HIERARCHY_CLASH);
+                        rejected = true;
+                    }
+                }
+            }
+
+            return rejected;
+        }
+
+        private void reject(Rename rename, Reason reason) {
+            conflicts.add(new RenameConflict(rename, reason));
+        }
+
+        private void reject(MethodFamily family, Reason reason) {
+            for (String member : family.members) {
+                methodRenames.get(member).remove(family.sig, family);
+            }
+            reject(family.rename, reason);
+        }
+
+        private JarClassEntry getEntry(String name) {
+            return classes.getClass(name).orElseThrow(() -> new IllegalStateException("Unknown class " + name));
+        }
+
+    }
+
+    /**
+     * A proposed method rename, along with every class in the method's
+     * hierarchy which it applies to.
+     */
+    private static final class MethodFamily {
+
+        private final Rename rename;
+        private final MethodSignature sig;
+        private final List<String> members;
+
+        private MethodFamily(Rename rename, MethodSignature sig, List<String> members) {
+            this.rename = rename;
+            this.sig = sig;
+            this.members = members;
+        }
+
+    }
+
+}
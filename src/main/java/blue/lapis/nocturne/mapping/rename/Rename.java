@@ -0,0 +1,107 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.mapping.rename;
+
+import blue.lapis.nocturne.util.MemberType;
+
+import org.cadixdev.bombe.type.signature.MemberSignature;
+
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+
+/**
+ * Represents a single change of name proposed by a {@link RenameRule}.
+ */
+public class Rename {
+
+    private final MemberType type;
+    private final String owner;
+    private final MemberSignature signature;
+    private final String name;
+
+    /**
+     * Constructs a new {@link Rename} with the given parameters.
+     *
+     * @param type      The type of the renamed item
+     * @param owner     The full obfuscated name of the renamed class, or of
+     *                  the class owning the renamed member
+     * @param signature The obfuscated signature of the renamed member, or
+     *                  {@code null} for a class
+     * @param name      The new name, which is fully qualified for a top-level
+     *                  class and simple otherwise
+     */
+    public Rename(MemberType type, String owner, @Nullable MemberSignature signature, String name) {
+        this.type = type;
+        this.owner = owner;
+        this.signature = signature;
+        this.name = name;
+    }
+
+    /**
+     * Gets the type of the renamed item.
+     *
+     * @return The type of the renamed item
+     */
+    public MemberType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the full obfuscated name of the renamed class, or of the class
+     * owning the renamed member.
+     *
+     * @return The full obfuscated name of the owning class
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * Gets the obfuscated signature of the renamed member.
+     *
+     * @return The signature, or {@link Optional#empty()} for a class
+     */
+    public Optional<MemberSignature> getSignature() {
+        return Optional.ofNullable(signature);
+    }
+
+    /**
+     * Gets the new name, which is fully qualified for a top-level class and
+     * simple otherwise.
+     *
+     * @return The new name
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + owner + (signature != null ? " " + signature : "") + " -> " + name;
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.mapping.rename;
+
+/**
+ * Represents a {@link Rename} which was left out of a {@link RenamePlan}, and
+ * why.
+ */
+public class RenameConflict {
+
+    private final Rename rename;
+    private final Reason reason;
+
+    /**
+     * Constructs a new {@link RenameConflict} with the given parameters.
+     *
+     * @param rename The rejected rename
+     * @param reason The reason the rename was rejected
+     */
+    public RenameConflict(Rename rename, Reason reason) {
+        this.rename = rename;
+        this.reason = reason;
+    }
+
+    /**
+     * Gets the rejected {@link Rename}.
+     *
+     * @return The rejected rename
+     */
+    public Rename getRename() {
+        return rename;
+    }
+
+    /**
+     * Gets the reason the {@link Rename} was rejected.
+     *
+     * @return The reason
+     */
+    public Reason getReason() {
+        return reason;
+    }
+
+    @Override
+    public String toString() {
+        return rename + ": " + reason;
+    }
+
+    /**
+     * The reasons for which a {@link Rename} may be rejected.
+     */
+    public enum Reason {
+
+        /**
+         * The new name is not a legal identifier.
+         */
+        ILLEGAL_NAME,
+        /**
+         * The method overrides a library method, and so can't be renamed.
+         */
+        LIBRARY_MEMBER,
+        /**
+         * The method was given a different name through another class in its
+         * hierarchy.
+         */
+        INCONSISTENT,
+        /**
+         * The new name is already taken in the same scope, either currently or
+         * by another rename in the batch.
+         */
+        CLASH,
+        /**
+         * The new name is already taken in another class declaring the method.
+         */
+        HIERARCHY_CLASH,
+        /**
+         * The new name would silently override a library method.
+         */
+        LIBRARY_CLASH
+
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.mapping.rename;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents a batch of {@link Rename}s which have been checked against each
+ * other and the current names, ready to be applied by the
+ * {@link BulkRenamer}.
+ */
+public class RenamePlan {
+
+    private final List<Rename> renames;
+    private final List<RenameConflict> conflicts;
+
+    RenamePlan(List<Rename> renames, List<RenameConflict> conflicts) {
+        this.renames = Collections.unmodifiableList(renames);
+        this.conflicts = Collections.unmodifiableList(conflicts);
+    }
+
+    /**
+     * Gets the renames which will be applied. Renames of methods are
+     * expanded to every class in the hierarchy declaring the method.
+     *
+     * @return The renames, with those of classes first
+     */
+    public List<Rename> getRenames() {
+        return renames;
+    }
+
+    /**
+     * Gets the renames which were rejected, and will not be applied.
+     *
+     * @return The conflicts, in the order they were found
+     */
+    public List<RenameConflict> getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * Returns whether any renames were rejected.
+     *
+     * @return Whether there are conflicts
+     */
+    public boolean hasConflicts() {
+        return !conflicts.isEmpty();
+    }
+
+}
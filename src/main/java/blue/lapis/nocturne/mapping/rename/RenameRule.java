@@ -0,0 +1,173 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.mapping.rename;
+
+import static blue.lapis.nocturne.util.Constants.INNER_CLASS_SEPARATOR_CHAR;
+
+import blue.lapis.nocturne.processor.index.model.IndexedClass;
+import blue.lapis.nocturne.processor.index.model.IndexedField;
+import blue.lapis.nocturne.processor.index.model.IndexedMethod;
+import blue.lapis.nocturne.util.MemberType;
+
+import org.cadixdev.bombe.type.FieldType;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+/**
+ * A rule proposing new names for classes and members of the loaded JAR, to
+ * be applied in bulk by the {@link BulkRenamer}.
+ *
+ * <p>Rules are evaluated for many classes at once on the worker pool, so they
+ * must be safe to call from several threads and must not modify the mappings
+ * or the loaded JAR.</p>
+ */
+public interface RenameRule {
+
+    /**
+     * Proposes a new name for the given class.
+     *
+     * @param clazz The class
+     * @return The new name, which is fully qualified for a top-level class and
+     *     the simple name for an inner class, or {@code null} to leave it
+     */
+    @Nullable
+    default String renameClass(IndexedClass clazz) {
+        return null;
+    }
+
+    /**
+     * Proposes a new name for the given field.
+     *
+     * @param owner The class declaring the field
+     * @param field The field
+     * @return The new name, or {@code null} to leave it
+     */
+    @Nullable
+    default String renameField(IndexedClass owner, IndexedField field) {
+        return null;
+    }
+
+    /**
+     * Proposes a new name for the given method. The name is applied to every
+     * class in the method's hierarchy.
+     *
+     * @param owner  The class declaring the method
+     * @param method The method
+     * @return The new name, or {@code null} to leave it
+     */
+    @Nullable
+    default String renameMethod(IndexedClass owner, IndexedMethod method) {
+        return null;
+    }
+
+    /**
+     * Creates a rule renaming every field of the given type.
+     *
+     * @param type  The type of the fields to rename
+     * @param namer The function giving the new name of each field, or
+     *              {@code null} to leave it
+     * @return The new rule
+     */
+    static RenameRule fieldsOfType(FieldType type, Function<? super IndexedField, String> namer) {
+        return new RenameRule() {
+            @Override
+            public String renameField(IndexedClass owner, IndexedField field) {
+                return field.getSignature().getType().filter(type::equals).map(t -> namer.apply(field)).orElse(null);
+            }
+        };
+    }
+
+    /**
+     * Creates a rule renaming the items of the given type whose obfuscated
+     * names are keys of the given table. Top-level classes are looked up by
+     * their fully qualified name, and everything else by its simple name.
+     *
+     * @param type  The type of the items to rename
+     * @param table The new names, by obfuscated name
+     * @return The new rule
+     */
+    static RenameRule fromTable(MemberType type, Map<String, String> table) {
+        return byName(type, table::get);
+    }
+
+    /**
+     * Creates a rule renaming the items of the given type whose obfuscated
+     * names entirely match the given pattern, replacing them with the given
+     * replacement. The replacement may refer to the pattern's groups, as with
+     * {@link Matcher#replaceAll(String)}.
+     *
+     * @param type        The type of the items to rename
+     * @param pattern     The pattern to match obfuscated names against
+     * @param replacement The replacement for matching names
+     * @return The new rule
+     */
+    static RenameRule matching(MemberType type, Pattern pattern, String replacement) {
+        return byName(type, name -> {
+            Matcher matcher = pattern.matcher(name);
+            return matcher.matches() ? matcher.replaceAll(replacement) : null;
+        });
+    }
+
+    /**
+     * Creates a rule renaming the items of the given type according to their
+     * obfuscated names alone.
+     *
+     * @param type  The type of the items to rename
+     * @param namer The function giving the new name for each obfuscated name,
+     *              or {@code null} to leave it
+     * @return The new rule
+     */
+    static RenameRule byName(MemberType type, Function<String, String> namer) {
+        return new RenameRule() {
+            @Override
+            public String renameClass(IndexedClass clazz) {
+                int index = clazz.getName().lastIndexOf(INNER_CLASS_SEPARATOR_CHAR);
+                if (type == MemberType.CLASS && index == -1) {
+                    return namer.apply(clazz.getName());
+                } else if (type == MemberType.INNER_CLASS && index != -1) {
+                    return namer.apply(clazz.getName().substring(index + 1));
+                }
+                return null;
+            }
+
+            @Override
+            public String renameField(IndexedClass owner, IndexedField field) {
+                return type == MemberType.FIELD ? namer.apply(field.getSignature().getName()) : null;
+            }
+
+            @Override
+            public String renameMethod(IndexedClass owner, IndexedMethod method) {
+                return type == MemberType.METHOD ? namer.apply(method.getSignature().getName()) : null;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.mapping.snapshot;
+
+import blue.lapis.nocturne.mapping.model.ClassMapping;
+
+import org.cadixdev.bombe.type.signature.FieldSignature;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+
+import java.util.Map;
+
+/**
+ * An immutable copy of a {@link ClassMapping} and its members.
+ *
+ * <p>Snapshots of classes which have not changed are shared between
+ * successive {@link MappingSnapshot}s.</p>
+ */
+public final class ClassSnapshot {
+
+    private final String obf;
+    private final String deobf;
+    private final Map<FieldSignature, String> fields;
+    private final Map<MethodSignature, MethodSnapshot> methods;
+    private final Map<String, ClassSnapshot> innerClasses;
+
+    /**
+     * Constructs a new {@link ClassSnapshot} with the given parameters. The
+     * given maps must not be modified afterwards.
+     *
+     * @param obfName      The obfuscated name of the class
+     * @param deobfName    The deobfuscated name of the class
+     * @param fields       The deobfuscated names of the class's fields
+     * @param methods      The snapshots of the class's methods
+     * @param innerClasses The snapshots of the class's inner classes, by
+     *                     obfuscated name
+     */
+    public ClassSnapshot(String obfName, String deobfName, Map<FieldSignature, String> fields,
+            Map<MethodSignature, MethodSnapshot> methods, Map<String, ClassSnapshot> innerClasses) {
+        this.obf = obfName;
+        this.deobf = deobfName;
+        this.fields = fields;
+        this.methods = methods;
+        this.innerClasses = innerClasses;
+    }
+
+    /**
+     * Returns the obfuscated name of the class. For inner classes, this
+     * excludes the names of the enclosing classes.
+     *
+     * @return The obfuscated name of the class
+     */
+    public String getObfuscatedName() {
+        return obf;
+    }
+
+    /**
+     * Returns the deobfuscated name of the class. For inner classes, this
+     * excludes the names of the enclosing classes.
+     *
+     * @return The deobfuscated name of the class
+     */
+    public String getDeobfuscatedName() {
+        return deobf;
+    }
+
+    /**
+     * Returns the deobfuscated names of the class's mapped fields.
+     *
+     * @return An unmodifiable {@link Map} of field names
+     */
+    public Map<FieldSignature, String> getFieldNames() {
+        return fields;
+    }
+
+    /**
+     * Returns the snapshots of the class's mapped methods.
+     *
+     * @return An unmodifiable {@link Map} of {@link MethodSnapshot}s
+     */
+    public Map<MethodSignature, MethodSnapshot> getMethods() {
+        return methods;
+    }
+
+    /**
+     * Returns the snapshots of the class's mapped inner classes, by
+     * obfuscated name.
+     *
+     * @return An unmodifiable {@link Map} of {@link ClassSnapshot}s
+     */
+    public Map<String, ClassSnapshot> getInnerClasses() {
+        return innerClasses;
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.mapping.snapshot;
+
+import static blue.lapis.nocturne.util.Constants.INNER_CLASS_SEPARATOR_CHAR;
+import static blue.lapis.nocturne.util.Constants.INNER_CLASS_SEPARATOR_PATTERN;
+
+import blue.lapis.nocturne.mapping.MappingContext;
+import blue.lapis.nocturne.util.PersistentHashMap;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * An immutable, consistent view of the mappings of a {@link MappingContext}
+ * at some point in time.
+ *
+ * <p>Snapshots may be read from any thread without synchronization, and are
+ * unaffected by later changes to the context. Successive snapshots share the
+ * {@link ClassSnapshot}s of every class which did not change between
+ * them.</p>
+ */
+public final class MappingSnapshot {
+
+    private final long version;
+    private final PersistentHashMap<String, ClassSnapshot> classes;
+
+    /**
+     * Constructs a new {@link MappingSnapshot} with the given parameters.
+     *
+     * @param version The version of the snapshot
+     * @param classes The snapshots of the top-level classes, by obfuscated
+     *                name
+     */
+    public MappingSnapshot(long version, PersistentHashMap<String, ClassSnapshot> classes) {
+        this.version = version;
+        this.classes = classes;
+    }
+
+    /**
+     * Returns the version of this snapshot, which increases each time a
+     * changed {@link MappingContext} is snapshotted.
+     *
+     * @return The version of this snapshot
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the snapshots of the top-level classes, by obfuscated name.
+     *
+     * @return The snapshots of the top-level classes
+     */
+    public PersistentHashMap<String, ClassSnapshot> getClassMap() {
+        return classes;
+    }
+
+    /**
+     * Returns an unmodifiable {@link Map} of the snapshots of the top-level
+     * classes, by obfuscated name.
+     *
+     * @return An unmodifiable {@link Map} of {@link ClassSnapshot}s
+     */
+    public Map<String, ClassSnapshot> getClasses() {
+        return classes.asMap();
+    }
+
+    /**
+     * Gets the snapshot of the class with the given fully-qualified
+     * obfuscated name, which may be an inner class.
+     *
+     * @param qualifiedName The fully-qualified name of the class
+     * @return The snapshot of the class, or {@link Optional#empty()} if it is
+     *     not mapped
+     */
+    public Optional<ClassSnapshot> getClass(String qualifiedName) {
+        String[] arr = INNER_CLASS_SEPARATOR_PATTERN.split(qualifiedName);
+        ClassSnapshot snapshot = classes.get(arr[0]);
+        for (int i = 1; i < arr.length && snapshot != null; i++) {
+            snapshot = snapshot.getInnerClasses().get(arr[i]);
+        }
+        return Optional.ofNullable(snapshot);
+    }
+
+    /**
+     * Deobfuscates the given class name to the best of this snapshot's
+     * ability.
+     *
+     * @param qualifiedName The fully-qualified obfuscated name of the class
+     * @return The deobfuscated name of the class
+     */
+    public String deobfuscate(String qualifiedName) {
+        String[] arr = INNER_CLASS_SEPARATOR_PATTERN.split(qualifiedName);
+        ClassSnapshot snapshot = classes.get(arr[0]);
+        if (snapshot == null) {
+            return qualifiedName;
+        }
+
+        StringBuilder deobfName = new StringBuilder(snapshot.getDeobfuscatedName());
+        for (int i = 1; i < arr.length; i++) {
+            ClassSnapshot child = snapshot != null ? snapshot.getInnerClasses().get(arr[i]) : null;
+            deobfName.append(INNER_CLASS_SEPARATOR_CHAR).append(child != null ? child.getDeobfuscatedName() : arr[i]);
+            snapshot = child;
+        }
+        return deobfName.toString();
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.mapping.snapshot;
+
+import blue.lapis.nocturne.mapping.model.MethodMapping;
+
+import java.util.Map;
+
+/**
+ * An immutable copy of a {@link MethodMapping}.
+ */
+public final class MethodSnapshot {
+
+    private final String deobf;
+    private final Map<Integer, String> params;
+
+    /**
+     * Constructs a new {@link MethodSnapshot} with the given parameters.
+     *
+     * @param deobfName The deobfuscated name of the method
+     * @param params    The deobfuscated names of the method's parameters, by
+     *                  index; this map must not be modified afterwards
+     */
+    public MethodSnapshot(String deobfName, Map<Integer, String> params) {
+        this.deobf = deobfName;
+        this.params = params;
+    }
+
+    /**
+     * Returns the deobfuscated name of the method.
+     *
+     * @return The deobfuscated name of the method
+     */
+    public String getDeobfuscatedName() {
+        return deobf;
+    }
+
+    /**
+     * Returns the deobfuscated names of the method's parameters, by index.
+     *
+     * @return An unmodifiable {@link Map} of parameter names
+     */
+    public Map<Integer, String> getParamNames() {
+        return params;
+    }
+
+}
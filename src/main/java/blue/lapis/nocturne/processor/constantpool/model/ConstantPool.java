@@ -26,11 +26,15 @@
 package blue.lapis.nocturne.processor.constantpool.model;
 
 import blue.lapis.nocturne.processor.constantpool.model.structure.ConstantStructure;
+import blue.lapis.nocturne.processor.constantpool.model.structure.DummyStructure;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents the constant pool of a class.
@@ -40,6 +44,9 @@ public class ConstantPool {
     private final List<ConstantStructure> contents;
     private int length;
 
+    // the first index of each distinct structure, built the first time a structure is deduplicated
+    private Map<StructureKey, Integer> indices;
+
     /**
      * Instantiates a new {@link ConstantPool} with the given contents.
      *
@@ -105,8 +112,13 @@ public class ConstantPool {
         if (index < 1 || index > size()) {
             throw new IndexOutOfBoundsException("Constant pool index " + index + " out-of-bounds");
         }
-        length += structure.getBytes().length - contents.get(index - 1).getBytes().length;
+        ConstantStructure previous = contents.get(index - 1);
+        length += structure.getBytes().length - previous.getBytes().length;
         contents.set(index - 1, structure);
+        if (indices != null) {
+            indices.remove(new StructureKey(previous), index);
+            index(structure, index);
+        }
     }
 
     /**
@@ -119,6 +131,37 @@ public class ConstantPool {
     public void add(ConstantStructure structure) throws IndexOutOfBoundsException {
         length += structure.getBytes().length;
         contents.add(structure);
+        if (indices != null) {
+            index(structure, size());
+        }
+    }
+
+    /**
+     * Returns the index of a structure identical to the given one, adding the
+     * structure to the end of this constant pool if none exists.
+     *
+     * @param structure The structure to find or add
+     * @return The <strong>1-based</strong> index of the structure
+     */
+    public int getOrAdd(ConstantStructure structure) {
+        if (indices == null) {
+            indices = new HashMap<>();
+            for (int i = 0; i < contents.size(); i++) {
+                index(contents.get(i), i + 1);
+            }
+        }
+        Integer existing = indices.get(new StructureKey(structure));
+        if (existing != null) {
+            return existing;
+        }
+        add(structure);
+        return size();
+    }
+
+    private void index(ConstantStructure structure, int index) {
+        if (!(structure instanceof DummyStructure)) {
+            indices.putIfAbsent(new StructureKey(structure), index);
+        }
     }
 
     /**
@@ -137,4 +180,29 @@ public class ConstantPool {
         return buffer.array();
     }
 
+    /**
+     * Identifies a structure by its bytes, which include its tag.
+     */
+    private static final class StructureKey {
+
+        private final byte[] bytes;
+        private final int hash;
+
+        StructureKey(ConstantStructure structure) {
+            this.bytes = structure.getBytes();
+            this.hash = Arrays.hashCode(bytes);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof StructureKey && Arrays.equals(bytes, ((StructureKey) obj).bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
 }
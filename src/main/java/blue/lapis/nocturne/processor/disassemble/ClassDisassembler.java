@@ -0,0 +1,363 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.processor.disassemble;
+
+import static blue.lapis.nocturne.util.helper.ByteHelper.asUshort;
+
+import blue.lapis.nocturne.processor.ClassProcessor;
+import blue.lapis.nocturne.processor.constantpool.model.ConstantPool;
+import blue.lapis.nocturne.processor.constantpool.model.structure.ClassStructure;
+import blue.lapis.nocturne.processor.constantpool.model.structure.ConstantStructure;
+import blue.lapis.nocturne.processor.constantpool.model.structure.NameAndTypeStructure;
+import blue.lapis.nocturne.processor.constantpool.model.structure.RefStructure;
+import blue.lapis.nocturne.processor.constantpool.model.structure.Utf8Structure;
+import blue.lapis.nocturne.processor.layout.ClassLayoutReader;
+import blue.lapis.nocturne.processor.layout.model.AttributeLayout;
+import blue.lapis.nocturne.processor.layout.model.ClassLayout;
+import blue.lapis.nocturne.processor.layout.model.MemberLayout;
+import blue.lapis.nocturne.util.helper.BytecodeHelper;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Produces javap-style listings of a class and the code of its methods,
+ * reading the class file directly.
+ */
+public class ClassDisassembler extends ClassProcessor {
+
+    private static final String CODE_ATTRIBUTE = "Code";
+
+    private static final String[] CLASS_FLAGS = {"public", null, null, null, "final", null, null, null, null,
+            null, "abstract", null, "synthetic", "annotation", "enum"};
+    private static final String[] FIELD_FLAGS = {"public", "private", "protected", "static", "final", null,
+            "volatile", "transient", null, null, null, null, "synthetic", null, "enum"};
+    private static final String[] METHOD_FLAGS = {"public", "private", "protected", "static", "final",
+            "synchronized", "bridge", "varargs", "native", null, "abstract", "strict", "synthetic"};
+    private static final int ACC_INTERFACE = 0x0200;
+
+    private static final String[] MNEMONICS = new String[256];
+    private static final String[] ARRAY_TYPES = {
+            null, null, null, null, "boolean", "char", "float", "double", "byte", "short", "int", "long"
+    };
+
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC2_W = 0x14;
+    private static final int IINC = 0x84;
+    private static final int TABLESWITCH = 0xAA;
+    private static final int LOOKUPSWITCH = 0xAB;
+    private static final int RET = 0xA9;
+    private static final int INVOKEDYNAMIC = 0xBA;
+    private static final int NEWARRAY = 0xBC;
+    private static final int WIDE = 0xC4;
+    private static final int IFNULL = 0xC6;
+    private static final int IFNONNULL = 0xC7;
+    private static final int GOTO_W = 0xC8;
+    private static final int JSR_W = 0xC9;
+
+    static {
+        String[] mnemonics = ("nop aconst_null iconst_m1 iconst_0 iconst_1 iconst_2 iconst_3 iconst_4 iconst_5 "
+                + "lconst_0 lconst_1 fconst_0 fconst_1 fconst_2 dconst_0 dconst_1 bipush sipush ldc ldc_w ldc2_w "
+                + "iload lload fload dload aload iload_0 iload_1 iload_2 iload_3 lload_0 lload_1 lload_2 lload_3 "
+                + "fload_0 fload_1 fload_2 fload_3 dload_0 dload_1 dload_2 dload_3 aload_0 aload_1 aload_2 aload_3 "
+                + "iaload laload faload daload aaload baload caload saload istore lstore fstore dstore astore "
+                + "istore_0 istore_1 istore_2 istore_3 lstore_0 lstore_1 lstore_2 lstore_3 fstore_0 fstore_1 "
+                + "fstore_2 fstore_3 dstore_0 dstore_1 dstore_2 dstore_3 astore_0 astore_1 astore_2 astore_3 "
+                + "iastore lastore fastore dastore aastore bastore castore sastore pop pop2 dup dup_x1 dup_x2 dup2 "
+                + "dup2_x1 dup2_x2 swap iadd ladd fadd dadd isub lsub fsub dsub imul lmul fmul dmul idiv ldiv fdiv "
+                + "ddiv irem lrem frem drem ineg lneg fneg dneg ishl lshl ishr lshr iushr lushr iand land ior lor "
+                + "ixor lxor iinc i2l i2f i2d l2i l2f l2d f2i f2l f2d d2i d2l d2f i2b i2c i2s lcmp fcmpl fcmpg "
+                + "dcmpl dcmpg ifeq ifne iflt ifge ifgt ifle if_icmpeq if_icmpne if_icmplt if_icmpge if_icmpgt "
+                + "if_icmple if_acmpeq if_acmpne goto jsr ret tableswitch lookupswitch ireturn lreturn freturn "
+                + "dreturn areturn return getstatic putstatic getfield putfield invokevirtual invokespecial "
+                + "invokestatic invokeinterface invokedynamic new newarray anewarray arraylength athrow checkcast "
+                + "instanceof monitorenter monitorexit wide multianewarray ifnull ifnonnull goto_w jsr_w").split(" ");
+        System.arraycopy(mnemonics, 0, MNEMONICS, 0, mnemonics.length);
+    }
+
+    private ClassLayout layout;
+
+    public ClassDisassembler(String className, byte[] bytes) {
+        super(className, bytes);
+    }
+
+    /**
+     * Lists the whole class in the manner of {@code javap -c}: its header,
+     * the flags, names and descriptors of its members, and the code of each
+     * method.
+     *
+     * @return The listing of the class
+     */
+    public String disassemble() {
+        ClassLayout layout = getLayout();
+        ConstantPool pool = layout.getConstantPool();
+
+        StringBuilder sb = new StringBuilder();
+        appendFlags(sb, layout.getAccessFlags(), CLASS_FLAGS);
+        sb.append((layout.getAccessFlags() & ACC_INTERFACE) != 0 ? "interface " : "class ")
+                .append(getClassName(pool, layout.getThisClassIndex()));
+        if (layout.getSuperClassIndex() != 0) {
+            sb.append(" extends ").append(getClassName(pool, layout.getSuperClassIndex()));
+        }
+        List<Integer> interfaces = layout.getInterfaceIndices();
+        for (int i = 0; i < interfaces.size(); i++) {
+            sb.append(i == 0 ? " implements " : ", ").append(getClassName(pool, interfaces.get(i)));
+        }
+        sb.append(" {\n");
+
+        for (MemberLayout field : layout.getFields()) {
+            appendFlags(sb.append("  "), field.getAccessFlags(), FIELD_FLAGS);
+            sb.append(getString(pool, field.getNameIndex())).append(':')
+                    .append(getString(pool, field.getDescriptorIndex())).append('\n');
+        }
+
+        for (MemberLayout method : layout.getMethods()) {
+            appendFlags(sb.append("\n  "), method.getAccessFlags(), METHOD_FLAGS);
+            sb.append(getString(pool, method.getNameIndex())).append(':')
+                    .append(getString(pool, method.getDescriptorIndex())).append('\n');
+
+            method.getAttribute(CODE_ATTRIBUTE).ifPresent(code -> {
+                sb.append("    Code:\n");
+                listCode(code, pool).forEach(line -> sb.append("    ").append(line).append('\n'));
+            });
+        }
+
+        return sb.append("}\n").toString();
+    }
+
+    /**
+     * Lists the code of the method with the given name and descriptor, as they
+     * appear in the class file.
+     *
+     * @param name       The name of the method
+     * @param descriptor The descriptor of the method
+     * @return The lines of the listing, or {@link Optional#empty()} if the
+     *     class has no such method or the method has no code
+     */
+    public Optional<List<String>> disassembleMethod(String name, String descriptor) {
+        ClassLayout layout = getLayout();
+        ConstantPool pool = layout.getConstantPool();
+
+        for (MemberLayout method : layout.getMethods()) {
+            if (getString(pool, method.getNameIndex()).equals(name)
+                    && getString(pool, method.getDescriptorIndex()).equals(descriptor)) {
+                return method.getAttribute(CODE_ATTRIBUTE).map(code -> listCode(code, pool));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private ClassLayout getLayout() {
+        if (layout == null) {
+            layout = new ClassLayoutReader(getClassName(), getOriginalBytes()).read();
+        }
+        return layout;
+    }
+
+    /**
+     * Lists the instructions and exception table of a Code attribute.
+     *
+     * @param attr The Code attribute to list
+     * @param pool The constant pool to resolve references against
+     * @return The lines of the listing
+     */
+    private List<String> listCode(AttributeLayout attr, ConstantPool pool) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.position(attr.getOffset() + 4); // skip max_stack and max_locals
+        int codeLen = buffer.getInt();
+        ByteBuffer code = buffer.slice();
+        code.limit(codeLen);
+        buffer.position(buffer.position() + codeLen);
+
+        List<String> lines = new ArrayList<>();
+        for (int offset = 0; offset < codeLen; offset += BytecodeHelper.getInstructionLength(code, offset)) {
+            listInstruction(code, offset, pool, lines);
+        }
+
+        int handlerCount = asUshort(buffer.getShort());
+        if (handlerCount > 0) {
+            lines.add("Exception table:");
+            for (int i = 0; i < handlerCount; i++) {
+                int start = asUshort(buffer.getShort());
+                int end = asUshort(buffer.getShort());
+                int handler = asUshort(buffer.getShort());
+                int catchType = asUshort(buffer.getShort());
+                lines.add("  " + start + " to " + end + " -> " + handler + " "
+                        + (catchType == 0 ? "any" : getClassName(pool, catchType)));
+            }
+        }
+        return lines;
+    }
+
+    private void listInstruction(ByteBuffer code, int offset, ConstantPool pool, List<String> lines) {
+        int opcode = code.get(offset) & 0xFF;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%4d: ", offset)).append(MNEMONICS[opcode] != null ? MNEMONICS[opcode] : "???");
+
+        if (opcode == BIPUSH) {
+            sb.append(' ').append(code.get(offset + 1));
+        } else if (opcode == SIPUSH) {
+            sb.append(' ').append(code.getShort(offset + 1));
+        } else if (opcode == BytecodeHelper.LDC || opcode == BytecodeHelper.LDC_W || opcode == LDC2_W) {
+            sb.append(' ').append(getConstant(pool, BytecodeHelper.getPoolIndex(code, offset)));
+        } else if ((opcode >= 0x15 && opcode <= 0x19) || (opcode >= 0x36 && opcode <= 0x3A) // xload, xstore
+                || opcode == RET) {
+            sb.append(' ').append(code.get(offset + 1) & 0xFF);
+        } else if (opcode == IINC) {
+            sb.append(' ').append(code.get(offset + 1) & 0xFF).append(", ").append(code.get(offset + 2));
+        } else if ((opcode >= 0x99 && opcode <= 0xA8) || opcode == IFNULL || opcode == IFNONNULL) {
+            sb.append(' ').append(offset + code.getShort(offset + 1));
+        } else if (opcode == GOTO_W || opcode == JSR_W) {
+            sb.append(' ').append(offset + code.getInt(offset + 1));
+        } else if (opcode >= BytecodeHelper.GETSTATIC && opcode <= INVOKEDYNAMIC) {
+            sb.append(' ').append(getConstant(pool, BytecodeHelper.getPoolIndex(code, offset)));
+        } else if (opcode == BytecodeHelper.NEW || opcode == BytecodeHelper.ANEWARRAY
+                || opcode == BytecodeHelper.CHECKCAST || opcode == BytecodeHelper.INSTANCEOF) {
+            sb.append(' ').append(getClassName(pool, BytecodeHelper.getPoolIndex(code, offset)));
+        } else if (opcode == BytecodeHelper.MULTIANEWARRAY) {
+            sb.append(' ').append(getClassName(pool, BytecodeHelper.getPoolIndex(code, offset)))
+                    .append(", ").append(code.get(offset + 3) & 0xFF);
+        } else if (opcode == NEWARRAY) {
+            int type = code.get(offset + 1) & 0xFF;
+            sb.append(' ').append(type < ARRAY_TYPES.length && ARRAY_TYPES[type] != null ? ARRAY_TYPES[type] : type);
+        } else if (opcode == WIDE) {
+            int widened = code.get(offset + 1) & 0xFF;
+            sb.append(' ').append(MNEMONICS[widened]).append(' ').append(code.getShort(offset + 2) & 0xFFFF);
+            if (widened == IINC) {
+                sb.append(", ").append(code.getShort(offset + 4));
+            }
+        } else if (opcode == TABLESWITCH || opcode == LOOKUPSWITCH) {
+            lines.add(sb.append(" {").toString());
+            listSwitch(code, offset, opcode == TABLESWITCH, lines);
+            lines.add("      }");
+            return;
+        }
+        lines.add(sb.toString());
+    }
+
+    private void listSwitch(ByteBuffer code, int offset, boolean table, List<String> lines) {
+        int base = offset + 1 + BytecodeHelper.getSwitchPadding(offset);
+        int defaultTarget = offset + code.getInt(base);
+        if (table) {
+            int low = code.getInt(base + 4);
+            int high = code.getInt(base + 8);
+            for (int i = 0; i <= high - low; i++) {
+                lines.add("        " + (low + i) + ": " + (offset + code.getInt(base + 12 + i * 4)));
+            }
+        } else {
+            int pairs = code.getInt(base + 4);
+            for (int i = 0; i < pairs; i++) {
+                int pair = base + 8 + i * 8;
+                lines.add("        " + code.getInt(pair) + ": " + (offset + code.getInt(pair + 4)));
+            }
+        }
+        lines.add("        default: " + defaultTarget);
+    }
+
+    private static String getConstant(ConstantPool pool, int index) {
+        ConstantStructure cs = pool.get(index);
+        ByteBuffer data = ByteBuffer.wrap(cs.getBytes(), 1, cs.getBytes().length - 1);
+        switch (cs.getType()) {
+            case INTEGER:
+                return "int " + data.getInt();
+            case FLOAT:
+                return "float " + data.getFloat() + "f";
+            case LONG:
+                return "long " + data.getLong() + "l";
+            case DOUBLE:
+                return "double " + data.getDouble() + "d";
+            case CLASS:
+                return "class " + getClassName(pool, index);
+            case STRING:
+                return "String " + quote(getString(pool, asUshort(data.getShort())));
+            case METHOD_TYPE:
+                return "MethodType " + getString(pool, asUshort(data.getShort()));
+            case METHOD_HANDLE:
+                return "MethodHandle " + getConstant(pool, asUshort(data.getShort(2)));
+            case INVOKE_DYNAMIC: {
+                NameAndTypeStructure nat = (NameAndTypeStructure) pool.get(asUshort(data.getShort(3)));
+                return "InvokeDynamic #" + asUshort(data.getShort(1)) + ":" + getString(pool, nat.getNameIndex())
+                        + ":" + getString(pool, nat.getTypeIndex());
+            }
+            case FIELDREF:
+            case METHODREF:
+            case INTERFACE_METHODREF: {
+                RefStructure ref = (RefStructure) cs;
+                NameAndTypeStructure nat = (NameAndTypeStructure) pool.get(ref.getNameAndTypeIndex());
+                return getClassName(pool, ref.getClassIndex()) + "." + getString(pool, nat.getNameIndex())
+                        + ":" + getString(pool, nat.getTypeIndex());
+            }
+            default:
+                return "#" + index;
+        }
+    }
+
+    private static void appendFlags(StringBuilder sb, int access, String[] flags) {
+        for (int i = 0; i < flags.length; i++) {
+            if ((access & (1 << i)) != 0 && flags[i] != null) {
+                sb.append(flags[i]).append(' ');
+            }
+        }
+    }
+
+    private static String quote(String str) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : str.toCharArray()) {
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static String getString(ConstantPool pool, int strIndex) {
+        return ((Utf8Structure) pool.get(strIndex)).asString();
+    }
+
+    private static String getClassName(ConstantPool pool, int index) {
+        return getString(pool, ((ClassStructure) pool.get(index)).getNameIndex());
+    }
+
+}
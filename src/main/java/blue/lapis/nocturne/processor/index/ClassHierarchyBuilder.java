@@ -25,6 +25,7 @@
 
 package blue.lapis.nocturne.processor.index;
 
+import blue.lapis.nocturne.processor.index.library.LibraryClasspath;
 import blue.lapis.nocturne.processor.index.model.IndexedClass;
 import blue.lapis.nocturne.processor.index.model.IndexedMethod;
 import blue.lapis.nocturne.util.helper.HierarchyHelper;
@@ -33,7 +34,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -42,14 +45,31 @@ import java.util.stream.Collectors;
 public class ClassHierarchyBuilder {
 
     private final Map<String, IndexedClass> classes;
+    private final Function<String, Optional<IndexedClass>> libraryClasses;
+    private final Map<String, Set<IndexedClass>> libraryAncestors = new HashMap<>();
 
     public ClassHierarchyBuilder(Set<IndexedClass> classes) {
+        this(classes, LibraryClasspath::getClass);
+    }
+
+    /**
+     * Constructs a new {@link ClassHierarchyBuilder} which resolves classes
+     * missing from the given set with the given function.
+     *
+     * @param classes        The classes to build the hierarchies of
+     * @param libraryClasses A function returning the library class of the
+     *                       given name, if any
+     */
+    public ClassHierarchyBuilder(Set<IndexedClass> classes,
+            Function<String, Optional<IndexedClass>> libraryClasses) {
         this.classes = new HashMap<>(classes.stream().collect(Collectors.toMap(IndexedClass::getName, c -> c)));
+        this.libraryClasses = libraryClasses;
     }
 
     public void buildHierarchies() {
         buildClassHierarchies();
         buildMethodHierarchies();
+        buildLibraryHierarchies();
         classes.values().forEach(c -> {
             c.finalizeHierarchy();
             c.getMethods().values().forEach(IndexedMethod::finalizeHierarchy);
@@ -106,4 +126,63 @@ public class ClassHierarchyBuilder {
         }
     }
 
+    /**
+     * Records the library classes each class inherits from, and the library
+     * methods each method overrides, either directly or through another
+     * method in its hierarchy.
+     */
+    private void buildLibraryHierarchies() {
+        for (IndexedClass clazz : classes.values()) {
+            clazz.getLibraryHierarchy().addAll(getLibraryAncestors(clazz));
+        }
+
+        for (IndexedClass clazz : classes.values()) {
+            clazz.getMethods().values().stream()
+                    .filter(method -> method.getVisibility() != IndexedMethod.Visibility.PRIVATE)
+                    .forEach(method -> {
+                        Set<IndexedClass> related = new HashSet<>(method.getHierarchy());
+                        related.add(clazz);
+                        for (IndexedClass relative : related) {
+                            for (IndexedClass lib : relative.getLibraryHierarchy()) {
+                                IndexedMethod libMethod = lib.getMethods().get(method.getSignature());
+                                if (libMethod != null && HierarchyHelper.isVisible(relative.getName(),
+                                        lib.getName(), libMethod.getVisibility())) {
+                                    method.getLibraryHierarchy().add(lib);
+                                }
+                            }
+                        }
+                    });
+        }
+    }
+
+    private Set<IndexedClass> getLibraryAncestors(IndexedClass clazz) {
+        Set<IndexedClass> cached = libraryAncestors.get(clazz.getName());
+        if (cached != null) {
+            return cached;
+        }
+        libraryAncestors.put(clazz.getName(), Collections.emptySet()); // guard against circular hierarchies
+
+        Set<String> parentNames = new HashSet<>(clazz.getInterfaces());
+        if (clazz.getSuperclass() != null) {
+            parentNames.add(clazz.getSuperclass());
+        }
+
+        Set<IndexedClass> ancestors = new HashSet<>();
+        for (String parentName : parentNames) {
+            IndexedClass parent = classes.get(parentName);
+            if (parent == null) {
+                Optional<IndexedClass> lib = libraryClasses.apply(parentName);
+                if (!lib.isPresent()) {
+                    continue;
+                }
+                parent = lib.get();
+                ancestors.add(parent);
+            }
+            ancestors.addAll(getLibraryAncestors(parent));
+        }
+
+        libraryAncestors.put(clazz.getName(), ancestors);
+        return ancestors;
+    }
+
 }
@@ -25,23 +25,28 @@
 
 package blue.lapis.nocturne.processor.index;
 
-import static blue.lapis.nocturne.util.Constants.CLASS_FORMAT_CONSTANT_POOL_OFFSET;
 import static blue.lapis.nocturne.util.Constants.INNER_CLASS_SEPARATOR_CHAR;
-import static blue.lapis.nocturne.util.helper.ByteHelper.asUshort;
 import static blue.lapis.nocturne.util.helper.Preconditions.checkArgument;
 
 import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.gui.scene.text.SelectableMember.MemberKey;
 import blue.lapis.nocturne.jar.model.JarClassEntry;
 import blue.lapis.nocturne.processor.ClassProcessor;
-import blue.lapis.nocturne.processor.constantpool.ConstantPoolReader;
 import blue.lapis.nocturne.processor.constantpool.model.ConstantPool;
-import blue.lapis.nocturne.processor.constantpool.model.ImmutableConstantPool;
 import blue.lapis.nocturne.processor.constantpool.model.structure.ClassStructure;
 import blue.lapis.nocturne.processor.constantpool.model.structure.ConstantStructure;
+import blue.lapis.nocturne.processor.constantpool.model.structure.NameAndTypeStructure;
+import blue.lapis.nocturne.processor.constantpool.model.structure.RefStructure;
 import blue.lapis.nocturne.processor.constantpool.model.structure.Utf8Structure;
 import blue.lapis.nocturne.processor.index.model.IndexedClass;
 import blue.lapis.nocturne.processor.index.model.IndexedField;
 import blue.lapis.nocturne.processor.index.model.IndexedMethod;
+import blue.lapis.nocturne.processor.layout.ClassLayoutReader;
+import blue.lapis.nocturne.processor.layout.model.AttributeLayout;
+import blue.lapis.nocturne.processor.layout.model.ClassLayout;
+import blue.lapis.nocturne.processor.layout.model.MemberLayout;
+import blue.lapis.nocturne.util.MemberType;
+import blue.lapis.nocturne.util.helper.BytecodeHelper;
 
 import org.cadixdev.bombe.type.FieldType;
 import org.cadixdev.bombe.type.MethodDescriptor;
@@ -58,11 +63,15 @@ import java.util.Optional;
  */
 public class ClassIndexer extends ClassProcessor {
 
+    private static final String CODE_ATTRIBUTE = "Code";
+
     private final JarClassEntry jce;
+    private final XrefIndex xrefIndex;
 
     public ClassIndexer(JarClassEntry clazz) {
         super(clazz.getName(), clazz.getContent());
         this.jce = clazz;
+        this.xrefIndex = Main.getLoadedJar().getXrefIndex();
     }
 
     /**
@@ -72,19 +81,20 @@ public class ClassIndexer extends ClassProcessor {
      * @return The created index of the class
      */
     public IndexedClass index() {
-        ImmutableConstantPool pool = new ConstantPoolReader(getClassName(), getOriginalBytes()).read(); // get the pool
-
-        ByteBuffer buffer = ByteBuffer.wrap(bytes); // create a buffer for the bytecode
-        buffer.position(CLASS_FORMAT_CONSTANT_POOL_OFFSET + pool.length() + 4); // position the buffer
+        ClassLayout layout = new ClassLayoutReader(getClassName(), getOriginalBytes()).read(); // parse the class
+        ConstantPool pool = layout.getConstantPool();
 
-        final String superClass = getClassNameFromIndex(pool, asUshort(buffer.getShort())); // read the superclass name
+        final String superClass = getClassNameFromIndex(pool, layout.getSuperClassIndex()); // read the superclass name
 
-        int interfaceCount = asUshort(buffer.getShort()); // read the interface count
         List<String> interfaces = new ArrayList<>();
-        for (int i = 0; i < interfaceCount; i++) {
-            interfaces.add(getClassNameFromIndex(pool, buffer.getShort())); // read each interface name
+        for (int index : layout.getInterfaceIndices()) {
+            interfaces.add(getClassNameFromIndex(pool, index)); // read each interface name
         }
 
+        MemberKey classKey = new MemberKey(MemberType.CLASS, getClassName(), null);
+        addClassUsage(superClass, classKey);
+        interfaces.forEach(iface -> addClassUsage(iface, classKey));
+
         if (getClassName().contains(INNER_CLASS_SEPARATOR_CHAR + "")) {
             int lastIndex = getClassName().lastIndexOf(INNER_CLASS_SEPARATOR_CHAR);
             Optional<JarClassEntry> parent = Main.getLoadedJar()
@@ -95,79 +105,138 @@ public class ClassIndexer extends ClassProcessor {
             }
         }
 
-        List<IndexedField> fields = indexFields(buffer, pool);
+        List<IndexedField> fields = indexFields(layout);
 
-        List<IndexedMethod> methods = indexMethods(buffer, pool);
+        List<IndexedMethod> methods = indexMethods(layout);
 
-        return new IndexedClass(getClassName(), pool, superClass, interfaces, fields, methods);
+        return new IndexedClass(getClassName(), layout, superClass, interfaces, fields, methods);
     }
 
     /**
-     * Skips the fields of the provided buffer, given it is positioned at their
-     * immediate start.
+     * Reads the fields of the given class layout.
      *
-     * @param buffer The buffer to read from
+     * @param layout The layout of the class
+     * @return A {@link List} of read {@link IndexedField}s
      */
-    private List<IndexedField> indexFields(ByteBuffer buffer, ConstantPool pool) {
+    private List<IndexedField> indexFields(ClassLayout layout) {
+        ConstantPool pool = layout.getConstantPool();
         List<IndexedField> fields = new ArrayList<>();
 
-        int fieldCount = buffer.getShort(); // read the field count
-        for (int i = 0; i < fieldCount; i++) {
-            IndexedField.Visibility vis = IndexedField.Visibility.fromAccessFlags(buffer.getShort()); // get the access
-            String name = getString(pool, buffer.getShort()); // get the name
-            FieldType desc = FieldType.of(getString(pool, buffer.getShort())); // get the descriptor
+        for (MemberLayout field : layout.getFields()) {
+            IndexedField.Visibility vis = IndexedField.Visibility.fromAccessFlags((short) field.getAccessFlags());
+            String name = getString(pool, field.getNameIndex()); // get the name
+            FieldType desc = FieldType.of(getString(pool, field.getDescriptorIndex())); // get the descriptor
             FieldSignature sig = new FieldSignature(name, desc);
             fields.add(new IndexedField(sig, vis));
             jce.getCurrentFields().put(sig, sig); // index the field name for future reference
-            skipAttributes(buffer);
         }
 
         return fields;
     }
 
     /**
-     * Reads the methods of the provided buffer, given it is positioned at their
-     * immediate start.
+     * Reads the methods of the given class layout, recording the references
+     * made by their code.
      *
-     * @param buffer The buffer to read from
-     * @param pool   The constant pool to read strings from
+     * @param layout The layout of the class
      * @return A {@link List} of read {@link IndexedMethod}s
      */
-    private List<IndexedMethod> indexMethods(ByteBuffer buffer, ConstantPool pool) {
+    private List<IndexedMethod> indexMethods(ClassLayout layout) {
+        ConstantPool pool = layout.getConstantPool();
         List<IndexedMethod> methods = new ArrayList<>();
 
-        int methodCount = asUshort(buffer.getShort());
-        for (int i = 0; i < methodCount; i++) {
-            IndexedMethod.Visibility vis = IndexedMethod.Visibility.fromAccessFlags(buffer.getShort());
-            String name = getString(pool, buffer.getShort());
-            MethodDescriptor desc = MethodDescriptor.of(getString(pool, buffer.getShort()));
+        for (MemberLayout method : layout.getMethods()) {
+            IndexedMethod.Visibility vis = IndexedMethod.Visibility.fromAccessFlags((short) method.getAccessFlags());
+            String name = getString(pool, method.getNameIndex());
+            String rawDesc = getString(pool, method.getDescriptorIndex());
+            MethodDescriptor desc = MethodDescriptor.of(rawDesc);
             MethodSignature sig = new MethodSignature(name, desc);
             methods.add(new IndexedMethod(sig, vis));
             jce.getCurrentMethods().put(sig, sig); // index the method sig for future reference
 
-            skipAttributes(buffer);
+            MemberKey site = new MemberKey(MemberType.METHOD, getClassName() + "/" + name, rawDesc);
+            method.getAttribute(CODE_ATTRIBUTE).ifPresent(code -> indexReferences(code, pool, site));
         }
 
         return methods;
     }
 
     /**
-     * Skips the upcoming attribute table of the provided buffer, given it is
-     * positioned at their immediate start.
+     * Records the members referenced by the code of a method in the
+     * {@link XrefIndex}.
+     *
+     * @param attr The Code attribute of the method
+     * @param pool The constant pool to resolve references against
+     * @param site The key of the method the code belongs to
+     */
+    private void indexReferences(AttributeLayout attr, ConstantPool pool, MemberKey site) {
+        ByteBuffer code = ByteBuffer.wrap(bytes);
+        code.position(attr.getOffset() + 4); // skip max_stack and max_locals
+        int codeLen = code.getInt();
+        code.limit(code.position() + codeLen);
+        code = code.slice();
+
+        for (int offset = 0; offset < codeLen; offset += BytecodeHelper.getInstructionLength(code, offset)) {
+            int opcode = code.get(offset) & 0xFF;
+            if (opcode >= BytecodeHelper.GETSTATIC && opcode <= BytecodeHelper.INVOKEINTERFACE) {
+                MemberType type = opcode <= BytecodeHelper.PUTFIELD ? MemberType.FIELD : MemberType.METHOD;
+                RefStructure ref = (RefStructure) pool.get(BytecodeHelper.getPoolIndex(code, offset));
+                String owner = getClassNameFromIndex(pool, ref.getClassIndex());
+                if (isLocalClass(owner)) {
+                    NameAndTypeStructure nat = (NameAndTypeStructure) pool.get(ref.getNameAndTypeIndex());
+                    xrefIndex.addUsage(new MemberKey(type, owner + "/" + getString(pool, nat.getNameIndex()),
+                            getString(pool, nat.getTypeIndex())), site);
+                }
+                continue;
+            }
+
+            switch (opcode) {
+                case BytecodeHelper.LDC:
+                case BytecodeHelper.LDC_W: {
+                    int index = BytecodeHelper.getPoolIndex(code, offset);
+                    if (pool.get(index) instanceof ClassStructure) {
+                        addClassUsage(getClassNameFromIndex(pool, index), site);
+                    }
+                    break;
+                }
+                case BytecodeHelper.NEW:
+                case BytecodeHelper.ANEWARRAY:
+                case BytecodeHelper.CHECKCAST:
+                case BytecodeHelper.INSTANCEOF:
+                case BytecodeHelper.MULTIANEWARRAY:
+                    addClassUsage(getClassNameFromIndex(pool, BytecodeHelper.getPoolIndex(code, offset)), site);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Records a reference to the given class in the {@link XrefIndex}, if it
+     * is part of the loaded JAR. Array types are resolved to their element
+     * type.
      *
-     * @param buffer The buffer to read from
+     * @param className The internal name or array descriptor of the class
+     * @param site      The key of the referencing method or class
      */
-    private void skipAttributes(ByteBuffer buffer) {
-        int attrCount = asUshort(buffer.getShort()); // read the attribute count
-        for (int j = 0; j < attrCount; j++) {
-            buffer.position(buffer.position() + 2); // skip the attribute name
-            // the length is a uint, but anything larger than Integer.MAX_VALUE won't fit in a Java array/buffer
-            // also, why the hell would you have a 2 GB attribute in the first place?
-            int attrLen = buffer.getInt(); // get the body length
-            buffer.position(buffer.position() + attrLen); // skip the attribute body
+    private void addClassUsage(String className, MemberKey site) {
+        if (className.startsWith("[")) {
+            int start = className.lastIndexOf('[') + 1;
+            if (className.charAt(start) != 'L') {
+                return; // primitive array
+            }
+            className = className.substring(start + 1, className.length() - 1);
+        }
+        if (isLocalClass(className)) {
+            xrefIndex.addUsage(new MemberKey(MemberType.CLASS, className, null), site);
         }
     }
 
+    private boolean isLocalClass(String className) {
+        return Main.getLoadedJar().getClass(className).isPresent();
+    }
+
     private String getString(ConstantPool pool, int strIndex) {
         assert strIndex <= pool.size();
         ConstantStructure cs = pool.get(strIndex);
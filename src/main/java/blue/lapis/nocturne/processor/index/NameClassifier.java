@@ -0,0 +1,278 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.processor.index;
+
+import static blue.lapis.nocturne.processor.index.model.IndexedClass.INDEXED_CLASSES;
+import static blue.lapis.nocturne.util.Constants.CLASS_PATH_SEPARATOR_CHAR;
+import static blue.lapis.nocturne.util.Constants.INNER_CLASS_SEPARATOR_CHAR;
+
+import blue.lapis.nocturne.jar.model.ClassSet;
+import blue.lapis.nocturne.jar.model.JarClassEntry;
+import blue.lapis.nocturne.processor.index.model.IndexedClass;
+import blue.lapis.nocturne.processor.index.model.IndexedField;
+import blue.lapis.nocturne.processor.index.model.IndexedMethod;
+import blue.lapis.nocturne.util.helper.ConcurrencyHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Static utility class for guessing whether names in a JAR were left
+ * deobfuscated, as is usually the case for entry points and members kept
+ * for reflection.
+ *
+ * <p>Each name is given a score from a handful of cheap heuristics: its
+ * length, whether it splits into dictionary words, how plausible its letters
+ * are, and for classes, whether its package looks obfuscated too. Names
+ * which score highly enough are considered deobfuscated. Every class and
+ * member is classified once while the JAR is loaded, so that code views can
+ * read the result rather than classifying every identifier they show.</p>
+ */
+public final class NameClassifier {
+
+    private static final int CLASSES_PER_TASK = 256;
+    private static final int THRESHOLD = 2;
+
+    // the prefixes of intermediary names, such as func_1234_a or method_1234
+    private static final Set<String> INTERMEDIARY_PREFIXES
+            = new HashSet<>(Arrays.asList("func", "field", "method", "class", "comp", "m", "f", "p"));
+
+    private static final Set<String> DICTIONARY = new HashSet<>(Arrays.asList((
+            "abstract accept access action active add all append apply array base begin bind block body buffer "
+                    + "build builder byte cache call can cancel char check child class clear client close code "
+                    + "collection color compare config connect contains content context copy count create current "
+                    + "data default delete entity entry equals error event exception execute factory field file "
+                    + "filter find first flag flush format from get handle handler has hash header height helper "
+                    + "holder icon id image impl index info init input instance int is item iterator key last "
+                    + "length level list listener load lock log main manager map max message method min mode model "
+                    + "name next node number object open option output owner packet parent parse path player "
+                    + "position pre previous print process property provider put queue read reader register "
+                    + "registry remove render request reset resource response result run runnable server service "
+                    + "session set size source start state status stop stream string tag target task text thread "
+                    + "tick time to type update util value view visit width window world write writer"
+    ).split(" ")));
+
+    private NameClassifier() {
+    }
+
+    /**
+     * Classifies the name of every indexed class and member on the worker
+     * pool, then marks the classes of the given {@link ClassSet} which look
+     * deobfuscated as such.
+     *
+     * @param classes The {@link ClassSet} the indexed classes belong to
+     */
+    public static void classify(ClassSet classes) {
+        List<IndexedClass> indexed = new ArrayList<>(INDEXED_CLASSES.values());
+        ConcurrencyHelper.mapOrdered(ConcurrencyHelper.partition(indexed, CLASSES_PER_TASK),
+                batch -> {
+                    batch.forEach(NameClassifier::classify);
+                    return batch;
+                },
+                batch -> {
+                    for (IndexedClass clazz : batch) {
+                        if (clazz.looksDeobfuscated()) {
+                            classes.getClass(clazz.getName()).filter(entry -> !entry.isDeobfuscated())
+                                    .ifPresent(entry -> entry.setDeobfuscated(true));
+                        }
+                    }
+                });
+    }
+
+    private static void classify(IndexedClass clazz) {
+        clazz.setLooksDeobfuscated(looksDeobfuscatedClass(clazz.getName()));
+        for (IndexedField field : clazz.getFields().values()) {
+            field.setLooksDeobfuscated(looksDeobfuscated(field.getSignature().getName()));
+        }
+        for (IndexedMethod method : clazz.getMethods().values()) {
+            method.setLooksDeobfuscated(looksDeobfuscated(method.getSignature().getName()));
+        }
+    }
+
+    /**
+     * Returns whether the given fully qualified class name looks
+     * deobfuscated.
+     *
+     * @param qualifiedName The fully qualified name of the class
+     * @return Whether the name looks deobfuscated
+     */
+    public static boolean looksDeobfuscatedClass(String qualifiedName) {
+        int packageEnd = qualifiedName.lastIndexOf(CLASS_PATH_SEPARATOR_CHAR);
+        String simpleName = qualifiedName.substring(
+                Math.max(packageEnd, qualifiedName.lastIndexOf(INNER_CLASS_SEPARATOR_CHAR)) + 1);
+        Integer score = score(simpleName);
+        if (score == null) {
+            return false;
+        }
+        if (packageEnd != -1 && looksObfuscatedPackage(qualifiedName.substring(0, packageEnd))) {
+            score--;
+        }
+        return score >= THRESHOLD;
+    }
+
+    /**
+     * Returns whether the given simple name of a class or member looks
+     * deobfuscated.
+     *
+     * @param name The name
+     * @return Whether the name looks deobfuscated
+     */
+    public static boolean looksDeobfuscated(String name) {
+        if (name.startsWith("<")) {
+            return true; // initializers keep their names
+        }
+        Integer score = score(name);
+        return score != null && score >= THRESHOLD;
+    }
+
+    /**
+     * Scores the given simple name, or returns {@code null} if it certainly
+     * looks obfuscated.
+     *
+     * @param name The name
+     * @return The score, which is higher the more deobfuscated the name looks
+     */
+    private static Integer score(String name) {
+        int length = name.length();
+        if (length <= 2 || isIntermediary(name) || isConfusable(name)) {
+            return null;
+        }
+
+        int score = 0;
+        if (length >= 5) {
+            score++;
+        }
+
+        int letters = 0;
+        int vowels = 0;
+        int words = 0;
+        boolean dictionaryWord = false;
+        boolean capitalizedWord = false;
+        int wordStart = -1;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? name.charAt(i) : '_';
+            boolean boundary = !Character.isLetter(c)
+                    || (Character.isUpperCase(c) && i > 0 && Character.isLowerCase(name.charAt(i - 1)));
+            if (boundary && wordStart != -1) {
+                String word = name.substring(wordStart, i);
+                if (word.length() >= 2) {
+                    words++;
+                }
+                dictionaryWord = dictionaryWord || word.length() >= 2 && DICTIONARY.contains(word.toLowerCase());
+                capitalizedWord |= word.length() >= 3 && Character.isUpperCase(word.charAt(0))
+                        && Character.isLowerCase(word.charAt(1));
+                wordStart = -1;
+            }
+            if (i < length && Character.isLetter(c)) {
+                if (wordStart == -1) {
+                    wordStart = i;
+                }
+                letters++;
+                if ("aeiouyAEIOUY".indexOf(c) != -1) {
+                    vowels++;
+                }
+            }
+        }
+
+        if (dictionaryWord) {
+            score += 2;
+        }
+        if (capitalizedWord) {
+            score++;
+        }
+        if (words >= 2) {
+            score++;
+        }
+        if (letters > 0) {
+            double vowelRatio = (double) vowels / letters;
+            score += vowelRatio >= 0.2 && vowelRatio <= 0.7 ? 1 : -1;
+        }
+        if (length >= 4 && entropy(name) < 1.5) {
+            score--; // repetitive names such as aaaa or IlIl
+        }
+        return score;
+    }
+
+    private static boolean isIntermediary(String name) {
+        int separator = name.indexOf('_');
+        return separator > 0 && separator + 1 < name.length() && Character.isDigit(name.charAt(separator + 1))
+                && INTERMEDIARY_PREFIXES.contains(name.substring(0, separator));
+    }
+
+    private static boolean isConfusable(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if ("Il1O0_$".indexOf(name.charAt(i)) == -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean looksObfuscatedPackage(String packageName) {
+        int start = 0;
+        while (start <= packageName.length()) {
+            int end = packageName.indexOf(CLASS_PATH_SEPARATOR_CHAR, start);
+            if (end == -1) {
+                end = packageName.length();
+            }
+            if (end - start > 2) {
+                return false;
+            }
+            start = end + 1;
+        }
+        return true;
+    }
+
+    private static double entropy(String name) {
+        int[] counts = new int[128];
+        int other = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < counts.length) {
+                counts[c]++;
+            } else {
+                other++;
+            }
+        }
+
+        double entropy = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                double p = (double) count / name.length();
+                entropy -= p * Math.log(p) / Math.log(2);
+            }
+        }
+        if (other > 0) {
+            double p = (double) other / name.length();
+            entropy -= p * Math.log(p) / Math.log(2);
+        }
+        return entropy;
+    }
+
+}
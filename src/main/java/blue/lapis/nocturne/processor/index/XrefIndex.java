@@ -0,0 +1,292 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.processor.index;
+
+import static blue.lapis.nocturne.util.helper.Preconditions.checkState;
+
+import blue.lapis.nocturne.gui.scene.text.SelectableMember.MemberKey;
+import blue.lapis.nocturne.processor.index.model.IndexedClass;
+import blue.lapis.nocturne.util.MemberType;
+
+import org.cadixdev.bombe.type.FieldType;
+import org.cadixdev.bombe.type.signature.FieldSignature;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * A cross-reference index mapping members to the sites which reference them.
+ *
+ * <p>Every member and site is interned to an int id on first sight, and the
+ * usages of each member are stored as a growable int array of site ids. A site
+ * is either a method (for references from bytecode) or a class (for
+ * references from its superclass and interface declarations).</p>
+ */
+public class XrefIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final Map<MemberKey, Integer> ids = new HashMap<>();
+    private final List<MemberKey> keys = new ArrayList<>();
+    private int[][] usages = new int[64][];
+    private int[] usageCounts = new int[64];
+
+    // set while the usages are still waiting to be read
+    private Supplier<DataInput> pendingInput;
+    private IntFunction<String> pendingStrings;
+
+    /**
+     * Records that the given site references the given member.
+     *
+     * @param target The referenced member
+     * @param site   The referencing method or class
+     */
+    public synchronized void addUsage(MemberKey target, MemberKey site) {
+        readPending();
+        int targetId = intern(normalize(target));
+        int siteId = intern(site);
+
+        int[] list = usages[targetId];
+        int count = usageCounts[targetId];
+        if (list == null) {
+            list = usages[targetId] = new int[4];
+        } else if (list[count - 1] == siteId) {
+            return; // sites are visited contiguously, so this catches most duplicates
+        } else if (count == list.length) {
+            list = usages[targetId] = Arrays.copyOf(list, count * 2);
+        }
+        list[count] = siteId;
+        usageCounts[targetId] = count + 1;
+    }
+
+    /**
+     * Returns the sites which reference the given member. Usages of methods
+     * include those of overriding and overridden methods in the same
+     * hierarchy, and usages of fields include references through subclasses
+     * which do not shadow it.
+     *
+     * @param member The member to query
+     * @return The referencing methods and classes, in first-seen order
+     */
+    public synchronized Set<MemberKey> getUsages(MemberKey member) {
+        readPending();
+        Set<MemberKey> sites = new LinkedHashSet<>();
+        for (MemberKey target : getEquivalentKeys(normalize(member))) {
+            for (int siteId : getSiteIds(target)) {
+                sites.add(keys.get(siteId));
+            }
+        }
+        return Collections.unmodifiableSet(sites);
+    }
+
+    /**
+     * Returns the names of the classes which reference the given member.
+     *
+     * @param member The member to query
+     * @return The names of the referencing classes
+     */
+    public Set<String> getReferencingClasses(MemberKey member) {
+        Set<String> classes = new LinkedHashSet<>();
+        for (MemberKey site : getUsages(member)) {
+            classes.add(site.getType() == MemberType.CLASS ? site.getQualifiedName() : getOwner(site));
+        }
+        return Collections.unmodifiableSet(classes);
+    }
+
+    /**
+     * Returns the number of distinct members and sites known to this index.
+     *
+     * @return The number of interned keys
+     */
+    public synchronized int size() {
+        readPending();
+        return keys.size();
+    }
+
+    /**
+     * Writes the keys and usages of this index to the given output, so that
+     * they can be restored by {@link #read(DataInput, IntFunction)} without
+     * indexing any classes. Names and descriptors are written as the ids
+     * given to them by the caller, which pools them with its own strings.
+     *
+     * @param out       The output to write to
+     * @param stringIds A function returning the id of the given string
+     * @throws IOException If an exception occurs while writing
+     */
+    public synchronized void write(DataOutput out, ToIntFunction<String> stringIds) throws IOException {
+        readPending();
+        out.writeInt(keys.size());
+        for (MemberKey key : keys) {
+            out.writeByte(key.getType().ordinal());
+            out.writeInt(stringIds.applyAsInt(key.getQualifiedName()));
+            out.writeInt(key.getDescriptor() != null ? stringIds.applyAsInt(key.getDescriptor()) : -1);
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            out.writeInt(usageCounts[i]);
+            for (int j = 0; j < usageCounts[i]; j++) {
+                out.writeInt(usages[i][j]);
+            }
+        }
+    }
+
+    /**
+     * Reads keys and usages written by {@link #write(DataOutput, ToIntFunction)}
+     * into this index, which must be empty.
+     *
+     * @param in      The input to read from
+     * @param strings A function returning the string with the given id
+     * @throws IOException If an exception occurs while reading
+     */
+    public synchronized void read(DataInput in, IntFunction<String> strings) throws IOException {
+        checkState(keys.isEmpty() && pendingInput == null, "Cannot read into a populated cross-reference index");
+        MemberType[] types = MemberType.values();
+        int keyCount = in.readInt();
+        for (int i = 0; i < keyCount; i++) {
+            MemberType type = types[in.readUnsignedByte()];
+            String qualifiedName = strings.apply(in.readInt());
+            int descriptor = in.readInt();
+            intern(new MemberKey(type, qualifiedName, descriptor >= 0 ? strings.apply(descriptor) : null));
+        }
+        for (int i = 0; i < keyCount; i++) {
+            int count = in.readInt();
+            if (count == 0) {
+                continue;
+            }
+            int[] list = new int[count];
+            for (int j = 0; j < count; j++) {
+                list[j] = in.readInt();
+            }
+            usages[i] = list;
+            usageCounts[i] = count;
+        }
+    }
+
+    /**
+     * Defers reading keys and usages written by
+     * {@link #write(DataOutput, ToIntFunction)} into this index, which must be
+     * empty, until it is first used.
+     *
+     * @param in      A supplier of the input to read from
+     * @param strings A function returning the string with the given id
+     */
+    public synchronized void readLazily(Supplier<DataInput> in, IntFunction<String> strings) {
+        checkState(keys.isEmpty() && pendingInput == null, "Cannot read into a populated cross-reference index");
+        this.pendingInput = in;
+        this.pendingStrings = strings;
+    }
+
+    private void readPending() {
+        if (pendingInput == null) {
+            return;
+        }
+        DataInput in = pendingInput.get();
+        IntFunction<String> strings = pendingStrings;
+        pendingInput = null;
+        pendingStrings = null;
+        try {
+            read(in, strings);
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to read cross-references", ex);
+        }
+    }
+
+    private int[] getSiteIds(MemberKey target) {
+        Integer id = ids.get(target);
+        if (id == null || usages[id] == null) {
+            return EMPTY;
+        }
+        return Arrays.copyOf(usages[id], usageCounts[id]);
+    }
+
+    private List<MemberKey> getEquivalentKeys(MemberKey member) {
+        if (member.getType() != MemberType.FIELD && member.getType() != MemberType.METHOD) {
+            return Collections.singletonList(member);
+        }
+
+        String owner = getOwner(member);
+        IndexedClass ownerClass = IndexedClass.INDEXED_CLASSES.get(owner);
+        if (ownerClass == null) {
+            return Collections.singletonList(member);
+        }
+
+        String name = member.getQualifiedName().substring(owner.length() + 1);
+        List<MemberKey> equivalents = new ArrayList<>();
+        equivalents.add(member);
+        for (IndexedClass ic : ownerClass.getHierarchy()) {
+            if (ic == ownerClass || (member.getType() == MemberType.FIELD
+                    && ic.getFields().containsKey(new FieldSignature(name, FieldType.of(member.getDescriptor()))))) {
+                continue; // shadowing fields are distinct members
+            }
+            equivalents.add(new MemberKey(member.getType(), ic.getName() + "/" + name, member.getDescriptor()));
+        }
+        return equivalents;
+    }
+
+    private int intern(MemberKey key) {
+        Integer id = ids.get(key);
+        if (id != null) {
+            return id;
+        }
+
+        int newId = keys.size();
+        ids.put(key, newId);
+        keys.add(key);
+        if (newId == usages.length) {
+            usages = Arrays.copyOf(usages, newId * 2);
+            usageCounts = Arrays.copyOf(usageCounts, newId * 2);
+        }
+        return newId;
+    }
+
+    private static MemberKey normalize(MemberKey key) {
+        return key.getType() == MemberType.INNER_CLASS
+                ? new MemberKey(MemberType.CLASS, key.getQualifiedName(), key.getDescriptor())
+                : key;
+    }
+
+    /**
+     * Returns the name of the class which declares the given field or method.
+     *
+     * @param key The key of the field or method
+     * @return The name of the declaring class
+     */
+    public static String getOwner(MemberKey key) {
+        return key.getQualifiedName().substring(0, key.getQualifiedName().lastIndexOf('/'));
+    }
+
+}
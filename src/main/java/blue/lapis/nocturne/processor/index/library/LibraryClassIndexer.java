@@ -0,0 +1,98 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.processor.index.library;
+
+import blue.lapis.nocturne.processor.ClassProcessor;
+import blue.lapis.nocturne.processor.constantpool.model.ConstantPool;
+import blue.lapis.nocturne.processor.constantpool.model.structure.ClassStructure;
+import blue.lapis.nocturne.processor.constantpool.model.structure.Utf8Structure;
+import blue.lapis.nocturne.processor.index.model.IndexedClass;
+import blue.lapis.nocturne.processor.index.model.IndexedField;
+import blue.lapis.nocturne.processor.index.model.IndexedMethod;
+import blue.lapis.nocturne.processor.layout.ClassLayoutReader;
+import blue.lapis.nocturne.processor.layout.model.ClassLayout;
+import blue.lapis.nocturne.processor.layout.model.MemberLayout;
+
+import org.cadixdev.bombe.type.FieldType;
+import org.cadixdev.bombe.type.MethodDescriptor;
+import org.cadixdev.bombe.type.signature.FieldSignature;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Indexes the signature of a library class: its supertypes and the
+ * signatures and visibility of its members. Unlike the
+ * {@link blue.lapis.nocturne.processor.index.ClassIndexer}, this reads no
+ * code and doesn't keep the constant pool.
+ */
+class LibraryClassIndexer extends ClassProcessor {
+
+    LibraryClassIndexer(String className, byte[] bytes) {
+        super(className, bytes);
+    }
+
+    IndexedClass index() {
+        ClassLayout layout = new ClassLayoutReader(getClassName(), getOriginalBytes()).read();
+        ConstantPool pool = layout.getConstantPool();
+
+        String name = getClassName(pool, layout.getThisClassIndex());
+        int superIndex = layout.getSuperClassIndex();
+        String superClass = superIndex != 0 ? getClassName(pool, superIndex) : null; // java/lang/Object has none
+
+        List<String> interfaces = new ArrayList<>(layout.getInterfaceIndices().size());
+        for (int index : layout.getInterfaceIndices()) {
+            interfaces.add(getClassName(pool, index));
+        }
+
+        List<IndexedField> fields = new ArrayList<>(layout.getFields().size());
+        for (MemberLayout field : layout.getFields()) {
+            IndexedField.Visibility vis = IndexedField.Visibility.fromAccessFlags((short) field.getAccessFlags());
+            String fieldName = getString(pool, field.getNameIndex());
+            FieldType type = FieldType.of(getString(pool, field.getDescriptorIndex()));
+            fields.add(new IndexedField(new FieldSignature(fieldName, type), vis));
+        }
+
+        List<IndexedMethod> methods = new ArrayList<>(layout.getMethods().size());
+        for (MemberLayout method : layout.getMethods()) {
+            IndexedMethod.Visibility vis = IndexedMethod.Visibility.fromAccessFlags((short) method.getAccessFlags());
+            String methodName = getString(pool, method.getNameIndex());
+            MethodDescriptor desc = MethodDescriptor.of(getString(pool, method.getDescriptorIndex()));
+            methods.add(new IndexedMethod(new MethodSignature(methodName, desc), vis));
+        }
+
+        return new IndexedClass(name, null, superClass, interfaces, fields, methods);
+    }
+
+    private static String getString(ConstantPool pool, int index) {
+        return ((Utf8Structure) pool.get(index)).asString();
+    }
+
+    private static String getClassName(ConstantPool pool, int index) {
+        return getString(pool, ((ClassStructure) pool.get(index)).getNameIndex());
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.processor.index.library;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.processor.index.model.IndexedClass;
+import blue.lapis.nocturne.util.helper.PropertiesHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Static utility class for the library JARs which are indexed alongside the
+ * loaded JAR, so that hierarchies can include classes it depends on.
+ *
+ * <p>Library indexes are kept for the rest of the session once loaded, and
+ * are only reloaded if their JAR changes.</p>
+ */
+public final class LibraryClasspath {
+
+    private static final Pattern PATH_SEPARATOR_PATTERN = Pattern.compile(Pattern.quote(File.pathSeparator));
+    private static final String CACHE_DIRECTORY = "libraries";
+
+    private static final Map<Path, LibraryIndex> LOADED_INDEXES = new HashMap<>();
+    private static List<LibraryIndex> libraries = Collections.emptyList();
+
+    private LibraryClasspath() {
+    }
+
+    /**
+     * Returns the library JARs configured in the global properties.
+     *
+     * @return The configured library JARs
+     */
+    public static List<Path> getConfiguredLibraries() {
+        PropertiesHelper properties = Main.getInstance() != null ? Main.getPropertiesHelper() : null;
+        if (properties == null) {
+            return Collections.emptyList();
+        }
+        String value = properties.getProperty(PropertiesHelper.Key.LIBRARY_JARS);
+        if (value.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return PATH_SEPARATOR_PATTERN.splitAsStream(value).map(Paths::get).collect(Collectors.toList());
+    }
+
+    /**
+     * Sets the library JARs in the global properties. They are used the next
+     * time a JAR is loaded.
+     *
+     * @param jars The library JARs
+     */
+    public static void setConfiguredLibraries(List<Path> jars) {
+        Main.getPropertiesHelper().setProperty(PropertiesHelper.Key.LIBRARY_JARS,
+                jars.stream().map(Path::toString).collect(Collectors.joining(File.pathSeparator)));
+    }
+
+    /**
+     * Loads the indexes of the configured library JARs, replacing those
+     * previously loaded. Libraries which can't be read are logged and
+     * skipped. Without global properties, e.g. when running headless, no
+     * libraries are configured, so none are loaded.
+     */
+    public static void load() {
+        PropertiesHelper properties = Main.getInstance() != null ? Main.getPropertiesHelper() : null;
+        if (properties == null) {
+            libraries = Collections.emptyList();
+            return;
+        }
+        load(getConfiguredLibraries(), new File(properties.getNocturneDirectory(), CACHE_DIRECTORY).toPath());
+    }
+
+    /**
+     * Loads the indexes of the given library JARs, replacing those previously
+     * loaded. Libraries which can't be read are logged and skipped.
+     *
+     * @param jars     The library JARs, in order of precedence
+     * @param cacheDir The directory to cache indexes in
+     */
+    public static void load(List<Path> jars, Path cacheDir) {
+        List<LibraryIndex> loaded = new ArrayList<>(jars.size());
+        for (Path jar : jars) {
+            Path key = jar.toAbsolutePath().normalize();
+            try {
+                LibraryIndex index = LOADED_INDEXES.get(key);
+                if (index == null || index.isStale()) {
+                    index = LibraryIndex.load(key, cacheDir);
+                    LOADED_INDEXES.put(key, index);
+                }
+                loaded.add(index);
+            } catch (IOException ex) {
+                LOADED_INDEXES.remove(key);
+                Main.getLogger().warning("Failed to load library " + jar + ": " + ex);
+            }
+        }
+        libraries = Collections.unmodifiableList(loaded);
+    }
+
+    /**
+     * Returns the indexes of the currently loaded libraries.
+     *
+     * @return The loaded library indexes
+     */
+    public static List<LibraryIndex> getLibraries() {
+        return libraries;
+    }
+
+    /**
+     * Returns the library class of the given name, if any of the loaded
+     * libraries contains it.
+     *
+     * @param name The internal name of the class
+     * @return The library class, if present
+     */
+    public static Optional<IndexedClass> getClass(String name) {
+        for (LibraryIndex library : libraries) {
+            IndexedClass clazz = library.getClasses().get(name);
+            if (clazz != null) {
+                return Optional.of(clazz);
+            }
+        }
+        return Optional.empty();
+    }
+
+}
@@ -0,0 +1,291 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.processor.index.library;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.processor.index.model.IndexedClass;
+import blue.lapis.nocturne.processor.index.model.IndexedField;
+import blue.lapis.nocturne.processor.index.model.IndexedMethod;
+import blue.lapis.nocturne.util.Constants;
+
+import org.cadixdev.bombe.type.FieldType;
+import org.cadixdev.bombe.type.MethodDescriptor;
+import org.cadixdev.bombe.type.signature.FieldSignature;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The index of the class signatures in a single library JAR.
+ *
+ * <p>Indexes are cached on disk, keyed by the JAR's path and validated
+ * against its size and modification time, so a library only needs to be
+ * read in full the first time it is used.</p>
+ */
+public class LibraryIndex {
+
+    private static final int MAGIC = 0x4E4C4958; // "NLIX"
+    private static final int VERSION = 1;
+
+    private static final String CACHE_FILE_EXTENSION = ".idx";
+    private static final String META_INF_PREFIX = "META-INF/";
+    private static final String MODULE_INFO = "module-info";
+
+    private final Path jar;
+    private final long size;
+    private final long lastModified;
+    private final Map<String, IndexedClass> classes;
+
+    private LibraryIndex(Path jar, long size, long lastModified, Map<String, IndexedClass> classes) {
+        this.jar = jar;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.classes = Collections.unmodifiableMap(classes);
+    }
+
+    /**
+     * Loads the index of the given library JAR from the given cache
+     * directory, indexing the JAR and caching the result if no up-to-date
+     * index is cached.
+     *
+     * @param jar      The library JAR
+     * @param cacheDir The directory to cache indexes in
+     * @return The index of the library
+     * @throws IOException If an exception occurs while reading the JAR
+     */
+    public static LibraryIndex load(Path jar, Path cacheDir) throws IOException {
+        jar = jar.toAbsolutePath().normalize();
+        long size = Files.size(jar);
+        long lastModified = Files.getLastModifiedTime(jar).toMillis();
+
+        Path cacheFile = getCacheFile(jar, cacheDir);
+        if (Files.exists(cacheFile)) {
+            try {
+                Optional<LibraryIndex> cached = readCache(cacheFile, jar, size, lastModified);
+                if (cached.isPresent()) {
+                    return cached.get();
+                }
+            } catch (IOException | RuntimeException ex) {
+                Main.getLogger().warning("Ignoring unreadable library index " + cacheFile + ": " + ex);
+            }
+        }
+
+        LibraryIndex index = new LibraryIndex(jar, size, lastModified, indexJar(jar));
+        try {
+            index.writeCache(cacheFile);
+        } catch (IOException ex) {
+            Main.getLogger().warning("Failed to cache library index for " + jar + ": " + ex);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the path of the library JAR.
+     *
+     * @return The path of the JAR
+     */
+    public Path getJar() {
+        return jar;
+    }
+
+    /**
+     * Returns whether the library JAR has changed since it was indexed.
+     *
+     * @return Whether this index is out of date
+     * @throws IOException If an exception occurs while reading the JAR's
+     *                     attributes
+     */
+    public boolean isStale() throws IOException {
+        return !Files.exists(jar) || Files.size(jar) != size
+                || Files.getLastModifiedTime(jar).toMillis() != lastModified;
+    }
+
+    /**
+     * Returns the indexed classes of the library, by name.
+     *
+     * @return The indexed classes
+     */
+    public Map<String, IndexedClass> getClasses() {
+        return classes;
+    }
+
+    private static Map<String, IndexedClass> indexJar(Path jar) throws IOException {
+        Map<String, IndexedClass> classes = new HashMap<>();
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                String entryName = entry.getName();
+                // versioned classes under META-INF share their names with the base ones
+                if (entry.isDirectory() || !entryName.endsWith(Constants.CLASS_FILE_NAME_TAIL)
+                        || entryName.startsWith(META_INF_PREFIX)) {
+                    continue;
+                }
+                String className = entryName.substring(0,
+                        entryName.length() - Constants.CLASS_FILE_NAME_TAIL.length());
+                if (className.endsWith(MODULE_INFO)) {
+                    continue;
+                }
+
+                byte[] bytes;
+                try (InputStream in = zip.getInputStream(entry)) {
+                    bytes = readFully(in, entry.getSize());
+                }
+                try {
+                    IndexedClass clazz = new LibraryClassIndexer(className, bytes).index();
+                    classes.put(clazz.getName(), clazz);
+                } catch (RuntimeException ex) {
+                    Main.getLogger().warning("Skipping malformed library class " + className + " in " + jar);
+                }
+            }
+        }
+        return classes;
+    }
+
+    private static byte[] readFully(InputStream in, long size) throws IOException {
+        byte[] bytes = new byte[size >= 0 ? (int) size : 8192];
+        int read = 0;
+        int count;
+        while ((count = in.read(bytes, read, bytes.length - read)) > 0) {
+            read += count;
+            if (read == bytes.length) {
+                if (size >= 0) {
+                    break;
+                }
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+        }
+        return read == bytes.length ? bytes : Arrays.copyOf(bytes, read);
+    }
+
+    private static Path getCacheFile(Path jar, Path cacheDir) {
+        String fileName = jar.getFileName().toString();
+        return cacheDir.resolve(fileName + '-' + Integer.toHexString(jar.toString().hashCode())
+                + CACHE_FILE_EXTENSION);
+    }
+
+    private static Optional<LibraryIndex> readCache(Path cacheFile, Path jar, long size, long lastModified)
+            throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(jar.toString())
+                    || in.readLong() != size || in.readLong() != lastModified) {
+                return Optional.empty();
+            }
+
+            int classCount = in.readInt();
+            Map<String, IndexedClass> classes = new HashMap<>(classCount * 4 / 3 + 1);
+            for (int i = 0; i < classCount; i++) {
+                String name = in.readUTF();
+                String superClass = in.readUTF();
+
+                int interfaceCount = in.readUnsignedShort();
+                List<String> interfaces = new ArrayList<>(interfaceCount);
+                for (int j = 0; j < interfaceCount; j++) {
+                    interfaces.add(in.readUTF());
+                }
+
+                int fieldCount = in.readUnsignedShort();
+                List<IndexedField> fields = new ArrayList<>(fieldCount);
+                for (int j = 0; j < fieldCount; j++) {
+                    FieldSignature sig = new FieldSignature(in.readUTF(), FieldType.of(in.readUTF()));
+                    fields.add(new IndexedField(sig, IndexedField.Visibility.fromAccessFlags(in.readByte())));
+                }
+
+                int methodCount = in.readUnsignedShort();
+                List<IndexedMethod> methods = new ArrayList<>(methodCount);
+                for (int j = 0; j < methodCount; j++) {
+                    MethodSignature sig = new MethodSignature(in.readUTF(), MethodDescriptor.of(in.readUTF()));
+                    methods.add(new IndexedMethod(sig, IndexedMethod.Visibility.fromAccessFlags(in.readByte())));
+                }
+
+                classes.put(name, new IndexedClass(name, null, superClass.isEmpty() ? null : superClass,
+                        interfaces, fields, methods));
+            }
+            return Optional.of(new LibraryIndex(jar, size, lastModified, classes));
+        }
+    }
+
+    private void writeCache(Path cacheFile) throws IOException {
+        Files.createDirectories(cacheFile.getParent());
+        Path tempFile = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out
+                         = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(jar.toString());
+                out.writeLong(size);
+                out.writeLong(lastModified);
+
+                out.writeInt(classes.size());
+                for (IndexedClass clazz : classes.values()) {
+                    out.writeUTF(clazz.getName());
+                    out.writeUTF(clazz.getSuperclass() != null ? clazz.getSuperclass() : "");
+
+                    out.writeShort(clazz.getInterfaces().size());
+                    for (String iface : clazz.getInterfaces()) {
+                        out.writeUTF(iface);
+                    }
+
+                    out.writeShort(clazz.getFields().size());
+                    for (IndexedField field : clazz.getFields().values()) {
+                        out.writeUTF(field.getSignature().getName());
+                        out.writeUTF(field.getSignature().getType().get().toString());
+                        out.writeByte(field.getVisibility().getTag());
+                    }
+
+                    out.writeShort(clazz.getMethods().size());
+                    for (IndexedMethod method : clazz.getMethods().values()) {
+                        out.writeUTF(method.getSignature().getName());
+                        out.writeUTF(method.getSignature().getDescriptor().toString());
+                        out.writeByte(method.getVisibility().getTag());
+                    }
+                }
+            }
+            Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+}
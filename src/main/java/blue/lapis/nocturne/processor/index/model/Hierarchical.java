@@ -37,17 +37,30 @@ import java.util.Set;
 public class Hierarchical<T extends Hierarchical> {
 
     private Set<T> hierarchy = new HashSet<>();
+    private Set<IndexedClass> libraryHierarchy = new HashSet<>();
     private boolean isHierarchyFinalized = false;
 
     public Set<T> getHierarchy() {
         return hierarchy;
     }
 
+    /**
+     * Returns the library classes in this structure's hierarchy. These are
+     * kept apart from {@link #getHierarchy()}, as library classes can't be
+     * remapped and never refer back to the loaded JAR.
+     *
+     * @return The library classes in the hierarchy
+     */
+    public Set<IndexedClass> getLibraryHierarchy() {
+        return libraryHierarchy;
+    }
+
     public void finalizeHierarchy() {
         checkState(!isHierarchyFinalized, "Cannot finalize hierarchy more than once");
         //noinspection SuspiciousMethodCalls
         getHierarchy().remove(this);
         hierarchy = Collections.unmodifiableSet(hierarchy);
+        libraryHierarchy = Collections.unmodifiableSet(libraryHierarchy);
 
         isHierarchyFinalized = true;
     }
@@ -26,6 +26,8 @@
 package blue.lapis.nocturne.processor.index.model;
 
 import blue.lapis.nocturne.processor.constantpool.model.ImmutableConstantPool;
+import blue.lapis.nocturne.processor.index.NameClassifier;
+import blue.lapis.nocturne.processor.layout.model.ClassLayout;
 
 import org.cadixdev.bombe.type.signature.FieldSignature;
 import org.cadixdev.bombe.type.signature.MethodSignature;
@@ -44,16 +46,17 @@ public class IndexedClass extends Hierarchical<IndexedClass> {
     public static final Map<String, IndexedClass> INDEXED_CLASSES = new HashMap<>();
 
     private final String name;
-    private ImmutableConstantPool constantPool;
+    private ClassLayout layout;
     private final String superClass;
     private final List<String> interfaces;
     private final Map<FieldSignature, IndexedField> fields;
     private final Map<MethodSignature, IndexedMethod> methods;
+    private boolean looksDeobfuscated;
 
-    public IndexedClass(String name, ImmutableConstantPool constantPool, String superClass, List<String> interfaces,
+    public IndexedClass(String name, ClassLayout layout, String superClass, List<String> interfaces,
                         List<IndexedField> fields, List<IndexedMethod> methods) {
         this.name = name;
-        this.constantPool = constantPool;
+        this.layout = layout;
         this.superClass = superClass;
         this.interfaces = Collections.unmodifiableList(interfaces);
         this.fields = Collections.unmodifiableMap(
@@ -67,8 +70,19 @@ public class IndexedClass extends Hierarchical<IndexedClass> {
         return name;
     }
 
+    /**
+     * Returns the layout the class file was indexed from, which is kept only
+     * until the JAR has finished loading.
+     *
+     * @return The layout of the class file, or {@code null} if it has been
+     *     cleared or was never kept
+     */
+    public ClassLayout getLayout() {
+        return layout;
+    }
+
     public ImmutableConstantPool getConstantPool() {
-        return constantPool;
+        return layout != null ? layout.getConstantPool() : null;
     }
 
     public String getSuperclass() {
@@ -87,8 +101,27 @@ public class IndexedClass extends Hierarchical<IndexedClass> {
         return methods;
     }
 
+    /**
+     * Returns whether the name of this class looks deobfuscated already, as
+     * guessed by the {@link NameClassifier} once the JAR was indexed.
+     *
+     * @return Whether the name looks deobfuscated
+     */
+    public boolean looksDeobfuscated() {
+        return looksDeobfuscated;
+    }
+
+    /**
+     * Sets whether the name of this class looks deobfuscated already.
+     *
+     * @param looksDeobfuscated Whether the name looks deobfuscated
+     */
+    public void setLooksDeobfuscated(boolean looksDeobfuscated) {
+        this.looksDeobfuscated = looksDeobfuscated;
+    }
+
     public void clearPool() {
-        this.constantPool = null;
+        this.layout = null;
     }
 
 }
@@ -25,6 +25,8 @@
 
 package blue.lapis.nocturne.processor.index.model;
 
+import blue.lapis.nocturne.processor.index.NameClassifier;
+
 import org.cadixdev.bombe.type.signature.FieldSignature;
 
 import java.util.HashMap;
@@ -37,6 +39,7 @@ public class IndexedField extends Hierarchical<IndexedClass> {
 
     private final FieldSignature signature;
     private final Visibility visibility;
+    private boolean looksDeobfuscated;
 
     public IndexedField(FieldSignature signature, Visibility visibility) {
         this.signature = signature;
@@ -51,6 +54,25 @@ public class IndexedField extends Hierarchical<IndexedClass> {
         return visibility;
     }
 
+    /**
+     * Returns whether the name of this field looks deobfuscated already, as
+     * guessed by the {@link NameClassifier} once the JAR was indexed.
+     *
+     * @return Whether the name looks deobfuscated
+     */
+    public boolean looksDeobfuscated() {
+        return looksDeobfuscated;
+    }
+
+    /**
+     * Sets whether the name of this field looks deobfuscated already.
+     *
+     * @param looksDeobfuscated Whether the name looks deobfuscated
+     */
+    public void setLooksDeobfuscated(boolean looksDeobfuscated) {
+        this.looksDeobfuscated = looksDeobfuscated;
+    }
+
     /**
      * Represents the visibility level of a particular method.
      */
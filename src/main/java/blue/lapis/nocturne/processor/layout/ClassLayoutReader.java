@@ -0,0 +1,139 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.processor.layout;
+
+import static blue.lapis.nocturne.util.Constants.CLASS_FORMAT_CONSTANT_POOL_OFFSET;
+import static blue.lapis.nocturne.util.helper.ByteHelper.asUshort;
+
+import blue.lapis.nocturne.processor.ClassProcessor;
+import blue.lapis.nocturne.processor.constantpool.ConstantPoolReader;
+import blue.lapis.nocturne.processor.constantpool.model.ImmutableConstantPool;
+import blue.lapis.nocturne.processor.constantpool.model.structure.Utf8Structure;
+import blue.lapis.nocturne.processor.layout.model.AttributeLayout;
+import blue.lapis.nocturne.processor.layout.model.ClassLayout;
+import blue.lapis.nocturne.processor.layout.model.MemberLayout;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads the constant pool of a class along with the offsets of its members and
+ * attributes, so that later processors needn't walk the class file again.
+ */
+public class ClassLayoutReader extends ClassProcessor {
+
+    private static final String CODE_ATTRIBUTE = "Code";
+
+    public ClassLayoutReader(String className, byte[] bytes) {
+        super(className, bytes);
+    }
+
+    /**
+     * Reads the layout of the class.
+     *
+     * @return The layout of the class file
+     */
+    public ClassLayout read() {
+        ImmutableConstantPool pool = new ConstantPoolReader(getClassName(), getOriginalBytes()).read();
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.position(CLASS_FORMAT_CONSTANT_POOL_OFFSET + pool.length()); // continue where the pool ends
+
+        int access = asUshort(buffer.getShort());
+        int thisIndex = asUshort(buffer.getShort());
+        int superIndex = asUshort(buffer.getShort());
+        int interfaceCount = asUshort(buffer.getShort());
+        List<Integer> interfaces = new ArrayList<>(interfaceCount);
+        for (int i = 0; i < interfaceCount; i++) {
+            interfaces.add(asUshort(buffer.getShort()));
+        }
+
+        int fieldsOffset = buffer.position();
+        List<MemberLayout> fields = readMembers(buffer, pool);
+        int methodsOffset = buffer.position();
+        List<MemberLayout> methods = readMembers(buffer, pool);
+
+        return new ClassLayout(pool, access, thisIndex, superIndex, interfaces, fieldsOffset, fields,
+                methodsOffset, methods, buffer.position());
+    }
+
+    private List<MemberLayout> readMembers(ByteBuffer buffer, ImmutableConstantPool pool) {
+        int count = asUshort(buffer.getShort());
+        List<MemberLayout> members = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int offset = buffer.position();
+            int access = asUshort(buffer.getShort());
+            int nameIndex = asUshort(buffer.getShort());
+            int descIndex = asUshort(buffer.getShort());
+            List<AttributeLayout> attributes = readAttributes(buffer, pool, true);
+            members.add(new MemberLayout(offset, buffer.position(), access, nameIndex, descIndex, attributes));
+        }
+        return members;
+    }
+
+    /**
+     * Reads the upcoming attribute table of the provided buffer, given it is
+     * positioned at its immediate start, and leaves the buffer positioned
+     * after it.
+     *
+     * @param buffer     The buffer to read from
+     * @param pool       The constant pool to read attribute names from
+     * @param readNested Whether to read the tables nested in Code attributes
+     * @return The read attributes
+     */
+    private List<AttributeLayout> readAttributes(ByteBuffer buffer, ImmutableConstantPool pool,
+                                                 boolean readNested) {
+        int count = asUshort(buffer.getShort());
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        List<AttributeLayout> attributes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int nameIndex = asUshort(buffer.getShort());
+            String name = ((Utf8Structure) pool.get(nameIndex)).asString();
+            // the length is a uint, but nothing larger than Integer.MAX_VALUE would fit in a buffer anyway
+            int length = buffer.getInt();
+            int offset = buffer.position();
+
+            int nestedOffset = -1;
+            List<AttributeLayout> nested = Collections.emptyList();
+            if (readNested && name.equals(CODE_ATTRIBUTE)) {
+                int codeLength = buffer.getInt(offset + 4); // skip max_stack and max_locals
+                int handlerCount = asUshort(buffer.getShort(offset + 8 + codeLength));
+                nestedOffset = offset + 10 + codeLength + handlerCount * 8; // each handler is 8 bytes
+                buffer.position(nestedOffset);
+                nested = readAttributes(buffer, pool, false);
+            }
+
+            attributes.add(new AttributeLayout(nameIndex, name, offset, length, nestedOffset, nested));
+            buffer.position(offset + length);
+        }
+        return attributes;
+    }
+
+}
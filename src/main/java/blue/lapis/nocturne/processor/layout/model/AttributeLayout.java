@@ -0,0 +1,104 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.processor.layout.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents the location of an attribute within a class file.
+ */
+public class AttributeLayout {
+
+    private final int nameIndex;
+    private final String name;
+    private final int offset;
+    private final int length;
+    private final int attributesOffset;
+    private final List<AttributeLayout> attributes;
+
+    /**
+     * Instantiates a new {@link AttributeLayout}.
+     *
+     * @param nameIndex        The pool index of the name of the attribute
+     * @param name             The name of the attribute
+     * @param offset           The offset of the attribute body
+     * @param length           The length of the attribute body in bytes
+     * @param attributesOffset The offset of the nested attribute table, or -1
+     *                         if the attribute has none
+     * @param attributes       The nested attributes of the attribute
+     */
+    public AttributeLayout(int nameIndex, String name, int offset, int length, int attributesOffset,
+                           List<AttributeLayout> attributes) {
+        this.nameIndex = nameIndex;
+        this.name = name;
+        this.offset = offset;
+        this.length = length;
+        this.attributesOffset = attributesOffset;
+        this.attributes = Collections.unmodifiableList(attributes);
+    }
+
+    public int getNameIndex() {
+        return nameIndex;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the offset of the body of this attribute. The six bytes of its
+     * name index and length immediately precede it.
+     *
+     * @return The offset of the attribute body
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getEnd() {
+        return offset + length;
+    }
+
+    /**
+     * Returns the offset of the attribute table nested in this attribute's
+     * body. Only Code attributes have one.
+     *
+     * @return The offset of the nested attribute count, or -1 if there is none
+     */
+    public int getAttributesOffset() {
+        return attributesOffset;
+    }
+
+    public List<AttributeLayout> getAttributes() {
+        return attributes;
+    }
+
+}
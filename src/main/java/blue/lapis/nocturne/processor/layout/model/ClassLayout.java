@@ -0,0 +1,139 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.processor.layout.model;
+
+import static blue.lapis.nocturne.util.Constants.CLASS_FORMAT_CONSTANT_POOL_OFFSET;
+
+import blue.lapis.nocturne.processor.constantpool.model.ImmutableConstantPool;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents the structure of a class file, as read in a single pass by the
+ * {@link blue.lapis.nocturne.processor.layout.ClassLayoutReader}: its constant
+ * pool, its header indices, and the offsets of its members and attributes.
+ */
+public class ClassLayout {
+
+    private final ImmutableConstantPool constantPool;
+    private final int accessFlags;
+    private final int thisClassIndex;
+    private final int superClassIndex;
+    private final List<Integer> interfaceIndices;
+    private final int fieldsOffset;
+    private final List<MemberLayout> fields;
+    private final int methodsOffset;
+    private final List<MemberLayout> methods;
+    private final int attributesOffset;
+
+    public ClassLayout(ImmutableConstantPool constantPool, int accessFlags, int thisClassIndex, int superClassIndex,
+                       List<Integer> interfaceIndices, int fieldsOffset, List<MemberLayout> fields,
+                       int methodsOffset, List<MemberLayout> methods, int attributesOffset) {
+        this.constantPool = constantPool;
+        this.accessFlags = accessFlags;
+        this.thisClassIndex = thisClassIndex;
+        this.superClassIndex = superClassIndex;
+        this.interfaceIndices = Collections.unmodifiableList(interfaceIndices);
+        this.fieldsOffset = fieldsOffset;
+        this.fields = Collections.unmodifiableList(fields);
+        this.methodsOffset = methodsOffset;
+        this.methods = Collections.unmodifiableList(methods);
+        this.attributesOffset = attributesOffset;
+    }
+
+    public ImmutableConstantPool getConstantPool() {
+        return constantPool;
+    }
+
+    /**
+     * Returns the offset of the access flags, immediately following the
+     * constant pool.
+     *
+     * @return The offset of the access flags
+     */
+    public int getPoolEnd() {
+        return CLASS_FORMAT_CONSTANT_POOL_OFFSET + constantPool.length();
+    }
+
+    public int getAccessFlags() {
+        return accessFlags;
+    }
+
+    public int getThisClassIndex() {
+        return thisClassIndex;
+    }
+
+    /**
+     * Returns the pool index of the superclass.
+     *
+     * @return The index of the superclass, or 0 if the class has none
+     */
+    public int getSuperClassIndex() {
+        return superClassIndex;
+    }
+
+    public List<Integer> getInterfaceIndices() {
+        return interfaceIndices;
+    }
+
+    /**
+     * Returns the offset of the field count.
+     *
+     * @return The offset of the field table
+     */
+    public int getFieldsOffset() {
+        return fieldsOffset;
+    }
+
+    public List<MemberLayout> getFields() {
+        return fields;
+    }
+
+    /**
+     * Returns the offset of the method count.
+     *
+     * @return The offset of the method table
+     */
+    public int getMethodsOffset() {
+        return methodsOffset;
+    }
+
+    public List<MemberLayout> getMethods() {
+        return methods;
+    }
+
+    /**
+     * Returns the offset of the class's own attribute count, which is
+     * followed by nothing but its attributes.
+     *
+     * @return The offset of the class attribute table
+     */
+    public int getAttributesOffset() {
+        return attributesOffset;
+    }
+
+}
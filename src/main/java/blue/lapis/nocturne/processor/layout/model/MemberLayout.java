@@ -0,0 +1,95 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.processor.layout.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Represents the location and header of a field or method within a class
+ * file.
+ */
+public class MemberLayout {
+
+    private final int offset;
+    private final int end;
+    private final int accessFlags;
+    private final int nameIndex;
+    private final int descriptorIndex;
+    private final List<AttributeLayout> attributes;
+
+    public MemberLayout(int offset, int end, int accessFlags, int nameIndex, int descriptorIndex,
+                        List<AttributeLayout> attributes) {
+        this.offset = offset;
+        this.end = end;
+        this.accessFlags = accessFlags;
+        this.nameIndex = nameIndex;
+        this.descriptorIndex = descriptorIndex;
+        this.attributes = Collections.unmodifiableList(attributes);
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    public int getAccessFlags() {
+        return accessFlags;
+    }
+
+    public int getNameIndex() {
+        return nameIndex;
+    }
+
+    public int getDescriptorIndex() {
+        return descriptorIndex;
+    }
+
+    public List<AttributeLayout> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Returns the first attribute of this member with the given name.
+     *
+     * @param name The name of the attribute
+     * @return The attribute, or {@link Optional#empty()} if the member has
+     *     none by that name
+     */
+    public Optional<AttributeLayout> getAttribute(String name) {
+        for (AttributeLayout attr : attributes) {
+            if (attr.getName().equals(name)) {
+                return Optional.of(attr);
+            }
+        }
+        return Optional.empty();
+    }
+
+}
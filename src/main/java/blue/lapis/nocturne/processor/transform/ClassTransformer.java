@@ -28,9 +28,7 @@ package blue.lapis.nocturne.processor.transform;
 import static blue.lapis.nocturne.util.Constants.CLASS_FORMAT_CONSTANT_POOL_OFFSET;
 import static blue.lapis.nocturne.util.Constants.CLASS_PATH_SEPARATOR_CHAR;
 import static blue.lapis.nocturne.util.Constants.Processing.CLASS_PREFIX;
-import static blue.lapis.nocturne.util.helper.ByteHelper.asUshort;
 import static blue.lapis.nocturne.util.helper.ByteHelper.getBytes;
-import static blue.lapis.nocturne.util.helper.ByteHelper.readBytes;
 import static blue.lapis.nocturne.util.helper.StringHelper.getProcessedDescriptor;
 import static blue.lapis.nocturne.util.helper.StringHelper.getProcessedName;
 import static blue.lapis.nocturne.util.helper.StringHelper.getUnprocessedName;
@@ -49,9 +47,11 @@ import blue.lapis.nocturne.processor.constantpool.model.structure.RefStructure;
 import blue.lapis.nocturne.processor.constantpool.model.structure.StructureType;
 import blue.lapis.nocturne.processor.constantpool.model.structure.Utf8Structure;
 import blue.lapis.nocturne.processor.index.model.IndexedClass;
+import blue.lapis.nocturne.processor.layout.model.AttributeLayout;
+import blue.lapis.nocturne.processor.layout.model.ClassLayout;
+import blue.lapis.nocturne.processor.layout.model.MemberLayout;
 import blue.lapis.nocturne.util.MemberType;
 import blue.lapis.nocturne.util.helper.collections.SetBuilder;
-import blue.lapis.nocturne.util.tuple.Pair;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -70,7 +70,8 @@ import java.util.stream.IntStream;
  */
 public class ClassTransformer extends ClassProcessor {
 
-    private ImmutableConstantPool constantPool;
+    private final ClassLayout layout;
+    private final ImmutableConstantPool constantPool;
     private boolean isPoolProcessed;
     private ConstantPool processedPool;
 
@@ -90,10 +91,15 @@ public class ClassTransformer extends ClassProcessor {
             .add("<clinit>")
             .buildUnmodifiable();
 
+    private static final String CODE_ATTRIBUTE = "Code";
+    private static final String LOCAL_VARIABLE_TABLE_ATTRIBUTE = "LocalVariableTable";
+    private static final String SYNTHETIC_ATTRIBUTE = "Synthetic";
+
     public ClassTransformer(String className, byte[] bytes) {
         super(className, bytes);
         assert IndexedClass.INDEXED_CLASSES.containsKey(getClassName());
-        constantPool = IndexedClass.INDEXED_CLASSES.get(getClassName()).getConstantPool();
+        layout = IndexedClass.INDEXED_CLASSES.get(getClassName()).getLayout();
+        constantPool = layout.getConstantPool();
         processedPool = new ConstantPool(constantPool.getContents(), constantPool.length());
     }
 
@@ -103,121 +109,52 @@ public class ClassTransformer extends ClassProcessor {
      * @return The processed bytecode
      */
     public byte[] process() throws IOException {
-        ByteBuffer buffer = ByteBuffer.wrap(bytes);
-        byte[] header = processClassHeader(buffer);
-        buffer.get(new byte[constantPool.length()]); // skip constant pool
-        byte[] intermediate = processIntermediateBytes(buffer);
-        byte[] fields = processFieldBytes(buffer);
-        byte[] methods = processMethodBytes(buffer);
-        byte[] remainder = processRemainder(buffer);
+        byte[] fields = processMemberBytes(layout.getFields(), false);
+        byte[] methods = processMemberBytes(layout.getMethods(), true);
 
         // next call MUST come after field and method processing
         byte[] poolBytes = getProcessedPool().getBytes();
 
-        ByteBuffer bb = ByteBuffer.allocate(bytes.length + (poolBytes.length - constantPool.length()));
-        bb.put(header);
+        ByteBuffer bb = ByteBuffer.allocate(bytes.length + (poolBytes.length - constantPool.length())
+                + (fields.length - (layout.getMethodsOffset() - layout.getFieldsOffset()))
+                + (methods.length - (layout.getAttributesOffset() - layout.getMethodsOffset())));
+        bb.put(bytes, 0, CLASS_FORMAT_CONSTANT_POOL_OFFSET); // header
         bb.put(poolBytes);
-        bb.put(intermediate);
+        // the access flags, this and super classes, and interfaces are all left as-is
+        bb.put(bytes, layout.getPoolEnd(), layout.getFieldsOffset() - layout.getPoolEnd());
         bb.put(fields);
         bb.put(methods);
-        bb.put(remainder);
+        bb.put(bytes, layout.getAttributesOffset(), bytes.length - layout.getAttributesOffset()); // remainder
         return bb.array();
     }
 
-    /**
-     * Processes the header of the class (the first 8 bytes).
-     *
-     * @param buffer The {@link ByteBuffer} to read from
-     * @return The processed class header
-     */
-    public byte[] processClassHeader(ByteBuffer buffer) {
-        byte[] value = new byte[CLASS_FORMAT_CONSTANT_POOL_OFFSET];
-        buffer.get(value);
-        return value;
-    }
-
-    /**
-     * Processes the intermediate bytes between the constant pool and the member
-     * definitions.
-     *
-     * @param buffer The buffer to read from
-     * @return The intermediate bytes
-     */
-    public byte[] processIntermediateBytes(ByteBuffer buffer) {
-        int initialPos = buffer.position(); // mark the initial position of the buffer
-
-        // Okay, so here's what's happening here:
-        //     - The first 6 bytes aren't relevant at all
-        //     - The next 2 bytes are the number of interfaces the class implements
-        //     - The remaining bytes are pointers to class structures, one for each interface, each being 2 bytes
-        // So, we need to process 8 bytes plus [2 times the interface count]. Hopefully this comment makes sense.
-        final int irrelevantBytes = 6; // magic number
-        buffer.get(new byte[irrelevantBytes]); // skip the header
-        int interfaceCount = asUshort(buffer.getShort()); // read the interface count
-        byte[] finalArray = new byte[irrelevantBytes + 2 + interfaceCount * 2]; // allocate an appropriately-sized array
-        buffer.position(initialPos); // rewind the buffer to the initial position
-        buffer.get(finalArray); // put the bytes into the allocated array
-        return finalArray;
-    }
-
-    /**
-     * Processes field definitions.
-     *
-     * @param buffer The buffer to read from
-     * @return The new field definition bytes
-     */
-    public byte[] processFieldBytes(ByteBuffer buffer) throws IOException {
-        return processMemberBytes(buffer, false);
-    }
-
-    /**
-     * Processes method definitions.
-     *
-     * @param buffer The buffer to read from
-     * @return The new method definition bytes
-     */
-    public byte[] processMethodBytes(ByteBuffer buffer) throws IOException {
-        return processMemberBytes(buffer, true);
-    }
-
     /**
      * Processes member definitions.
      *
-     * @param buffer   The buffer to read from
-     * @param isMethod Whether the member is a method (a value of {@link false}
-     *                 for this parameter is taken to mean the member is a field)
+     * @param members  The layouts of the members to process
+     * @param isMethod Whether the members are methods (a value of
+     *                 {@code false} for this parameter is taken to mean the
+     *                 members are fields)
      * @return The new member definition bytes
      */
-    public byte[] processMemberBytes(ByteBuffer buffer, boolean isMethod) throws IOException {
+    private byte[] processMemberBytes(List<MemberLayout> members, boolean isMethod) throws IOException {
         ByteArrayOutputStream os = new ByteArrayOutputStream();
+        os.write(getBytes((short) members.size()));
 
-        int count = asUshort(buffer.getShort());
-        os.write(getBytes((short) count));
-
-        for (int m = 0; m < count; m++) {
-            final int memberStart = buffer.position();
-
-            short access = buffer.getShort();
+        for (MemberLayout member : members) {
+            short access = (short) member.getAccessFlags();
             os.write(getBytes(access));
             boolean isSynthetic = (access & 0x1000) != 0;
 
-            buffer.get(new byte[4]);
             ByteArrayOutputStream attrOs = new ByteArrayOutputStream();
-            int attrCount = asUshort(buffer.getShort());
-            attrOs.write(getBytes((short) attrCount));
-
-            for (int i = 0; i < attrCount; i++) {
-                Pair<byte[], Boolean> attr = processAttribute(buffer);
-                attrOs.write(attr.first());
-                isSynthetic = attr.second();
+            attrOs.write(getBytes((short) member.getAttributes().size()));
+            for (AttributeLayout attr : member.getAttributes()) {
+                processAttribute(attr, attrOs);
+                isSynthetic = attr.getName().equals(SYNTHETIC_ATTRIBUTE);
             }
-            final byte[] attrArr = attrOs.toByteArray();
-            final int memberEnd = buffer.position();
 
-            buffer.position(memberStart + 2);
-
-            int nameIndex = asUshort(buffer.getShort());
-            int descriptorIndex = asUshort(buffer.getShort());
+            int nameIndex = member.getNameIndex();
+            int descriptorIndex = member.getDescriptorIndex();
 
             if (isSynthetic) {
                 (isMethod ? syntheticMethods : syntheticFields).add(getString(nameIndex));
@@ -234,9 +171,7 @@ public class ClassTransformer extends ClassProcessor {
                                 getString(descriptorIndex),
                                 isMethod ? MemberType.METHOD : MemberType.FIELD
                         );
-                        Utf8Structure nameStruct = new Utf8Structure(procName);
-                        processedPool.add(nameStruct);
-                        nameIndex = processedPool.size();
+                        nameIndex = processedPool.getOrAdd(new Utf8Structure(procName));
                     }
                 }
             }
@@ -251,30 +186,17 @@ public class ClassTransformer extends ClassProcessor {
                         getString(descriptorIndex)
                 );
                 if (!procDesc.equals(getString(descriptorIndex))) {
-                    Utf8Structure descStruct = new Utf8Structure(procDesc);
-                    processedPool.add(descStruct);
-                    descriptorIndex = processedPool.size();
+                    descriptorIndex = processedPool.getOrAdd(new Utf8Structure(procDesc));
                 }
             }
             os.write(getBytes((short) descriptorIndex));
 
-            os.write(attrArr);
-            buffer.position(memberEnd);
+            attrOs.writeTo(os);
         }
 
         return os.toByteArray();
     }
 
-    /**
-     * Returns any bytes remaining in the class file after the given offset.
-     *
-     * @param buffer The buffer to read
-     * @return The remainder of the class file
-     */
-    public byte[] processRemainder(ByteBuffer buffer) {
-        return ByteBuffer.allocate(buffer.capacity() - buffer.position()).put(buffer).array();
-    }
-
     private ConstantPool getProcessedPool() {
         if (!isPoolProcessed) {
             IntStream.range(1, processedPool.size() + 1).forEach(this::handleMember);
@@ -309,11 +231,11 @@ public class ClassTransformer extends ClassProcessor {
         strBuffer.put(StructureType.UTF_8.getTag());
         strBuffer.putShort((short) strBytes.length);
         strBuffer.put(strBytes);
-        pool.add(new Utf8Structure(strBuffer.array()));
+        int nameIndex = pool.getOrAdd(new Utf8Structure(strBuffer.array()));
 
         ByteBuffer classBuffer = ByteBuffer.allocate(StructureType.CLASS.getLength() + 1);
         classBuffer.put(StructureType.CLASS.getTag());
-        classBuffer.putShort((short) pool.size());
+        classBuffer.putShort((short) nameIndex);
         pool.set(index, new ClassStructure(classBuffer.array()));
     }
 
@@ -362,11 +284,11 @@ public class ClassTransformer extends ClassProcessor {
             nameBuffer.put(StructureType.UTF_8.getTag());
             nameBuffer.putShort((short) newNameBytes.length);
             nameBuffer.put(newNameBytes);
-            pool.add(new Utf8Structure(nameBuffer.array()));
+            int newNameIndex = pool.getOrAdd(new Utf8Structure(nameBuffer.array()));
             Map<Integer, Integer> map = memberType == MemberType.FIELD
                     ? processedFieldNameMap : processedMethodNameMap;
-            map.put(nameIndex, pool.size());
-            nameIndex = pool.size();
+            map.put(nameIndex, newNameIndex);
+            nameIndex = newNameIndex;
         }
 
         String processedDesc = getProcessedDescriptor(
@@ -379,98 +301,60 @@ public class ClassTransformer extends ClassProcessor {
             typeBuffer.put(StructureType.UTF_8.getTag());
             typeBuffer.putShort((short) newTypeBytes.length);
             typeBuffer.put(newTypeBytes);
-            pool.add(new Utf8Structure(typeBuffer.array()));
+            int newTypeIndex = pool.getOrAdd(new Utf8Structure(typeBuffer.array()));
             Map<Integer, Integer> map = memberType == MemberType.FIELD
                     ? processedFieldDescriptorMap : processedMethodDescriptorMap;
-            map.put(typeIndex, pool.size());
-            typeIndex = pool.size();
+            map.put(typeIndex, newTypeIndex);
+            typeIndex = newTypeIndex;
         }
 
         ByteBuffer buffer = ByteBuffer.allocate(StructureType.NAME_AND_TYPE.getLength() + 1);
         buffer.put(StructureType.NAME_AND_TYPE.getTag());
         buffer.putShort((short) nameIndex);
         buffer.putShort((short) typeIndex);
-        pool.add(new NameAndTypeStructure(buffer.array()));
+        int processedNatIndex = pool.getOrAdd(new NameAndTypeStructure(buffer.array()));
 
         StructureType st = memberType == MemberType.FIELD ? StructureType.FIELDREF : StructureType.METHODREF;
         ByteBuffer mBuffer = ByteBuffer.allocate(st.getLength() + 1);
         mBuffer.put(st.getTag());
         mBuffer.putShort((short) ((RefStructure) cs).getClassIndex());
-        mBuffer.putShort((short) pool.size());
+        mBuffer.putShort((short) processedNatIndex);
         pool.set(index, memberType == MemberType.FIELD
                 ? new FieldrefStructure(mBuffer.array())
                 : new MethodrefStructure(mBuffer.array()));
     }
 
-    @SuppressWarnings("fallthrough")
-    private Pair<byte[], Boolean> processAttribute(ByteBuffer buffer) throws IOException {
-        ByteArrayOutputStream os = new ByteArrayOutputStream();
-        boolean isSynthetic = false;
-
-        int attrNameIndex = asUshort(buffer.getShort());
-        os.write(getBytes((short) attrNameIndex));
-        String attrName = getString(attrNameIndex);
-
-        int attrLength = buffer.getInt();
-
-        switch (attrName) {
-            case "Code": {
-                // note: we're now at max_stack
-                ByteArrayOutputStream bufferOs = new ByteArrayOutputStream();
-                bufferOs.write(readBytes(buffer, 4)); // skip max_stack and max_locals
-
-                // skip the actual code (also unimportant to us)
-                int codeLength = buffer.getInt(); // read code_length
-                bufferOs.write(getBytes(codeLength));
-                bufferOs.write(readBytes(buffer, codeLength)); // read code
-
-                // skip the exception table
-                int exceptionTableLength = asUshort(buffer.getShort()); // read exception_table_length
-                bufferOs.write(getBytes((short) exceptionTableLength));
-                bufferOs.write(readBytes(buffer, exceptionTableLength * 8)); // exception_table (each entry is 8 bytes)
-
-                // now we get to the good stuff
-                // note: we're now at attribute_count
-                ByteArrayOutputStream subOs = new ByteArrayOutputStream(); // since the length can change
-                int attrCount = asUshort(buffer.getShort()); // read attributes_count
-                int actualAttrCount = 0;
-                for (int a = 0; a < attrCount; a++) {
-                    // now we're in a sub-attribute
-                    int subAttrNameIndex = asUshort(buffer.getShort()); // read attribute_name_index
-                    String subAttrName = getString(subAttrNameIndex);
-                    int subAttrLength = buffer.getInt(); // read attribute_length
-
-                    if (subAttrName.equals("LocalVariableTable")) {
-                        attrLength -= subAttrLength + 6;
-                        readBytes(buffer, subAttrLength); // read and discard attribute body
-                    } else {
-                        actualAttrCount++;
-                        subOs.write(getBytes((short) subAttrNameIndex)); // write attribute_name_index
-                        subOs.write(getBytes(subAttrLength)); // write attribute_length
-                        subOs.write(readBytes(buffer, subAttrLength)); // read and write attribute body
-                    }
-                }
-
-                bufferOs.write(getBytes((short) actualAttrCount));
-                bufferOs.write(subOs.toByteArray());
-
-                os.write(getBytes(attrLength));
-                os.write(bufferOs.toByteArray());
+    /**
+     * Writes the given member attribute, stripping the local variable table
+     * from Code attributes.
+     *
+     * @param attr The attribute to write
+     * @param os   The stream to write to
+     */
+    private void processAttribute(AttributeLayout attr, ByteArrayOutputStream os) throws IOException {
+        if (!attr.getName().equals(CODE_ATTRIBUTE)) {
+            os.write(bytes, attr.getOffset() - 6, attr.getLength() + 6); // copy the name, length, and body
+            return;
+        }
 
-                break;
-            }
-            case "Synthetic": {
-                isSynthetic = true;
-                // fall-through is intentional
-            }
-            default: {
-                os.write(getBytes(attrLength));
-                os.write(readBytes(buffer, attrLength));
-                break;
+        ByteArrayOutputStream subOs = new ByteArrayOutputStream(); // since the length can change
+        int attrLength = attr.getLength();
+        int actualAttrCount = 0;
+        for (AttributeLayout subAttr : attr.getAttributes()) {
+            if (subAttr.getName().equals(LOCAL_VARIABLE_TABLE_ATTRIBUTE)) {
+                attrLength -= subAttr.getLength() + 6; // discard the attribute
+            } else {
+                actualAttrCount++;
+                subOs.write(bytes, subAttr.getOffset() - 6, subAttr.getLength() + 6);
             }
         }
 
-        return new Pair<>(os.toByteArray(), isSynthetic);
+        os.write(getBytes((short) attr.getNameIndex()));
+        os.write(getBytes(attrLength));
+        // max_stack, max_locals, the code, and the exception table are all unimportant to us
+        os.write(bytes, attr.getOffset(), attr.getAttributesOffset() - attr.getOffset());
+        os.write(getBytes((short) actualAttrCount));
+        subOs.writeTo(os);
     }
 
     private NameAndType getNameAndType(RefStructure rs) {
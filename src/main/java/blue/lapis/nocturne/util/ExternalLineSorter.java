@@ -0,0 +1,170 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Sorts an arbitrary number of lines of text in bounded memory.
+ *
+ * <p>Lines are buffered until a fixed number have been added, at which point
+ * they are sorted and spilled to a temporary file as a sorted run. The runs
+ * are then merged when the lines are read back. Lines must not contain line
+ * breaks.</p>
+ */
+public class ExternalLineSorter implements Closeable {
+
+    private final int runLength;
+    private final List<String> buffer = new ArrayList<>();
+    private final List<Path> runs = new ArrayList<>();
+
+    /**
+     * Constructs a new {@link ExternalLineSorter}.
+     *
+     * @param runLength The number of lines to hold in memory before spilling
+     *                  them to disk
+     */
+    public ExternalLineSorter(int runLength) {
+        if (runLength < 1) {
+            throw new IllegalArgumentException("Run length must be positive");
+        }
+        this.runLength = runLength;
+    }
+
+    /**
+     * Adds the given line.
+     *
+     * @param line The line to add
+     * @throws IOException If an exception occurs while spilling to disk
+     */
+    public void add(String line) throws IOException {
+        buffer.add(line);
+        if (buffer.size() >= runLength) {
+            spill();
+        }
+    }
+
+    /**
+     * Passes every added line to the given consumer in ascending order.
+     *
+     * @param consumer The consumer to pass the lines to
+     * @throws IOException If an exception occurs while reading the runs
+     */
+    public void forEachSorted(Consumer<String> consumer) throws IOException {
+        if (runs.isEmpty()) {
+            Collections.sort(buffer);
+            buffer.forEach(consumer);
+            return;
+        }
+        if (!buffer.isEmpty()) {
+            spill();
+        }
+
+        List<BufferedReader> readers = new ArrayList<>(runs.size());
+        try {
+            PriorityQueue<RunHead> heads = new PriorityQueue<>(runs.size());
+            for (Path run : runs) {
+                BufferedReader reader = Files.newBufferedReader(run, StandardCharsets.UTF_8);
+                readers.add(reader);
+                String first = reader.readLine();
+                if (first != null) {
+                    heads.add(new RunHead(first, reader));
+                }
+            }
+
+            while (!heads.isEmpty()) {
+                RunHead head = heads.poll();
+                consumer.accept(head.line);
+                String next = head.reader.readLine();
+                if (next != null) {
+                    heads.add(new RunHead(next, head.reader));
+                }
+            }
+        } finally {
+            for (BufferedReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Deletes any runs spilled to disk.
+     *
+     * @throws IOException If an exception occurs while deleting the runs
+     */
+    @Override
+    public void close() throws IOException {
+        buffer.clear();
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+        runs.clear();
+    }
+
+    private void spill() throws IOException {
+        Collections.sort(buffer);
+        Path run = Files.createTempFile("nocturne-sort", ".run");
+        runs.add(run);
+        try (BufferedWriter writer = Files.newBufferedWriter(run, StandardCharsets.UTF_8)) {
+            for (String line : buffer) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+        buffer.clear();
+    }
+
+    /**
+     * The next unconsumed line of a run.
+     */
+    private static class RunHead implements Comparable<RunHead> {
+
+        private final String line;
+        private final BufferedReader reader;
+
+        private RunHead(String line, BufferedReader reader) {
+            this.line = line;
+            this.reader = reader;
+        }
+
+        @Override
+        public int compareTo(RunHead other) {
+            return line.compareTo(other.line);
+        }
+
+    }
+
+}
@@ -0,0 +1,460 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable hash map which shares structure with the maps it is derived
+ * from, so that {@link #plus} and {@link #minus} copy only a logarithmic
+ * number of nodes.
+ *
+ * <p>This is a hash array mapped trie: each level consumes five bits of the
+ * key's hash, and keys whose hashes are identical share a collision node.
+ * Instances may be shared freely between threads.</p>
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the values
+ */
+public final class PersistentHashMap<K, V> {
+
+    private static final int BITS_PER_LEVEL = 5;
+    private static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(BitmapNode.EMPTY, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns an empty {@link PersistentHashMap}.
+     *
+     * @param <K> The type of the keys
+     * @param <V> The type of the values
+     * @return An empty map
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Returns the number of entries in this map.
+     *
+     * @return The number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value of the given key, or {@code null} if this map doesn't
+     * contain it.
+     *
+     * @param key The key
+     * @return The value of the key, or {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        return (V) root.get(hash(key), key, 0);
+    }
+
+    /**
+     * Returns a map containing the entries of this map and the given one,
+     * replacing any existing value of the given key.
+     *
+     * @param key   The key
+     * @param value The value
+     * @return The new map, or this map if it already maps the key to the
+     *     same value
+     */
+    public PersistentHashMap<K, V> plus(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        int hash = hash(key);
+        boolean present = root.get(hash, key, 0) != null;
+        Node newRoot = root.put(hash, key, value, 0);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentHashMap<>(newRoot, present ? size : size + 1);
+    }
+
+    /**
+     * Returns a map containing the entries of this map except that of the
+     * given key.
+     *
+     * @param key The key
+     * @return The new map, or this map if it doesn't contain the key
+     */
+    public PersistentHashMap<K, V> minus(Object key) {
+        Node newRoot = root.remove(hash(key), key, 0);
+        if (newRoot == root) {
+            return this;
+        }
+        return newRoot == null ? empty() : new PersistentHashMap<>(newRoot, size - 1);
+    }
+
+    /**
+     * Returns an unmodifiable {@link Map} view of this map.
+     *
+     * @return A view of this map
+     */
+    public Map<K, V> asMap() {
+        return new MapView();
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & LEVEL_MASK);
+    }
+
+    private abstract static class Node {
+
+        abstract Object get(int hash, Object key, int shift);
+
+        abstract Node put(int hash, Object key, Object value, int shift);
+
+        abstract Node remove(int hash, Object key, int shift);
+
+    }
+
+    /**
+     * A node which is either a single entry or a collision node, both of
+     * which have a single hash for all their keys.
+     */
+    private abstract static class HashedNode extends Node {
+
+        final int hash;
+
+        HashedNode(int hash) {
+            this.hash = hash;
+        }
+
+        Node merge(HashedNode other, int shift) {
+            int thisBit = bit(hash, shift);
+            int otherBit = bit(other.hash, shift);
+            if (thisBit == otherBit) {
+                return new BitmapNode(thisBit, new Node[] {merge(other, shift + BITS_PER_LEVEL)});
+            }
+            Node[] children = Integer.compareUnsigned(thisBit, otherBit) < 0
+                    ? new Node[] {this, other}
+                    : new Node[] {other, this};
+            return new BitmapNode(thisBit | otherBit, children);
+        }
+
+    }
+
+    private static final class Leaf extends HashedNode {
+
+        final Object key;
+        final Object value;
+
+        Leaf(int hash, Object key, Object value) {
+            super(hash);
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        Object get(int hash, Object key, int shift) {
+            return this.hash == hash && this.key.equals(key) ? value : null;
+        }
+
+        @Override
+        Node put(int hash, Object key, Object value, int shift) {
+            if (this.hash == hash) {
+                if (this.key.equals(key)) {
+                    return this.value == value ? this : new Leaf(hash, key, value);
+                }
+                return new CollisionNode(hash, new Leaf[] {this, new Leaf(hash, key, value)});
+            }
+            return merge(new Leaf(hash, key, value), shift);
+        }
+
+        @Override
+        Node remove(int hash, Object key, int shift) {
+            return this.hash == hash && this.key.equals(key) ? null : this;
+        }
+
+    }
+
+    private static final class CollisionNode extends HashedNode {
+
+        final Leaf[] leaves;
+
+        CollisionNode(int hash, Leaf[] leaves) {
+            super(hash);
+            this.leaves = leaves;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < leaves.length; i++) {
+                if (leaves[i].key.equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object get(int hash, Object key, int shift) {
+            if (this.hash != hash) {
+                return null;
+            }
+            int index = indexOf(key);
+            return index >= 0 ? leaves[index].value : null;
+        }
+
+        @Override
+        Node put(int hash, Object key, Object value, int shift) {
+            if (this.hash != hash) {
+                return merge(new Leaf(hash, key, value), shift);
+            }
+            int index = indexOf(key);
+            if (index >= 0) {
+                if (leaves[index].value == value) {
+                    return this;
+                }
+                Leaf[] newLeaves = leaves.clone();
+                newLeaves[index] = new Leaf(hash, key, value);
+                return new CollisionNode(hash, newLeaves);
+            }
+            Leaf[] newLeaves = Arrays.copyOf(leaves, leaves.length + 1);
+            newLeaves[leaves.length] = new Leaf(hash, key, value);
+            return new CollisionNode(hash, newLeaves);
+        }
+
+        @Override
+        Node remove(int hash, Object key, int shift) {
+            int index = this.hash == hash ? indexOf(key) : -1;
+            if (index < 0) {
+                return this;
+            }
+            if (leaves.length == 2) {
+                return leaves[1 - index];
+            }
+            Leaf[] newLeaves = new Leaf[leaves.length - 1];
+            System.arraycopy(leaves, 0, newLeaves, 0, index);
+            System.arraycopy(leaves, index + 1, newLeaves, index, newLeaves.length - index);
+            return new CollisionNode(hash, newLeaves);
+        }
+
+    }
+
+    private static final class BitmapNode extends Node {
+
+        static final BitmapNode EMPTY = new BitmapNode(0, new Node[0]);
+
+        final int bitmap;
+        final Node[] children;
+
+        BitmapNode(int bitmap, Node[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object get(int hash, Object key, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            return children[index(bit)].get(hash, key, shift + BITS_PER_LEVEL);
+        }
+
+        @Override
+        Node put(int hash, Object key, Object value, int shift) {
+            int bit = bit(hash, shift);
+            int index = index(bit);
+            if ((bitmap & bit) == 0) {
+                Node[] newChildren = new Node[children.length + 1];
+                System.arraycopy(children, 0, newChildren, 0, index);
+                newChildren[index] = new Leaf(hash, key, value);
+                System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+                return new BitmapNode(bitmap | bit, newChildren);
+            }
+
+            Node child = children[index];
+            Node newChild = child.put(hash, key, value, shift + BITS_PER_LEVEL);
+            if (newChild == child) {
+                return this;
+            }
+            Node[] newChildren = children.clone();
+            newChildren[index] = newChild;
+            return new BitmapNode(bitmap, newChildren);
+        }
+
+        @Override
+        Node remove(int hash, Object key, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = index(bit);
+            Node child = children[index];
+            Node newChild = child.remove(hash, key, shift + BITS_PER_LEVEL);
+            if (newChild == child) {
+                return this;
+            }
+
+            if (newChild == null) {
+                if (children.length == 1) {
+                    return null;
+                }
+                if (children.length == 2 && children[1 - index] instanceof HashedNode) {
+                    return children[1 - index]; // a lone entry can move up, as it doesn't depend on the level
+                }
+                Node[] newChildren = new Node[children.length - 1];
+                System.arraycopy(children, 0, newChildren, 0, index);
+                System.arraycopy(children, index + 1, newChildren, index, newChildren.length - index);
+                return new BitmapNode(bitmap & ~bit, newChildren);
+            }
+            if (children.length == 1 && newChild instanceof HashedNode) {
+                return newChild;
+            }
+            Node[] newChildren = children.clone();
+            newChildren[index] = newChild;
+            return new BitmapNode(bitmap, newChildren);
+        }
+
+    }
+
+    private class MapView extends AbstractMap<K, V> {
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key != null && PersistentHashMap.this.get(key) != null;
+        }
+
+        @Override
+        public V get(Object key) {
+            return key != null ? PersistentHashMap.this.get(key) : null;
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<Entry<K, V>>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+        // nodes still to be visited, with the children of bitmap nodes expanded lazily
+        private final Deque<Node> pending = new ArrayDeque<>();
+        private Leaf[] collision;
+        private int collisionIndex;
+        private Leaf next;
+
+        EntryIterator() {
+            pending.push(root);
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            if (collision != null) {
+                if (collisionIndex < collision.length) {
+                    next = collision[collisionIndex++];
+                    return;
+                }
+                collision = null;
+            }
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                if (node instanceof Leaf) {
+                    next = (Leaf) node;
+                    return;
+                } else if (node instanceof CollisionNode) {
+                    collision = ((CollisionNode) node).leaves;
+                    collisionIndex = 1;
+                    next = collision[0];
+                    return;
+                } else {
+                    Node[] children = ((BitmapNode) node).children;
+                    for (int i = children.length - 1; i >= 0; i--) {
+                        pending.push(children[i]);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<K, V> entry = new AbstractMap.SimpleImmutableEntry<>((K) next.key, (V) next.value);
+            advance();
+            return entry;
+        }
+
+    }
+
+}
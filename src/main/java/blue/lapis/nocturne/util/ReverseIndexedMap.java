@@ -0,0 +1,111 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.util;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A hash map which keeps a reverse index of its values, so that
+ * {@link #containsValue(Object)} is a hash lookup rather than a scan of every
+ * entry.
+ *
+ * <p>The reverse index counts the keys mapped to each value, as several keys
+ * may briefly share a value while members are being renamed. Entries can
+ * only be changed through {@link #put} and {@link #remove}; the views
+ * returned by this map are read-only.</p>
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the values
+ */
+public final class ReverseIndexedMap<K, V> extends AbstractMap<K, V> {
+
+    private final Map<K, V> map = new HashMap<>();
+    private final Map<V, Integer> valueCounts = new HashMap<>();
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return valueCounts.containsKey(value);
+    }
+
+    @Override
+    public V get(Object key) {
+        return map.get(key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        boolean present = map.containsKey(key);
+        V previous = map.put(key, value);
+        if (present) {
+            if (previous == null ? value == null : previous.equals(value)) {
+                return previous;
+            }
+            unindex(previous);
+        }
+        valueCounts.merge(value, 1, Integer::sum);
+        return previous;
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (!map.containsKey(key)) {
+            return null;
+        }
+        V previous = map.remove(key);
+        unindex(previous);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+        valueCounts.clear();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return Collections.unmodifiableMap(map).entrySet();
+    }
+
+    private void unindex(V value) {
+        valueCounts.computeIfPresent(value, (v, count) -> count > 1 ? count - 1 : null);
+    }
+
+}
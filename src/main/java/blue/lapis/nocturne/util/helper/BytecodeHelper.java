@@ -0,0 +1,148 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.util.helper;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Static utility class for walking JVM bytecode instructions.
+ */
+public final class BytecodeHelper {
+
+    public static final int LDC = 0x12;
+    public static final int LDC_W = 0x13;
+    public static final int GETSTATIC = 0xB2;
+    public static final int PUTFIELD = 0xB5;
+    public static final int INVOKEVIRTUAL = 0xB6;
+    public static final int INVOKEINTERFACE = 0xB9;
+    public static final int NEW = 0xBB;
+    public static final int ANEWARRAY = 0xBD;
+    public static final int CHECKCAST = 0xC0;
+    public static final int INSTANCEOF = 0xC1;
+    public static final int MULTIANEWARRAY = 0xC5;
+
+    private static final int TABLESWITCH = 0xAA;
+    private static final int LOOKUPSWITCH = 0xAB;
+    private static final int WIDE = 0xC4;
+    private static final int IINC = 0x84;
+
+    /**
+     * The length of each fixed-length instruction, indexed by opcode, or 0 for
+     * variable-length instructions.
+     */
+    private static final byte[] LENGTHS = new byte[256];
+
+    static {
+        for (int i = 0; i < LENGTHS.length; i++) {
+            LENGTHS[i] = 1;
+        }
+        setLength(2, 0x10, 0x12, 0xA9, 0xBC); // bipush, ldc, ret, newarray
+        setLength(2, 0x15, 0x16, 0x17, 0x18, 0x19); // xload
+        setLength(2, 0x36, 0x37, 0x38, 0x39, 0x3A); // xstore
+        setLength(3, 0x11, 0x13, 0x14, IINC); // sipush, ldc_w, ldc2_w, iinc
+        for (int i = 0x99; i <= 0xA8; i++) {
+            LENGTHS[i] = 3; // if<cond>, if_<cmp>, goto, jsr
+        }
+        setLength(3, 0xB2, 0xB3, 0xB4, 0xB5); // field instructions
+        setLength(3, 0xB6, 0xB7, 0xB8); // invokevirtual, invokespecial, invokestatic
+        setLength(5, 0xB9, 0xBA); // invokeinterface, invokedynamic
+        setLength(3, 0xBB, 0xBD, 0xC0, 0xC1, 0xC6, 0xC7); // new, anewarray, checkcast, instanceof, ifnull, ifnonnull
+        setLength(4, MULTIANEWARRAY);
+        setLength(5, 0xC8, 0xC9); // goto_w, jsr_w
+        setLength(0, TABLESWITCH, LOOKUPSWITCH, WIDE);
+    }
+
+    private BytecodeHelper() {
+    }
+
+    private static void setLength(int length, int... opcodes) {
+        for (int opcode : opcodes) {
+            LENGTHS[opcode] = (byte) length;
+        }
+    }
+
+    /**
+     * Returns the length in bytes of the instruction at the given offset of
+     * the given code array, including its opcode.
+     *
+     * @param code   A buffer containing the code array, with position 0
+     *               marking its start
+     * @param offset The offset of the instruction within the code array
+     * @return The length of the instruction
+     */
+    public static int getInstructionLength(ByteBuffer code, int offset) {
+        int opcode = code.get(offset) & 0xFF;
+        int length = LENGTHS[opcode];
+        if (length != 0) {
+            return length;
+        }
+
+        switch (opcode) {
+            case WIDE:
+                return (code.get(offset + 1) & 0xFF) == IINC ? 6 : 4;
+            case TABLESWITCH: {
+                int base = offset + 1 + getSwitchPadding(offset);
+                int low = code.getInt(base + 4);
+                int high = code.getInt(base + 8);
+                return base - offset + 12 + (high - low + 1) * 4;
+            }
+            case LOOKUPSWITCH: {
+                int base = offset + 1 + getSwitchPadding(offset);
+                int pairs = code.getInt(base + 4);
+                return base - offset + 8 + pairs * 8;
+            }
+            default:
+                throw new AssertionError("Unhandled variable-length opcode " + opcode);
+        }
+    }
+
+    /**
+     * Returns the constant pool index operand of the instruction at the given
+     * offset, assuming the instruction takes one.
+     *
+     * @param code   A buffer containing the code array
+     * @param offset The offset of the instruction within the code array
+     * @return The constant pool index referenced by the instruction
+     */
+    public static int getPoolIndex(ByteBuffer code, int offset) {
+        return (code.get(offset) & 0xFF) == LDC
+                ? code.get(offset + 1) & 0xFF
+                : code.getShort(offset + 1) & 0xFFFF;
+    }
+
+    /**
+     * Returns the number of padding bytes following the opcode of a switch
+     * instruction, which align its operands to a multiple of four bytes from
+     * the start of the code array.
+     *
+     * @param offset The offset of the switch instruction
+     * @return The number of padding bytes
+     */
+    public static int getSwitchPadding(int offset) {
+        return (4 - (offset + 1) % 4) % 4;
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.util.helper;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Static utility class for running work on the shared worker pool.
+ */
+public final class ConcurrencyHelper {
+
+    /**
+     * The number of threads in the worker pool.
+     */
+    public static final int PARALLELISM = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * The maximum number of tasks which may be queued or running at once in
+     * {@link #mapOrdered}, bounding the number of unconsumed results held in
+     * memory.
+     */
+    private static final int WINDOW = PARALLELISM * 4;
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(PARALLELISM, runnable -> {
+        Thread thread = new Thread(runnable, "Nocturne Worker " + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // decompiles may hold a thread for the whole class budget, so they must not starve the worker pool
+    private static final AtomicInteger DECOMPILER_COUNTER = new AtomicInteger();
+    private static final ExecutorService DECOMPILE_EXECUTOR = Executors.newFixedThreadPool(PARALLELISM, runnable -> {
+        Thread thread = new Thread(runnable, "Nocturne Decompiler " + DECOMPILER_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ConcurrencyHelper() {
+    }
+
+    /**
+     * Returns the shared worker pool.
+     *
+     * @return The shared worker pool
+     */
+    public static ExecutorService getExecutor() {
+        return EXECUTOR;
+    }
+
+    /**
+     * Returns the pool on which classes are decompiled for display. It is
+     * separate from the worker pool, which {@link #mapOrdered} may wait on
+     * from the UI thread.
+     *
+     * @return The decompilation pool
+     */
+    public static ExecutorService getDecompileExecutor() {
+        return DECOMPILE_EXECUTOR;
+    }
+
+    /**
+     * Applies the given function to each item on the worker pool and passes
+     * the results to the given consumer on the calling thread, in the order of
+     * the items. At most a fixed number of results are pending at any time,
+     * so memory use does not depend on the number of items.
+     *
+     * @param items    The items to process
+     * @param mapper   The function to apply to each item
+     * @param consumer The consumer to pass each result to
+     * @param <T>      The type of the items
+     * @param <R>      The type of the results
+     */
+    public static <T, R> void mapOrdered(Iterable<T> items, Function<? super T, ? extends R> mapper,
+            Consumer<? super R> consumer) {
+        Deque<Future<? extends R>> pending = new ArrayDeque<>(WINDOW);
+        try {
+            for (T item : items) {
+                if (pending.size() >= WINDOW) {
+                    consumer.accept(await(pending.poll()));
+                }
+                pending.add(EXECUTOR.submit(() -> mapper.apply(item)));
+            }
+            while (!pending.isEmpty()) {
+                consumer.accept(await(pending.poll()));
+            }
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Splits the given list into consecutive sublists of at most the given
+     * size, so that small items can be processed in batches.
+     *
+     * @param list The list to split
+     * @param size The maximum size of each sublist
+     * @param <T>  The type of the list elements
+     * @return The sublists, which are views of the given list
+     */
+    public static <T> List<List<T>> partition(List<T> list, int size) {
+        List<List<T>> partitions = new ArrayList<>((list.size() + size - 1) / size);
+        for (int i = 0; i < list.size(); i += size) {
+            partitions.add(list.subList(i, Math.min(list.size(), i + size)));
+        }
+        return partitions;
+    }
+
+    /**
+     * Waits for the given {@link Future} and returns its result, rethrowing
+     * any exception thrown by its task.
+     *
+     * @param future The {@link Future} to wait for
+     * @param <R>    The type of the result
+     * @return The result of the {@link Future}
+     */
+    public static <R> R await(Future<? extends R> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for worker");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            } else if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw new RuntimeException(ex.getCause());
+        }
+    }
+
+}
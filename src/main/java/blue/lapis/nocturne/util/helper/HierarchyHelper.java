@@ -34,6 +34,7 @@ import blue.lapis.nocturne.processor.index.model.IndexedMethod;
 
 import org.cadixdev.bombe.type.signature.MethodSignature;
 
+import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -50,6 +51,28 @@ public final class HierarchyHelper {
                 .collect(Collectors.toSet());
     }
 
+    /**
+     * Returns the names of the library classes declaring methods which the
+     * given method overrides, either itself or through a method in its
+     * hierarchy.
+     *
+     * @param className The name of the class the method is accessed through
+     * @param sig       The signature of the method
+     * @return The names of the library classes
+     */
+    public static Set<String> getLibraryClassesInHierarchy(String className, MethodSignature sig) {
+        checkState(INDEXED_CLASSES.containsKey(className), "Class \"" + className + "\" is not indexed");
+        IndexedClass clazz = INDEXED_CLASSES.get(className);
+
+        Set<IndexedClass> classes = new HashSet<>();
+        IndexedMethod method = clazz.getMethods().get(sig);
+        if (method != null) {
+            classes.addAll(method.getLibraryHierarchy());
+        }
+        clazz.getLibraryHierarchy().stream().filter(c -> c.getMethods().containsKey(sig)).forEach(classes::add);
+        return classes.stream().map(IndexedClass::getName).collect(Collectors.toSet());
+    }
+
     public static boolean isVisible(String class1, String class2, IndexedMethod.Visibility vis) {
         switch (vis) {
             case PUBLIC:
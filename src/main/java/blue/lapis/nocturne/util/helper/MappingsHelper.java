@@ -28,6 +28,7 @@ package blue.lapis.nocturne.util.helper;
 import static blue.lapis.nocturne.util.Constants.CLASS_MEMBER_SEPARATOR_CHAR;
 import static blue.lapis.nocturne.util.Constants.INNER_CLASS_SEPARATOR_CHAR;
 import static blue.lapis.nocturne.util.Constants.INNER_CLASS_SEPARATOR_PATTERN;
+import static blue.lapis.nocturne.util.helper.Preconditions.checkState;
 
 import blue.lapis.nocturne.Main;
 import blue.lapis.nocturne.jar.model.ClassSet;
@@ -54,7 +55,6 @@ import org.cadixdev.bombe.type.signature.MethodSignature;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
@@ -319,15 +319,23 @@ public final class MappingsHelper {
             case METHOD: {
                 String parentClass = originalQualifiedName
                         .substring(0, originalQualifiedName.lastIndexOf(CLASS_MEMBER_SEPARATOR_CHAR));
-                Set<JarClassEntry> hierarchy = HierarchyHelper.getClassesInHierarchy(parentClass,
-                        (MethodSignature) signature)
-                        .stream().filter(c -> Main.getLoadedJar().getClass(c).isPresent())
-                        .map(c -> Main.getLoadedJar().getClass(c).get()).collect(Collectors.toSet());
-                for (JarClassEntry jce : hierarchy) {
-                    MethodSignature newSig
-                            = new MethodSignature(remappedName, ((MethodSignature) signature).getDescriptor());
-                    if (jce.getCurrentMethods().containsValue(newSig)) {
-                        return Pair.of(true, !jce.getName().equals(parentClass));
+                IndexedClass indexedParent = IndexedClass.INDEXED_CLASSES.get(parentClass);
+                checkState(indexedParent != null, "Class \"" + parentClass + "\" is not indexed");
+                MethodSignature newSig
+                        = new MethodSignature(remappedName, ((MethodSignature) signature).getDescriptor());
+                for (IndexedClass clazz : indexedParent.getHierarchy()) {
+                    if (!clazz.getMethods().containsKey(signature)) {
+                        continue;
+                    }
+                    Optional<JarClassEntry> jce = Main.getLoadedJar().getClass(clazz.getName());
+                    if (jce.isPresent() && jce.get().getCurrentMethods().containsValue(newSig)) {
+                        return Pair.of(true, !clazz.getName().equals(parentClass));
+                    }
+                }
+                // library methods can't be renamed, so the new name would silently override them
+                for (IndexedClass libraryClass : indexedParent.getLibraryHierarchy()) {
+                    if (libraryClass.getMethods().containsKey(newSig)) {
+                        return Pair.of(true, true);
                     }
                 }
                 return Pair.of(false, false);
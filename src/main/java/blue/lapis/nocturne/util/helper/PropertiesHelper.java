@@ -88,7 +88,12 @@ public final class PropertiesHelper {
         globalProperties.store(new FileOutputStream(globalPropertiesFile), description);
     }
 
-    private File getNocturneDirectory() {
+    /**
+     * Returns the directory Nocturne stores its configuration and caches in.
+     *
+     * @return The Nocturne directory
+     */
+    public File getNocturneDirectory() {
         String appdata = OperatingSystem.getOs().getConfigFolder();
         if (OperatingSystem.getOs() == OperatingSystem.LINUX) {
             return new File(appdata, "nocturne"); // to maintain compatibility with earlier Nocturne versions
@@ -106,6 +111,10 @@ public final class PropertiesHelper {
         public static final Key LAST_MAPPINGS_DIRECTORY = new Key("lastMappingsDir", "");
         public static final Key LAST_MAPPING_LOAD_FORMAT = new Key("lastMappingLoadFormat", "");
         public static final Key LAST_MAPPING_SAVE_FORMAT = new Key("lastMappingSaveFormat", "");
+        public static final Key CLASS_STORAGE = new Key("classStorage", "COMPRESSED");
+        public static final Key LIBRARY_JARS = new Key("libraryJars", "");
+        public static final Key DECOMPILE_METHOD_BUDGET = new Key("decompileMethodBudget", "15");
+        public static final Key DECOMPILE_CLASS_BUDGET = new Key("decompileClassBudget", "60");
 
         private final String key;
         private final String defaultValue;
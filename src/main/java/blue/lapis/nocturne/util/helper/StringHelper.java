@@ -38,26 +38,17 @@ import static blue.lapis.nocturne.util.Constants.Processing.MEMBER_REGEX;
 import static blue.lapis.nocturne.util.Constants.Processing.MEMBER_SUFFIX;
 
 import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.jar.model.ClassSet;
 import blue.lapis.nocturne.util.MemberType;
 
-import org.cadixdev.bombe.type.ArrayType;
-import org.cadixdev.bombe.type.FieldType;
-import org.cadixdev.bombe.type.MethodDescriptor;
-import org.cadixdev.bombe.type.ObjectType;
-import org.cadixdev.bombe.type.Type;
-
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Static utility class for certain string manipulator functions.
  */
 public final class StringHelper {
 
-    private static final Pattern LOOKS_DEOBFUSCATED_REGEX = Pattern.compile("(?:.{4,})|(?:[A-Z][a-z]{2})");
-
     // class format is ^NOCTURNE+name^
     // member format is %NOCTURNE+TYPE-name-descriptor%
     public static String getProcessedName(String qualName, String descriptor, MemberType memberType) {
@@ -67,78 +58,77 @@ public final class StringHelper {
         return MEMBER_PREFIX + memberType.name() + DELIMITER + qualName + DELIMITER + descriptor + MEMBER_SUFFIX;
     }
 
+    /**
+     * Returns the given descriptor with the names of any classes contained by
+     * the loaded JAR replaced by their processed forms.
+     *
+     * <p>Results are memoized per {@link ClassSet}, as the same descriptors
+     * recur across nearly every class in a JAR.</p>
+     *
+     * @param memberType The type of member the descriptor belongs to
+     * @param desc       The descriptor to process
+     * @return The processed descriptor
+     */
     public static String getProcessedDescriptor(MemberType memberType, String desc) {
+        ClassSet jar = Main.getLoadedJar();
+        // field and method descriptors can't collide, as only the latter begin with a parenthesis
+        Map<String, String> cache = jar.getProcessedDescriptors();
+        // computeIfAbsent locks the bin even on a hit, so check first
+        String processed = cache.get(desc);
+        if (processed == null) {
+            processed = processDescriptor(memberType, desc, jar);
+            cache.putIfAbsent(desc, processed);
+        }
+        return processed;
+    }
+
+    private static String processDescriptor(MemberType memberType, String desc, ClassSet jar) {
         switch (memberType) {
             case FIELD: {
                 if (desc.startsWith("L") && desc.endsWith(";")) {
                     String typeClass = desc.substring(1, desc.length() - 1);
-                    if (Main.getLoadedJar().getClass(typeClass).isPresent()) {
+                    if (jar.getClass(typeClass).isPresent()) {
                         return "L" + getProcessedName(typeClass, null, MemberType.CLASS) + ";";
                     }
                 }
-                break;
+                return desc;
             }
             case METHOD: {
-                if (!desc.contains(MEMBER_PREFIX)) { // if this condition is true then it's already been processed
-                    MethodDescriptor md = MethodDescriptor.of(desc);
-                    List<FieldType> newParams = new ArrayList<>();
-                    for (FieldType param : md.getParamTypes()) {
-                        if (param instanceof ArrayType && ((ArrayType) param).getComponent() instanceof ObjectType) {
-                            final ArrayType arr = (ArrayType) param;
-                            final ObjectType obj = (ObjectType) arr.getComponent();
-
-                            if (Main.getLoadedJar().getClass(obj.getClassName()).isPresent()) {
-                                final ObjectType newObj = new ObjectType(
-                                        getProcessedName(obj.getClassName(), null, MemberType.CLASS)
-                                );
-                                newParams.add(new ArrayType(arr.getDimCount(), newObj));
-                            } else {
-                                newParams.add(param);
-                            }
-                        } else if (param instanceof ObjectType) {
-                            final ObjectType obj = (ObjectType) param;
-                            if (Main.getLoadedJar().getClass(obj.getClassName()).isPresent()) {
-                                newParams.add(new ObjectType(
-                                        getProcessedName(obj.getClassName(), null, MemberType.CLASS)
-                                ));
-                            } else {
-                                newParams.add(param);
-                            }
-                        } else {
-                            newParams.add(param);
-                        }
-                    }
-
-                    Type returnType = md.getReturnType();
-                    if (returnType instanceof ArrayType
-                            && ((ArrayType) returnType).getComponent() instanceof ObjectType) {
-                        final ArrayType arr = (ArrayType) returnType;
-                        final ObjectType obj = (ObjectType) arr.getComponent();
-
-                        if (Main.getLoadedJar().getClass(obj.getClassName()).isPresent()) {
-                            final ObjectType newObj = new ObjectType(
-                                    getProcessedName(obj.getClassName(), null, MemberType.CLASS)
-                            );
-                            returnType = new ArrayType(arr.getDimCount(), newObj);
-                        }
-                    } else if (returnType instanceof ObjectType) {
-                        final ObjectType obj = (ObjectType) returnType;
-                        final String typeClass = obj.getClassName();
-                        if (Main.getLoadedJar().getClass(typeClass).isPresent()) {
-                            returnType = new ObjectType(getProcessedName(obj.getClassName(), null, MemberType.CLASS));
-                        }
-                    }
-
-                    final MethodDescriptor newMd = new MethodDescriptor(newParams, returnType);
-                    return newMd.toString();
+                if (desc.contains(MEMBER_PREFIX)) { // if this condition is true then it's already been processed
+                    return desc;
                 }
-                break;
+                return processMethodDescriptor(desc, jar);
             }
             default: {
                 throw new AssertionError();
             }
         }
-        return desc;
+    }
+
+    // scans the descriptor directly rather than parsing it into types, copying
+    // everything between the object types which need to be replaced
+    private static String processMethodDescriptor(String desc, ClassSet jar) {
+        StringBuilder sb = null;
+        int copied = 0;
+        for (int i = 0; i < desc.length(); i++) {
+            if (desc.charAt(i) != 'L') {
+                continue;
+            }
+            int end = desc.indexOf(';', i);
+            if (end == -1) {
+                throw new IllegalArgumentException("Invalid method descriptor " + desc);
+            }
+            String typeClass = desc.substring(i + 1, end);
+            if (jar.getClass(typeClass).isPresent()) {
+                if (sb == null) {
+                    sb = new StringBuilder(desc.length() + 32);
+                }
+                sb.append(desc, copied, i + 1).append(getProcessedName(typeClass, null, MemberType.CLASS));
+                copied = end;
+            }
+            i = end;
+        }
+        return sb == null ? desc : sb.append(desc, copied, desc.length()).toString();
     }
 
     public static String getUnprocessedName(String processed) {
@@ -190,8 +180,4 @@ public final class StringHelper {
         return true;
     }
 
-    public static boolean looksDeobfuscated(String id) {
-        return LOOKS_DEOBFUSCATED_REGEX.matcher(id).find();
-    }
-
 }
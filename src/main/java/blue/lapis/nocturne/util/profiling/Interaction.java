@@ -0,0 +1,78 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.util.profiling;
+
+/**
+ * The interactive operations whose latency is tracked by the
+ * {@link LatencyRecorder}.
+ */
+public enum Interaction {
+
+    /**
+     * Application of a new name to a member.
+     */
+    RENAME("Rename"),
+    /**
+     * Application of a batch of renames from the bulk rename engine.
+     */
+    BULK_RENAME("Bulk rename"),
+    /**
+     * Refresh of the obfuscated and deobfuscated class trees.
+     */
+    REFRESH_CLASS_VIEWS("Class tree refresh"),
+    /**
+     * Opening of a code tab, up until its outline is shown.
+     */
+    OPEN_TAB("Tab opening"),
+    /**
+     * Display of an outline or decompiled source in a code tab.
+     */
+    SET_CODE("Code display"),
+    /**
+     * Reading and application of a mappings file.
+     */
+    LOAD_MAPPINGS("Mappings load"),
+    /**
+     * Writing or committing of the current mappings.
+     */
+    SAVE_MAPPINGS("Mappings save");
+
+    private final String displayName;
+
+    Interaction(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Returns a human-readable name for this operation.
+     *
+     * @return A human-readable name for this operation
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.util.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JDK Flight Recorder events emitted by the {@link LoadProfiler}. This class
+ * must only be touched once JFR is known to be available, as older Java 8
+ * runtimes lack the {@code jdk.jfr} package.
+ */
+final class JfrEvents {
+
+    private static final String CATEGORY = "Nocturne";
+
+    private JfrEvents() {
+    }
+
+    static Object beginPhase(LoadPhase phase) {
+        PhaseEvent event = new PhaseEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.phase = phase.getDisplayName();
+        event.begin();
+        return event;
+    }
+
+    static void endPhase(Object event, long allocated) {
+        PhaseEvent phaseEvent = (PhaseEvent) event;
+        phaseEvent.allocated = allocated;
+        phaseEvent.commit();
+    }
+
+    static Object beginClass(LoadPhase phase, String className) {
+        ClassEvent event = new ClassEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.phase = phase.getDisplayName();
+        event.className = className;
+        event.begin();
+        return event;
+    }
+
+    static void endClass(Object event, long bytes) {
+        ClassEvent classEvent = (ClassEvent) event;
+        classEvent.bytes = bytes;
+        classEvent.end();
+        if (classEvent.shouldCommit()) {
+            classEvent.commit();
+        }
+    }
+
+    @Name("blue.lapis.nocturne.LoadPhase")
+    @Label("Load Phase")
+    @Description("A phase of loading a JAR or its mappings")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static class PhaseEvent extends Event {
+
+        @Label("Phase")
+        String phase;
+
+        @Label("Allocated")
+        @Description("Bytes allocated by the loading thread, or -1 if unsupported")
+        @DataAmount
+        long allocated;
+
+    }
+
+    @Name("blue.lapis.nocturne.ClassPhase")
+    @Label("Class Processing")
+    @Description("Processing of a single class within a load phase; only slow classes are recorded by default")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    @Threshold("1 ms")
+    static class ClassEvent extends Event {
+
+        @Label("Phase")
+        String phase;
+
+        @Label("Class")
+        String className;
+
+        @Label("Size")
+        @DataAmount
+        long bytes;
+
+    }
+
+}
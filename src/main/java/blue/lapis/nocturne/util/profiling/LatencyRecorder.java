@@ -0,0 +1,169 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.util.profiling;
+
+import static blue.lapis.nocturne.util.profiling.LoadProfile.formatBytes;
+import static blue.lapis.nocturne.util.profiling.LoadProfile.formatNanos;
+
+import blue.lapis.nocturne.util.Constants;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Records the latency of each {@link Interaction} in a
+ * {@link LatencyHistogram}, for display in the performance overlay and for
+ * export alongside bug reports.
+ *
+ * <p>Operations are measured by opening a {@link Scope} around the work and
+ * closing it when done, typically with try-with-resources. Measurements
+ * accumulate for the lifetime of the application until {@link #reset()} is
+ * called.</p>
+ */
+public final class LatencyRecorder {
+
+    private static final Map<Interaction, LatencyHistogram> HISTOGRAMS = new EnumMap<>(Interaction.class);
+
+    static {
+        reset();
+    }
+
+    private LatencyRecorder() {
+    }
+
+    /**
+     * Begins measuring an invocation of the given operation.
+     *
+     * @param interaction The operation being invoked
+     * @return A {@link Scope} to close when the operation completes
+     */
+    public static Scope begin(Interaction interaction) {
+        return new Scope(interaction);
+    }
+
+    /**
+     * Records a single invocation of the given operation.
+     *
+     * @param interaction The operation which was invoked
+     * @param nanos       The time the invocation took, in nanoseconds
+     */
+    public static synchronized void record(Interaction interaction, long nanos) {
+        HISTOGRAMS.get(interaction).record(nanos);
+    }
+
+    /**
+     * Returns a copy of the latencies recorded for the given operation.
+     *
+     * @param interaction The operation to get latencies of
+     * @return A copy of the histogram of the operation's latencies
+     */
+    public static synchronized LatencyHistogram getHistogram(Interaction interaction) {
+        return HISTOGRAMS.get(interaction).copy();
+    }
+
+    /**
+     * Discards all latencies recorded so far.
+     */
+    public static synchronized void reset() {
+        for (Interaction interaction : Interaction.values()) {
+            HISTOGRAMS.put(interaction, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Returns a table of the count, median, 99th percentile and maximum
+     * latency of each operation, followed by the current heap usage.
+     *
+     * @return A human-readable summary of the recorded latencies
+     */
+    public static String getReport() {
+        StringBuilder sb = new StringBuilder(String.format(Locale.ROOT, "%-20s %7s %10s %10s %10s%n",
+                "Operation", "Count", "p50", "p99", "Max"));
+        for (Interaction interaction : Interaction.values()) {
+            LatencyHistogram histogram = getHistogram(interaction);
+            sb.append(String.format(Locale.ROOT, "%-20s %7d", interaction.getDisplayName(), histogram.getCount()));
+            if (histogram.getCount() > 0) {
+                sb.append(String.format(Locale.ROOT, " %10s %10s %10s",
+                        formatNanos(histogram.getValueAtPercentile(50)),
+                        formatNanos(histogram.getValueAtPercentile(99)),
+                        formatNanos(histogram.getMax())));
+            }
+            sb.append(System.lineSeparator());
+        }
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        sb.append("Heap: ").append(formatBytes(heap.getUsed())).append(" used, ")
+                .append(formatBytes(heap.getCommitted())).append(" committed");
+        if (heap.getMax() >= 0) {
+            sb.append(", ").append(formatBytes(heap.getMax())).append(" max");
+        }
+        return sb.append(System.lineSeparator()).toString();
+    }
+
+    /**
+     * Writes the report returned by {@link #getReport()} to the given file,
+     * headed with the time and the versions of Nocturne and the JVM.
+     *
+     * @param path The file to write to
+     * @throws IOException If an exception occurs while writing the file
+     */
+    public static void export(Path path) throws IOException {
+        String header = "Nocturne " + Constants.VERSION + " latency report, " + ZonedDateTime.now()
+                + System.lineSeparator() + "Java " + System.getProperty("java.version") + " ("
+                + System.getProperty("java.vm.name") + ") on " + System.getProperty("os.name")
+                + System.lineSeparator() + System.lineSeparator();
+        Files.write(path, (header + getReport()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A measurement in progress, completed by {@link #close()}.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Interaction interaction;
+        private final long startNanos;
+
+        private Scope(Interaction interaction) {
+            this.interaction = interaction;
+            this.startNanos = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            record(interaction, System.nanoTime() - startNanos);
+        }
+
+    }
+
+}
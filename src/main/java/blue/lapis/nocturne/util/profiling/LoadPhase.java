@@ -0,0 +1,96 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.util.profiling;
+
+/**
+ * The phases of loading a JAR and its mappings which are tracked by the
+ * {@link LoadProfiler}.
+ */
+public enum LoadPhase {
+
+    /**
+     * Inflation of class files from the JAR.
+     */
+    READ_JAR("Reading JAR"),
+    /**
+     * Indexing of classes by the {@code ClassIndexer}.
+     */
+    INDEX("Indexing"),
+    /**
+     * Guessing of which classes and members were left deobfuscated.
+     */
+    CLASSIFY_NAMES("Classifying names"),
+    /**
+     * Loading of library indexes, from their cache or by indexing the
+     * library JARs.
+     */
+    LOAD_LIBRARIES("Loading libraries"),
+    /**
+     * Construction of class and method hierarchies.
+     */
+    BUILD_HIERARCHY("Building hierarchies"),
+    /**
+     * Constant pool transformation by the {@code ClassTransformer}.
+     */
+    TRANSFORM("Transforming"),
+    /**
+     * Decompilation of classes when they are opened.
+     */
+    DECOMPILE("Decompiling"),
+    /**
+     * Disassembly of classes for the bytecode view.
+     */
+    DISASSEMBLE("Disassembling"),
+    /**
+     * Parsing of a mappings file into a new mapping context.
+     */
+    READ_MAPPINGS("Reading mappings"),
+    /**
+     * Application of read mappings to the loaded JAR.
+     */
+    APPLY_MAPPINGS("Applying mappings"),
+    /**
+     * Restoration of a JAR, its indexes and its mappings from a workspace
+     * snapshot.
+     */
+    READ_WORKSPACE("Reading workspace");
+
+    private final String displayName;
+
+    LoadPhase(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Returns a human-readable name for this phase.
+     *
+     * @return A human-readable name for this phase
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.util.profiling;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * An immutable snapshot of the measurements collected by the
+ * {@link LoadProfiler}.
+ */
+public final class LoadProfile {
+
+    private static final int SUMMARY_OUTLIERS = 3;
+
+    private final Map<LoadPhase, PhaseStats> phases;
+
+    LoadProfile(Map<LoadPhase, PhaseStats> phases) {
+        this.phases = Collections.unmodifiableMap(phases);
+    }
+
+    /**
+     * Returns the measurements of each phase which has been entered, in phase
+     * order.
+     *
+     * @return The measurements of each phase
+     */
+    public Map<LoadPhase, PhaseStats> getPhases() {
+        return phases;
+    }
+
+    /**
+     * Returns the measurements of the given phase, if it has been entered.
+     *
+     * @param phase The phase to get measurements of
+     * @return The measurements of the phase
+     */
+    public Optional<PhaseStats> getPhase(LoadPhase phase) {
+        return Optional.ofNullable(phases.get(phase));
+    }
+
+    /**
+     * Returns the total wall time of all phases, in nanoseconds.
+     *
+     * @return The total wall time of all phases
+     */
+    public long getTotalNanos() {
+        return phases.values().stream().mapToLong(PhaseStats::getWallNanos).sum();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Total ").append(formatNanos(getTotalNanos()));
+        phases.forEach((phase, stats) -> {
+            sb.append("\n  ").append(phase.getDisplayName()).append(": ").append(formatNanos(stats.getWallNanos()));
+            if (stats.getClassCount() > 0) {
+                sb.append(", ").append(stats.getClassCount()).append(" classes, ")
+                        .append(formatBytes(stats.getBytes()));
+            }
+            if (stats.getAllocatedBytes() >= 0) {
+                sb.append(", ").append(formatBytes(stats.getAllocatedBytes())).append(" allocated");
+            }
+            if (!stats.getSlowestClasses().isEmpty()) {
+                sb.append("; slowest: ");
+                for (int i = 0; i < Math.min(SUMMARY_OUTLIERS, stats.getSlowestClasses().size()); i++) {
+                    sb.append(i > 0 ? ", " : "").append(stats.getSlowestClasses().get(i));
+                }
+            }
+        });
+        return sb.toString();
+    }
+
+    static String formatNanos(long nanos) {
+        return nanos >= 10_000_000 ? nanos / 1_000_000 + " ms" : String.format(Locale.ROOT, "%.2f ms", nanos / 1e6);
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        } else if (bytes < 1024 * 1024) {
+            return String.format(Locale.ROOT, "%.1f KB", bytes / 1024.0);
+        }
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024));
+    }
+
+}
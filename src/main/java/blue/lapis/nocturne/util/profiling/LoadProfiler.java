@@ -0,0 +1,235 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.util.profiling;
+
+import blue.lapis.nocturne.Main;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Collects wall time, byte and allocation counts for each {@link LoadPhase},
+ * and emits matching JDK Flight Recorder events where the running JVM
+ * supports them.
+ *
+ * <p>Phases and classes are measured by opening a {@link Scope} around the
+ * work and closing it when done, typically with try-with-resources.
+ * Measurements accumulate until {@link #reset()} is called, which happens at
+ * the start of each JAR load.</p>
+ */
+public final class LoadProfiler {
+
+    /**
+     * The number of slowest classes retained for each phase.
+     */
+    public static final int OUTLIER_COUNT = 10;
+
+    private static final Comparator<ClassTiming> BY_TIME = Comparator.comparingLong(ClassTiming::getNanos);
+
+    private static final Map<LoadPhase, Accumulator> PHASES = new EnumMap<>(LoadPhase.class);
+    private static final boolean JFR_AVAILABLE = isJfrAvailable();
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = getThreadBean();
+
+    private LoadProfiler() {
+    }
+
+    /**
+     * Begins measuring the given phase as a whole.
+     *
+     * @param phase The phase being entered
+     * @return A {@link Scope} to close when the phase completes
+     */
+    public static Scope beginPhase(LoadPhase phase) {
+        return new Scope(phase, null, 0);
+    }
+
+    /**
+     * Begins measuring the processing of a single class in the given phase.
+     *
+     * @param phase     The phase the class is being processed in
+     * @param className The name of the class
+     * @param bytes     The size of the input being processed, in bytes
+     * @return A {@link Scope} to close when the class has been processed
+     */
+    public static Scope beginClass(LoadPhase phase, String className, long bytes) {
+        return new Scope(phase, className, bytes);
+    }
+
+    /**
+     * Discards all measurements collected so far.
+     */
+    public static synchronized void reset() {
+        PHASES.clear();
+    }
+
+    /**
+     * Returns a snapshot of the measurements collected since the last
+     * {@link #reset()}.
+     *
+     * @return A snapshot of the collected measurements
+     */
+    public static synchronized LoadProfile getProfile() {
+        Map<LoadPhase, PhaseStats> phases = new EnumMap<>(LoadPhase.class);
+        PHASES.forEach((phase, acc) -> phases.put(phase, acc.toStats()));
+        return new LoadProfile(phases);
+    }
+
+    /**
+     * Logs a summary of the measurements collected since the last
+     * {@link #reset()}.
+     *
+     * @param title A short description of the profiled operation
+     */
+    public static void logSummary(String title) {
+        Main.getLogger().info(title + ": " + getProfile());
+    }
+
+    private static synchronized void recordPhase(LoadPhase phase, long nanos, long allocated) {
+        Accumulator acc = PHASES.computeIfAbsent(phase, p -> new Accumulator());
+        acc.wallNanos += nanos;
+        acc.invocations++;
+        if (allocated >= 0 && acc.allocatedBytes >= 0) {
+            acc.allocatedBytes += allocated;
+        } else {
+            acc.allocatedBytes = -1;
+        }
+    }
+
+    private static synchronized void recordClass(LoadPhase phase, String className, long nanos, long bytes) {
+        Accumulator acc = PHASES.computeIfAbsent(phase, p -> new Accumulator());
+        acc.classCount++;
+        acc.bytes += bytes;
+        if (acc.slowest.size() < OUTLIER_COUNT) {
+            acc.slowest.add(new ClassTiming(className, nanos, bytes));
+        } else if (acc.slowest.peek().getNanos() < nanos) {
+            acc.slowest.poll();
+            acc.slowest.add(new ClassTiming(className, nanos, bytes));
+        }
+    }
+
+    private static long getAllocatedBytes() {
+        return THREAD_BEAN != null ? THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    private static boolean isJfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false; // JFR is only bundled with Java 8 from update 262
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadBean() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+                if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                    return sunBean;
+                }
+            }
+        } catch (LinkageError ignored) {
+            // not a HotSpot JVM
+        }
+        return null;
+    }
+
+    /**
+     * A measurement in progress, completed by {@link #close()}.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final LoadPhase phase;
+        private final String className;
+        private long bytes;
+        private final long startNanos;
+        private final long startAllocated;
+        private final Object event;
+
+        private Scope(LoadPhase phase, String className, long bytes) {
+            this.phase = phase;
+            this.className = className;
+            this.bytes = bytes;
+            this.startAllocated = className == null ? getAllocatedBytes() : -1;
+            this.event = JFR_AVAILABLE
+                    ? className == null ? JfrEvents.beginPhase(phase) : JfrEvents.beginClass(phase, className)
+                    : null;
+            this.startNanos = System.nanoTime();
+        }
+
+        /**
+         * Sets the size of the input processed within this scope, for when it
+         * is not known up front.
+         *
+         * @param bytes The size of the input, in bytes
+         */
+        public void setBytes(long bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void close() {
+            long nanos = System.nanoTime() - startNanos;
+            if (className == null) {
+                long allocated = startAllocated >= 0 ? getAllocatedBytes() - startAllocated : -1;
+                recordPhase(phase, nanos, allocated);
+                if (event != null) {
+                    JfrEvents.endPhase(event, allocated);
+                }
+            } else {
+                recordClass(phase, className, nanos, bytes);
+                if (event != null) {
+                    JfrEvents.endClass(event, bytes);
+                }
+            }
+        }
+
+    }
+
+    private static final class Accumulator {
+
+        private long wallNanos;
+        private int invocations;
+        private int classCount;
+        private long bytes;
+        private long allocatedBytes;
+        private final PriorityQueue<ClassTiming> slowest = new PriorityQueue<>(OUTLIER_COUNT, BY_TIME);
+
+        private PhaseStats toStats() {
+            List<ClassTiming> outliers = new ArrayList<>(slowest);
+            outliers.sort(BY_TIME.reversed());
+            return new PhaseStats(wallNanos, invocations, classCount, bytes, allocatedBytes, outliers);
+        }
+
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.util.profiling;
+
+import java.util.List;
+
+/**
+ * Aggregate measurements for a single {@link LoadPhase}.
+ */
+public final class PhaseStats {
+
+    private final long wallNanos;
+    private final int invocations;
+    private final int classCount;
+    private final long bytes;
+    private final long allocatedBytes;
+    private final List<ClassTiming> slowestClasses;
+
+    PhaseStats(long wallNanos, int invocations, int classCount, long bytes, long allocatedBytes,
+            List<ClassTiming> slowestClasses) {
+        this.wallNanos = wallNanos;
+        this.invocations = invocations;
+        this.classCount = classCount;
+        this.bytes = bytes;
+        this.allocatedBytes = allocatedBytes;
+        this.slowestClasses = slowestClasses;
+    }
+
+    /**
+     * Returns the total wall time spent in this phase, in nanoseconds.
+     *
+     * @return The total wall time spent in this phase
+     */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * Returns the number of times this phase was entered.
+     *
+     * @return The number of times this phase was entered
+     */
+    public int getInvocations() {
+        return invocations;
+    }
+
+    /**
+     * Returns the number of classes processed in this phase.
+     *
+     * @return The number of classes processed in this phase
+     */
+    public int getClassCount() {
+        return classCount;
+    }
+
+    /**
+     * Returns the number of bytes of input processed in this phase.
+     *
+     * @return The number of bytes of input processed in this phase
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the number of bytes allocated on the heap by the thread running
+     * this phase, or {@code -1} if allocation tracking is not supported by the
+     * running JVM.
+     *
+     * @return The number of bytes allocated in this phase, or {@code -1}
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Returns the classes which took longest in this phase, slowest first.
+     *
+     * @return The slowest classes in this phase
+     */
+    public List<ClassTiming> getSlowestClasses() {
+        return slowestClasses;
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.test.decompile;
+
+import static blue.lapis.nocturne.util.helper.StringHelper.getProcessedName;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.decompile.BytecodeFallback;
+import blue.lapis.nocturne.decompile.DecompileBudget;
+import blue.lapis.nocturne.jar.io.JarLoader;
+import blue.lapis.nocturne.util.MemberType;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Unit tests related to the {@link BytecodeFallback} and
+ * {@link DecompileBudget}.
+ */
+public class BytecodeFallbackTest {
+
+    @BeforeClass
+    public static void initialize() throws IOException {
+        new Main(true);
+        Main.setLoadedJar(JarLoader.loadJar("test.jar", BytecodeFallbackTest.class.getResourceAsStream("/test.jar")));
+    }
+
+    @Test
+    public void failedMethodsAreListed() {
+        String declaration = "    public a " + getProcessedName("a/a", "(ILa;I)La;", MemberType.METHOD)
+                + "(int var1, a var2, int var3) {\n";
+        String source = "class a {\n"
+                + declaration
+                + "        // $FF: Couldn't be decompiled\n"
+                + "    }\n"
+                + "}\n";
+
+        assertEquals("class a {\n"
+                + declaration
+                + "        // $FF: Couldn't be decompiled\n"
+                + "        //    0: aconst_null\n"
+                + "        //    1: areturn\n"
+                + "    }\n"
+                + "}\n", BytecodeFallback.addListings(source));
+    }
+
+    @Test
+    public void sourceWithoutFailuresIsUnchanged() {
+        String source = "class a {\n}\n";
+        assertEquals(source, BytecodeFallback.addListings(source));
+    }
+
+    @Test
+    public void overrunningTasksAreStopped() {
+        assertEquals(Optional.of(1), DecompileBudget.runWithin("test", () -> 1, 1));
+        assertFalse(DecompileBudget.runWithin("test", () -> {
+            while (true) {
+                Thread.sleep(10);
+            }
+        }, 1).isPresent());
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.test.decompile;
+
+import static blue.lapis.nocturne.util.helper.StringHelper.getProcessedName;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import blue.lapis.nocturne.decompile.DecompiledSource;
+import blue.lapis.nocturne.gui.scene.text.SelectableMember.MemberKey;
+import blue.lapis.nocturne.util.MemberType;
+
+import org.junit.Test;
+
+/**
+ * Unit tests related to the {@link DecompiledSource}.
+ */
+public class DecompiledSourceTest {
+
+    @Test
+    public void processedNamesBecomeSpans() {
+        String output = "public class " + getProcessedName("a/b", null, MemberType.CLASS) + " {\n"
+                + "    " + getProcessedName("a/b$c", null, MemberType.CLASS) + " "
+                + getProcessedName("a/b/d", "I", MemberType.FIELD) + ";\n"
+                + "    void " + getProcessedName("a/b/e", "(I)V", MemberType.METHOD) + "() {}\n"
+                + "}\n";
+        DecompiledSource source = DecompiledSource.parse(output);
+
+        assertEquals("public class b {\n    c d;\n    void e() {}\n}\n", source.getText());
+        assertEquals(4, source.getSpans().size());
+        assertSpan(source, 0, "b", new MemberKey(MemberType.CLASS, "a/b", null));
+        assertSpan(source, 1, "c", new MemberKey(MemberType.INNER_CLASS, "a/b$c", null));
+        assertSpan(source, 2, "d", new MemberKey(MemberType.FIELD, "a/b/d", "I"));
+        assertSpan(source, 3, "e", new MemberKey(MemberType.METHOD, "a/b/e", "(I)V"));
+    }
+
+    @Test
+    public void malformedNamesAreKeptAsText() {
+        String output = "String s = \"&NOCTURNE+\";\nString t = \"%NOCTURNE+FOO-a-b%\";\n";
+        DecompiledSource source = DecompiledSource.parse(output);
+
+        assertEquals(output, source.getText());
+        assertTrue(source.getSpans().isEmpty());
+    }
+
+    private static void assertSpan(DecompiledSource source, int index, String text, MemberKey key) {
+        DecompiledSource.IdentifierSpan span = source.getSpans().get(index);
+        assertEquals(text, source.getText().substring(span.getOffset(), span.getEnd()));
+        assertEquals(key, span.getKey());
+    }
+
+}
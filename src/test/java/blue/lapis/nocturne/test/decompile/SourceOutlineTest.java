@@ -0,0 +1,89 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.test.decompile;
+
+import static org.junit.Assert.assertEquals;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.decompile.DecompiledSource;
+import blue.lapis.nocturne.decompile.SourceOutline;
+import blue.lapis.nocturne.gui.scene.text.SelectableMember.MemberKey;
+import blue.lapis.nocturne.jar.io.JarLoader;
+import blue.lapis.nocturne.processor.index.model.IndexedClass;
+import blue.lapis.nocturne.util.MemberType;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * Unit tests related to the {@link SourceOutline}.
+ */
+public class SourceOutlineTest {
+
+    @BeforeClass
+    public static void initialize() throws IOException {
+        new Main(true);
+        Main.setLoadedJar(JarLoader.loadJar("test.jar", SourceOutlineTest.class.getResourceAsStream("/test.jar")));
+    }
+
+    @Test
+    public void outlinesFieldsAndMethods() {
+        DecompiledSource source = SourceOutline.outline(IndexedClass.INDEXED_CLASSES.get("a"));
+
+        assertEquals("class a {\n"
+                + "    private int a;\n"
+                + "\n"
+                + "    public a() {\n"
+                + "        // decompiling...\n"
+                + "    }\n"
+                + "\n"
+                + "    public a a(int, a, int) {\n"
+                + "        // decompiling...\n"
+                + "    }\n"
+                + "}\n", source.getText());
+        assertEquals(new MemberKey(MemberType.FIELD, "a/a", "I"), source.getSpans().get(1).getKey());
+        assertEquals(new MemberKey(MemberType.METHOD, "a/a", "(ILa;I)La;"), source.getSpans().get(4).getKey());
+    }
+
+    @Test
+    public void innerClassesAreSpanned() {
+        DecompiledSource source = SourceOutline.outline(IndexedClass.INDEXED_CLASSES.get("a$b"));
+
+        assertEquals("class b {\n"
+                + "    private int a;\n"
+                + "    a this$0;\n"
+                + "\n"
+                + "    public b(a) {\n"
+                + "        // decompiling...\n"
+                + "    }\n"
+                + "}\n", source.getText());
+        assertEquals(new MemberKey(MemberType.INNER_CLASS, "a$b", null), source.getSpans().get(0).getKey());
+        assertEquals(new MemberKey(MemberType.FIELD, "a$b/this$0", "La;"), source.getSpans().get(3).getKey());
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.test.jar.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.gui.scene.text.SelectableMember.MemberKey;
+import blue.lapis.nocturne.jar.io.JarLoader;
+import blue.lapis.nocturne.jar.io.WorkspaceSnapshot;
+import blue.lapis.nocturne.jar.model.ClassSet;
+import blue.lapis.nocturne.jar.model.JarClassEntry;
+import blue.lapis.nocturne.processor.index.model.IndexedClass;
+import blue.lapis.nocturne.util.MemberType;
+import blue.lapis.nocturne.util.helper.MappingsHelper;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Unit tests related to {@link WorkspaceSnapshot}s.
+ */
+public class WorkspaceSnapshotTest {
+
+    private static final MemberKey CLASS_A = new MemberKey(MemberType.CLASS, "a", null);
+
+    @Before
+    public void initialize() throws IOException {
+        new Main(true);
+        Main.setLoadedJar(JarLoader.loadJar("test.jar", WorkspaceSnapshotTest.class.getResourceAsStream("/test.jar")));
+    }
+
+    @Test
+    public void resumesLoadedJar() throws IOException {
+        ClassSet original = Main.getLoadedJar();
+        Map<String, byte[]> contents = new HashMap<>();
+        original.getClasses().forEach(entry -> contents.put(entry.getName(), entry.getContent()));
+        Map<String, Set<String>> hierarchies = getHierarchies();
+        Set<MemberKey> usages = original.getXrefIndex().getUsages(CLASS_A);
+
+        Path file = Files.createTempFile("nocturne-workspace", ".nws");
+        try {
+            WorkspaceSnapshot.write(file, Collections.singletonList(new WorkspaceSnapshot.OpenTab("a", "a", 0.5)), 0);
+            WorkspaceSnapshot snapshot = WorkspaceSnapshot.read(file);
+
+            ClassSet resumed = Main.getLoadedJar();
+            assertNotSame(original, resumed);
+            assertEquals(original.getName(), resumed.getName());
+            assertEquals(contents.keySet(), resumed.getCurrentNames().keySet());
+            for (JarClassEntry entry : resumed.getClasses()) {
+                assertArrayEquals(contents.get(entry.getName()), entry.getContent());
+            }
+            assertEquals(hierarchies, getHierarchies());
+            assertEquals(usages, resumed.getXrefIndex().getUsages(CLASS_A));
+
+            assertEquals(1, snapshot.getOpenTabs().size());
+            assertEquals("a", snapshot.getOpenTabs().get(0).getClassName());
+            assertEquals(0.5, snapshot.getOpenTabs().get(0).getScrollPosition(), 0);
+            assertEquals(0, snapshot.getSelectedTab());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void resumesMappings() throws IOException {
+        MappingsHelper.genClassMapping(Main.getMappingContext(), "a", "com/example/Example", false);
+        MappingsHelper.genClassMapping(Main.getMappingContext(), "a$b", "com/example/Example$Inner", false);
+
+        Path file = Files.createTempFile("nocturne-workspace", ".nws");
+        try {
+            WorkspaceSnapshot.write(file, Collections.emptyList(), -1);
+            Main.getMappingContext().clear();
+            WorkspaceSnapshot.read(file);
+
+            assertEquals("com/example/Example", Main.getMappingContext().getMappings().get("a").getDeobfuscatedName());
+            assertEquals("com/example/Example", Main.getLoadedJar().getCurrentNames().get("a"));
+            assertEquals("Inner", Main.getLoadedJar().getClass("a").get().getCurrentInnerClassNames().get("b"));
+            assertTrue(Main.getLoadedJar().getClass("a").get().isDeobfuscated());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static Map<String, Set<String>> getHierarchies() {
+        return IndexedClass.INDEXED_CLASSES.values().stream().collect(Collectors.toMap(IndexedClass::getName,
+                clazz -> clazz.getHierarchy().stream().map(IndexedClass::getName).collect(Collectors.toSet())));
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.test.jar.model;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.jar.model.ClassStorage;
+import blue.lapis.nocturne.jar.model.JarClassEntry;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Unit tests related to the {@link ClassStorage}s.
+ */
+public class ClassStorageTest {
+
+    @BeforeClass
+    public static void initialize() {
+        new Main(true);
+    }
+
+    @Test
+    public void contentIsRestored() {
+        Random random = new Random(0);
+        // random bytes don't compress, so the compressed buffer has to grow
+        for (int length : new int[] {0, 1, 100, 64 * 1024}) {
+            byte[] content = new byte[length];
+            random.nextBytes(content);
+            for (ClassStorage storage : ClassStorage.values()) {
+                JarClassEntry entry = new JarClassEntry("a", content.clone(), storage);
+                assertArrayEquals(content, entry.getContent());
+                assertArrayEquals(content, entry.getContent());
+            }
+        }
+    }
+
+}
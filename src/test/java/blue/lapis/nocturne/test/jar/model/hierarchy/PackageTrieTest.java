@@ -0,0 +1,121 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.test.jar.model.hierarchy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import blue.lapis.nocturne.jar.model.hierarchy.Hierarchy;
+import blue.lapis.nocturne.jar.model.hierarchy.HierarchyElement;
+import blue.lapis.nocturne.jar.model.hierarchy.HierarchyNode;
+import blue.lapis.nocturne.jar.model.hierarchy.PackageTrie;
+
+import org.junit.Test;
+
+import java.util.Optional;
+
+/**
+ * Unit tests related to the {@link PackageTrie}.
+ */
+public class PackageTrieTest {
+
+    @Test
+    public void insertTest() {
+        PackageTrie trie = new PackageTrie();
+        trie.put("a", "com/example/Foo");
+        trie.put("b", "com/example/Bar");
+        trie.put("c", "Baz");
+
+        Hierarchy hierarchy = trie.snapshot();
+        assertEquals(3, trie.size());
+        assertTrue(hierarchy.getChild("Baz", true).isPresent());
+
+        HierarchyNode example = find(hierarchy, "com", "example");
+        assertEquals("com/example", example.getId());
+        assertEquals(2, example.getChildren().size());
+        assertEquals("a", example.getChild("Foo", true).get().getId());
+        assertEquals("com/example/Foo", example.getChild("Foo", true).get().getQualifiedName());
+    }
+
+    @Test
+    public void moveTest() {
+        PackageTrie trie = new PackageTrie();
+        trie.put("a", "com/example/Foo");
+        trie.put("a", "org/example/Foo");
+
+        Hierarchy hierarchy = trie.snapshot();
+        assertEquals(1, trie.size());
+        assertFalse(hierarchy.getChild("com", false).isPresent());
+        assertEquals("a", find(hierarchy, "org", "example").getChild("Foo", true).get().getId());
+    }
+
+    @Test
+    public void removeTest() {
+        PackageTrie trie = new PackageTrie();
+        trie.put("a", "com/example/Foo");
+        trie.put("b", "com/Bar");
+
+        assertTrue(trie.remove("a"));
+        assertFalse(trie.remove("a"));
+        assertFalse(trie.contains("a"));
+
+        Hierarchy hierarchy = trie.snapshot();
+        HierarchyNode com = find(hierarchy, "com");
+        assertEquals(1, com.getChildren().size());
+        assertFalse(com.getChild("example", false).isPresent());
+    }
+
+    @Test
+    public void snapshotIsolationTest() {
+        PackageTrie trie = new PackageTrie();
+        trie.put("a", "com/example/Foo");
+        Hierarchy before = trie.snapshot();
+
+        trie.put("b", "com/example/Bar");
+        trie.put("a", "net/Foo");
+
+        HierarchyNode example = find(before, "com", "example");
+        assertEquals(1, example.getChildren().size());
+        assertTrue(example.getChild("Foo", true).isPresent());
+        assertFalse(before.getChild("net", false).isPresent());
+
+        Hierarchy after = trie.snapshot();
+        assertEquals(1, find(after, "com", "example").getChildren().size());
+        assertTrue(find(after, "net").getChild("Foo", true).isPresent());
+    }
+
+    private static HierarchyNode find(HierarchyElement root, String... path) {
+        HierarchyElement element = root;
+        for (String segment : path) {
+            Optional<HierarchyNode> child = element.getChild(segment, false);
+            assertTrue("Missing package " + segment, child.isPresent());
+            element = child.get();
+        }
+        return (HierarchyNode) element;
+    }
+
+}
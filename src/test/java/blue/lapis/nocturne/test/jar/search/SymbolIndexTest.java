@@ -0,0 +1,134 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.test.jar.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import blue.lapis.nocturne.gui.scene.text.SelectableMember;
+import blue.lapis.nocturne.jar.search.Symbol;
+import blue.lapis.nocturne.jar.search.SymbolIndex;
+import blue.lapis.nocturne.mapping.MappingContext;
+import blue.lapis.nocturne.processor.index.model.IndexedClass;
+import blue.lapis.nocturne.processor.index.model.IndexedField;
+import blue.lapis.nocturne.processor.index.model.IndexedMethod;
+import blue.lapis.nocturne.util.MemberType;
+
+import org.cadixdev.bombe.type.signature.FieldSignature;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests related to the {@link SymbolIndex}.
+ */
+public class SymbolIndexTest {
+
+    private SymbolIndex index;
+
+    @Before
+    public void initialize() {
+        IndexedClass mapper = new IndexedClass("com/example/MappingReader", null, "java/lang/Object",
+                Collections.emptyList(),
+                Collections.singletonList(new IndexedField(FieldSignature.of("a", "I"),
+                        IndexedField.Visibility.PRIVATE)),
+                Arrays.asList(
+                        new IndexedMethod(MethodSignature.of("getMappingName", "()Ljava/lang/String;"),
+                                IndexedMethod.Visibility.PUBLIC),
+                        new IndexedMethod(MethodSignature.of("<init>", "()V"), IndexedMethod.Visibility.PUBLIC)
+                ));
+        IndexedClass obf = new IndexedClass("b", null, "java/lang/Object", Collections.emptyList(),
+                Collections.emptyList(), Collections.emptyList());
+        index = new SymbolIndex(Arrays.asList(mapper, obf), new MappingContext());
+    }
+
+    @Test
+    public void sizeTest() {
+        assertEquals(4, index.size()); // two classes, one field and one method; <init> is skipped
+    }
+
+    @Test
+    public void prefixTest() {
+        List<Symbol> results = index.search("mapp", 10);
+        assertEquals(2, results.size());
+        assertEquals("MappingReader", results.get(0).getCurrentName());
+        assertEquals(MemberType.CLASS, results.get(0).getType());
+        assertEquals("getMappingName", results.get(1).getCurrentName());
+    }
+
+    @Test
+    public void substringTest() {
+        List<Symbol> results = index.search("name", 10);
+        assertEquals(1, results.size());
+        assertEquals("getMappingName", results.get(0).getCurrentName());
+    }
+
+    @Test
+    public void camelCaseTest() {
+        assertEquals("getMappingName", index.search("gMN", 10).get(0).getCurrentName());
+        assertEquals("getMappingName", index.search("getMN", 10).get(0).getCurrentName());
+        assertEquals("MappingReader", index.search("MR", 10).get(0).getCurrentName());
+        assertEquals("MappingReader", index.search("mr", 10).get(0).getCurrentName());
+    }
+
+    @Test
+    public void shortObfuscatedNameTest() {
+        List<Symbol> results = index.search("b", 10);
+        assertEquals(1, results.size());
+        assertEquals("b", results.get(0).getObfuscatedName());
+    }
+
+    @Test
+    public void rankingTest() {
+        index.rename(new SelectableMember.MemberKey(MemberType.FIELD, "com/example/MappingReader/a", "I"),
+                "mapping");
+        List<Symbol> results = index.search("mapping", 10);
+        assertEquals(3, results.size());
+        assertEquals("mapping", results.get(0).getCurrentName()); // exact
+        assertEquals("MappingReader", results.get(1).getCurrentName()); // prefix
+        assertEquals("getMappingName", results.get(2).getCurrentName()); // substring
+    }
+
+    @Test
+    public void renameTest() {
+        index.rename(new SelectableMember.MemberKey(MemberType.CLASS, "b", null), "com/example/Renamed");
+
+        List<Symbol> results = index.search("renamed", 10);
+        assertEquals(1, results.size());
+        assertEquals("Renamed", results.get(0).getCurrentName());
+        assertEquals("b", results.get(0).getObfuscatedName());
+
+        index.rename(new SelectableMember.MemberKey(MemberType.CLASS, "b", null), "com/example/Other");
+        assertTrue(index.search("renamed", 10).isEmpty());
+        assertEquals(1, index.search("other", 10).size());
+        assertEquals(1, index.search("b", 10).size()); // still findable by obfuscated name
+    }
+
+}
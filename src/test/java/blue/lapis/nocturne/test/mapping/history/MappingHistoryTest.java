@@ -0,0 +1,171 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.test.mapping.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.jar.io.JarLoader;
+import blue.lapis.nocturne.jar.model.JarClassEntry;
+import blue.lapis.nocturne.mapping.MappingContext;
+import blue.lapis.nocturne.mapping.history.MappingHistory;
+import blue.lapis.nocturne.mapping.model.ClassMapping;
+import blue.lapis.nocturne.util.helper.MappingsHelper;
+
+import org.cadixdev.bombe.type.FieldType;
+import org.cadixdev.bombe.type.MethodDescriptor;
+import org.cadixdev.bombe.type.signature.FieldSignature;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * Unit tests related to the {@link MappingHistory}.
+ */
+public class MappingHistoryTest {
+
+    private static final FieldSignature FIELD = new FieldSignature("a", FieldType.of("I"));
+    private static final MethodSignature METHOD = new MethodSignature("a", MethodDescriptor.of("(ILa;I)La;"));
+
+    @BeforeClass
+    public static void initialize() throws IOException {
+        new Main(true);
+        Main.setLoadedJar(JarLoader.loadJar("test.jar", MappingHistoryTest.class.getResourceAsStream("/test.jar")));
+    }
+
+    @Test
+    public void renamesAreUndoneAndRedone() {
+        MappingContext context = context();
+        MappingsHelper.genClassMapping(context, "a", "com/example/Example", false);
+        ClassMapping mapping = context.getMappings().get("a");
+        mapping.setDeobfuscatedName("com/example/Renamed", false);
+
+        assertTrue(context.getHistory().get().undo());
+        assertEquals("com/example/Example", mapping.getDeobfuscatedName());
+        assertTrue(context.getHistory().get().redo());
+        assertEquals("com/example/Renamed", mapping.getDeobfuscatedName());
+        assertFalse(context.getHistory().get().canRedo());
+    }
+
+    @Test
+    public void additionsAndRemovalsAreUndone() {
+        MappingContext context = context();
+        MappingsHelper.genClassMapping(context, "a", "com/example/Example", false);
+        MappingsHelper.genFieldMapping(context, "a", FIELD, "someField");
+        ClassMapping mapping = context.getMappings().get("a");
+
+        context.edit(() -> mapping.removeFieldMapping(FIELD));
+        assertFalse(mapping.getFieldMappings().containsKey(FIELD));
+        context.getHistory().get().undo();
+        assertEquals("someField", mapping.getFieldMappings().get(FIELD).getDeobfuscatedName());
+
+        context.getHistory().get().undo(); // the field's creation
+        assertFalse(mapping.getFieldMappings().containsKey(FIELD));
+        context.getHistory().get().redo();
+        assertEquals("someField", mapping.getFieldMappings().get(FIELD).getDeobfuscatedName());
+    }
+
+    @Test
+    public void mergesAreUndoneAsOneStep() {
+        MappingContext context = context();
+        MappingsHelper.genClassMapping(context, "a", "com/example/Example", false);
+        ClassMapping original = context.getMappings().get("a");
+
+        MappingContext merged = new MappingContext();
+        MappingsHelper.genClassMapping(merged, "a", "com/example/Merged", false);
+        MappingsHelper.genFieldMapping(merged, "a", FIELD, "mergedField");
+        MappingsHelper.genClassMapping(merged, "b", "com/example/Another", false);
+        context.assimilate(merged);
+        assertEquals(2, context.getMappings().size());
+
+        context.getHistory().get().undo();
+        assertEquals(1, context.getMappings().size());
+        assertTrue(original == context.getMappings().get("a"));
+        assertEquals("com/example/Example", original.getDeobfuscatedName());
+
+        context.getHistory().get().redo();
+        assertEquals("com/example/Merged", context.getMappings().get("a").getDeobfuscatedName());
+        assertEquals("mergedField",
+                context.getMappings().get("a").getFieldMappings().get(FIELD).getDeobfuscatedName());
+        assertEquals("com/example/Another", context.getMappings().get("b").getDeobfuscatedName());
+    }
+
+    @Test
+    public void undoingMergesRestoresMemberNames() {
+        MappingContext context = context();
+        MappingsHelper.genClassMapping(context, "a", "com/example/Example", false);
+        MappingsHelper.genFieldMapping(context, "a", FIELD, "originalField");
+
+        MappingContext merged = new MappingContext();
+        MappingsHelper.genClassMapping(merged, "a", "com/example/Merged", false);
+        MappingsHelper.genFieldMapping(merged, "a", FIELD, "mergedField");
+        MappingsHelper.genMethodMapping(merged, "a", METHOD, "mergedMethod", false);
+        MappingsHelper.genClassMapping(merged, "a$b", "com/example/Merged$Inner", false);
+        context.assimilate(merged);
+
+        JarClassEntry entry = Main.getLoadedJar().getClass("a").get();
+        assertEquals("mergedField", entry.getCurrentFields().get(FIELD).getName());
+        assertEquals("mergedMethod", entry.getCurrentMethods().get(METHOD).getName());
+        assertEquals("Inner", entry.getCurrentInnerClassNames().get("b"));
+
+        context.getHistory().get().undo();
+        assertEquals("originalField", entry.getCurrentFields().get(FIELD).getName());
+        assertEquals(METHOD, entry.getCurrentMethods().get(METHOD));
+        assertEquals("b", entry.getCurrentInnerClassNames().get("b"));
+
+        context.getHistory().get().redo();
+        assertEquals("mergedField", entry.getCurrentFields().get(FIELD).getName());
+        assertEquals("mergedMethod", entry.getCurrentMethods().get(METHOD).getName());
+        assertEquals("Inner", entry.getCurrentInnerClassNames().get("b"));
+    }
+
+    @Test
+    public void listenerIsNotifiedOfChanges() {
+        MappingContext context = context();
+        MappingHistory history = context.getHistory().get();
+        int[] notifications = new int[1];
+        history.setListener(() -> notifications[0]++);
+
+        MappingsHelper.genClassMapping(context, "b", "com/example/Listened", false);
+        assertEquals(1, notifications[0]);
+        history.undo();
+        assertEquals(2, notifications[0]);
+        assertFalse(history.canUndo());
+        assertTrue(history.canRedo());
+        history.clear();
+        assertEquals(3, notifications[0]);
+    }
+
+    private static MappingContext context() {
+        MappingContext context = new MappingContext();
+        context.setHistory(new MappingHistory());
+        return context;
+    }
+
+}
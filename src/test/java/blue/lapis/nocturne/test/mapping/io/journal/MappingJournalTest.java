@@ -0,0 +1,202 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.test.mapping.io.journal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.jar.io.JarLoader;
+import blue.lapis.nocturne.mapping.MappingContext;
+import blue.lapis.nocturne.mapping.io.journal.MappingJournal;
+import blue.lapis.nocturne.mapping.io.reader.SrgReader;
+import blue.lapis.nocturne.mapping.io.writer.MappingsWriter;
+import blue.lapis.nocturne.mapping.io.writer.SrgWriter;
+import blue.lapis.nocturne.mapping.model.ClassMapping;
+import blue.lapis.nocturne.util.helper.MappingsHelper;
+
+import org.cadixdev.bombe.type.FieldType;
+import org.cadixdev.bombe.type.MethodDescriptor;
+import org.cadixdev.bombe.type.signature.FieldSignature;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Unit tests related to the {@link MappingJournal}.
+ */
+public class MappingJournalTest {
+
+    private static final FieldSignature FIELD = new FieldSignature("a", FieldType.of("I"));
+    private static final MethodSignature METHOD = new MethodSignature("a", MethodDescriptor.of("(ILa;I)La;"));
+
+    // a writer which cannot be created, so that the journal is never compacted
+    private static final Function<PrintWriter, MappingsWriter> FAILING_WRITER = out -> {
+        out.close();
+        throw new IllegalStateException("Compaction is disabled");
+    };
+
+    private Path directory;
+    private Path mappingsPath;
+
+    @BeforeClass
+    public static void initialize() throws IOException {
+        new Main(true);
+        Main.setLoadedJar(JarLoader.loadJar("test.jar", MappingJournalTest.class.getResourceAsStream("/test.jar")));
+    }
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("nocturne-journal");
+        mappingsPath = directory.resolve("mappings.srg");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void committedChangesAreCompactedOnClose() throws IOException {
+        MappingContext context = new MappingContext();
+        context.setJournal(MappingJournal.create(mappingsPath, SrgWriter::new));
+        makeChanges(context);
+        context.getJournal().get().commit(context);
+        context.setJournal(null);
+
+        assertChanges(readMappings());
+        try (MappingJournal journal = MappingJournal.open(mappingsPath, SrgWriter::new)) {
+            assertEquals(0, journal.replay(new MappingContext()));
+        }
+    }
+
+    @Test
+    public void committedChangesAreReplayed() throws IOException {
+        MappingContext context = new MappingContext();
+        context.setJournal(MappingJournal.create(mappingsPath, FAILING_WRITER));
+        makeChanges(context);
+        context.getJournal().get().commit(context);
+        context.setJournal(null);
+
+        MappingContext replayed = new MappingContext();
+        try (MappingJournal journal = MappingJournal.open(mappingsPath, SrgWriter::new)) {
+            assertEquals(4, journal.replay(replayed));
+            assertFalse(journal.hasUncommittedChanges());
+        }
+        assertChanges(replayed);
+    }
+
+    @Test
+    public void uncommittedChangesAreDiscardedOnClose() throws IOException {
+        MappingContext context = new MappingContext();
+        context.setJournal(MappingJournal.create(mappingsPath, SrgWriter::new));
+        MappingsHelper.genClassMapping(context, "a", "com/example/Committed", false);
+        context.getJournal().get().commit(context);
+        MappingsHelper.genClassMapping(context, "a", "com/example/Uncommitted", false);
+        context.setJournal(null);
+
+        assertEquals("com/example/Committed", readMappings().getMappings().get("a").getDeobfuscatedName());
+        try (MappingJournal journal = MappingJournal.open(mappingsPath, SrgWriter::new)) {
+            assertEquals(0, journal.replay(new MappingContext()));
+        }
+    }
+
+    @Test
+    public void uncommittedChangesAreRecoveredAfterCrash() throws IOException {
+        MappingContext context = new MappingContext();
+        context.setJournal(MappingJournal.create(mappingsPath, SrgWriter::new));
+        makeChanges(context);
+
+        // copy the journal as it is on disk before it is closed, as if the process had died
+        Path crashedPath = directory.resolve("crashed.srg");
+        Files.copy(MappingJournal.getJournalPath(mappingsPath), MappingJournal.getJournalPath(crashedPath));
+        context.setJournal(null);
+
+        MappingContext replayed = new MappingContext();
+        try (MappingJournal journal = MappingJournal.open(crashedPath, SrgWriter::new)) {
+            assertEquals(4, journal.replay(replayed));
+            assertTrue(journal.hasUncommittedChanges());
+        }
+        assertChanges(replayed);
+    }
+
+    @Test
+    public void tornRecordIsDiscarded() throws IOException {
+        MappingContext context = new MappingContext();
+        context.setJournal(MappingJournal.create(mappingsPath, FAILING_WRITER));
+        makeChanges(context);
+        context.getJournal().get().commit(context);
+        context.setJournal(null);
+
+        Path journalPath = MappingJournal.getJournalPath(mappingsPath);
+        long intactSize = Files.size(journalPath);
+        Files.write(journalPath, new byte[]{0, 0, 0, 42, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        MappingContext replayed = new MappingContext();
+        try (MappingJournal journal = MappingJournal.open(mappingsPath, FAILING_WRITER)) {
+            assertEquals(4, journal.replay(replayed));
+        }
+        assertEquals(intactSize, Files.size(journalPath));
+        assertChanges(replayed);
+    }
+
+    private MappingContext readMappings() throws IOException {
+        try (SrgReader reader = new SrgReader(Files.newBufferedReader(mappingsPath))) {
+            return reader.read();
+        }
+    }
+
+    private static void makeChanges(MappingContext context) {
+        MappingsHelper.genClassMapping(context, "a", "com/example/Example", false);
+        MappingsHelper.genFieldMapping(context, "a", FIELD, "someField");
+        MappingsHelper.genMethodMapping(context, "a", METHOD, "someMethod", false);
+        MappingsHelper.genClassMapping(context, "a$b", "com/example/Example$Inner", false);
+    }
+
+    private static void assertChanges(MappingContext context) {
+        ClassMapping mapping = context.getMappings().get("a");
+        assertEquals("com/example/Example", mapping.getDeobfuscatedName());
+        assertEquals("someField", mapping.getFieldMappings().get(FIELD).getDeobfuscatedName());
+        assertEquals("someMethod", mapping.getMethodMappings().get(METHOD).getDeobfuscatedName());
+        assertEquals("Inner", mapping.getInnerClassMappings().get("b").getDeobfuscatedName());
+    }
+
+}
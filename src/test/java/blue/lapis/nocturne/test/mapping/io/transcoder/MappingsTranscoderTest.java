@@ -0,0 +1,115 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.test.mapping.io.transcoder;
+
+import static org.junit.Assert.assertEquals;
+
+import blue.lapis.nocturne.mapping.MappingFormat;
+import blue.lapis.nocturne.mapping.io.transcoder.MappingsTranscoder;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+/**
+ * Unit tests related to the {@link MappingsTranscoder}.
+ */
+public class MappingsTranscoderTest {
+
+    private static final String SRG = String.join("\n",
+            "MD: a$b/a (La$b;)V com/example/Outer$Inner/setInner (Lcom/example/Outer$Inner;)V",
+            "FD: a/b com/example/Outer/otherField",
+            "CL: a com/example/Outer",
+            "MD: c/a ()V c/run ()V",
+            "CL: a$b com/example/Outer$Inner",
+            "FD: a/a com/example/Outer/someField",
+            "");
+
+    @Test
+    public void srgToEnigmaNestsMembers() throws IOException {
+        // fields are dropped, as Enigma needs their types
+        String expected = String.join(System.lineSeparator(),
+                "CLASS none/a com/example/Outer",
+                "\tCLASS none/a$b Inner",
+                "\t\tMETHOD a setInner (Lnone/a$b;)V",
+                "CLASS none/c",
+                "\tMETHOD a run ()V",
+                "");
+        // a run length of 2 forces the mappings to be sorted on disk
+        assertEquals(expected, transcode(MappingFormat.SRG, MappingFormat.ENIGMA, SRG, 2));
+    }
+
+    @Test
+    public void enigmaToSrgQualifiesMembers() throws IOException {
+        String enigma = String.join("\n",
+                "CLASS none/a com/example/Outer",
+                "\tCLASS none/a$b Inner",
+                "\t\tMETHOD a setInner (Lnone/a$b;)V",
+                "\t\t\tARG 1 inner",
+                "\tFIELD a someField I",
+                "CLASS none/c",
+                "\tMETHOD a run ()V",
+                "");
+        String expected = String.join("\n",
+                "CL: a com/example/Outer",
+                "CL: a$b com/example/Outer$Inner",
+                "FD: a/a com/example/Outer/someField",
+                "MD: a$b/a (La$b;)V com/example/Outer$Inner/setInner (Lcom/example/Outer$Inner;)V",
+                "MD: c/a ()V c/run ()V",
+                "");
+        assertEquals(expected, transcode(MappingFormat.ENIGMA, MappingFormat.SRG, enigma, 2));
+    }
+
+    @Test
+    public void jamToEnigmaWritesContainerMethods() throws IOException {
+        String jam = String.join("\n",
+                "MP a a (II)V 1 count",
+                "FD a a I someField",
+                "MP a a (II)V 0 index",
+                "");
+        String expected = String.join(System.lineSeparator(),
+                "CLASS none/a",
+                "\tFIELD a someField I",
+                "\tMETHOD a (II)V",
+                "\t\tARG 0 index",
+                "\t\tARG 1 count",
+                "");
+        assertEquals(expected, transcode(MappingFormat.JAM, MappingFormat.ENIGMA, jam,
+                MappingsTranscoder.DEFAULT_RUN_LENGTH));
+    }
+
+    private static String transcode(MappingFormat from, MappingFormat to, String input, int runLength)
+            throws IOException {
+        StringWriter out = new StringWriter();
+        MappingsTranscoder.transcode(from, to, new BufferedReader(new StringReader(input)), new PrintWriter(out),
+                runLength);
+        return out.toString();
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.test.mapping.io.writer;
+
+import static org.junit.Assert.assertEquals;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.jar.io.JarLoader;
+import blue.lapis.nocturne.mapping.MappingContext;
+import blue.lapis.nocturne.mapping.MappingFormat;
+import blue.lapis.nocturne.mapping.io.writer.MappingsWriter;
+import blue.lapis.nocturne.mapping.model.MethodMapping;
+import blue.lapis.nocturne.mapping.snapshot.MappingSnapshot;
+import blue.lapis.nocturne.util.helper.MappingsHelper;
+
+import org.cadixdev.bombe.type.FieldType;
+import org.cadixdev.bombe.type.MethodDescriptor;
+import org.cadixdev.bombe.type.signature.FieldSignature;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+/**
+ * Unit tests related to the {@link MappingsWriter}s.
+ */
+public class MappingsWriterTest {
+
+    private static final FieldSignature FIELD = new FieldSignature("a", FieldType.of("I"));
+    private static final MethodSignature METHOD = new MethodSignature("a", MethodDescriptor.of("(ILa;I)La;"));
+
+    private static MappingContext context;
+
+    @BeforeClass
+    public static void initialize() throws IOException {
+        new Main(true);
+        Main.setLoadedJar(JarLoader.loadJar("test.jar", MappingsWriterTest.class.getResourceAsStream("/test.jar")));
+
+        context = new MappingContext();
+        MappingsHelper.genClassMapping(context, "a", "com/example/Example", false);
+        MappingsHelper.genClassMapping(context, "a$b", "com/example/Example$Inner", false);
+        MappingsHelper.genFieldMapping(context, "a", FIELD, "someField");
+        MappingsHelper.genFieldMapping(context, "a$b", FIELD, "innerField");
+        MethodMapping method = MappingsHelper.genMethodMapping(context, "a", METHOD, "create", false);
+        MappingsHelper.genArgumentMapping(context, method, 2, "last");
+        MappingsHelper.genArgumentMapping(context, method, 0, "first");
+        MappingsHelper.genClassMapping(context, "b$a", "b$Named", false);
+    }
+
+    @Test
+    public void srgGroupsLinesByKind() {
+        assertEquals(String.join("\n",
+                "CL: a com/example/Example",
+                "CL: a$b com/example/Example$Inner",
+                "CL: b$a b$Named",
+                "FD: a$b/a com/example/Example$Inner/innerField",
+                "FD: a/a com/example/Example/someField",
+                "MD: a/a (ILa;I)La; com/example/Example/create (ILcom/example/Example;I)Lcom/example/Example;",
+                ""), write(MappingFormat.SRG));
+    }
+
+    @Test
+    public void jamWritesParameters() {
+        assertEquals(String.join("\n",
+                "CL a com/example/Example",
+                "CL a$b com/example/Example$Inner",
+                "CL b$a b$Named",
+                "FD a$b a I innerField",
+                "FD a a I someField",
+                "MD a a (ILa;I)La; create",
+                "MP a a (ILa;I)La; 0 first",
+                "MP a a (ILa;I)La; 2 last",
+                ""), write(MappingFormat.JAM));
+    }
+
+    @Test
+    public void enigmaNestsMembers() {
+        assertEquals(String.join(System.lineSeparator(),
+                "CLASS none/a com/example/Example",
+                "\tCLASS none/a$b Inner",
+                "\t\tFIELD a innerField I",
+                "\tFIELD a someField I",
+                "\tMETHOD a create (ILnone/a;I)Lnone/a;",
+                "\t\tARG 0 first",
+                "\t\tARG 2 last",
+                "CLASS none/b",
+                "\tCLASS none/b$a Named",
+                ""), write(MappingFormat.ENIGMA));
+    }
+
+    @Test
+    public void snapshotIsUnaffectedByLaterChanges() {
+        MappingSnapshot snapshot = context.snapshot();
+        String expected = write(MappingFormat.SRG);
+        context.getMappings().get("a").setDeobfuscatedName("com/example/Changed", false);
+        try {
+            StringWriter out = new StringWriter();
+            MappingFormat.SRG.createWriter(new PrintWriter(out)).write(snapshot);
+            assertEquals(expected, out.toString());
+        } finally {
+            context.getMappings().get("a").setDeobfuscatedName("com/example/Example", false);
+        }
+    }
+
+    private static String write(MappingFormat format) {
+        StringWriter out = new StringWriter();
+        format.createWriter(new PrintWriter(out)).write(context);
+        return out.toString();
+    }
+
+}
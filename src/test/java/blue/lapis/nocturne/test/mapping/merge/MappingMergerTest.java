@@ -0,0 +1,146 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.test.mapping.merge;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.jar.io.JarLoader;
+import blue.lapis.nocturne.mapping.MappingContext;
+import blue.lapis.nocturne.mapping.merge.MappingMerger;
+import blue.lapis.nocturne.mapping.merge.MergeConflict;
+import blue.lapis.nocturne.mapping.merge.MergeResult;
+import blue.lapis.nocturne.mapping.model.ClassMapping;
+import blue.lapis.nocturne.mapping.model.MethodMapping;
+import blue.lapis.nocturne.util.MemberType;
+import blue.lapis.nocturne.util.helper.MappingsHelper;
+
+import org.cadixdev.bombe.type.FieldType;
+import org.cadixdev.bombe.type.MethodDescriptor;
+import org.cadixdev.bombe.type.signature.FieldSignature;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * Unit tests related to the {@link MappingMerger}.
+ */
+public class MappingMergerTest {
+
+    private static final FieldSignature FIELD = new FieldSignature("a", FieldType.of("I"));
+    private static final MethodSignature METHOD = new MethodSignature("a", MethodDescriptor.of("(ILa;I)La;"));
+
+    @BeforeClass
+    public static void initialize() throws IOException {
+        new Main(true);
+        Main.setLoadedJar(JarLoader.loadJar("test.jar", MappingMergerTest.class.getResourceAsStream("/test.jar")));
+    }
+
+    @Test
+    public void changesOnEachSideAreCombined() {
+        MappingContext base = context("com/example/Example", "someField", "someMethod");
+        MappingContext ours = context("com/example/Example", "ourField", "someMethod");
+        MappingContext theirs = context("com/example/Renamed", "someField", "theirMethod");
+
+        MergeResult result = MappingMerger.merge(base, ours, theirs);
+        assertFalse(result.hasConflicts());
+
+        ClassMapping mapping = result.getContext().getMappings().get("a");
+        assertEquals("com/example/Renamed", mapping.getDeobfuscatedName());
+        assertEquals("ourField", mapping.getFieldMappings().get(FIELD).getDeobfuscatedName());
+        assertEquals("theirMethod", mapping.getMethodMappings().get(METHOD).getDeobfuscatedName());
+        assertEquals("Inner", mapping.getInnerClassMappings().get("b").getDeobfuscatedName());
+    }
+
+    @Test
+    public void conflictingChangesKeepOurs() {
+        MappingContext base = context("com/example/Example", "someField", "someMethod");
+        MappingContext ours = context("com/example/Example", "ourField", "someMethod");
+        MappingContext theirs = context("com/example/Example", "theirField", "someMethod");
+
+        MergeResult result = MappingMerger.merge(base, ours, theirs);
+        assertEquals(1, result.getConflicts().size());
+        MergeConflict conflict = result.getConflicts().get(0);
+        assertEquals(MemberType.FIELD, conflict.getType());
+        assertEquals("a", conflict.getOwner());
+        assertEquals(FIELD, conflict.getSignature().get());
+        assertEquals("someField", conflict.getBaseName().get());
+        assertEquals("ourField", conflict.getOurName().get());
+        assertEquals("theirField", conflict.getTheirName().get());
+
+        ClassMapping mapping = result.getContext().getMappings().get("a");
+        assertEquals("ourField", mapping.getFieldMappings().get(FIELD).getDeobfuscatedName());
+    }
+
+    @Test
+    public void parameterConflictsAreReported() {
+        MappingContext base = context("com/example/Example", "someField", "someMethod");
+        MappingContext ours = context("com/example/Example", "someField", "someMethod");
+        MappingContext theirs = context("com/example/Example", "someField", "someMethod");
+        MappingsHelper.genArgumentMapping(ours, ours.getMappings().get("a").getMethodMappings().get(METHOD), 0,
+                "count");
+        MappingsHelper.genArgumentMapping(theirs, theirs.getMappings().get("a").getMethodMappings().get(METHOD), 0,
+                "size");
+
+        MergeResult result = MappingMerger.merge(base, ours, theirs);
+        assertEquals(1, result.getConflicts().size());
+        MergeConflict conflict = result.getConflicts().get(0);
+        assertEquals(MemberType.ARG, conflict.getType());
+        assertEquals(METHOD, conflict.getSignature().get());
+        assertEquals(0, conflict.getParamIndex());
+        assertFalse(conflict.getBaseName().isPresent());
+
+        MethodMapping method = result.getContext().getMappings().get("a").getMethodMappings().get(METHOD);
+        assertEquals("count", method.getParamMappings().values().iterator().next().getDeobfuscatedName());
+    }
+
+    @Test
+    public void removalOnOneSideIsKept() {
+        MappingContext base = context("com/example/Example", "someField", "someMethod");
+        MappingsHelper.genClassMapping(base, "b", "com/example/Another", false);
+        MappingContext ours = context("com/example/Example", "someField", "someMethod");
+        MappingsHelper.genClassMapping(ours, "b", "com/example/Another", false);
+        MappingContext theirs = context("com/example/Example", "someField", "someMethod");
+
+        MergeResult result = MappingMerger.merge(base, ours, theirs);
+        assertFalse(result.hasConflicts());
+        assertTrue(result.getContext().getMappings().containsKey("a"));
+        assertFalse(result.getContext().getMappings().containsKey("b"));
+    }
+
+    private static MappingContext context(String className, String fieldName, String methodName) {
+        MappingContext context = new MappingContext();
+        MappingsHelper.genClassMapping(context, "a", className, false);
+        MappingsHelper.genClassMapping(context, "a$b", className + "$Inner", false);
+        MappingsHelper.genFieldMapping(context, "a", FIELD, fieldName);
+        MappingsHelper.genMethodMapping(context, "a", METHOD, methodName, false);
+        return context;
+    }
+
+}
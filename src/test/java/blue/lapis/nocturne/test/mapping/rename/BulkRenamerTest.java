@@ -0,0 +1,138 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.test.mapping.rename;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.jar.io.JarLoader;
+import blue.lapis.nocturne.mapping.MappingContext;
+import blue.lapis.nocturne.mapping.history.MappingHistory;
+import blue.lapis.nocturne.mapping.rename.BulkRenamer;
+import blue.lapis.nocturne.mapping.rename.RenameConflict;
+import blue.lapis.nocturne.mapping.rename.RenamePlan;
+import blue.lapis.nocturne.mapping.rename.RenameRule;
+import blue.lapis.nocturne.util.MemberType;
+
+import org.cadixdev.bombe.type.FieldType;
+import org.cadixdev.bombe.type.MethodDescriptor;
+import org.cadixdev.bombe.type.signature.FieldSignature;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Unit tests related to the {@link BulkRenamer}.
+ */
+public class BulkRenamerTest {
+
+    private static final FieldSignature FIELD = new FieldSignature("a", FieldType.of("I"));
+    private static final MethodSignature METHOD = new MethodSignature("a", MethodDescriptor.of("(ILa;I)La;"));
+
+    private MappingContext context;
+
+    @Before
+    public void initialize() throws IOException {
+        new Main(true);
+        Main.setLoadedJar(JarLoader.loadJar("test.jar", BulkRenamerTest.class.getResourceAsStream("/test.jar")));
+        context = Main.getMappingContext();
+        context.clear();
+        context.setHistory(new MappingHistory());
+    }
+
+    @Test
+    public void swapsClassNamesAsOneStep() {
+        RenamePlan plan = BulkRenamer.plan(Collections.singletonList(
+                RenameRule.fromTable(MemberType.CLASS, table("a", "b", "b", "a"))));
+        assertFalse(plan.hasConflicts());
+        assertEquals(2, plan.getRenames().size());
+
+        BulkRenamer.apply(context, plan);
+        assertEquals("b", Main.getLoadedJar().getCurrentNames().get("a"));
+        assertEquals("a", Main.getLoadedJar().getCurrentNames().get("b"));
+
+        assertTrue(context.getHistory().get().undo());
+        assertEquals("a", Main.getLoadedJar().getCurrentNames().get("a"));
+        assertEquals("b", Main.getLoadedJar().getCurrentNames().get("b"));
+        assertFalse(context.getHistory().get().canUndo());
+    }
+
+    @Test
+    public void rejectsClashesWithinTheBatch() {
+        RenamePlan plan = BulkRenamer.plan(Arrays.asList(
+                RenameRule.fromTable(MemberType.CLASS, table("a", "com/example/Same")),
+                RenameRule.fromTable(MemberType.CLASS, table("b", "com/example/Same"))));
+        assertTrue(plan.getRenames().isEmpty());
+        assertEquals(2, plan.getConflicts().size());
+        plan.getConflicts().forEach(conflict -> assertEquals(RenameConflict.Reason.CLASH, conflict.getReason()));
+    }
+
+    @Test
+    public void rejectsClashesWithCurrentNames() {
+        RenamePlan plan = BulkRenamer.plan(Collections.singletonList(
+                RenameRule.fromTable(MemberType.CLASS, table("a", "b"))));
+        assertTrue(plan.getRenames().isEmpty());
+        assertEquals(RenameConflict.Reason.CLASH, plan.getConflicts().get(0).getReason());
+    }
+
+    @Test
+    public void renamesMembersByRule() {
+        RenamePlan plan = BulkRenamer.plan(Arrays.asList(
+                RenameRule.fieldsOfType(FieldType.of("I"), field -> "count"),
+                RenameRule.matching(MemberType.METHOD, Pattern.compile("([a-z])"), "$1Method"),
+                RenameRule.fromTable(MemberType.FIELD, table("this$0", "0outer"))));
+        assertEquals(4, plan.getRenames().size());
+        assertEquals(2, plan.getConflicts().size());
+        plan.getConflicts().forEach(conflict ->
+                assertEquals(RenameConflict.Reason.ILLEGAL_NAME, conflict.getReason()));
+
+        BulkRenamer.apply(context, plan);
+        assertEquals("count", context.getMappings().get("a").getFieldMappings().get(FIELD).getDeobfuscatedName());
+        assertEquals("count", context.getMappings().get("a").getInnerClassMappings().get("b")
+                .getFieldMappings().get(FIELD).getDeobfuscatedName());
+        assertEquals("aMethod", context.getMappings().get("a").getMethodMappings().get(METHOD).getDeobfuscatedName());
+        assertTrue(Main.getLoadedJar().getClass("a").get().getCurrentMethods()
+                .containsValue(new MethodSignature("aMethod", METHOD.getDescriptor())));
+    }
+
+    private static Map<String, String> table(String... names) {
+        Map<String, String> table = new HashMap<>();
+        for (int i = 0; i < names.length; i += 2) {
+            table.put(names[i], names[i + 1]);
+        }
+        return table;
+    }
+
+}
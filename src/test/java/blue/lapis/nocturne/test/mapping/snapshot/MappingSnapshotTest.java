@@ -0,0 +1,114 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.test.mapping.snapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.jar.io.JarLoader;
+import blue.lapis.nocturne.mapping.MappingContext;
+import blue.lapis.nocturne.mapping.model.ClassMapping;
+import blue.lapis.nocturne.mapping.snapshot.MappingSnapshot;
+import blue.lapis.nocturne.util.helper.MappingsHelper;
+
+import org.cadixdev.bombe.type.FieldType;
+import org.cadixdev.bombe.type.MethodDescriptor;
+import org.cadixdev.bombe.type.signature.FieldSignature;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * Unit tests related to the {@link MappingSnapshot}s of a
+ * {@link MappingContext}.
+ */
+public class MappingSnapshotTest {
+
+    private static final FieldSignature FIELD = new FieldSignature("a", FieldType.of("I"));
+    private static final MethodSignature METHOD = new MethodSignature("a", MethodDescriptor.of("(ILa;I)La;"));
+
+    @BeforeClass
+    public static void initialize() throws IOException {
+        new Main(true);
+        Main.setLoadedJar(JarLoader.loadJar("test.jar", MappingSnapshotTest.class.getResourceAsStream("/test.jar")));
+    }
+
+    @Test
+    public void snapshotsAreUnaffectedByLaterChanges() {
+        MappingContext context = context();
+        MappingSnapshot first = context.snapshot();
+        assertSame(first, context.snapshot());
+
+        MappingsHelper.genFieldMapping(context, "a", FIELD, "renamedField");
+        MappingsHelper.genArgumentMapping(context, context.getMappings().get("a").getMethodMappings().get(METHOD), 0,
+                "count");
+        context.getMappings().get("a").getInnerClassMappings().get("b").setDeobfuscatedName("Renamed");
+        MappingSnapshot second = context.snapshot();
+
+        assertEquals(first.getVersion() + 1, second.getVersion());
+        assertSame(second, context.getLatestSnapshot().get());
+        assertEquals("someField", first.getClass("a").get().getFieldNames().get(FIELD));
+        assertEquals("renamedField", second.getClass("a").get().getFieldNames().get(FIELD));
+        assertFalse(first.getClass("a").get().getMethods().get(METHOD).getParamNames().containsKey(0));
+        assertEquals("count", second.getClass("a").get().getMethods().get(METHOD).getParamNames().get(0));
+        assertEquals("com/example/Example$Inner", first.deobfuscate("a$b"));
+        assertEquals("com/example/Example$Renamed", second.deobfuscate("a$b"));
+        assertEquals("com/example/Example$Renamed$c", second.deobfuscate("a$b$c"));
+    }
+
+    @Test
+    public void unchangedClassesAreShared() {
+        MappingContext context = context();
+        MappingsHelper.genClassMapping(context, "b", "com/example/Another", false);
+        MappingSnapshot first = context.snapshot();
+
+        ClassMapping mapping = context.getMappings().get("a");
+        mapping.removeFieldMapping(FIELD);
+        MappingSnapshot second = context.snapshot();
+
+        assertSame(first.getClass("b").get(), second.getClass("b").get());
+        assertNotSame(first.getClass("a").get(), second.getClass("a").get());
+        assertSame(first.getClass("a$b").get(), second.getClass("a$b").get());
+        assertFalse(second.getClass("a").get().getFieldNames().containsKey(FIELD));
+
+        context.clear();
+        assertEquals(0, context.getLatestSnapshot().get().getClasses().size());
+    }
+
+    private static MappingContext context() {
+        MappingContext context = new MappingContext();
+        MappingsHelper.genClassMapping(context, "a", "com/example/Example", false);
+        MappingsHelper.genClassMapping(context, "a$b", "com/example/Example$Inner", false);
+        MappingsHelper.genFieldMapping(context, "a", FIELD, "someField");
+        MappingsHelper.genMethodMapping(context, "a", METHOD, "someMethod", false);
+        return context;
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.test.processor.constantpool;
+
+import static org.junit.Assert.assertEquals;
+
+import blue.lapis.nocturne.processor.constantpool.model.ConstantPool;
+import blue.lapis.nocturne.processor.constantpool.model.structure.ConstantStructure;
+import blue.lapis.nocturne.processor.constantpool.model.structure.DummyStructure;
+import blue.lapis.nocturne.processor.constantpool.model.structure.IgnoredStructure;
+import blue.lapis.nocturne.processor.constantpool.model.structure.Utf8Structure;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests related to the {@link ConstantPool}.
+ */
+public class ConstantPoolTest {
+
+    @Test
+    public void identicalStructuresAreReused() {
+        // a long occupies two entries, the second of which is a dummy
+        byte[] longBytes = new byte[] {5, 0, 0, 0, 0, 0, 0, 0, 1};
+        List<ConstantStructure> contents = new ArrayList<>(Arrays.asList(
+                new Utf8Structure("a"), new IgnoredStructure(longBytes), new DummyStructure(), new Utf8Structure("b")
+        ));
+        ConstantPool pool = new ConstantPool(contents, 0);
+
+        assertEquals(1, pool.getOrAdd(new Utf8Structure("a")));
+        assertEquals(4, pool.getOrAdd(new Utf8Structure("b")));
+        assertEquals(5, pool.getOrAdd(new Utf8Structure("c")));
+        assertEquals(5, pool.getOrAdd(new Utf8Structure("c")));
+        assertEquals(5, pool.size());
+
+        pool.set(1, new Utf8Structure("d"));
+        assertEquals(1, pool.getOrAdd(new Utf8Structure("d")));
+        assertEquals(6, pool.getOrAdd(new Utf8Structure("a")));
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.test.processor.disassemble;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.jar.io.JarLoader;
+import blue.lapis.nocturne.processor.disassemble.ClassDisassembler;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Unit tests related to the {@link ClassDisassembler}.
+ */
+public class ClassDisassemblerTest {
+
+    private static ClassDisassembler disassembler;
+
+    @BeforeClass
+    public static void initialize() throws IOException {
+        new Main(true);
+        Main.setLoadedJar(JarLoader.loadJar("test.jar", ClassDisassemblerTest.class.getResourceAsStream("/test.jar")));
+        disassembler = new ClassDisassembler("a$b", Main.getLoadedJar().getClass("a$b").get().getContent());
+    }
+
+    @Test
+    public void listsInstructions() {
+        assertEquals(Arrays.asList(
+                "   0: aload_0",
+                "   1: aload_1",
+                "   2: putfield &NOCTURNE+a$b&.this$0:L&NOCTURNE+a&;",
+                "   5: aload_0",
+                "   6: invokespecial java/lang/Object.<init>:()V",
+                "   9: return"
+        ), disassembler.disassembleMethod("<init>", "(L&NOCTURNE+a&;)V").get());
+    }
+
+    @Test
+    public void listsClasses() {
+        assertEquals("public class &NOCTURNE+a$b& extends java/lang/Object {\n"
+                + "  private %NOCTURNE+FIELD-a$b/a-I%:I\n"
+                + "  final synthetic this$0:L&NOCTURNE+a&;\n"
+                + "\n"
+                + "  public <init>:(L&NOCTURNE+a&;)V\n"
+                + "    Code:\n"
+                + "       0: aload_0\n"
+                + "       1: aload_1\n"
+                + "       2: putfield &NOCTURNE+a$b&.this$0:L&NOCTURNE+a&;\n"
+                + "       5: aload_0\n"
+                + "       6: invokespecial java/lang/Object.<init>:()V\n"
+                + "       9: return\n"
+                + "}\n", disassembler.disassemble());
+    }
+
+    @Test
+    public void missingMethodsAreNotListed() {
+        assertFalse(disassembler.disassembleMethod("<init>", "()V").isPresent());
+    }
+
+}
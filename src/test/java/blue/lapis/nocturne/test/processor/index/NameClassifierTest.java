@@ -0,0 +1,85 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.test.processor.index;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.jar.io.JarLoader;
+import blue.lapis.nocturne.processor.index.NameClassifier;
+import blue.lapis.nocturne.processor.index.model.IndexedClass;
+
+import org.cadixdev.bombe.type.MethodDescriptor;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * Unit tests related to the {@link NameClassifier}.
+ */
+public class NameClassifierTest {
+
+    @Test
+    public void obfuscatedNamesTest() {
+        for (String name : new String[] {"a", "ab", "abc", "abcd", "aBc", "xqzpwk", "aaaa", "IlIlI", "O0O0",
+                "func_1234_a", "field_70170_p", "method_1234"}) {
+            assertFalse(name, NameClassifier.looksDeobfuscated(name));
+        }
+    }
+
+    @Test
+    public void deobfuscatedNamesTest() {
+        for (String name : new String[] {"run", "Abc", "getName", "toString", "Entity", "hello", "<init>"}) {
+            assertTrue(name, NameClassifier.looksDeobfuscated(name));
+        }
+    }
+
+    @Test
+    public void classNamesTest() {
+        assertTrue(NameClassifier.looksDeobfuscatedClass("com/example/Entity"));
+        assertTrue(NameClassifier.looksDeobfuscatedClass("Entity$Builder"));
+        assertFalse(NameClassifier.looksDeobfuscatedClass("com/example/a"));
+        assertFalse(NameClassifier.looksDeobfuscatedClass("a/b/Foo"));
+        assertFalse(NameClassifier.looksDeobfuscatedClass("Entity$1"));
+    }
+
+    @Test
+    public void loadedJarTest() throws IOException {
+        new Main(true);
+        Main.setLoadedJar(JarLoader.loadJar("test.jar", NameClassifierTest.class.getResourceAsStream("/test.jar")));
+
+        IndexedClass clazz = IndexedClass.INDEXED_CLASSES.get("a");
+        assertFalse(clazz.looksDeobfuscated());
+        assertFalse(clazz.getMethods().get(new MethodSignature("a", MethodDescriptor.of("(ILa;I)La;")))
+                .looksDeobfuscated());
+        assertTrue(clazz.getMethods().get(new MethodSignature("<init>", MethodDescriptor.of("()V")))
+                .looksDeobfuscated());
+        assertFalse(Main.getLoadedJar().getClass("a").get().isDeobfuscated());
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.test.processor.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import blue.lapis.nocturne.gui.scene.text.SelectableMember.MemberKey;
+import blue.lapis.nocturne.processor.index.XrefIndex;
+import blue.lapis.nocturne.processor.index.model.IndexedClass;
+import blue.lapis.nocturne.util.MemberType;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Unit tests related to the {@link XrefIndex}.
+ */
+public class XrefIndexTest {
+
+    private static final MemberKey CLASS_A = new MemberKey(MemberType.CLASS, "a", null);
+    private static final MemberKey FIELD = new MemberKey(MemberType.FIELD, "a/b", "I");
+    private static final MemberKey METHOD_A = new MemberKey(MemberType.METHOD, "a/c", "()V");
+    private static final MemberKey METHOD_B = new MemberKey(MemberType.METHOD, "b/c", "()V");
+    private static final MemberKey SITE_1 = new MemberKey(MemberType.METHOD, "x/d", "()V");
+    private static final MemberKey SITE_2 = new MemberKey(MemberType.METHOD, "y/e", "(I)V");
+
+    private XrefIndex index;
+
+    @Before
+    public void initialize() {
+        index = new XrefIndex();
+    }
+
+    @After
+    public void cleanUp() {
+        IndexedClass.INDEXED_CLASSES.clear();
+    }
+
+    @Test
+    public void usageTest() {
+        index.addUsage(FIELD, SITE_1);
+        index.addUsage(FIELD, SITE_2);
+        assertEquals(Arrays.asList(SITE_1, SITE_2), Arrays.asList(index.getUsages(FIELD).toArray()));
+        assertTrue(index.getUsages(METHOD_A).isEmpty());
+    }
+
+    @Test
+    public void duplicateTest() {
+        index.addUsage(FIELD, SITE_1);
+        index.addUsage(FIELD, SITE_1);
+        index.addUsage(FIELD, SITE_2);
+        index.addUsage(FIELD, SITE_1);
+        assertEquals(2, index.getUsages(FIELD).size());
+    }
+
+    @Test
+    public void innerClassTest() {
+        index.addUsage(new MemberKey(MemberType.INNER_CLASS, "a$1", null), SITE_1);
+        assertEquals(Collections.singleton(SITE_1), index.getUsages(new MemberKey(MemberType.CLASS, "a$1", null)));
+    }
+
+    @Test
+    public void referencingClassesTest() {
+        index.addUsage(CLASS_A, SITE_1);
+        index.addUsage(CLASS_A, new MemberKey(MemberType.CLASS, "y", null));
+        index.addUsage(CLASS_A, SITE_2);
+        Set<String> classes = index.getReferencingClasses(CLASS_A);
+        assertEquals(Arrays.asList("x", "y"), Arrays.asList(classes.toArray()));
+    }
+
+    @Test
+    public void hierarchyTest() {
+        IndexedClass a = new IndexedClass("a", null, "java/lang/Object", Collections.emptyList(),
+                Collections.emptyList(), Collections.emptyList());
+        IndexedClass b = new IndexedClass("b", null, "a", Collections.emptyList(),
+                Collections.emptyList(), Collections.emptyList());
+        a.getHierarchy().add(b);
+        b.getHierarchy().add(a);
+        IndexedClass.INDEXED_CLASSES.put("a", a);
+        IndexedClass.INDEXED_CLASSES.put("b", b);
+
+        index.addUsage(METHOD_A, SITE_1);
+        index.addUsage(METHOD_B, SITE_2);
+        assertEquals(2, index.getUsages(METHOD_A).size());
+        assertEquals(2, index.getUsages(METHOD_B).size());
+    }
+
+}
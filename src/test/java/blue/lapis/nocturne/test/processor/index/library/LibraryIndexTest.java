@@ -0,0 +1,121 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.test.processor.index.library;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.processor.index.ClassHierarchyBuilder;
+import blue.lapis.nocturne.processor.index.library.LibraryIndex;
+import blue.lapis.nocturne.processor.index.model.IndexedClass;
+import blue.lapis.nocturne.processor.index.model.IndexedField;
+import blue.lapis.nocturne.processor.index.model.IndexedMethod;
+
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Unit tests related to library indexes.
+ */
+public class LibraryIndexTest {
+
+    private static final MethodSignature RUN = MethodSignature.of("run", "()V");
+
+    @BeforeClass
+    public static void initialize() {
+        new Main(true);
+    }
+
+    @Test
+    public void indexIsCached() throws IOException {
+        Path dir = Files.createTempDirectory("nocturne-library-test");
+        Path jar = dir.resolve("library.jar");
+        Path cacheDir = dir.resolve("cache");
+        try (InputStream in = LibraryIndexTest.class.getResourceAsStream("/test.jar")) {
+            Files.copy(in, jar, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        LibraryIndex indexed = LibraryIndex.load(jar, cacheDir);
+        assertEquals(new HashSet<>(Arrays.asList("a", "a$b", "a$b$c", "b", "b$a", "b$a$c")),
+                indexed.getClasses().keySet());
+        assertEquals(1, Files.list(cacheDir).count());
+
+        LibraryIndex cached = LibraryIndex.load(jar, cacheDir);
+        for (IndexedClass clazz : indexed.getClasses().values()) {
+            IndexedClass cachedClass = cached.getClasses().get(clazz.getName());
+            assertEquals(clazz.getSuperclass(), cachedClass.getSuperclass());
+            assertEquals(clazz.getInterfaces(), cachedClass.getInterfaces());
+            assertEquals(clazz.getFields().keySet(), cachedClass.getFields().keySet());
+            assertEquals(clazz.getMethods().keySet(), cachedClass.getMethods().keySet());
+        }
+    }
+
+    @Test
+    public void libraryOverridesAreFound() {
+        IndexedClass task = new IndexedClass("lib/Task", null, null, Collections.emptyList(),
+                Collections.emptyList(), methods(RUN, IndexedMethod.Visibility.PUBLIC));
+        IndexedClass base = new IndexedClass("lib/Base", null, "java/lang/Object",
+                Collections.singletonList("lib/Task"), Collections.emptyList(), Collections.emptyList());
+        Map<String, IndexedClass> library = new HashMap<>();
+        library.put(task.getName(), task);
+        library.put(base.getName(), base);
+
+        IndexedClass parent = new IndexedClass("a", null, "lib/Base", Collections.emptyList(),
+                Collections.emptyList(), Collections.emptyList());
+        IndexedClass child = new IndexedClass("b", null, "a", Collections.emptyList(),
+                Collections.<IndexedField>emptyList(), methods(RUN, IndexedMethod.Visibility.PUBLIC));
+        IndexedClass unrelated = new IndexedClass("c", null, "java/lang/Object", Collections.emptyList(),
+                Collections.emptyList(), methods(RUN, IndexedMethod.Visibility.PUBLIC));
+
+        new ClassHierarchyBuilder(new HashSet<>(Arrays.asList(parent, child, unrelated)),
+                name -> Optional.ofNullable(library.get(name))).buildHierarchies();
+
+        assertEquals(new HashSet<>(Arrays.asList(task, base)), parent.getLibraryHierarchy());
+        assertEquals(Collections.singleton(task), child.getMethods().get(RUN).getLibraryHierarchy());
+        assertTrue(unrelated.getLibraryHierarchy().isEmpty());
+        assertTrue(unrelated.getMethods().get(RUN).getLibraryHierarchy().isEmpty());
+        assertTrue(task.getHierarchy().isEmpty());
+    }
+
+    private static List<IndexedMethod> methods(MethodSignature sig, IndexedMethod.Visibility vis) {
+        return Collections.singletonList(new IndexedMethod(sig, vis));
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.test.processor.layout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.jar.io.JarLoader;
+import blue.lapis.nocturne.processor.constantpool.model.structure.Utf8Structure;
+import blue.lapis.nocturne.processor.layout.ClassLayoutReader;
+import blue.lapis.nocturne.processor.layout.model.AttributeLayout;
+import blue.lapis.nocturne.processor.layout.model.ClassLayout;
+import blue.lapis.nocturne.processor.layout.model.MemberLayout;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests related to the {@link ClassLayoutReader}.
+ */
+public class ClassLayoutReaderTest {
+
+    private static byte[] bytes;
+    private static ClassLayout layout;
+
+    @BeforeClass
+    public static void initialize() throws IOException {
+        new Main(true);
+        Main.setLoadedJar(JarLoader.loadJar("test.jar", ClassLayoutReaderTest.class.getResourceAsStream("/test.jar")));
+        bytes = Main.getLoadedJar().getClass("a$b").get().getContent();
+        layout = new ClassLayoutReader("a$b", bytes).read();
+    }
+
+    @Test
+    public void readsMembers() {
+        assertEquals(2, layout.getFields().size());
+        assertEquals(1, layout.getMethods().size());
+        assertEquals("this$0", getString(layout.getFields().get(1).getNameIndex()));
+        assertEquals("<init>", getString(layout.getMethods().get(0).getNameIndex()));
+        assertEquals("(L&NOCTURNE+a&;)V", getString(layout.getMethods().get(0).getDescriptorIndex()));
+    }
+
+    @Test
+    public void membersAreContiguous() {
+        List<MemberLayout> members = new ArrayList<>(layout.getFields());
+        members.addAll(layout.getMethods());
+
+        int offset = layout.getPoolEnd() + 8 + layout.getInterfaceIndices().size() * 2 + 2;
+        assertEquals(layout.getFieldsOffset() + 2, offset);
+        for (MemberLayout member : members) {
+            if (member == layout.getMethods().get(0)) {
+                assertEquals(layout.getMethodsOffset(), offset);
+                offset += 2;
+            }
+            assertEquals(offset, member.getOffset());
+            offset = member.getEnd();
+        }
+        assertEquals(layout.getAttributesOffset(), offset);
+    }
+
+    @Test
+    public void readsCodeAttributes() {
+        AttributeLayout code = layout.getMethods().get(0).getAttribute("Code").get();
+        assertEquals(10, ByteBuffer.wrap(bytes).getInt(code.getOffset() + 4)); // code_length
+        assertTrue(code.getAttributesOffset() > code.getOffset());
+
+        int end = code.getAttributesOffset() + 2;
+        for (AttributeLayout attr : code.getAttributes()) {
+            assertEquals(end + 6, attr.getOffset());
+            end = attr.getEnd();
+        }
+        assertEquals(code.getEnd(), end);
+    }
+
+    private static String getString(int index) {
+        return ((Utf8Structure) layout.getConstantPool().get(index)).asString();
+    }
+
+}
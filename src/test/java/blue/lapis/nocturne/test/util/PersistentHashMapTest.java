@@ -0,0 +1,101 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package blue.lapis.nocturne.test.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import blue.lapis.nocturne.util.PersistentHashMap;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Unit tests related to the {@link PersistentHashMap}.
+ */
+public class PersistentHashMapTest {
+
+    @Test
+    public void matchesHashMap() {
+        Random random = new Random(0);
+        Map<Key, Integer> expected = new HashMap<>();
+        PersistentHashMap<Key, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 20_000; i++) {
+            // a small key space with few hashes forces collisions and removals of present keys
+            Key key = new Key(random.nextInt(2000));
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.minus(key);
+            } else {
+                expected.put(key, i);
+                map = map.plus(key, i);
+            }
+            assertEquals(expected.size(), map.size());
+            assertEquals(expected.get(key), map.get(key));
+        }
+        assertEquals(expected, map.asMap());
+        assertEquals(expected, new HashMap<>(map.asMap()));
+    }
+
+    @Test
+    public void previousVersionsAreUnchanged() {
+        PersistentHashMap<String, String> first = PersistentHashMap.<String, String>empty().plus("a", "1");
+        PersistentHashMap<String, String> second = first.plus("b", "2").minus("a");
+        assertEquals("1", first.get("a"));
+        assertNull(first.get("b"));
+        assertNull(second.get("a"));
+        assertEquals("2", second.get("b"));
+        assertSame(first, first.minus("c"));
+        assertSame(PersistentHashMap.empty(), second.minus("b"));
+    }
+
+    private static final class Key {
+
+        private final int id;
+        private final int hash;
+
+        Key(int id) {
+            this.id = id;
+            // both low and high bits vary, so keys share trie paths at several depths as well as whole hashes
+            this.hash = id % 64 | (id / 64) % 4 << 28;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && ((Key) obj).id == id;
+        }
+
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.test.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import blue.lapis.nocturne.util.ReverseIndexedMap;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Unit tests related to the {@link ReverseIndexedMap}.
+ */
+public class ReverseIndexedMapTest {
+
+    @Test
+    public void matchesHashMap() {
+        Random random = new Random(0);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Map<Integer, Integer> map = new ReverseIndexedMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            // a small value space leaves several keys sharing each value
+            int key = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                int value = random.nextInt(100);
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+            int probe = random.nextInt(100);
+            assertEquals(expected.containsValue(probe), map.containsValue(probe));
+        }
+        assertEquals(expected, map);
+    }
+
+    @Test
+    public void tracksRenamedValues() {
+        Map<String, String> map = new ReverseIndexedMap<>();
+        map.put("a", "a");
+        map.put("b", "a");
+        map.put("a", "c");
+        assertTrue(map.containsValue("a"));
+        assertTrue(map.containsValue("c"));
+        map.put("b", "b");
+        assertFalse(map.containsValue("a"));
+        map.remove("a");
+        assertFalse(map.containsValue("c"));
+        map.clear();
+        assertFalse(map.containsValue("b"));
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.test.util.helper;
+
+import static blue.lapis.nocturne.util.helper.StringHelper.getProcessedDescriptor;
+import static blue.lapis.nocturne.util.helper.StringHelper.getProcessedName;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import blue.lapis.nocturne.Main;
+import blue.lapis.nocturne.jar.io.JarLoader;
+import blue.lapis.nocturne.util.MemberType;
+import blue.lapis.nocturne.util.helper.StringHelper;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * Unit tests related to {@link StringHelper#getProcessedDescriptor}.
+ */
+public class ProcessedDescriptorTest {
+
+    private static final String A = "L" + getProcessedName("a", null, MemberType.CLASS) + ";";
+    private static final String B_A = "L" + getProcessedName("b$a", null, MemberType.CLASS) + ";";
+
+    @BeforeClass
+    public static void initialize() throws IOException {
+        new Main(true);
+        Main.setLoadedJar(JarLoader.loadJar("test.jar",
+                ProcessedDescriptorTest.class.getResourceAsStream("/test.jar")));
+    }
+
+    @Test
+    public void fieldDescriptors() {
+        assertEquals(A, getProcessedDescriptor(MemberType.FIELD, "La;"));
+        assertEquals("Ljava/lang/String;", getProcessedDescriptor(MemberType.FIELD, "Ljava/lang/String;"));
+        assertEquals("[La;", getProcessedDescriptor(MemberType.FIELD, "[La;"));
+        assertEquals("I", getProcessedDescriptor(MemberType.FIELD, "I"));
+    }
+
+    @Test
+    public void methodDescriptors() {
+        assertEquals("(" + A + "[[" + B_A + "ILjava/lang/Object;)[" + A,
+                getProcessedDescriptor(MemberType.METHOD, "(La;[[Lb$a;ILjava/lang/Object;)[La;"));
+        assertEquals("(JLjava/lang/String;)V", getProcessedDescriptor(MemberType.METHOD, "(JLjava/lang/String;)V"));
+        assertEquals("()" + B_A, getProcessedDescriptor(MemberType.METHOD, "()Lb$a;"));
+    }
+
+    @Test
+    public void processedMethodDescriptorsAreUnchanged() {
+        String desc = "(L" + getProcessedName("a", "()V", MemberType.METHOD) + ";)V";
+        assertEquals(desc, getProcessedDescriptor(MemberType.METHOD, desc));
+    }
+
+    @Test
+    public void descriptorsAreMemoized() {
+        String processed = getProcessedDescriptor(MemberType.METHOD, "(La;)La;");
+        assertSame(processed, getProcessedDescriptor(MemberType.METHOD, "(La;)La;"));
+        assertSame(processed, Main.getLoadedJar().getProcessedDescriptors().get("(La;)La;"));
+    }
+
+}
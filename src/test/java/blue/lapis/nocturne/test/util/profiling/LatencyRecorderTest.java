@@ -0,0 +1,114 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.test.util.profiling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import blue.lapis.nocturne.util.profiling.Interaction;
+import blue.lapis.nocturne.util.profiling.LatencyHistogram;
+import blue.lapis.nocturne.util.profiling.LatencyRecorder;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Unit tests related to the {@link LatencyRecorder} and
+ * {@link LatencyHistogram}.
+ */
+public class LatencyRecorderTest {
+
+    @Before
+    public void initialize() {
+        LatencyRecorder.reset();
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(50, histogram.getValueAtPercentile(50));
+        assertEquals(99, histogram.getValueAtPercentile(99));
+        assertEquals(100, histogram.getValueAtPercentile(100));
+        assertEquals(1, histogram.getMin());
+        assertEquals(100, histogram.getMax());
+        assertEquals(50.5, histogram.getMean(), 0);
+    }
+
+    @Test
+    public void largeValuesAreWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1_000_000); // 1 ms to 10 s
+        }
+        assertWithin(5_000_000_000L, histogram.getValueAtPercentile(50));
+        assertWithin(9_900_000_000L, histogram.getValueAtPercentile(99));
+        assertEquals(10_000_000_000L, histogram.getMax());
+        assertEquals(10_000_000_000L, histogram.getValueAtPercentile(100));
+
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void recorderTest() throws IOException {
+        try (LatencyRecorder.Scope scope = LatencyRecorder.begin(Interaction.RENAME)) {
+            assertTrue(scope != null);
+        }
+        LatencyRecorder.record(Interaction.OPEN_TAB, 2_000_000);
+
+        assertEquals(1, LatencyRecorder.getHistogram(Interaction.RENAME).getCount());
+        assertEquals(2_000_000, LatencyRecorder.getHistogram(Interaction.OPEN_TAB).getMax());
+        assertEquals(0, LatencyRecorder.getHistogram(Interaction.SAVE_MAPPINGS).getCount());
+
+        Path report = Files.createTempFile("nocturne-latency", ".txt");
+        try {
+            LatencyRecorder.export(report);
+            String text = new String(Files.readAllBytes(report), StandardCharsets.UTF_8);
+            assertTrue(text.contains(Interaction.OPEN_TAB.getDisplayName()));
+            assertTrue(text.contains("2.00 ms"));
+            assertTrue(text.contains("Heap: "));
+        } finally {
+            Files.delete(report);
+        }
+
+        LatencyRecorder.reset();
+        assertEquals(0, LatencyRecorder.getHistogram(Interaction.OPEN_TAB).getCount());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(expected + " != " + actual, Math.abs(expected - actual) <= expected / 64);
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Nocturne
+ * Copyright (c) 2015-2019, Lapis <https://github.com/LapisBlue>
+ *
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package blue.lapis.nocturne.test.util.profiling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import blue.lapis.nocturne.util.profiling.ClassTiming;
+import blue.lapis.nocturne.util.profiling.LoadPhase;
+import blue.lapis.nocturne.util.profiling.LoadProfiler;
+import blue.lapis.nocturne.util.profiling.PhaseStats;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Unit tests related to the {@link LoadProfiler}.
+ */
+public class LoadProfilerTest {
+
+    @Before
+    public void initialize() {
+        LoadProfiler.reset();
+    }
+
+    @Test
+    public void phaseTest() {
+        try (LoadProfiler.Scope phase = LoadProfiler.beginPhase(LoadPhase.INDEX)) {
+            for (int i = 0; i < 3; i++) {
+                try (LoadProfiler.Scope scope = LoadProfiler.beginClass(LoadPhase.INDEX, "c" + i, 100)) {
+                    assertTrue(scope != null);
+                }
+            }
+        }
+
+        PhaseStats stats = LoadProfiler.getProfile().getPhase(LoadPhase.INDEX).get();
+        assertEquals(1, stats.getInvocations());
+        assertEquals(3, stats.getClassCount());
+        assertEquals(300, stats.getBytes());
+        assertTrue(stats.getWallNanos() > 0);
+        assertFalse(LoadProfiler.getProfile().getPhase(LoadPhase.TRANSFORM).isPresent());
+    }
+
+    @Test
+    public void outlierTest() {
+        for (int i = 0; i < LoadProfiler.OUTLIER_COUNT * 3; i++) {
+            LoadProfiler.beginClass(LoadPhase.TRANSFORM, "c" + i, i).close();
+        }
+
+        List<ClassTiming> slowest = LoadProfiler.getProfile().getPhase(LoadPhase.TRANSFORM).get().getSlowestClasses();
+        assertEquals(LoadProfiler.OUTLIER_COUNT, slowest.size());
+        for (int i = 1; i < slowest.size(); i++) {
+            assertTrue(slowest.get(i - 1).getNanos() >= slowest.get(i).getNanos());
+        }
+    }
+
+    @Test
+    public void resetTest() {
+        LoadProfiler.beginPhase(LoadPhase.READ_JAR).close();
+        LoadProfiler.reset();
+        assertTrue(LoadProfiler.getProfile().getPhases().isEmpty());
+    }
+
+}